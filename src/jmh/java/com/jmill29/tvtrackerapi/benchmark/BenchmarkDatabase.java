@@ -0,0 +1,201 @@
+package com.jmill29.tvtrackerapi.benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+
+import com.jmill29.tvtrackerapi.enums.WatchStatus;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Embedded H2 database seeded with synthetic data shaped like {@code capstone_schema_seed.sql}, at benchmark scale.
+ * <p>
+ * The schema comes from the H2 migrations used by the integration tests ({@code db/migration/h2}). The catalogue
+ * always has {@value #SHOWS} shows spread over {@value #GENRE_COUNT} genres; the number of users grows with the
+ * requested history size so that every user has {@value #HISTORY_PER_USER} watch history rows. User 1 always
+ * exists and never has show {@value #UNTRACKED_SHOW_ID} in their history.
+ * </p>
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+
+    static final int SHOWS = 5_000;
+    static final int HISTORY_PER_USER = 1_000;
+    static final int GENRE_COUNT = 10;
+    static final int UNTRACKED_SHOW_ID = SHOWS;
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private static final String[] GENRES = {
+        "Drama", "Comedy", "Thriller", "Science Fiction", "Fantasy",
+        "Crime", "Documentary", "Animation", "Romance", "Horror"
+    };
+    private static final String[] FIRST_WORDS = {
+        "Breaking", "Stranger", "Silent", "Golden", "Broken", "Hidden", "Last", "Dark", "Lost", "Wild",
+        "Better", "Little", "Northern", "Crimson", "Midnight", "Endless", "Hollow", "Bright", "Fallen", "Sacred"
+    };
+    private static final String[] SECOND_WORDS = {
+        "Bad", "Things", "Witness", "Empire", "City", "Kingdom", "Harbor", "Frontier", "Signal", "Office",
+        "Heist", "Garden", "Protocol", "Station", "Crown", "Valley", "Archive", "Legacy", "Orbit", "Republic",
+        "Island", "Circuit", "Shadow", "Season", "Passage"
+    };
+    private static final String DESCRIPTION =
+        "A sprawling serialized drama that follows an ensemble cast through shifting alliances, "
+        + "long-buried secrets and the slow unravelling of a family business over several seasons.";
+
+    private final HikariDataSource dataSource;
+    private final int users;
+
+
+    /**
+     * Creates a fresh in-memory database and seeds it.
+     *
+     * @param historyRows the total number of watch history rows to create (at least {@value #HISTORY_PER_USER})
+     * @throws SQLException if the seed data cannot be written
+     */
+    BenchmarkDatabase(int historyRows) throws SQLException {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:bench" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setMaximumPoolSize(8);
+        this.dataSource = new HikariDataSource(config);
+        this.users = Math.max(1, historyRows / HISTORY_PER_USER);
+
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2").load().migrate();
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            seedShowsAndGenres(conn);
+            seedUsersAndHistory(conn);
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+    }
+
+
+    /** @return the pooled data source for the seeded database */
+    DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /** @return the number of seeded users (IDs 1 to this value) */
+    int getUsers() {
+        return users;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("SHUTDOWN");
+        } catch (SQLException ex) {
+            // Nothing useful to do; the JVM is about to discard the database anyway
+        }
+        dataSource.close();
+    }
+
+
+    /**
+     * Inserts the catalogue and assigns every show two genres.
+     *
+     * @param conn an open connection with auto-commit disabled
+     * @throws SQLException if an insert fails
+     */
+    private static void seedShowsAndGenres(Connection conn) throws SQLException {
+        try (PreparedStatement pStmt = conn.prepareStatement("INSERT INTO genres (genre_id, name) VALUES (?, ?)")) {
+            for (int i = 0; i < GENRE_COUNT; i++) {
+                pStmt.setInt(1, i + 1);
+                pStmt.setString(2, GENRES[i]);
+                pStmt.addBatch();
+            }
+            pStmt.executeBatch();
+        }
+
+        int baseNames = FIRST_WORDS.length * SECOND_WORDS.length;
+        try (PreparedStatement pStmt = conn.prepareStatement(
+                "INSERT INTO tv_shows (show_id, show_name, description, image_url, num_episodes, release_year) "
+                + "VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int id = 1; id <= SHOWS; id++) {
+                int i = id - 1;
+                String name = FIRST_WORDS[i % FIRST_WORDS.length] + " " + SECOND_WORDS[(i / FIRST_WORDS.length) % SECOND_WORDS.length];
+                if (i >= baseNames) {
+                    name += " " + (i / baseNames + 1);
+                }
+                pStmt.setInt(1, id);
+                pStmt.setString(2, name);
+                pStmt.setString(3, DESCRIPTION);
+                pStmt.setString(4, "https://example.com/shows/" + id + ".jpg");
+                pStmt.setInt(5, 10 + id % 90);
+                pStmt.setShort(6, (short) (1990 + id % 35));
+                pStmt.addBatch();
+            }
+            pStmt.executeBatch();
+        }
+
+        try (PreparedStatement pStmt = conn.prepareStatement("INSERT INTO show_genres (show_id, genre_id) VALUES (?, ?)")) {
+            for (int id = 1; id <= SHOWS; id++) {
+                int first = id % GENRE_COUNT + 1;
+                int second = (id * 3 + 1) % GENRE_COUNT + 1;
+                pStmt.setInt(1, id);
+                pStmt.setInt(2, first);
+                pStmt.addBatch();
+                if (second != first) {
+                    pStmt.setInt(1, id);
+                    pStmt.setInt(2, second);
+                    pStmt.addBatch();
+                }
+            }
+            pStmt.executeBatch();
+        }
+    }
+
+    /**
+     * Inserts the users and {@value #HISTORY_PER_USER} watch history rows per user.
+     *
+     * @param conn an open connection with auto-commit disabled
+     * @throws SQLException if an insert fails
+     */
+    private void seedUsersAndHistory(Connection conn) throws SQLException {
+        try (PreparedStatement pStmt = conn.prepareStatement(
+                "INSERT INTO users (user_id, name, username, password, email, enabled) VALUES (?, ?, ?, ?, ?, TRUE)")) {
+            for (int id = 1; id <= users; id++) {
+                pStmt.setInt(1, id);
+                pStmt.setString(2, "Bench User " + id);
+                pStmt.setString(3, "user" + id);
+                pStmt.setString(4, "{noop}password");
+                pStmt.setString(5, "user" + id + "@example.com");
+                pStmt.addBatch();
+                if (id % BATCH_SIZE == 0) {
+                    pStmt.executeBatch();
+                }
+            }
+            pStmt.executeBatch();
+        }
+
+        WatchStatus[] statuses = WatchStatus.values();
+        try (PreparedStatement pStmt = conn.prepareStatement(
+                "INSERT INTO user_watch_history (user_id, show_id, status) VALUES (?, ?, ?)")) {
+            int pending = 0;
+            for (int userId = 1; userId <= users; userId++) {
+                // A different window of consecutive shows per user, never reaching UNTRACKED_SHOW_ID
+                int offset = (userId * 7) % (SHOWS - HISTORY_PER_USER - 1);
+                for (int k = 0; k < HISTORY_PER_USER; k++) {
+                    pStmt.setInt(1, userId);
+                    pStmt.setInt(2, offset + k + 1);
+                    pStmt.setString(3, statuses[(userId + k) % statuses.length].getDbValue());
+                    pStmt.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        pStmt.executeBatch();
+                        conn.commit();
+                        pending = 0;
+                    }
+                }
+            }
+            pStmt.executeBatch();
+        }
+    }
+}
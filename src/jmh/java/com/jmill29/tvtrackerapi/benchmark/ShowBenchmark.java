@@ -0,0 +1,99 @@
+package com.jmill29.tvtrackerapi.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.jmill29.tvtrackerapi.cache.DataVersions;
+import com.jmill29.tvtrackerapi.dao.ShowDao;
+import com.jmill29.tvtrackerapi.dao.ShowDaoImpl;
+import com.jmill29.tvtrackerapi.model.Show;
+import com.jmill29.tvtrackerapi.search.GenreIndex;
+import com.jmill29.tvtrackerapi.search.ShowSearchIndex;
+
+/**
+ * Read paths of {@link ShowDaoImpl} against an embedded H2 catalogue of {@value BenchmarkDatabase#SHOWS} shows,
+ * plus the in-memory name search and genre index for comparison with the queries they replace.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="ShowBenchmark"}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShowBenchmark {
+
+    private BenchmarkDatabase database;
+    private ShowDao showDao;
+    private ShowSearchIndex searchIndex;
+    private GenreIndex genreIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // The history table does not affect these queries, so keep it at the smallest scale
+        database = new BenchmarkDatabase(BenchmarkDatabase.HISTORY_PER_USER);
+        ApplicationEventPublisher publisher = event -> { };
+        DataVersions dataVersions = new DataVersions(4096);
+        showDao = new ShowDaoImpl(database.getDataSource(), publisher, dataVersions);
+        searchIndex = new ShowSearchIndex(showDao);
+        searchIndex.load();
+        genreIndex = new GenreIndex(showDao);
+        genreIndex.load();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Show> findAll() throws Exception {
+        return showDao.findAll();
+    }
+
+    @Benchmark
+    public List<Show> findPageSummary() throws Exception {
+        return showDao.findPage(2_500, 50, false);
+    }
+
+    @Benchmark
+    public List<Show> findByName() throws Exception {
+        return showDao.findByName("hidden val");
+    }
+
+    @Benchmark
+    public List<Show> searchIndex() {
+        return searchIndex.search("hidden val", 10);
+    }
+
+    @Benchmark
+    public List<Show> findByGenre() throws Exception {
+        return showDao.findByGenre("Thriller");
+    }
+
+    @Benchmark
+    public List<Show> genreIndex() {
+        return genreIndex.filter(List.of("Thriller"), List.of(), List.of(), 0, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<Show> genreIndexAndNot() {
+        return genreIndex.filter(List.of("Drama", "Thriller"), List.of(), List.of("Horror"), 0, 50);
+    }
+}
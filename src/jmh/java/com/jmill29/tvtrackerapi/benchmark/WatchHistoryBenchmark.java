@@ -0,0 +1,189 @@
+package com.jmill29.tvtrackerapi.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.jmill29.tvtrackerapi.cache.DataVersions;
+import com.jmill29.tvtrackerapi.cache.ShowCache;
+import com.jmill29.tvtrackerapi.cache.WatchSummaryCache;
+import com.jmill29.tvtrackerapi.dao.ShowDaoImpl;
+import com.jmill29.tvtrackerapi.dao.UserDaoImpl;
+import com.jmill29.tvtrackerapi.dao.UserWatchHistoryDao;
+import com.jmill29.tvtrackerapi.dao.UserWatchHistoryDaoImpl;
+import com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest;
+import com.jmill29.tvtrackerapi.dto.UserWatchHistoryRequest;
+import com.jmill29.tvtrackerapi.dto.UserWatchHistoryResponse;
+import com.jmill29.tvtrackerapi.dto.WatchHistorySummaryResponse;
+import com.jmill29.tvtrackerapi.enums.WatchStatus;
+import com.jmill29.tvtrackerapi.model.WatchHistoryStats;
+import com.jmill29.tvtrackerapi.search.GenreIndex;
+import com.jmill29.tvtrackerapi.search.ShowSearchIndex;
+import com.jmill29.tvtrackerapi.service.ShowServiceImpl;
+import com.jmill29.tvtrackerapi.service.UserServiceImpl;
+import com.jmill29.tvtrackerapi.service.UserWatchHistoryService;
+import com.jmill29.tvtrackerapi.service.UserWatchHistoryServiceImpl;
+import com.jmill29.tvtrackerapi.service.WatchProgressBuffer;
+
+/**
+ * Read and write paths of {@link UserWatchHistoryDaoImpl} and {@link UserWatchHistoryServiceImpl} against an
+ * embedded H2 database with 1k, 100k, or 1M watch history rows.
+ * <p>
+ * The services are wired by hand exactly as Spring would wire them, including the show cache, so the service
+ * numbers reflect what a request pays. Every query is for user 1, who always has
+ * {@value BenchmarkDatabase#HISTORY_PER_USER} entries; only the size of the surrounding table changes.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="WatchHistoryBenchmark -p historyRows=100000"}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WatchHistoryBenchmark {
+
+    private static final int USER_ID = 1;
+    private static final String USERNAME = "user1";
+
+    /** The first show in user 1's seeded history */
+    private static final int TRACKED_SHOW_ID = 8;
+
+    @Param({"1000", "100000", "1000000"})
+    public int historyRows;
+
+    private BenchmarkDatabase database;
+    private UserWatchHistoryDao watchHistoryDao;
+    private UserWatchHistoryService watchHistoryService;
+    private UserWatchHistoryService writeBehindService;
+    private WatchProgressBuffer progressBuffer;
+
+    private final UserWatchHistoryRequest addRequest =
+        new UserWatchHistoryRequest(BenchmarkDatabase.UNTRACKED_SHOW_ID, WatchStatus.WANT_TO_WATCH);
+    private final UserWatchHistoryRequest[] updateRequests = {
+        new UserWatchHistoryRequest(TRACKED_SHOW_ID, WatchStatus.CURRENTLY_WATCHING),
+        new UserWatchHistoryRequest(TRACKED_SHOW_ID, WatchStatus.ALREADY_WATCHED)
+    };
+    private int updateCount;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = new BenchmarkDatabase(historyRows);
+        ApplicationEventPublisher publisher = event -> { };
+        DataVersions dataVersions = new DataVersions(4096);
+
+        ShowDaoImpl showDao = new ShowDaoImpl(database.getDataSource(), publisher, dataVersions);
+        ShowCache showCache = new ShowCache(100_000);
+        ShowServiceImpl showService = new ShowServiceImpl(showDao, showCache, new ShowSearchIndex(showDao), new GenreIndex(showDao));
+        showService.warmCache();
+
+        UserServiceImpl userService = new UserServiceImpl(
+            new UserDaoImpl(database.getDataSource(), new BCryptPasswordEncoder(), publisher));
+
+        watchHistoryDao = new UserWatchHistoryDaoImpl(database.getDataSource(), false, 500, dataVersions);
+        WatchSummaryCache summaryCache = new WatchSummaryCache(10_000);
+        watchHistoryService = new UserWatchHistoryServiceImpl(watchHistoryDao, userService, showService, summaryCache,
+            new WatchProgressBuffer(watchHistoryDao, summaryCache, ForkJoinPool.commonPool(), false, 500, 10_000));
+        progressBuffer = new WatchProgressBuffer(watchHistoryDao, summaryCache, ForkJoinPool.commonPool(), true, 500, 10_000);
+        writeBehindService = new UserWatchHistoryServiceImpl(watchHistoryDao, userService, showService, summaryCache,
+            progressBuffer);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        progressBuffer.close();
+        database.close();
+    }
+
+    @Benchmark
+    public List<UserWatchHistoryResponse> daoGetWatchHistoryByUsername() throws Exception {
+        return watchHistoryDao.getWatchHistoryByUsername(USERNAME, false);
+    }
+
+    @Benchmark
+    public List<UserWatchHistoryResponse> daoGetWatchHistoryByUsernameAll() throws Exception {
+        return watchHistoryDao.getWatchHistoryByUsername(USERNAME, true);
+    }
+
+    @Benchmark
+    public List<UserWatchHistoryResponse> daoGetWatchHistory() throws Exception {
+        return watchHistoryDao.getWatchHistoryByUserId(USER_ID, false);
+    }
+
+    @Benchmark
+    public List<UserWatchHistoryResponse> daoGetWatchHistoryAll() throws Exception {
+        return watchHistoryDao.getWatchHistoryByUserId(USER_ID, true);
+    }
+
+    @Benchmark
+    public void daoStreamWatchHistoryAll(Blackhole blackhole) throws Exception {
+        watchHistoryDao.forEachShowWithWatchStatus(USER_ID, blackhole::consume);
+    }
+
+    @Benchmark
+    public WatchHistoryStats daoGetWatchHistoryStats() throws Exception {
+        return watchHistoryDao.getWatchHistoryStats(USER_ID);
+    }
+
+    @Benchmark
+    public WatchHistorySummaryResponse serviceGetWatchHistorySummary() {
+        return watchHistoryService.getWatchHistorySummary(USER_ID);
+    }
+
+    @Benchmark
+    public List<UserWatchHistoryResponse> serviceGetWatchHistory() {
+        return watchHistoryService.getWatchHistoryByUserId(USER_ID, false);
+    }
+
+    @Benchmark
+    public List<UserWatchHistoryResponse> serviceGetWatchHistoryAll() {
+        return watchHistoryService.getWatchHistoryByUserId(USER_ID, true);
+    }
+
+    @Benchmark
+    public boolean serviceUpdateWatchStatus() {
+        // Alternate between two statuses so every call really changes the row
+        return watchHistoryService.updateWatchStatus(updateRequests[updateCount++ & 1], USER_ID);
+    }
+
+    @Benchmark
+    public boolean servicePatchProgress() {
+        return watchHistoryService.patchWatchHistory(USER_ID, TRACKED_SHOW_ID, progressPatch());
+    }
+
+    @Benchmark
+    public boolean servicePatchProgressWriteBehind() {
+        // Coalesced in memory; the scheduler that would flush it is not running here
+        return writeBehindService.patchWatchHistory(USER_ID, TRACKED_SHOW_ID, progressPatch());
+    }
+
+    private UserWatchHistoryPatchRequest progressPatch() {
+        UserWatchHistoryPatchRequest patch = new UserWatchHistoryPatchRequest();
+        patch.setEpisodesWatched(updateCount++ & 1023);
+        return patch;
+    }
+
+    @Benchmark
+    public boolean serviceAddThenDelete() {
+        // Paired so the table is the same size before every invocation
+        watchHistoryService.addShowToWatchHistory(addRequest, USER_ID);
+        return watchHistoryService.deleteShowFromWatchHistory(USER_ID, BenchmarkDatabase.UNTRACKED_SHOW_ID);
+    }
+}
@@ -0,0 +1,134 @@
+package com.jmill29.tvtrackerapi.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.jmill29.tvtrackerapi.utils.TransactionUtil;
+
+/**
+ * Process-local modification counters used to build strong ETags without reading or hashing the response.
+ * <p>
+ * The show DAO bumps the catalogue version after every write to {@code tv_shows}, and the watch history DAO bumps
+ * the version of the affected user after every write to {@code user_watch_history}. Inside a transaction the bump
+ * waits until the transaction commits, so a tag never moves ahead of the data it describes. Controllers read a version
+ * before querying, so a write that races with the query can only leave the tag older than the body, which costs
+ * the client one extra download but never hides a change.
+ * </p>
+ * <p>
+ * User versions live in a fixed array of slots shared by every user ID that maps to the same slot. A write
+ * therefore also invalidates the tags of the other users in its slot, but memory stays bounded and a counter is
+ * never dropped and restarted the way an evicted cache entry would be. Every tag also carries the time this
+ * instance started, so counters that restart from zero after a restart, or differ between instances, never
+ * produce a tag a client has already seen.
+ * </p>
+ * <p>
+ * The counters only see writes made through this instance, so the tags are only valid for a single-instance
+ * deployment. Behind a load balancer, a write handled by another instance leaves this instance's tag unchanged and
+ * a conditional GET would answer 304 with stale data; such deployments set {@code app.etag.enabled=false}, and the
+ * controllers then send no tags.
+ * </p>
+ */
+@Component
+public class DataVersions {
+
+    /** Distinguishes tags issued by this instance from those of earlier or other instances */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong catalogue = new AtomicLong();
+    private final AtomicLongArray users;
+    private final boolean enabled;
+
+
+    /**
+     * Constructs an enabled {@code DataVersions}.
+     *
+     * @param userSlots the number of per-user counters; users beyond this share a counter
+     */
+    public DataVersions(int userSlots) {
+        this(userSlots, true);
+    }
+
+    /**
+     * Constructs a {@code DataVersions}.
+     *
+     * @param userSlots the number of per-user counters; users beyond this share a counter
+     * @param enabled whether controllers should send ETags and answer conditional requests
+     */
+    @Autowired
+    public DataVersions(@Value("${app.etag.user-slots:4096}") int userSlots,
+                        @Value("${app.etag.enabled:true}") boolean enabled) {
+        if (userSlots <= 0) {
+            throw new IllegalArgumentException("ETag user slots must be greater than 0");
+        }
+        this.users = new AtomicLongArray(userSlots);
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return {@code true} if controllers should send ETags and answer {@code If-None-Match} with 304; off for
+     *         deployments with more than one instance
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+
+    /**
+     * Records a write to the show catalogue. Also invalidates every user's watch history tag, because the
+     * full-catalogue view lists every show and deleting a show cascades to watch history.
+     */
+    public void catalogueChanged() {
+        TransactionUtil.afterCommit(catalogue::incrementAndGet);
+    }
+
+    /**
+     * Records a write to a user's watch history.
+     *
+     * @param userId the ID of the user whose history changed
+     */
+    public void userChanged(int userId) {
+        int slot = slot(userId);
+        TransactionUtil.afterCommit(() -> users.incrementAndGet(slot));
+    }
+
+    /** @return the current catalogue version */
+    public long getCatalogueVersion() {
+        return catalogue.get();
+    }
+
+    /**
+     * @param userId the ID of the user
+     * @return the current watch history version of the user's slot
+     */
+    public long getUserVersion(int userId) {
+        return users.get(slot(userId));
+    }
+
+    /**
+     * Returns the (unquoted) ETag for catalogue views such as {@code GET /api/shows}.
+     *
+     * @return the current catalogue tag
+     */
+    public String catalogueETag() {
+        return epoch + "-" + catalogue.get();
+    }
+
+    /**
+     * Returns the (unquoted) ETag for a user's watch history views. The user ID is part of the tag so that users
+     * sharing a slot, or a device switching accounts, never match each other's tags.
+     *
+     * @param userId the ID of the user
+     * @return the current watch history tag for the user
+     */
+    public String watchHistoryETag(int userId) {
+        return epoch + "-" + catalogue.get() + "-" + userId + "-" + users.get(slot(userId));
+    }
+
+    private int slot(int userId) {
+        return Math.floorMod(userId, users.length());
+    }
+}
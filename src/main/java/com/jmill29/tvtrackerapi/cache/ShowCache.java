@@ -0,0 +1,322 @@
+package com.jmill29.tvtrackerapi.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.jmill29.tvtrackerapi.event.ShowChangedEvent;
+import com.jmill29.tvtrackerapi.model.Show;
+
+/**
+ * Bounded, process-local cache of {@link Show} records.
+ * <p>
+ * Holds individual shows keyed by ID, plus an immutable snapshot of the whole catalogue sorted by ID. The
+ * snapshot is only kept while the catalogue fits within the configured size, so memory stays bounded however
+ * large {@code tv_shows} grows. The least recently used show is dropped once the cache is full, and a
+ * {@link ShowChangedEvent} evicts the affected show and discards the snapshot.
+ * </p>
+ * <p>
+ * Cached shows are shared between callers and must be treated as read-only.
+ * </p>
+ */
+@Component
+public class ShowCache {
+
+    private final Map<Integer, Show> entries;
+
+    /** Guards {@code entries}; a lock rather than a monitor so waiting virtual threads do not pin their carrier */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int maxEntries;
+
+    /** Sorted, unmodifiable copy of the full catalogue, or {@code null} if not currently cached */
+    private volatile List<Show> snapshot;
+
+    /** Incremented on every invalidation so that in-flight loads cannot re-populate stale results. */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+
+    /**
+     * Constructs a {@code ShowCache}.
+     *
+     * @param maxEntries the maximum number of shows to keep; also the largest catalogue that is snapshotted
+     */
+    @Autowired
+    public ShowCache(@Value("${app.show-cache.max-entries:100000}") int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Show cache size must be greater than 0");
+        }
+        this.maxEntries = maxEntries;
+        // Access-ordered so the eldest entry is always the least recently used one
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+
+    /**
+     * Returns the current invalidation generation. Callers capture it before reading from the database
+     * and pass it to {@link #put(Show, long)} or {@link #putAll(List, long)}.
+     *
+     * @return the current generation
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Looks up a show by ID, falling back to the catalogue snapshot.
+     *
+     * @param id the ID of the show
+     * @return the cached show, or {@code null} on a miss
+     */
+    public Show get(int id) {
+        Show show;
+        lock.lock();
+        try {
+            show = entries.get(id);
+        } finally {
+            lock.unlock();
+        }
+        if (show == null) {
+            show = findInSnapshot(snapshot, id);
+        }
+
+        if (show == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return show;
+    }
+
+    /**
+     * Returns the cached snapshot of the full catalogue.
+     *
+     * @return every show sorted by ID as an unmodifiable list, or {@code null} if no snapshot is cached
+     */
+    public List<Show> getAll() {
+        List<Show> current = snapshot;
+        if (current == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return current;
+    }
+
+    /**
+     * Returns one page of the catalogue snapshot using the same keyset semantics as the show DAO.
+     *
+     * @param afterId the ID of the last show on the previous page, or 0 for the first page
+     * @param limit   the maximum number of shows to return
+     * @return up to {@code limit} shows with an ID greater than {@code afterId}, or {@code null} if no snapshot is cached
+     */
+    public List<Show> getPage(int afterId, int limit) {
+        List<Show> current = snapshot;
+        if (current == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+
+        // First index whose ID is greater than afterId
+        int low = 0;
+        int high = current.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (current.get(mid).getId() <= afterId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return current.subList(low, Math.min(current.size(), low + limit));
+    }
+
+    /**
+     * Caches a single show loaded from the database.
+     * <p>
+     * The show is dropped if any invalidation happened after {@code expectedGeneration} was read.
+     * </p>
+     *
+     * @param show               the show to cache
+     * @param expectedGeneration the generation observed before the show was loaded
+     */
+    public void put(Show show, long expectedGeneration) {
+        lock.lock();
+        try {
+            if (generation.get() != expectedGeneration) {
+                return;
+            }
+            putEntry(show);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Caches the full catalogue loaded from the database, both as individual entries and as a snapshot.
+     * <p>
+     * Nothing is cached if any invalidation happened after {@code expectedGeneration} was read. If the catalogue
+     * is larger than the cache, only the individual entries are kept (least recently loaded first out) and no
+     * snapshot is taken.
+     * </p>
+     *
+     * @param shows              every show in the catalogue
+     * @param expectedGeneration the generation observed before the catalogue was loaded
+     */
+    public void putAll(List<Show> shows, long expectedGeneration) {
+        List<Show> sorted = new ArrayList<>(shows);
+        sorted.sort(Comparator.comparingInt(Show::getId));
+        List<Show> unmodifiable = Collections.unmodifiableList(sorted);
+
+        lock.lock();
+        try {
+            if (generation.get() != expectedGeneration) {
+                return;
+            }
+            for (Show show : sorted) {
+                putEntry(show);
+            }
+            if (sorted.size() <= maxEntries) {
+                snapshot = unmodifiable;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a show and discards the catalogue snapshot.
+     *
+     * @param id the ID of the show to remove
+     */
+    public void evict(int id) {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            snapshot = null;
+            entries.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes every cached show and the catalogue snapshot.
+     */
+    public void evictAll() {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            snapshot = null;
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops cached state when a show is inserted, updated, or deleted.
+     *
+     * @param event the change published by the show DAO
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShowChanged(ShowChangedEvent event) {
+        if (event.getShowId() > 0) {
+            evict(event.getShowId());
+        } else {
+            evictAll();
+        }
+    }
+
+    /** @return the number of lookups that were answered from the cache */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /** @return the number of lookups that had to go to the database */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /** @return the number of shows dropped because the cache was full */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /** @return the fraction of lookups answered from the cache, or 0 if there have been none */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    /** @return the number of shows currently cached individually */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Adds a show to the LRU map, dropping the least recently used entry if the cache is full.
+     * Must be called while holding the {@code entries} lock.
+     *
+     * @param show the show to add
+     */
+    private void putEntry(Show show) {
+        entries.put(show.getId(), show);
+        if (entries.size() > maxEntries) {
+            Iterator<Integer> eldest = entries.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Binary-searches a sorted snapshot for a show ID.
+     *
+     * @param shows the snapshot, or {@code null}
+     * @param id    the ID to find
+     * @return the matching show, or {@code null} if absent
+     */
+    private static Show findInSnapshot(List<Show> shows, int id) {
+        if (shows == null) {
+            return null;
+        }
+        int low = 0;
+        int high = shows.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = shows.get(mid).getId();
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return shows.get(mid);
+            }
+        }
+        return null;
+    }
+}
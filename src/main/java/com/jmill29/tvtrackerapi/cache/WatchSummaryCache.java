@@ -0,0 +1,268 @@
+package com.jmill29.tvtrackerapi.cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.jmill29.tvtrackerapi.event.ShowChangedEvent;
+import com.jmill29.tvtrackerapi.event.UserChangedEvent;
+import com.jmill29.tvtrackerapi.model.WatchHistoryStats;
+
+/**
+ * Bounded, process-local cache of per-user watch history counters.
+ * <p>
+ * Each entry holds a user's {@link WatchHistoryStats}, loaded once with an aggregate query and then adjusted in
+ * place as entries are added, replaced, and deleted, so a summary read costs no query. Deleting a show or a
+ * user cascades to {@code user_watch_history}, so a {@link ShowChangedEvent} for a deleted show clears the whole
+ * cache and a {@link UserChangedEvent} evicts the affected user. The least recently used entry is dropped once
+ * the cache is full.
+ * </p>
+ * <p>
+ * A load that races with a write can cache counters that miss or double-count that write; the service's
+ * periodic reconciliation replaces every cached entry with freshly aggregated values to correct such drift.
+ * </p>
+ */
+@Component
+public class WatchSummaryCache {
+
+    private final Map<Integer, WatchHistoryStats> entries;
+
+    /** Guards {@code entries} and the counters they hold */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int maxEntries;
+
+    /** Incremented on every write so that in-flight loads cannot re-populate stale results. */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+
+    /**
+     * Constructs a {@code WatchSummaryCache}.
+     *
+     * @param maxEntries the maximum number of users whose counters are kept
+     */
+    @Autowired
+    public WatchSummaryCache(@Value("${app.watch-summary-cache.max-entries:10000}") int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Watch summary cache size must be greater than 0");
+        }
+        this.maxEntries = maxEntries;
+        // Access-ordered so the eldest entry is always the least recently used one
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+
+    /**
+     * Returns the current write generation. Callers capture it before aggregating from the database
+     * and pass it to {@link #put(int, WatchHistoryStats, long)}.
+     *
+     * @return the current generation
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Looks up a user's counters.
+     *
+     * @param userId the ID of the user
+     * @return a copy of the cached counters, or {@code null} on a miss
+     */
+    public WatchHistoryStats get(int userId) {
+        WatchHistoryStats copy = null;
+        lock.lock();
+        try {
+            WatchHistoryStats stats = entries.get(userId);
+            if (stats != null) {
+                copy = stats.copy();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (copy == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return copy;
+    }
+
+    /**
+     * Caches counters aggregated from the database.
+     * <p>
+     * The counters are dropped if any write happened after {@code expectedGeneration} was read.
+     * </p>
+     *
+     * @param userId             the ID of the user
+     * @param stats              the aggregated counters
+     * @param expectedGeneration the generation observed before the counters were aggregated
+     */
+    public void put(int userId, WatchHistoryStats stats, long expectedGeneration) {
+        WatchHistoryStats copy = stats.copy();
+        lock.lock();
+        try {
+            if (generation.get() != expectedGeneration) {
+                return;
+            }
+            entries.put(userId, copy);
+            if (entries.size() > maxEntries) {
+                Iterator<Integer> eldest = entries.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces a cached user's counters with freshly aggregated values, if the user is still cached.
+     * Used by reconciliation, which must not bring evicted users back.
+     *
+     * @param userId             the ID of the user
+     * @param stats              the aggregated counters
+     * @param expectedGeneration the generation observed before the counters were aggregated
+     * @return {@code true} if the cached counters differed from {@code stats} and were replaced
+     */
+    public boolean replace(int userId, WatchHistoryStats stats, long expectedGeneration) {
+        WatchHistoryStats copy = stats.copy();
+        lock.lock();
+        try {
+            if (generation.get() != expectedGeneration) {
+                return false;
+            }
+            WatchHistoryStats current = entries.get(userId);
+            if (current == null || current.equals(copy)) {
+                return false;
+            }
+            entries.put(userId, copy);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a write to a user's watch history, adjusting the user's counters if they are cached.
+     *
+     * @param userId the ID of the user
+     * @param delta  the change to the counters: added entries count up, replaced and deleted entries count down
+     */
+    public void recordChange(int userId, WatchHistoryStats delta) {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            WatchHistoryStats stats = entries.get(userId);
+            if (stats != null) {
+                stats.add(delta);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a user's counters.
+     *
+     * @param userId the ID of the user
+     */
+    public void evict(int userId) {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            entries.remove(userId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes every cached counter.
+     */
+    public void evictAll() {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Clears every user's counters when a show is deleted, since that also deletes its history rows.
+     * Inserting or updating a show leaves the counters valid.
+     *
+     * @param event the change published by the show DAO
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShowChanged(ShowChangedEvent event) {
+        if (event.isDeleted() || event.getShowId() <= 0) {
+            evictAll();
+        }
+    }
+
+    /**
+     * Drops a user's counters when the user is updated or deleted.
+     *
+     * @param event the change published by the user DAO
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getUserId() > 0) {
+            evict(event.getUserId());
+        } else {
+            evictAll();
+        }
+    }
+
+    /** @return the IDs of every user whose counters are cached */
+    public List<Integer> userIds() {
+        lock.lock();
+        try {
+            return new ArrayList<>(entries.keySet());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return the number of lookups that were answered from the cache */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /** @return the number of lookups that had to go to the database */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /** @return the number of entries dropped because the cache was full */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /** @return the number of users whose counters are cached */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
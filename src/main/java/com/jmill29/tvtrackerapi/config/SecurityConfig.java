@@ -4,20 +4,36 @@ import javax.sql.DataSource;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.provisioning.JdbcUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.expression.WebExpressionAuthorizationManager;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+
+import com.jmill29.tvtrackerapi.security.AuthenticatedUserDetailsManager;
+import com.jmill29.tvtrackerapi.security.AuthenticationCache;
+import com.jmill29.tvtrackerapi.security.CachingAuthenticationProvider;
+import com.jmill29.tvtrackerapi.security.TokenAuthenticationFilter;
+import com.jmill29.tvtrackerapi.security.TokenService;
+
+import jakarta.servlet.DispatcherType;
 
 
 /**
  * Configuration class for Spring Security settings.
  * <p>
  * Sets up authentication using a JDBC data source, password encoding, and HTTP security rules.
- * This configuration uses HTTP Basic authentication and JDBC-based user details management.
+ * Clients can authenticate either with signed bearer tokens issued by {@code POST /auth/token}, which are
+ * verified in memory, or with HTTP Basic authentication backed by JDBC-based user details management.
+ * Verified Basic credentials are cached by an {@link AuthenticationCache} so repeat callers skip both the
+ * database lookup and the BCrypt comparison.
  * </p>
  */
 @Configuration
@@ -26,13 +42,17 @@ public class SecurityConfig {
 
     /**
      * Configures the {@link UserDetailsService} to use a JDBC data source for authentication.
+     * <p>
+     * Users are loaded as {@link com.jmill29.tvtrackerapi.security.AuthenticatedUser} principals that carry
+     * their {@code user_id}, so controllers never need to resolve it from the username again.
+     * </p>
      *
      * @param dataSource the {@link DataSource} connected to the user database
      * @return a {@link UserDetailsService} backed by JDBC
      */
     @Bean
     public UserDetailsService userDetailsService(DataSource dataSource) {
-        return new JdbcUserDetailsManager(dataSource);
+        return new AuthenticatedUserDetailsManager(dataSource);
     }
 
 
@@ -46,24 +66,62 @@ public class SecurityConfig {
         return new BCryptPasswordEncoder();
     }
 
+    /**
+     * Provides the {@link AuthenticationManager} used for username/password authentication.
+     * <p>
+     * A {@link DaoAuthenticationProvider} performs the actual JDBC lookup and BCrypt check; it is wrapped in a
+     * {@link CachingAuthenticationProvider} so that only the first request for a given credential pays that cost.
+     * </p>
+     *
+     * @param userDetailsService the JDBC-backed user details service
+     * @param passwordEncoder    the password encoder used to verify stored hashes
+     * @param authenticationCache the cache of previously verified credentials
+     * @return the configured {@link AuthenticationManager}
+     */
+    @Bean
+    public AuthenticationManager authenticationManager(UserDetailsService userDetailsService,
+                                                       PasswordEncoder passwordEncoder,
+                                                       AuthenticationCache authenticationCache) {
+        DaoAuthenticationProvider daoProvider = new DaoAuthenticationProvider(userDetailsService);
+        daoProvider.setPasswordEncoder(passwordEncoder);
+        return new ProviderManager(new CachingAuthenticationProvider(daoProvider, authenticationCache));
+    }
+
     /**
      * Configures the security filter chain for HTTP requests.
      * <p>
-     * All requests require authentication. CSRF protection is disabled and HTTP Basic authentication is enabled.
+     * All requests require authentication, except the health check. The Prometheus scrape and watch history
+     * resharding endpoints additionally require the {@code ADMIN} role and a request from the local machine, since a
+     * reverse proxy on the same host makes every request look local. CSRF protection is disabled, no HTTP session
+     * is created, bearer tokens are checked before HTTP Basic authentication, and HTTP Basic authentication remains
+     * enabled.
      * </p>
      *
      * @param http the {@link HttpSecurity} to modify
+     * @param authenticationManager the caching {@link AuthenticationManager} used to verify Basic credentials
+     * @param tokenService the service used to verify bearer tokens
      * @return the configured {@link SecurityFilterChain}
      * @throws Exception if an error occurs during configuration
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthenticationManager authenticationManager,
+                                                   TokenService tokenService) throws Exception {
         http
+            .authenticationManager(authenticationManager)
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/auth/**").permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/prometheus", "/actuator/watchhistoryshards")
+                    .access(new WebExpressionAuthorizationManager(
+                        "hasRole('ADMIN') and (hasIpAddress('127.0.0.1') or hasIpAddress('::1'))"))
+                // Streamed responses finish on an async dispatch; the original request was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .anyRequest().authenticated()
             )
             .csrf(csrf -> csrf.disable()) // ✅ Modern lambda-based CSRF config
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            // Not a @Component: registering it as a bean would also add it to the servlet filter chain
+            .addFilterBefore(new TokenAuthenticationFilter(tokenService), BasicAuthenticationFilter.class)
             .httpBasic(Customizer.withDefaults()); // Enable Basic Auth
 
         return http.build();
@@ -0,0 +1,65 @@
+package com.jmill29.tvtrackerapi.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DelegatingTransactionDefinition;
+
+/**
+ * Configuration class for the JDBC transaction manager.
+ * <p>
+ * Service methods annotated with {@code @Transactional} run on one pooled connection, which the DAOs pick up
+ * instead of checking out their own. Methods marked {@code readOnly} put that connection in read-only mode, so
+ * MySQL can run them as read-only transactions that need no transaction ID or undo log. Setting
+ * {@code app.jdbc.read-only-transactions=false} ignores the read-only hint; such methods still share one
+ * connection but run as ordinary transactions, saving the round trips that switch the session in and out of
+ * read-only mode.
+ * </p>
+ */
+@Configuration
+public class TransactionConfig {
+
+    /**
+     * Provides the transaction manager used by {@code @Transactional} service methods.
+     *
+     * @param dataSource the application's data source
+     * @param readOnlyTransactions whether read-only service methods switch their connection to read-only mode
+     * @return a {@link PlatformTransactionManager} for {@code dataSource}
+     */
+    @Bean
+    public PlatformTransactionManager transactionManager(
+            DataSource dataSource,
+            @Value("${app.jdbc.read-only-transactions:true}") boolean readOnlyTransactions) {
+        if (readOnlyTransactions) {
+            return new JdbcTransactionManager(dataSource);
+        }
+        return new JdbcTransactionManager(dataSource) {
+            @Override
+            protected void doBegin(Object transaction, TransactionDefinition definition) {
+                super.doBegin(transaction, definition.isReadOnly() ? new ReadWriteDefinition(definition) : definition);
+            }
+        };
+    }
+
+    /**
+     * A transaction definition identical to another except that it is never read-only.
+     */
+    private static final class ReadWriteDefinition extends DelegatingTransactionDefinition {
+
+        private static final long serialVersionUID = 1L;
+
+        ReadWriteDefinition(TransactionDefinition target) {
+            super(target);
+        }
+
+        @Override
+        public boolean isReadOnly() {
+            return false;
+        }
+    }
+}
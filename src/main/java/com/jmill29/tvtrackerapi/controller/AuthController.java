@@ -3,12 +3,18 @@ package com.jmill29.tvtrackerapi.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.jmill29.tvtrackerapi.dto.TokenRequest;
+import com.jmill29.tvtrackerapi.dto.TokenResponse;
 import com.jmill29.tvtrackerapi.dto.UserRequest;
+import com.jmill29.tvtrackerapi.security.TokenService;
 import com.jmill29.tvtrackerapi.service.UserService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -22,7 +28,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 /**
  * REST controller for authentication-related endpoints (e.g., user registration).
  * <p>
- * Provides endpoints for user registration and future authentication features.
+ * Provides endpoints for user registration and for exchanging credentials for a signed bearer token.
  * </p>
  */
 @RestController
@@ -31,16 +37,23 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class AuthController {
 
     private UserService userService;
+    private AuthenticationManager authenticationManager;
+    private TokenService tokenService;
 
 
     /**
-     * Constructs an {@code AuthController} with the required {@link UserService}.
+     * Constructs an {@code AuthController} with the required dependencies.
      *
-     * @param userService the user service to handle registration logic
+     * @param userService           the user service to handle registration logic
+     * @param authenticationManager the manager used to verify credentials before issuing a token
+     * @param tokenService          the service used to issue signed bearer tokens
      */
     @Autowired
-    public AuthController(UserService userService) {
+    public AuthController(UserService userService, AuthenticationManager authenticationManager,
+            TokenService tokenService) {
         this.userService = userService;
+        this.authenticationManager = authenticationManager;
+        this.tokenService = tokenService;
     }
 
 
@@ -71,4 +84,32 @@ public class AuthController {
         return ResponseEntity.ok("User registered successfully.");
     }
 
+    /**
+     * Exchanges a username and password for a signed bearer token.
+     * <p>
+     * The credentials are verified once here; subsequent requests can send
+     * {@code Authorization: Bearer <token>} and are authenticated in memory without
+     * any database lookup or password hashing.
+     * </p>
+     *
+     * @param request the token request body containing the user's credentials
+     * @return a response entity containing the signed token and its lifetime
+     */
+    @Operation(summary = "Issue a bearer token", description = "Verifies the given credentials and returns a signed bearer token.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Token issued successfully.",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = TokenResponse.class))),
+        @ApiResponse(responseCode = "401", description = "Invalid username or password.",
+            content = @Content)
+    })
+    @PostMapping("/token")
+    public ResponseEntity<TokenResponse> issueToken(
+            @RequestBody TokenRequest request) {
+        // Throws an AuthenticationException (mapped to 401) if the credentials are invalid
+        Authentication authentication = authenticationManager.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(request.getUsername(), request.getPassword()));
+        String token = tokenService.issueToken(authentication);
+        return ResponseEntity.ok(new TokenResponse(token, "Bearer", tokenService.getTtlSeconds()));
+    }
+
 }
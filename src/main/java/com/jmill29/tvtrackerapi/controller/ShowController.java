@@ -3,17 +3,25 @@ package com.jmill29.tvtrackerapi.controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.jmill29.tvtrackerapi.cache.DataVersions;
 import com.jmill29.tvtrackerapi.dto.ErrorResponse;
+import com.jmill29.tvtrackerapi.dto.ShowPage;
+import com.jmill29.tvtrackerapi.enums.ShowProjection;
 import com.jmill29.tvtrackerapi.exception.NoShowsFoundException;
 import com.jmill29.tvtrackerapi.model.Show;
 import com.jmill29.tvtrackerapi.service.ShowService;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -24,46 +32,166 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 /**
  * REST controller for handling show-related API requests.
  * Provides endpoints for retrieving TV show data.
+ * <p>
+ * Every endpoint returns a strong ETag built from the catalogue version in {@link DataVersions}. A request whose
+ * {@code If-None-Match} matches is answered with 304 Not Modified before the service is called.
+ * </p>
  */
 @Tag(name = "Shows", description = "Operations related to TV show data retrieval")
 @RestController
 @RequestMapping("/api/shows")
 public class ShowController {
 
+    /** Lets clients store responses but makes them revalidate with the ETag before every reuse */
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+
     private final ShowService showService;
+    private final DataVersions dataVersions;
 
 
     /**
      * Constructs a ShowController with the given ShowService.
      * @param showService the service for show operations
+     * @param dataVersions the modification counters behind catalogue ETags
      */
     @Autowired
-    public ShowController(ShowService showService) {
+    public ShowController(ShowService showService, DataVersions dataVersions) {
         this.showService = showService;
+        this.dataVersions = dataVersions;
     }
 
     // Define endpoints for show-related operations here
     /**
-     * Retrieves all shows from the database.
+     * Retrieves one page of shows from the database, ordered by show ID.
      * <p>This is a public endpoint and does not require authentication.</p>
-     * 
-     * @return a ResponseEntity containing a list of all shows
+     * <p>Pass the returned {@code nextCursor} as {@code cursor} to fetch the following page. Use
+     * {@code fields=summary} to omit show descriptions from list views.</p>
+     *
+     * @param cursor the {@code nextCursor} from the previous page, or {@code null} for the first page
+     * @param limit  the number of shows per page (capped at the service maximum)
+     * @param fields {@code full} (default) or {@code summary}
+     * @param webRequest the current request, checked against the catalogue ETag
+     * @return a ResponseEntity containing the requested page of shows, or {@code null} if a 304 was sent
      * @throws NoShowsFoundException if no shows are found
+     * @throws IllegalArgumentException if the cursor, limit, or fields value is invalid
      */
     @Operation(
-        summary = "Get all shows",
-        description = "Retrieves all TV shows from the database. This is a public endpoint and does not require authentication."
+        summary = "Get shows",
+        description = "Retrieves a page of TV shows ordered by ID. Follow nextCursor to read the rest of the catalogue. "
+            + "This is a public endpoint and does not require authentication."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Shows retrieved successfully",
-            content = @Content(mediaType = "application/json", schema = @Schema(implementation = Show.class, type = "array"))),
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ShowPage.class))),
+        @ApiResponse(responseCode = "304", description = "Catalogue unchanged since the ETag in If-None-Match"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor, limit, or fields value",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "404", description = "No shows found",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "500", description = "Internal server error",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
     })
     @GetMapping
-    public ResponseEntity<List<Show>> getAllShows() {
-        return ResponseEntity.ok(showService.findAll());
+    public ResponseEntity<ShowPage> getAllShows(
+            @Parameter(description = "nextCursor from the previous page; omit for the first page")
+            @RequestParam(required = false) Integer cursor,
+            @Parameter(description = "Number of shows per page (default 50, max 200)")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "full (default) or summary, which omits descriptions")
+            @RequestParam(required = false) String fields,
+            @Parameter(hidden = true) WebRequest webRequest) {
+        ShowProjection projection = ShowProjection.fromValue(fields);
+        if (dataVersions.isEnabled() && webRequest.checkNotModified(dataVersions.catalogueETag())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(showService.findPage(cursor, limit, projection));
+    }
+
+    /**
+     * Searches show names, returning the best matches first.
+     * <p>This is a public endpoint and does not require authentication.</p>
+     * <p>Matching is case- and accent-insensitive, supports prefixes of each word (for type-ahead), and
+     * tolerates small typos.</p>
+     *
+     * @param query the text to search for
+     * @param limit the maximum number of results (capped at the service maximum)
+     * @param webRequest the current request, checked against the catalogue ETag
+     * @return a ResponseEntity containing the matching shows, best match first, or {@code null} if a 304 was sent
+     * @throws IllegalArgumentException if the query is blank or the limit is invalid
+     */
+    @Operation(
+        summary = "Search shows by name",
+        description = "Ranked, case- and accent-insensitive search over show names with prefix and fuzzy matching. "
+            + "This is a public endpoint and does not require authentication."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Search completed; the list may be empty",
+            content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = Show.class)))),
+        @ApiResponse(responseCode = "304", description = "Catalogue unchanged since the ETag in If-None-Match"),
+        @ApiResponse(responseCode = "400", description = "Blank query or invalid limit",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "500", description = "Internal server error",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/search")
+    public ResponseEntity<List<Show>> searchShows(
+            @Parameter(description = "Text to search for", example = "breaking")
+            @RequestParam("q") String query,
+            @Parameter(description = "Maximum number of results (default 10, max 50)")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(hidden = true) WebRequest webRequest) {
+        if (dataVersions.isEnabled() && webRequest.checkNotModified(dataVersions.catalogueETag())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(showService.search(query, limit));
+    }
+
+    /**
+     * Filters shows by a combination of genres, returning one page ordered by show ID.
+     * <p>This is a public endpoint and does not require authentication.</p>
+     * <p>For example {@code ?all=Drama,Thriller&none=Horror} returns dramas that are also thrillers but not
+     * horror. Genre names are case-insensitive. Pass the returned {@code nextCursor} as {@code cursor} to fetch
+     * the following page.</p>
+     *
+     * @param all    genres a show must all be in
+     * @param any    genres a show must be in at least one of
+     * @param none   genres a show must not be in
+     * @param cursor the {@code nextCursor} from the previous page, or {@code null} for the first page
+     * @param limit  the number of shows per page (capped at the service maximum)
+     * @param webRequest the current request, checked against the catalogue ETag
+     * @return a ResponseEntity containing the requested page of matching shows, or {@code null} if a 304 was sent
+     * @throws IllegalArgumentException if neither {@code all} nor {@code any} is given, or the cursor or limit is invalid
+     */
+    @Operation(
+        summary = "Filter shows by genre",
+        description = "Combines genres with AND (all), OR (any) and NOT (none), answered from an in-memory index. "
+            + "This is a public endpoint and does not require authentication."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Filter applied; the page may be empty",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ShowPage.class))),
+        @ApiResponse(responseCode = "304", description = "Catalogue unchanged since the ETag in If-None-Match"),
+        @ApiResponse(responseCode = "400", description = "No genre to include, blank genre, or invalid cursor or limit",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "500", description = "Internal server error",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/genres")
+    public ResponseEntity<ShowPage> filterByGenres(
+            @Parameter(description = "Genres a show must all be in (AND)", example = "Drama,Thriller")
+            @RequestParam(required = false) List<String> all,
+            @Parameter(description = "Genres a show must be in at least one of (OR)")
+            @RequestParam(required = false) List<String> any,
+            @Parameter(description = "Genres a show must not be in (NOT)", example = "Horror")
+            @RequestParam(required = false) List<String> none,
+            @Parameter(description = "nextCursor from the previous page; omit for the first page")
+            @RequestParam(required = false) Integer cursor,
+            @Parameter(description = "Number of shows per page (default 50, max 200)")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(hidden = true) WebRequest webRequest) {
+        if (dataVersions.isEnabled() && webRequest.checkNotModified(dataVersions.catalogueETag())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(showService.findByGenres(all, any, none, cursor, limit));
     }
 }
@@ -1,28 +1,44 @@
 package com.jmill29.tvtrackerapi.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.jmill29.tvtrackerapi.cache.DataVersions;
 import com.jmill29.tvtrackerapi.dto.ErrorResponse;
+import com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest;
 import com.jmill29.tvtrackerapi.dto.UserWatchHistoryRequest;
 import com.jmill29.tvtrackerapi.dto.UserWatchHistoryResponse;
+import com.jmill29.tvtrackerapi.dto.WatchHistoryBatchItemResponse;
+import com.jmill29.tvtrackerapi.dto.WatchHistorySummaryResponse;
+import com.jmill29.tvtrackerapi.security.AuthenticatedUser;
 import com.jmill29.tvtrackerapi.service.UserWatchHistoryService;
-import com.jmill29.tvtrackerapi.utils.AuthUtil;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -33,7 +49,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
  * REST controller for managing the watch history of a user.
  * <p>
  * Provides endpoints to retrieve, add, update, and delete watch history records
- * associated with the authenticated user. All endpoints require a valid Authorization header.
+ * associated with the authenticated user. All endpoints require a valid Authorization header; the
+ * authenticated principal (including its user ID) is resolved once by the security layer and passed
+ * straight through to the service layer.
+ * </p>
+ * <p>
+ * The list and stream endpoints return a strong ETag built from the user's version in {@link DataVersions}, and
+ * answer a matching {@code If-None-Match} with 304 Not Modified before the service is called.
  * </p>
  */
 @Tag(name = "User Watch History", description = "Operations related to user watch history management")
@@ -41,7 +63,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @RequestMapping("/api/watch-history")
 public class UserWatchHistoryController {
 
+    /** Responses are per user: only the client may store them, and it must revalidate before every reuse */
+    private static final CacheControl REVALIDATE_PRIVATE = CacheControl.noCache().cachePrivate();
+
     private final UserWatchHistoryService userWatchHistoryService;
+    private final ObjectMapper objectMapper;
+    private final DataVersions dataVersions;
 
     
 
@@ -49,10 +76,15 @@ public class UserWatchHistoryController {
      * Constructs a UserWatchHistoryController with the required service.
      *
      * @param userWatchHistoryService the service for user watch history operations
+     * @param objectMapper the application's JSON mapper, used to write streamed responses
+     * @param dataVersions the modification counters behind watch history ETags
      */
     @Autowired
-    public UserWatchHistoryController(UserWatchHistoryService userWatchHistoryService) {
+    public UserWatchHistoryController(UserWatchHistoryService userWatchHistoryService, ObjectMapper objectMapper,
+                                      DataVersions dataVersions) {
         this.userWatchHistoryService = userWatchHistoryService;
+        this.objectMapper = objectMapper;
+        this.dataVersions = dataVersions;
     }
 
     // Define endpoints for user watch history operations here
@@ -61,8 +93,10 @@ public class UserWatchHistoryController {
      * Retrieves the watch history for the authenticated user.
      *
      * @param getAll if true, returns all records; if false, only non-empty watch history
-     * @param authHeader the Bearer token for authentication
-     * @return a list of UserWatchHistoryResponse objects representing the user's watch history
+     * @param user the authenticated principal
+     * @param webRequest the current request, checked against the user's watch history ETag
+     * @return a list of UserWatchHistoryResponse objects representing the user's watch history, or {@code null}
+     *         if a 304 was sent
      */
     @Operation(
         summary = "Get watch history for the authenticated user",
@@ -71,6 +105,7 @@ public class UserWatchHistoryController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Watch history retrieved successfully",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserWatchHistoryResponse.class))),
+        @ApiResponse(responseCode = "304", description = "Watch history unchanged since the ETag in If-None-Match"),
         @ApiResponse(responseCode = "401", description = "Unauthorized",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
         @ApiResponse(responseCode = "404", description = "No watch history found",
@@ -79,16 +114,110 @@ public class UserWatchHistoryController {
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
     })
     @GetMapping
-    public ResponseEntity<List<UserWatchHistoryResponse>> getWatchHistoryByUsername(
+    public ResponseEntity<List<UserWatchHistoryResponse>> getWatchHistory(
         @Parameter(description = "If true, returns all records; if false, only non-empty watch history", example = "false")
         @RequestParam(required = false, defaultValue = "false") boolean getAll,
-        @Parameter(description = "Bearer token for authentication", required = true)
-        @RequestHeader("Authorization") String authHeader) {
-        List<UserWatchHistoryResponse> watchHistory = userWatchHistoryService.getWatchHistoryByUsername(
-            AuthUtil.extractUsernameFromAuthHeader(authHeader),
+        @Parameter(hidden = true)
+        @AuthenticationPrincipal AuthenticatedUser user,
+        @Parameter(hidden = true) WebRequest webRequest) {
+        if (dataVersions.isEnabled() && webRequest.checkNotModified(dataVersions.watchHistoryETag(user.getUserId()))) {
+            return null;
+        }
+        List<UserWatchHistoryResponse> watchHistory = userWatchHistoryService.getWatchHistoryByUserId(
+            user.getUserId(),
             getAll
         );
-        return ResponseEntity.ok(watchHistory);
+        return ResponseEntity.ok().cacheControl(REVALIDATE_PRIVATE).body(watchHistory);
+    }
+
+
+    /**
+     * Streams every show in the catalogue with the authenticated user's watch status.
+     * <p>
+     * Returns the same JSON array as {@code GET /api/watch-history?getAll=true}, but each row is written to the
+     * response as it is read from the database, so memory use stays constant however large the catalogue is.
+     * </p>
+     *
+     * @param user the authenticated principal
+     * @param webRequest the current request, checked against the user's watch history ETag
+     * @return a ResponseEntity whose body writes the JSON array row by row, or {@code null} if a 304 was sent
+     */
+    @Operation(
+        summary = "Stream all shows with the authenticated user's watch status",
+        description = "Streams the getAll=true view as a JSON array without building it in memory. "
+            + "Shows the user has not tracked are reported as Not Watched."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Watch history streamed successfully",
+            content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = UserWatchHistoryResponse.class)))),
+        @ApiResponse(responseCode = "304", description = "Watch history unchanged since the ETag in If-None-Match"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "500", description = "Internal server error",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamWatchHistory(
+        @Parameter(hidden = true)
+        @AuthenticationPrincipal AuthenticatedUser user,
+        @Parameter(hidden = true) WebRequest webRequest) {
+        int userId = user.getUserId();
+        if (dataVersions.isEnabled() && webRequest.checkNotModified(dataVersions.watchHistoryETag(userId))) {
+            return null;
+        }
+        // Let the generator's buffer decide when to flush instead of flushing after every row
+        ObjectWriter writer = objectMapper.writerFor(UserWatchHistoryResponse.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            // The generator buffers its output, so an error before the first rows are flushed still
+            // reaches the exception handler as a normal error response
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                userWatchHistoryService.streamWatchHistoryByUserId(userId, entry -> {
+                    try {
+                        writer.writeValue(generator, entry);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+                generator.writeEndArray();
+            } catch (UncheckedIOException ex) {
+                // Client went away mid-stream; unwrapping lets the container treat it as a normal I/O failure
+                throw ex.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).cacheControl(REVALIDATE_PRIVATE).body(body);
+    }
+
+
+    /**
+     * Summarizes the authenticated user's watch history.
+     * <p>
+     * Returns the number of shows per watch status, the total number of episodes watched, and the average
+     * rating, from counters kept up to date as the history changes, so dashboards need not download the whole
+     * history to count it.
+     * </p>
+     *
+     * @param user the authenticated principal
+     * @return a ResponseEntity containing the summary
+     */
+    @Operation(
+        summary = "Summarize the authenticated user's watch history",
+        description = "Returns counts per watch status, total episodes watched and average rating."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Summary retrieved successfully",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = WatchHistorySummaryResponse.class))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "500", description = "Internal server error",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/summary")
+    public ResponseEntity<WatchHistorySummaryResponse> getWatchHistorySummary(
+        @Parameter(hidden = true)
+        @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(userWatchHistoryService.getWatchHistorySummary(user.getUserId()));
     }
 
 
@@ -96,7 +225,7 @@ public class UserWatchHistoryController {
      * Adds a show to the authenticated user's watch history.
      *
      * @param userWatchHistoryRequest the request body containing showId and status
-     * @param authHeader the Bearer token for authentication
+     * @param user the authenticated principal
      * @return a ResponseEntity containing a success message if the show was added
      */
     @Operation(
@@ -122,21 +251,63 @@ public class UserWatchHistoryController {
             content = @Content(schema = @Schema(implementation = UserWatchHistoryRequest.class))
         )
         @RequestBody UserWatchHistoryRequest userWatchHistoryRequest,
-        @Parameter(description = "Bearer token for authentication", required = true)
-        @RequestHeader("Authorization") String authHeader) {
+        @Parameter(hidden = true)
+        @AuthenticationPrincipal AuthenticatedUser user) {
         userWatchHistoryService.addShowToWatchHistory(
             userWatchHistoryRequest,
-            AuthUtil.extractUsernameFromAuthHeader(authHeader)
+            user.getUserId()
         );
         return ResponseEntity.ok("Show added to watch history successfully.");
     }
 
 
+    /**
+     * Adds many shows to the authenticated user's watch history in a single request.
+     *
+     * @param userWatchHistoryRequests the items to import, each containing a showId and status
+     * @param user the authenticated principal
+     * @return a ResponseEntity containing one result per item, in request order
+     */
+    @Operation(
+        summary = "Bulk import shows into the authenticated user's watch history",
+        description = "Validates all show IDs with one query and inserts the new entries in a single batched transaction. "
+            + "Each item is reported as ADDED, ALREADY_EXISTS, SHOW_NOT_FOUND, or INVALID."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import processed; see per-item results",
+            content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = WatchHistoryBatchItemResponse.class)))),
+        @ApiResponse(responseCode = "400", description = "Empty or oversized request body",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "409", description = "Entries were added concurrently; nothing was imported",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "500", description = "Internal server error",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<List<WatchHistoryBatchItemResponse>> addShowsToWatchHistory(
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "List of items, each containing showId and status",
+            required = true,
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = UserWatchHistoryRequest.class)))
+        )
+        @RequestBody List<UserWatchHistoryRequest> userWatchHistoryRequests,
+        @Parameter(hidden = true)
+        @AuthenticationPrincipal AuthenticatedUser user) {
+        List<WatchHistoryBatchItemResponse> results = userWatchHistoryService.addShowsToWatchHistory(
+            userWatchHistoryRequests,
+            user.getUserId()
+        );
+        return ResponseEntity.ok(results);
+    }
+
+
     /**
      * Updates the watch status for a show in the authenticated user's watch history.
      *
      * @param userWatchHistoryRequest the request body containing showId and new status
-     * @param authHeader the Bearer token for authentication
+     * @param user the authenticated principal
      * @return a ResponseEntity containing a success message if the watch status was updated
      */
     @Operation(
@@ -162,21 +333,77 @@ public class UserWatchHistoryController {
             content = @Content(schema = @Schema(implementation = UserWatchHistoryRequest.class))
         )
         @RequestBody UserWatchHistoryRequest userWatchHistoryRequest,
-        @Parameter(description = "Bearer token for authentication", required = true)
-        @RequestHeader("Authorization") String authHeader) {
+        @Parameter(hidden = true)
+        @AuthenticationPrincipal AuthenticatedUser user) {
         userWatchHistoryService.updateWatchStatus(
             userWatchHistoryRequest,
-            AuthUtil.extractUsernameFromAuthHeader(authHeader)
+            user.getUserId()
         );
         return ResponseEntity.ok("Watch status updated successfully.");
     }
 
 
+    /**
+     * Partially updates a show in the authenticated user's watch history.
+     * <p>
+     * Only the fields present in the body are changed, in a single UPDATE without reading the entry first, so
+     * frequent progress updates (e.g. {@code {"episodesWatched": 7}}) stay one cheap statement each.
+     * </p>
+     * <p>
+     * With {@code app.watch-history.write-behind.enabled}, a progress-only patch is buffered and written within
+     * {@code flush-interval-ms}. Until then {@code GET /api/watch-history} still returns the previous count under
+     * the previous ETag, so a conditional GET may answer 304.
+     * </p>
+     *
+     * @param showId the ID of the show to update
+     * @param patch the request body containing the fields to change
+     * @param user the authenticated principal
+     * @return a ResponseEntity containing a success message if the entry was updated
+     */
+    @Operation(
+        summary = "Partially update a show in the authenticated user's watch history",
+        description = "Changes only the supplied fields among status, episodesWatched, rating and favorite. "
+            + "Send \"rating\": null to clear a rating. When write-behind is enabled, a patch that only sets "
+            + "episodesWatched is applied within the flush interval; until then GET /api/watch-history, including "
+            + "conditional requests, still reflects the previous count."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Watch history entry updated successfully"),
+        @ApiResponse(responseCode = "400", description = "No field supplied or a field is out of range",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "404", description = "Watch history entry not found",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "500", description = "Internal server error",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PatchMapping("/{showId}")
+    public ResponseEntity<String> patchWatchHistory(
+        @Parameter(description = "ID of the show to update", required = true, example = "123")
+        @PathVariable int showId,
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Request body containing the fields to change",
+            required = true,
+            content = @Content(schema = @Schema(implementation = UserWatchHistoryPatchRequest.class))
+        )
+        @RequestBody UserWatchHistoryPatchRequest patch,
+        @Parameter(hidden = true)
+        @AuthenticationPrincipal AuthenticatedUser user) {
+        userWatchHistoryService.patchWatchHistory(
+            user.getUserId(),
+            showId,
+            patch
+        );
+        return ResponseEntity.ok("Watch history updated successfully.");
+    }
+
+
     /**
      * Deletes a show from the authenticated user's watch history by show ID.
      *
      * @param showId the ID of the show to remove
-     * @param authHeader the Bearer token for authentication
+     * @param user the authenticated principal
      * @return a ResponseEntity containing a success message if the show was removed
      */
     @Operation(
@@ -198,10 +425,10 @@ public class UserWatchHistoryController {
     public ResponseEntity<String> deleteShowFromWatchHistory(
         @Parameter(description = "ID of the show to remove", required = true, example = "123")
         @PathVariable int showId,
-        @Parameter(description = "Bearer token for authentication", required = true)
-        @RequestHeader("Authorization") String authHeader) {
+        @Parameter(hidden = true)
+        @AuthenticationPrincipal AuthenticatedUser user) {
         userWatchHistoryService.deleteShowFromWatchHistory(
-            AuthUtil.extractUsernameFromAuthHeader(authHeader),
+            user.getUserId(),
             showId
         );
         return ResponseEntity.ok("Show removed from watch history successfully.");
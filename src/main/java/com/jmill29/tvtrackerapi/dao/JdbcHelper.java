@@ -0,0 +1,234 @@
+package com.jmill29.tvtrackerapi.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
+
+/**
+ * Small set of JDBC helpers shared by the DAO implementations.
+ * <p>
+ * Every helper prepares, binds, executes, and reads a single statement inside try-with-resources, so the
+ * {@link PreparedStatement} and its {@link ResultSet} are always closed before the method returns, even when
+ * binding or mapping fails. The caller owns the {@link Connection}, which lets one connection serve several
+ * statements (e.g. an existence check followed by the write it guards).
+ * </p>
+ * <p>
+ * The DAOs obtain connections through {@link #transactionAware(DataSource)}, so a DAO called inside a
+ * {@code @Transactional} service method reuses the transaction's connection instead of checking out its own.
+ * </p>
+ */
+final class JdbcHelper {
+
+    private JdbcHelper() {
+    }
+
+
+    /**
+     * Binds parameters to a prepared statement.
+     */
+    @FunctionalInterface
+    interface ParameterBinder {
+
+        /** Binder for statements that take no parameters */
+        ParameterBinder NONE = pStmt -> { };
+
+        void bind(PreparedStatement pStmt) throws SQLException;
+    }
+
+    /**
+     * Maps the current row of a result set to an object.
+     *
+     * @param <T> the mapped type
+     */
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+
+    /**
+     * Work run on one connection inside a transaction; see {@link #inTransaction(Connection, TransactionWork)}.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    interface TransactionWork<T> {
+        T run() throws SQLException;
+    }
+
+
+    /**
+     * Receives each row of a result set in turn.
+     */
+    @FunctionalInterface
+    interface RowCallback {
+        void processRow(ResultSet rs) throws SQLException;
+    }
+
+
+    /**
+     * Wraps a DAO's data source so that {@code getConnection()} returns the connection bound to the current
+     * Spring-managed transaction, if there is one, and {@code close()} on that connection leaves it open for the
+     * transaction. Outside a transaction the behaviour is unchanged: each call checks out its own connection.
+     *
+     * @param dataSource the application's data source
+     * @return a transaction-aware view of {@code dataSource}
+     */
+    static DataSource transactionAware(DataSource dataSource) {
+        if (dataSource instanceof TransactionAwareDataSourceProxy) {
+            return dataSource;
+        }
+        return new TransactionAwareDataSourceProxy(dataSource);
+    }
+
+    /**
+     * Runs several statements as one unit of work.
+     * <p>
+     * If the connection is already in a transaction (auto-commit off, e.g. inside a {@code @Transactional} service
+     * method), the work simply joins it and the transaction's owner commits or rolls back. Otherwise the work runs
+     * in a local transaction that is committed on success and rolled back if it throws.
+     * </p>
+     *
+     * @param conn the connection to run the work on
+     * @param work the statements to run
+     * @param <T>  the result type
+     * @return the work's result
+     * @throws SQLException if a database access error occurs
+     */
+    static <T> T inTransaction(Connection conn, TransactionWork<T> work) throws SQLException {
+        if (!conn.getAutoCommit()) {
+            return work.run();
+        }
+        conn.setAutoCommit(false);
+        try {
+            T result = work.run();
+            conn.commit();
+            return result;
+        } catch (SQLException | RuntimeException ex) {
+            conn.rollback();
+            throw ex;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Runs a query and hands every row to a callback.
+     *
+     * @param conn     the connection to run the query on
+     * @param sql      the query
+     * @param binder   binds the query's parameters
+     * @param callback receives each row
+     * @throws SQLException if a database access error occurs
+     */
+    static void forEachRow(Connection conn, String sql, ParameterBinder binder, RowCallback callback)
+            throws SQLException {
+        try (PreparedStatement pStmt = conn.prepareStatement(sql)) {
+            binder.bind(pStmt);
+            try (ResultSet rs = pStmt.executeQuery()) {
+                while (rs.next()) {
+                    callback.processRow(rs);
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds a comma-separated list of {@code count} bind placeholders for an {@code IN (...)} clause.
+     *
+     * @param count the number of placeholders, at least 1
+     * @return e.g. {@code "?, ?, ?"} for 3
+     */
+    static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * Runs a query and maps every row.
+     *
+     * @param conn   the connection to run the query on
+     * @param sql    the query
+     * @param binder binds the query's parameters
+     * @param mapper maps each row
+     * @param <T>    the mapped type
+     * @return the mapped rows, in result order
+     * @throws SQLException if a database access error occurs
+     */
+    static <T> List<T> queryForList(Connection conn, String sql, ParameterBinder binder, RowMapper<T> mapper)
+            throws SQLException {
+        try (PreparedStatement pStmt = conn.prepareStatement(sql)) {
+            binder.bind(pStmt);
+            try (ResultSet rs = pStmt.executeQuery()) {
+                List<T> rows = new ArrayList<>();
+                while (rs.next()) {
+                    rows.add(mapper.map(rs));
+                }
+                return rows;
+            }
+        }
+    }
+
+    /**
+     * Runs a query and maps its first row.
+     *
+     * @param conn   the connection to run the query on
+     * @param sql    the query
+     * @param binder binds the query's parameters
+     * @param mapper maps the row
+     * @param <T>    the mapped type
+     * @return the mapped first row, or empty if the query returned no rows
+     * @throws SQLException if a database access error occurs
+     */
+    static <T> Optional<T> queryForOptional(Connection conn, String sql, ParameterBinder binder, RowMapper<T> mapper)
+            throws SQLException {
+        try (PreparedStatement pStmt = conn.prepareStatement(sql)) {
+            binder.bind(pStmt);
+            try (ResultSet rs = pStmt.executeQuery()) {
+                return rs.next() ? Optional.of(mapper.map(rs)) : Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Runs a query and reports whether it returned any row.
+     *
+     * @param conn   the connection to run the query on
+     * @param sql    the query
+     * @param binder binds the query's parameters
+     * @return {@code true} if the query returned at least one row
+     * @throws SQLException if a database access error occurs
+     */
+    static boolean exists(Connection conn, String sql, ParameterBinder binder) throws SQLException {
+        try (PreparedStatement pStmt = conn.prepareStatement(sql)) {
+            binder.bind(pStmt);
+            try (ResultSet rs = pStmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Runs an INSERT, UPDATE, or DELETE.
+     *
+     * @param conn   the connection to run the statement on
+     * @param sql    the statement
+     * @param binder binds the statement's parameters
+     * @return the number of rows affected
+     * @throws SQLException if a database access error occurs
+     */
+    static int update(Connection conn, String sql, ParameterBinder binder) throws SQLException {
+        try (PreparedStatement pStmt = conn.prepareStatement(sql)) {
+            binder.bind(pStmt);
+            return pStmt.executeUpdate();
+        }
+    }
+}
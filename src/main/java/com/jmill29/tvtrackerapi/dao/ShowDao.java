@@ -33,6 +33,24 @@ public interface ShowDao {
      */
     List<Show> findAll() throws SQLException;
 
+    /**
+     * Retrieves one page of shows using keyset pagination on the show ID.
+     *
+     * <p>
+     * Returns up to {@code limit} shows whose ID is greater than {@code afterId}, in ascending ID order.
+     * Unlike an {@code OFFSET} query, the cost of a page does not grow with how deep into the catalogue it is.
+     * When {@code includeDescription} is {@code false} the description column is not read and
+     * {@link Show#getDescription()} is {@code null} on every returned show.
+     * </p>
+     *
+     * @param afterId            the ID of the last show on the previous page, or 0 for the first page
+     * @param limit              the maximum number of shows to return
+     * @param includeDescription whether to read the description column
+     * @return a {@code List} of at most {@code limit} shows, ordered by ID
+     * @throws SQLException if a database access error occurs
+     */
+    List<Show> findPage(int afterId, int limit, boolean includeDescription) throws SQLException;
+
     /**
      * Finds shows by their name (case-insensitive, partial match).
      *
@@ -76,6 +94,22 @@ public interface ShowDao {
      */
     boolean save(Show show) throws SQLException;
 
+    /**
+     * Inserts a new show together with its {@code show_genres} rows in a single transaction.
+     *
+     * <p>
+     * Genre names are matched case-insensitively against the {@code genres} table. If any name is unknown or
+     * any insert fails, nothing is written. On success the show's ID is set and its genres are replaced by
+     * the stored genre names, sorted by name.
+     * </p>
+     *
+     * @param show the new {@code Show} object, with the names of its genres
+     * @return {@code true} if the show and its genres were inserted, {@code false} otherwise
+     * @throws SQLException if a database access error occurs
+     * @throws IllegalArgumentException if a genre name is blank or does not exist
+     */
+    boolean saveWithGenres(Show show) throws SQLException, IllegalArgumentException;
+
     /**
      * Deletes a show by its unique ID.
      *
@@ -4,15 +4,26 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import javax.sql.DataSource;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 
+import com.jmill29.tvtrackerapi.cache.DataVersions;
+import com.jmill29.tvtrackerapi.event.ShowChangedEvent;
 import com.jmill29.tvtrackerapi.exception.ShowAlreadyExistsException;
 import com.jmill29.tvtrackerapi.exception.ShowNotFoundException;
 import com.jmill29.tvtrackerapi.model.Show;
@@ -22,22 +33,88 @@ import com.jmill29.tvtrackerapi.model.Show;
  * JDBC-based implementation of the {@link ShowDao} interface for managing TV show records in the database.
  * <p>
  * Provides methods for CRUD operations and searching shows by various criteria using direct JDBC queries.
+ * Every show returned carries its genres, which are loaded for the whole result in one extra query
+ * ({@code IN} over the result's show IDs) rather than one query per show.
+ * Every successful insert, update, or delete publishes a {@link ShowChangedEvent} and then bumps the catalogue
+ * version in {@link DataVersions}, so catalogue ETags never change before the caches and indexes have caught up.
+ * </p>
+ * <p>
+ * Case-insensitive equality checks compare against the indexed {@code tv_shows.show_name_lower} and
+ * {@code genres.name_lower} generated columns (migration V2) instead of wrapping the stored column in
+ * {@code LOWER()}, which no index could serve.
  * </p>
  */
 @Repository
 public class ShowDaoImpl implements ShowDao {
 
+    private static final String SHOW_COLUMNS =
+            "show_id, show_name, description, image_url, num_episodes, release_year, created_at";
+
+    private static final String FIND_BY_ID_QUERY =
+            "SELECT " + SHOW_COLUMNS + " FROM tv_shows WHERE show_id = ?";
+
+    private static final String FIND_ALL_QUERY =
+            "SELECT " + SHOW_COLUMNS + " FROM tv_shows";
+
+    private static final String FIND_BY_NAME_QUERY =
+            "SELECT " + SHOW_COLUMNS + " FROM tv_shows WHERE LOWER(show_name) LIKE LOWER(?)";
+
+    private static final String FIND_BY_GENRE_QUERY =
+            "SELECT s.show_id, s.show_name, s.description, s.image_url, s.num_episodes, s.release_year, s.created_at "
+            + "FROM tv_shows s JOIN show_genres sg ON s.show_id = sg.show_id "
+            + "JOIN genres g ON sg.genre_id = g.genre_id WHERE g.name = ?";
+
+    private static final String EXISTS_BY_NAME_AND_YEAR_QUERY =
+            "SELECT 1 FROM tv_shows WHERE show_name_lower = LOWER(?) AND release_year = ?";
+
+    private static final String INSERT_SHOW =
+            "INSERT INTO tv_shows (show_name, description, image_url, num_episodes, release_year) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SHOW =
+            "UPDATE tv_shows SET show_name = ?, description = ?, image_url = ?, num_episodes = ?, release_year = ? "
+            + "WHERE show_id = ?";
+
+    private static final String DELETE_SHOW = "DELETE FROM tv_shows WHERE show_id = ?";
+
+    private static final String GENRES_FOR_SHOWS_QUERY_PREFIX =
+            "SELECT sg.show_id, g.name FROM show_genres sg JOIN genres g ON sg.genre_id = g.genre_id "
+            + "WHERE sg.show_id IN (";
+
+    private static final String ALL_SHOW_GENRES_QUERY =
+            "SELECT sg.show_id, g.name FROM show_genres sg JOIN genres g ON sg.genre_id = g.genre_id ORDER BY g.name";
+
+    private static final String GENRE_IDS_QUERY_PREFIX = "SELECT genre_id, name FROM genres WHERE name_lower IN (";
+
+    private static final String INSERT_SHOW_GENRE = "INSERT INTO show_genres (show_id, genre_id) VALUES (?, ?)";
+
+    /** Largest {@code IN} list sent in one genre query; bigger results are split into several queries */
+    static final int MAX_IN_PARAMETERS = 500;
+
+    private static final String PAGE_QUERY_FULL =
+            "SELECT show_id, show_name, description, image_url, num_episodes, release_year, created_at "
+            + "FROM tv_shows WHERE show_id > ? ORDER BY show_id LIMIT ?";
+
+    private static final String PAGE_QUERY_SUMMARY =
+            "SELECT show_id, show_name, image_url, num_episodes, release_year, created_at "
+            + "FROM tv_shows WHERE show_id > ? ORDER BY show_id LIMIT ?";
+
     private final DataSource dataSource;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DataVersions dataVersions;
 
 
     /**
      * Constructs a new {@code ShowDaoImpl} with the given data source.
      *
      * @param dataSource the {@link DataSource} for database connections
+     * @param eventPublisher the publisher used to announce changes to show records
+     * @param dataVersions the modification counters behind catalogue ETags
      */
     @Autowired
-    public ShowDaoImpl(DataSource dataSource) {
-        this.dataSource = dataSource;
+    public ShowDaoImpl(DataSource dataSource, ApplicationEventPublisher eventPublisher, DataVersions dataVersions) {
+        this.dataSource = JdbcHelper.transactionAware(dataSource);
+        this.eventPublisher = eventPublisher;
+        this.dataVersions = dataVersions;
     }
 
 
@@ -45,17 +122,11 @@ public class ShowDaoImpl implements ShowDao {
     @Override
     public Optional<Show> findById(int id) throws SQLException {
         try (Connection conn = dataSource.getConnection()) {
-            String query = "SELECT * FROM tv_shows WHERE show_id = ?";
-            PreparedStatement pStmt = conn.prepareStatement(query);
-            pStmt.setInt(1, id);
-
-            ResultSet rs = pStmt.executeQuery();
-            if (rs.next()) {
-                // If a show is found, map and return it
-                return Optional.of(mapShow(rs));
+            Optional<Show> show = JdbcHelper.queryForOptional(conn, FIND_BY_ID_QUERY, pStmt -> pStmt.setInt(1, id), this::mapShow);
+            if (show.isPresent()) {
+                attachGenres(conn, List.of(show.get()));
             }
-            // Return empty if no show found with the given ID
-            return Optional.empty();
+            return show;
         }
     }
 
@@ -64,15 +135,26 @@ public class ShowDaoImpl implements ShowDao {
     @Override
     public List<Show> findAll() throws SQLException {
         try (Connection conn = dataSource.getConnection()) {
-            String query = "SELECT * FROM tv_shows";
-            PreparedStatement pStmt = conn.prepareStatement(query);
-            ResultSet rs = pStmt.executeQuery();
-
-            List<Show> shows = new ArrayList<>();
-            while (rs.next()) {
-                // Map each row to a Show object
-                shows.add(mapShow(rs));
-            }
+            List<Show> shows = JdbcHelper.queryForList(conn, FIND_ALL_QUERY, JdbcHelper.ParameterBinder.NONE, this::mapShow);
+            // Every show is in the result, so read the whole mapping table instead of building an IN list
+            Map<Integer, List<String>> genres = new HashMap<>();
+            JdbcHelper.forEachRow(conn, ALL_SHOW_GENRES_QUERY, JdbcHelper.ParameterBinder.NONE, rs -> addGenre(genres, rs));
+            applyGenres(shows, genres);
+            return shows;
+        }
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public List<Show> findPage(int afterId, int limit, boolean includeDescription) throws SQLException {
+        String query = includeDescription ? PAGE_QUERY_FULL : PAGE_QUERY_SUMMARY;
+        try (Connection conn = dataSource.getConnection()) {
+            List<Show> shows = JdbcHelper.queryForList(conn, query, pStmt -> {
+                pStmt.setInt(1, afterId);
+                pStmt.setInt(2, limit);
+            }, rs -> mapShow(rs, includeDescription));
+            attachGenres(conn, shows);
             return shows;
         }
     }
@@ -82,16 +164,10 @@ public class ShowDaoImpl implements ShowDao {
     @Override
     public List<Show> findByName(String name) throws SQLException {
         try (Connection conn = dataSource.getConnection()) {
-            String query = "SELECT * FROM tv_shows WHERE LOWER(show_name) LIKE LOWER(?)";
-            PreparedStatement pStmt = conn.prepareStatement(query);
             // Use LIKE for partial, case-insensitive match
-            pStmt.setString(1, "%" + name + "%");
-
-            ResultSet rs = pStmt.executeQuery();
-            List<Show> shows = new ArrayList<>();
-            while (rs.next()) {
-                shows.add(mapShow(rs));
-            }
+            List<Show> shows = JdbcHelper.queryForList(conn, FIND_BY_NAME_QUERY,
+                    pStmt -> pStmt.setString(1, "%" + name + "%"), this::mapShow);
+            attachGenres(conn, shows);
             return shows;
         }
     }
@@ -101,16 +177,9 @@ public class ShowDaoImpl implements ShowDao {
     @Override
     public List<Show> findByGenre(String genre) throws SQLException {
         try (Connection conn = dataSource.getConnection()) {
-            // Join with show_genres to filter by genre
-            String query = "SELECT s.* FROM tv_shows s JOIN show_genres sg ON s.show_id = sg.show_id JOIN genres g ON sg.genre_id = g.genre_id WHERE g.name = ?";
-            PreparedStatement pStmt = conn.prepareStatement(query);
-            pStmt.setString(1, genre);
-
-            ResultSet rs = pStmt.executeQuery();
-            List<Show> shows = new ArrayList<>();
-            while (rs.next()) {
-                shows.add(mapShow(rs));
-            }
+            // Join with show_genres to filter by genre, then load each match's full genre list
+            List<Show> shows = JdbcHelper.queryForList(conn, FIND_BY_GENRE_QUERY, pStmt -> pStmt.setString(1, genre), this::mapShow);
+            attachGenres(conn, shows);
             return shows;
         }
     }
@@ -126,18 +195,48 @@ public class ShowDaoImpl implements ShowDao {
                     // Prevent duplicate shows
                     throw new ShowAlreadyExistsException("Show with name " + show.getName() + " and release year " + show.getReleaseYear() + " already exists.");
                 }
-                return create(show, conn);
+                boolean created = create(show, conn);
+                if (created) {
+                    showChanged(show.getId());
+                }
+                return created;
             }
         } else {
-            // Update: ensure the show exists before updating
-            if (findById(show.getId()).isEmpty()) {
-                throw new ShowNotFoundException("Show with ID " + show.getId() + " not found.");
+            // Update: a matched row count of 0 means the show does not exist, so no separate lookup is needed
+            try (Connection conn = dataSource.getConnection()) {
+                if (!update(show, conn)) {
+                    throw new ShowNotFoundException("Show with ID " + show.getId() + " not found.");
+                }
+                showChanged(show.getId());
+                return true;
             }
+        }
+    }
 
-            try (Connection conn = dataSource.getConnection()) {
-                return update(show, conn);
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean saveWithGenres(Show show) throws SQLException, ShowAlreadyExistsException, IllegalArgumentException {
+        try (Connection conn = dataSource.getConnection()) {
+            Map<String, Integer> genreIds = JdbcHelper.inTransaction(conn, () -> {
+                if (alreadyExists(show, conn)) {
+                    throw new ShowAlreadyExistsException("Show with name " + show.getName() + " and release year " + show.getReleaseYear() + " already exists.");
+                }
+                // Resolve the genres before inserting anything so an unknown name costs no writes
+                Map<String, Integer> ids = findGenreIds(conn, show.getGenres());
+                if (!create(show, conn)) {
+                    return null;
+                }
+                insertShowGenres(conn, show.getId(), ids.values());
+                return ids;
+            });
+            if (genreIds == null) {
+                return false;
             }
+            show.setGenres(sortedGenres(genreIds.keySet()));
         }
+        showChanged(show.getId());
+        return true;
     }
 
 
@@ -145,18 +244,40 @@ public class ShowDaoImpl implements ShowDao {
     @Override
     public boolean deleteById(int id) throws SQLException {
         try (Connection conn = dataSource.getConnection()) {
-            String query = "DELETE FROM tv_shows WHERE show_id = ?";
-            PreparedStatement pStmt = conn.prepareStatement(query);
-            pStmt.setInt(1, id);
-
             // Returns true if a row was deleted, false if not found
-            return pStmt.executeUpdate() > 0;
+            boolean deleted = JdbcHelper.update(conn, DELETE_SHOW, pStmt -> pStmt.setInt(1, id)) > 0;
+            if (deleted) {
+                showChanged(id, true);
+            }
+            return deleted;
         }
     }
 
 
     /**
-     * Inserts a new show into the database.
+     * Announces a committed change to a show: listeners refresh their copies first, then the catalogue version
+     * moves on.
+     *
+     * @param showId the ID of the affected show
+     */
+    private void showChanged(int showId) {
+        showChanged(showId, false);
+    }
+
+    /**
+     * Announces a committed change to a show, flagging whether it was deleted.
+     *
+     * @param showId  the ID of the affected show
+     * @param deleted whether the show was deleted
+     */
+    private void showChanged(int showId, boolean deleted) {
+        eventPublisher.publishEvent(new ShowChangedEvent(showId, deleted));
+        dataVersions.catalogueChanged();
+    }
+
+
+    /**
+     * Inserts a new show into the database and sets its generated ID on {@code show}.
      *
      * @param show the {@code Show} object to insert
      * @param conn an active JDBC connection used for executing the SQL operation
@@ -164,15 +285,23 @@ public class ShowDaoImpl implements ShowDao {
      * @throws SQLException if a database access error occurs
      */
     private boolean create(Show show, Connection conn) throws SQLException {
-        String query = "INSERT INTO tv_shows (show_name, description, image_url, num_episodes, release_year) VALUES (?, ?, ?, ?, ?)";
-        PreparedStatement pStmt = conn.prepareStatement(query);
-        pStmt.setString(1, show.getName());
-        pStmt.setString(2, show.getDescription());
-        pStmt.setString(3, show.getImageUrl());
-        pStmt.setInt(4, show.getNumEpisodes());
-        pStmt.setShort(5, show.getReleaseYear());
-
-        return pStmt.executeUpdate() > 0;
+        try (PreparedStatement pStmt = conn.prepareStatement(INSERT_SHOW, Statement.RETURN_GENERATED_KEYS)) {
+            pStmt.setString(1, show.getName());
+            pStmt.setString(2, show.getDescription());
+            pStmt.setString(3, show.getImageUrl());
+            pStmt.setInt(4, show.getNumEpisodes());
+            pStmt.setShort(5, show.getReleaseYear());
+
+            if (pStmt.executeUpdate() == 0) {
+                return false;
+            }
+            try (ResultSet keys = pStmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    show.setId(keys.getInt(1));
+                }
+            }
+            return true;
+        }
     }
 
 
@@ -181,20 +310,143 @@ public class ShowDaoImpl implements ShowDao {
      *
      * @param show the {@code Show} object to update
      * @param conn an active JDBC connection used for executing the SQL operation
-     * @return {@code true} if the show was updated successfully, {@code false} otherwise
+     * @return {@code true} if a row with the show's ID was found and updated, {@code false} otherwise
      * @throws SQLException if a database access error occurs
      */
     private boolean update(Show show, Connection conn) throws SQLException {
-        String query = "UPDATE tv_shows SET show_name = ?, description = ?, image_url = ?, num_episodes = ?, release_year = ? WHERE show_id = ?";
-        PreparedStatement pStmt = conn.prepareStatement(query);
-        pStmt.setString(1, show.getName());
-        pStmt.setString(2, show.getDescription());
-        pStmt.setString(3, show.getImageUrl());
-        pStmt.setInt(4, show.getNumEpisodes());
-        pStmt.setShort(5, show.getReleaseYear());
-        pStmt.setInt(6, show.getId());
+        return JdbcHelper.update(conn, UPDATE_SHOW, pStmt -> {
+            pStmt.setString(1, show.getName());
+            pStmt.setString(2, show.getDescription());
+            pStmt.setString(3, show.getImageUrl());
+            pStmt.setInt(4, show.getNumEpisodes());
+            pStmt.setShort(5, show.getReleaseYear());
+            pStmt.setInt(6, show.getId());
+        }) > 0;
+    }
+
+
+    /**
+     * Loads the genres of the given shows with one query per {@value #MAX_IN_PARAMETERS} shows and sets them on
+     * each show.
+     *
+     * @param conn  an active JDBC connection used for executing the SQL operation
+     * @param shows the shows to populate
+     * @throws SQLException if a database access error occurs
+     */
+    private void attachGenres(Connection conn, List<Show> shows) throws SQLException {
+        Map<Integer, List<String>> genres = new HashMap<>();
+        for (int from = 0; from < shows.size(); from += MAX_IN_PARAMETERS) {
+            List<Show> chunk = shows.subList(from, Math.min(shows.size(), from + MAX_IN_PARAMETERS));
+            String query = GENRES_FOR_SHOWS_QUERY_PREFIX + JdbcHelper.placeholders(chunk.size()) + ") ORDER BY g.name";
+            JdbcHelper.forEachRow(conn, query, pStmt -> {
+                for (int i = 0; i < chunk.size(); i++) {
+                    pStmt.setInt(i + 1, chunk.get(i).getId());
+                }
+            }, rs -> addGenre(genres, rs));
+        }
+        applyGenres(shows, genres);
+    }
 
-        return pStmt.executeUpdate() > 0;
+
+    /**
+     * Adds the genre in the current {@code (show_id, name)} row to the show's list.
+     *
+     * @param genres the genre names collected so far, keyed by show ID
+     * @param rs     the {@link ResultSet} positioned at a row
+     * @throws SQLException if a database access error occurs
+     */
+    private static void addGenre(Map<Integer, List<String>> genres, ResultSet rs) throws SQLException {
+        genres.computeIfAbsent(rs.getInt(1), id -> new ArrayList<>()).add(rs.getString(2));
+    }
+
+
+    /**
+     * Sets each show's genres from the collected map; shows without an entry get an empty list.
+     * The lists are unmodifiable because loaded shows may be shared through the show cache.
+     *
+     * @param shows  the shows to populate
+     * @param genres the genre names, sorted by name, keyed by show ID
+     */
+    private static void applyGenres(List<Show> shows, Map<Integer, List<String>> genres) {
+        for (Show show : shows) {
+            List<String> names = genres.get(show.getId());
+            show.setGenres(names == null ? List.of() : List.copyOf(names));
+        }
+    }
+
+
+    /**
+     * Looks up the IDs of the named genres.
+     *
+     * @param conn  an active JDBC connection used for executing the SQL operation
+     * @param names the genre names, matched case-insensitively; duplicates are ignored
+     * @return the genre IDs keyed by their stored names
+     * @throws SQLException if a database access error occurs
+     * @throws IllegalArgumentException if any name does not match a genre
+     */
+    private static Map<String, Integer> findGenreIds(Connection conn, List<String> names)
+            throws SQLException, IllegalArgumentException {
+        Set<String> requested = new LinkedHashSet<>();
+        for (String name : names) {
+            if (name == null || name.isBlank()) {
+                throw new IllegalArgumentException("Genre names cannot be blank.");
+            }
+            requested.add(name.trim().toLowerCase(Locale.ROOT));
+        }
+        Map<String, Integer> genreIds = new HashMap<>();
+        if (requested.isEmpty()) {
+            return genreIds;
+        }
+
+        List<String> lookup = new ArrayList<>(requested);
+        String query = GENRE_IDS_QUERY_PREFIX + JdbcHelper.placeholders(lookup.size()) + ")";
+        JdbcHelper.forEachRow(conn, query, pStmt -> {
+            for (int i = 0; i < lookup.size(); i++) {
+                pStmt.setString(i + 1, lookup.get(i));
+            }
+        }, rs -> genreIds.put(rs.getString("name"), rs.getInt("genre_id")));
+
+        if (genreIds.size() < requested.size()) {
+            for (String name : genreIds.keySet()) {
+                requested.remove(name.toLowerCase(Locale.ROOT));
+            }
+            throw new IllegalArgumentException("Unknown genre(s): " + String.join(", ", requested));
+        }
+        return genreIds;
+    }
+
+
+    /**
+     * Links a show to its genres in one JDBC batch.
+     *
+     * @param conn     an active JDBC connection used for executing the SQL operation
+     * @param showId   the ID of the show
+     * @param genreIds the IDs of the show's genres
+     * @throws SQLException if a database access error occurs
+     */
+    private static void insertShowGenres(Connection conn, int showId, Collection<Integer> genreIds) throws SQLException {
+        if (genreIds.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement pStmt = conn.prepareStatement(INSERT_SHOW_GENRE)) {
+            for (int genreId : genreIds) {
+                pStmt.setInt(1, showId);
+                pStmt.setInt(2, genreId);
+                pStmt.addBatch();
+            }
+            pStmt.executeBatch();
+        }
+    }
+
+
+    /**
+     * @param names genre names
+     * @return the names as an unmodifiable list sorted by name
+     */
+    private static List<String> sortedGenres(Collection<String> names) {
+        List<String> sorted = new ArrayList<>(names);
+        Collections.sort(sorted);
+        return List.copyOf(sorted);
     }
 
 
@@ -206,10 +458,23 @@ public class ShowDaoImpl implements ShowDao {
      * @throws SQLException if a database access error occurs
      */
     private Show mapShow(ResultSet rs) throws SQLException {
+        return mapShow(rs, true);
+    }
+
+
+    /**
+     * Maps a {@link ResultSet} row to a {@link Show} object, optionally skipping the description column.
+     *
+     * @param rs                 the {@link ResultSet} positioned at a row
+     * @param includeDescription whether the row contains a {@code description} column to read
+     * @return the mapped {@code Show} object
+     * @throws SQLException if a database access error occurs
+     */
+    private Show mapShow(ResultSet rs, boolean includeDescription) throws SQLException {
         return new Show(
             rs.getInt("show_id"),
             rs.getString("show_name"),
-            rs.getString("description"),
+            includeDescription ? rs.getString("description") : null,
             rs.getString("image_url"),
             rs.getInt("num_episodes"),
             rs.getShort("release_year"),
@@ -229,13 +494,10 @@ public class ShowDaoImpl implements ShowDao {
      */
     private boolean alreadyExists(Show show, Connection conn) throws SQLException {
         // Check for an existing show with the same name (case-insensitive) and release year
-        String query = "SELECT 1 FROM tv_shows WHERE LOWER(show_name) = LOWER(?) AND release_year = ?";
-        PreparedStatement pStmt = conn.prepareStatement(query);
-        pStmt.setString(1, show.getName());
-        pStmt.setShort(2, show.getReleaseYear());
-
-        ResultSet rs = pStmt.executeQuery();
-        return rs.next();
+        return JdbcHelper.exists(conn, EXISTS_BY_NAME_AND_YEAR_QUERY, pStmt -> {
+            pStmt.setString(1, show.getName());
+            pStmt.setShort(2, show.getReleaseYear());
+        });
     }
 
 }
@@ -0,0 +1,91 @@
+package com.jmill29.tvtrackerapi.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * The database products the DAOs know how to generate vendor-specific SQL for.
+ * <p>
+ * Production runs on MySQL and the test profile runs on H2; anything else falls back to portable SQL.
+ * Also classifies integrity-constraint failures by vendor error code so DAOs can map them back to the
+ * application's own exceptions without a pre-check query.
+ * </p>
+ */
+enum SqlDialect {
+
+    MYSQL,
+    H2,
+    OTHER;
+
+    /** MySQL: duplicate entry for a PRIMARY or UNIQUE key */
+    private static final int MYSQL_DUPLICATE_KEY = 1062;
+
+    /** MySQL: cannot add or update a child row, a foreign key constraint fails */
+    private static final int MYSQL_NO_REFERENCED_ROW = 1452;
+
+    /** H2 and the SQL standard: unique constraint violation */
+    private static final String SQLSTATE_DUPLICATE_KEY = "23505";
+
+    /** H2: referential integrity violated, parent row missing */
+    private static final String SQLSTATE_H2_PARENT_MISSING = "23506";
+
+    /** SQL standard (e.g. PostgreSQL): foreign key violation */
+    private static final String SQLSTATE_FOREIGN_KEY_VIOLATION = "23503";
+
+
+    /**
+     * Detects the dialect of the database behind a connection.
+     *
+     * @param conn an open connection
+     * @return the matching dialect, or {@link #OTHER} if the product is not recognized
+     * @throws SQLException if the database metadata cannot be read
+     */
+    static SqlDialect of(Connection conn) throws SQLException {
+        String product = conn.getMetaData().getDatabaseProductName();
+        if (product == null) {
+            return OTHER;
+        }
+        if (product.equalsIgnoreCase("MySQL") || product.equalsIgnoreCase("MariaDB")) {
+            return MYSQL;
+        }
+        if (product.equalsIgnoreCase("H2")) {
+            return H2;
+        }
+        return OTHER;
+    }
+
+    /**
+     * Checks whether an exception (or any exception chained to it, e.g. by a failed batch) reports a duplicate
+     * primary or unique key.
+     *
+     * @param ex the exception thrown by the driver
+     * @return {@code true} if the statement was rejected because the key already exists
+     */
+    static boolean isDuplicateKey(SQLException ex) {
+        for (SQLException current = ex; current != null; current = current.getNextException()) {
+            if (current.getErrorCode() == MYSQL_DUPLICATE_KEY
+                    || SQLSTATE_DUPLICATE_KEY.equals(current.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether an exception (or any exception chained to it) reports a foreign key that references a
+     * missing parent row.
+     *
+     * @param ex the exception thrown by the driver
+     * @return {@code true} if the statement was rejected because a referenced row does not exist
+     */
+    static boolean isMissingParent(SQLException ex) {
+        for (SQLException current = ex; current != null; current = current.getNextException()) {
+            if (current.getErrorCode() == MYSQL_NO_REFERENCED_ROW
+                    || SQLSTATE_H2_PARENT_MISSING.equals(current.getSQLState())
+                    || SQLSTATE_FOREIGN_KEY_VIOLATION.equals(current.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
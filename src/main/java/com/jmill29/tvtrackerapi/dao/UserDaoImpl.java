@@ -1,20 +1,20 @@
 package com.jmill29.tvtrackerapi.dao;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import javax.sql.DataSource;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Repository;
 
 import com.jmill29.tvtrackerapi.dto.UserResponse;
+import com.jmill29.tvtrackerapi.event.UserChangedEvent;
 import com.jmill29.tvtrackerapi.exception.UserAlreadyExistsException;
 import com.jmill29.tvtrackerapi.exception.UserNotFoundException;
 import com.jmill29.tvtrackerapi.model.User;
@@ -24,13 +24,29 @@ import com.jmill29.tvtrackerapi.model.User;
  * JDBC-based implementation of the {@link UserDao} interface for managing user data in the database.
  * <p>
  * Provides methods for CRUD operations and user lookups using direct JDBC queries.
+ * Every write that can affect a user's credentials or roles publishes a {@link UserChangedEvent}.
  * </p>
  */
 @Repository
 public class UserDaoImpl implements UserDao {
 
+    private static final String USER_COLUMNS = "user_id, name, username, email, created_at";
+
+    private static final String FIND_BY_ID_QUERY = "SELECT " + USER_COLUMNS + " FROM users WHERE user_id = ?";
+
+    private static final String FIND_BY_USERNAME_QUERY = "SELECT " + USER_COLUMNS + " FROM users WHERE username = ?";
+
+    private static final String FIND_ALL_QUERY = "SELECT " + USER_COLUMNS + " FROM users";
+
+    private static final String INSERT_USER = "INSERT INTO users (name, username, password, email) VALUES (?, ?, ?, ?)";
+
+    private static final String DELETE_USER = "DELETE FROM users WHERE user_id = ?";
+
+    private static final String INSERT_AUTHORITY = "INSERT INTO authorities (username, authority) VALUES (?, ?)";
+
     private final DataSource dataSource;
     private final PasswordEncoder encoder;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     /**
@@ -38,26 +54,20 @@ public class UserDaoImpl implements UserDao {
      *
      * @param dataSource the {@link DataSource} for database connections
      * @param encoder the {@link PasswordEncoder} for encoding user passwords
+     * @param eventPublisher the publisher used to announce changes to user records
      */
     @Autowired
-    public UserDaoImpl(DataSource dataSource, PasswordEncoder encoder) {
-        this.dataSource = dataSource;
+    public UserDaoImpl(DataSource dataSource, PasswordEncoder encoder, ApplicationEventPublisher eventPublisher) {
+        this.dataSource = JdbcHelper.transactionAware(dataSource);
         this.encoder = encoder;
+        this.eventPublisher = eventPublisher;
     }
 
     /** {@inheritDoc} */
     @Override
     public Optional<UserResponse> findById(int id) throws SQLException {
         try (Connection conn = dataSource.getConnection()) {
-            String query = "SELECT * FROM users WHERE user_id = ?";
-            PreparedStatement pStmt = conn.prepareStatement(query);
-            pStmt.setInt(1, id);
-
-            ResultSet rs = pStmt.executeQuery();
-            if (rs.next()) {
-                return Optional.of(mapUser(rs));
-            }
-            return Optional.empty();
+            return findById(conn, id);
         }
     }
 
@@ -65,16 +75,7 @@ public class UserDaoImpl implements UserDao {
     @Override
     public Optional<UserResponse> findByUsername(String username) throws SQLException {
         try (Connection conn = dataSource.getConnection()) {
-            String query = "SELECT user_id, name, username, email, created_at FROM users WHERE username = ?";
-            PreparedStatement pStmt = conn.prepareStatement(query);
-
-            pStmt.setString(1, username);
-
-            ResultSet rs = pStmt.executeQuery();
-            if (rs.next()) {
-                return Optional.of(mapUser(rs));
-            }
-            return Optional.empty();
+            return findByUsername(conn, username);
         }
     }
 
@@ -82,44 +83,36 @@ public class UserDaoImpl implements UserDao {
     @Override
     public List<UserResponse> findAll() throws SQLException {
         try (Connection conn = dataSource.getConnection()) {
-            String query = "SELECT * FROM users";
-            PreparedStatement pStmt = conn.prepareStatement(query);
-            ResultSet rs = pStmt.executeQuery();
-
-            List<UserResponse> users = new ArrayList<>();
-
-            while (rs.next()) {
-                users.add(mapUser(rs));
-            }
-
-            return users;
+            return JdbcHelper.queryForList(conn, FIND_ALL_QUERY, JdbcHelper.ParameterBinder.NONE, this::mapUser);
         }
     }
 
     /** {@inheritDoc} */
     @Override
     public boolean save(User user) throws SQLException, UserAlreadyExistsException, UserNotFoundException {
-        // If userId is 0, treat as a new user (insert)
-        if (user.getUserId() == 0) {
-            // Check if username already exists
-            if (findByUsername(user.getUsername()).isPresent()) {
-                // Username already exists, cannot create new user
-                throw new UserAlreadyExistsException("Username already exists: " + user.getUsername());
-            }
-
-            try (Connection conn = dataSource.getConnection()) {
+        // The existence check and the write share one connection
+        try (Connection conn = dataSource.getConnection()) {
+            // If userId is 0, treat as a new user (insert)
+            if (user.getUserId() == 0) {
+                // Check if username already exists
+                if (findByUsername(conn, user.getUsername()).isPresent()) {
+                    // Username already exists, cannot create new user
+                    throw new UserAlreadyExistsException("Username already exists: " + user.getUsername());
+                }
                 return createUser(user, conn);
             }
-        } else {
+
             // check if user exists by ID
-            if (!findById(user.getUserId()).isPresent()) {
+            Optional<UserResponse> existing = findById(conn, user.getUserId());
+            if (!existing.isPresent()) {
                 // User with this ID does not exist, cannot update
                 throw new UserNotFoundException("User not found with ID: " + user.getUserId());
             }
 
-            try (Connection conn = dataSource.getConnection()) {
-                return updateUser(user, conn);
-            }
+            boolean updated = updateUser(user, conn);
+            // Announce the change under the previous username so cached credentials for it are dropped
+            eventPublisher.publishEvent(new UserChangedEvent(user.getUserId(), existing.get().getUsername()));
+            return updated;
         }
     }
 
@@ -127,13 +120,12 @@ public class UserDaoImpl implements UserDao {
     @Override
     public boolean deleteById(int id) throws SQLException {
         try (Connection conn = dataSource.getConnection()) {
-            String query = "DELETE FROM users WHERE user_id = ?";
-            PreparedStatement pStmt = conn.prepareStatement(query);
-
-            pStmt.setInt(1, id);
-
-            int rowsAffected = pStmt.executeUpdate();
+            int rowsAffected = JdbcHelper.update(conn, DELETE_USER, pStmt -> pStmt.setInt(1, id));
 
+            if (rowsAffected > 0) {
+                // The username is not known here, so listeners must discard state for all users
+                eventPublisher.publishEvent(new UserChangedEvent(id, null));
+            }
             return rowsAffected > 0;
         }
     }
@@ -153,20 +145,46 @@ public class UserDaoImpl implements UserDao {
      */
     @Override
     public boolean assignRoleToUser(String username, String role) throws SQLException {
-        // Prepare SQL to insert a new authority for the user
-        String sql = "INSERT INTO authorities (username, authority) VALUES (?, ?)";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pStmt = conn.prepareStatement(sql)) {
-            // Set the username and role parameters
-            pStmt.setString(1, username);
-            pStmt.setString(2, role);
-            // Execute the insert; returns true if at least one row was inserted
-            return pStmt.executeUpdate() > 0;
+        try (Connection conn = dataSource.getConnection()) {
+            // Insert a new authority for the user; returns true if at least one row was inserted
+            boolean assigned = JdbcHelper.update(conn, INSERT_AUTHORITY, pStmt -> {
+                pStmt.setString(1, username);
+                pStmt.setString(2, role);
+            }) > 0;
+            eventPublisher.publishEvent(new UserChangedEvent(0, username));
+            return assigned;
         }
         // Any SQL exception will propagate to the caller
     }
 
 
+    /**
+     * Looks up a user by ID on an existing connection.
+     *
+     * @param conn the active database connection
+     * @param id   the user's ID
+     * @return the user, or empty if no user has that ID
+     * @throws SQLException if a database access error occurs
+     */
+    private Optional<UserResponse> findById(Connection conn, int id) throws SQLException {
+        return JdbcHelper.queryForOptional(conn, FIND_BY_ID_QUERY, pStmt -> pStmt.setInt(1, id), this::mapUser);
+    }
+
+
+    /**
+     * Looks up a user by username on an existing connection.
+     *
+     * @param conn     the active database connection
+     * @param username the username
+     * @return the user, or empty if no user has that username
+     * @throws SQLException if a database access error occurs
+     */
+    private Optional<UserResponse> findByUsername(Connection conn, String username) throws SQLException {
+        return JdbcHelper.queryForOptional(conn, FIND_BY_USERNAME_QUERY,
+                pStmt -> pStmt.setString(1, username), this::mapUser);
+    }
+
+
     /**
      * Updates an existing user in the database.
      *
@@ -188,21 +206,19 @@ public class UserDaoImpl implements UserDao {
 
         query += "email = ? WHERE user_id = ?";
 
-        PreparedStatement pStmt = conn.prepareStatement(query);
+        int rowsAffected = JdbcHelper.update(conn, query, pStmt -> {
+            pStmt.setString(1, user.getName());
+            pStmt.setString(2, user.getUsername());
 
-        pStmt.setString(1, user.getName());
-        pStmt.setString(2, user.getUsername());
-        
-        int i = 3;
-        if (updatingPassword) {
-            // Password is encoded before storing
-            pStmt.setString(i++, encoder.encode(user.getPassword()));
-        }
-
-        pStmt.setString(i++, user.getEmail());
-        pStmt.setInt(i, user.getUserId());
+            int i = 3;
+            if (updatingPassword) {
+                // Password is encoded before storing
+                pStmt.setString(i++, encoder.encode(user.getPassword()));
+            }
 
-        int rowsAffected = pStmt.executeUpdate();
+            pStmt.setString(i++, user.getEmail());
+            pStmt.setInt(i, user.getUserId());
+        });
 
         return rowsAffected > 0;
     }
@@ -218,15 +234,12 @@ public class UserDaoImpl implements UserDao {
      */
     private boolean createUser(User user, Connection conn) throws SQLException {
         // Always encode password before storing
-        String query = "INSERT INTO users (name, username, password, email) VALUES (?, ?, ?, ?)";
-        PreparedStatement pStmt = conn.prepareStatement(query);
-
-        pStmt.setString(1, user.getName());
-        pStmt.setString(2, user.getUsername());
-        pStmt.setString(3, encoder.encode(user.getPassword()));
-        pStmt.setString(4, user.getEmail());
-
-        int rowsAffected = pStmt.executeUpdate();
+        int rowsAffected = JdbcHelper.update(conn, INSERT_USER, pStmt -> {
+            pStmt.setString(1, user.getName());
+            pStmt.setString(2, user.getUsername());
+            pStmt.setString(3, encoder.encode(user.getPassword()));
+            pStmt.setString(4, user.getEmail());
+        });
 
         return rowsAffected > 0;
     }
@@ -1,15 +1,26 @@
 package com.jmill29.tvtrackerapi.dao;
 
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
+import com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest;
 import com.jmill29.tvtrackerapi.dto.UserWatchHistoryRequest;
 import com.jmill29.tvtrackerapi.dto.UserWatchHistoryResponse;
+import com.jmill29.tvtrackerapi.model.EpisodeProgress;
+import com.jmill29.tvtrackerapi.model.UserWatchHistory;
+import com.jmill29.tvtrackerapi.model.WatchHistoryStats;
 
 /**
  * Data Access Object interface for managing user watch history in the database.
  * <p>
  * Provides methods for adding, retrieving, updating, and deleting watch history records for users.
+ * Status updates and deletes return the row they replaced, read in the same transaction as the write, so callers
+ * can keep derived counters current without re-aggregating. Upserts and partial updates stay a single statement
+ * and do not.
  * </p>
  */
 public interface UserWatchHistoryDao {
@@ -39,20 +50,20 @@ public interface UserWatchHistoryDao {
      *
      * @param userWatchHistoryRequest the {@link UserWatchHistoryRequest} object containing updated watch status and show id
      * @param username the username of the user
-     * @return {@code true} if the operation was successful, {@code false} otherwise
+     * @return the entry as it was before the update, or empty if no matching entry exists
      * @throws SQLException if a database access error occurs
      */
-    boolean updateWatchStatus(UserWatchHistoryRequest userWatchHistoryRequest, String username) throws SQLException;
+    Optional<UserWatchHistory> updateWatchStatus(UserWatchHistoryRequest userWatchHistoryRequest, String username) throws SQLException;
 
     /**
      * Deletes a show from the user's watch history.
      *
      * @param username the username of the user
      * @param showId the ID of the show (matches the {@code show_id} field)
-     * @return {@code true} if the operation was successful, {@code false} otherwise
+     * @return the deleted entry, or empty if no matching entry exists
      * @throws SQLException if a database access error occurs
      */
-    boolean deleteShowFromWatchHistory(String username, int showId) throws SQLException;
+    Optional<UserWatchHistory> deleteShowFromWatchHistory(String username, int showId) throws SQLException;
 
     /**
      * Checks if a show is in the user's watch history.
@@ -73,4 +84,153 @@ public interface UserWatchHistoryDao {
      * @throws SQLException if a database access error occurs
      */
     List<UserWatchHistoryResponse> getWatchHistoryByUsername(String username, boolean getAll) throws SQLException;
+
+    /**
+     * Adds a show to the watch history of the user with the given ID.
+     * <p>
+     * Issues a single INSERT; no username lookup or existence check is performed. Constraint violations are
+     * mapped back to the application's exceptions.
+     * </p>
+     *
+     * @param userWatchHistoryRequest the {@link UserWatchHistoryRequest} object containing status and show id
+     * @param userId the ID of the user
+     * @return {@code true} if the operation was successful, {@code false} otherwise
+     * @throws com.jmill29.tvtrackerapi.exception.WatchHistoryAlreadyExistsException if the entry already exists
+     * @throws com.jmill29.tvtrackerapi.exception.ShowNotFoundException if the show does not exist
+     * @throws com.jmill29.tvtrackerapi.exception.UserNotFoundException if the user does not exist
+     * @throws SQLException if a database access error occurs
+     */
+    boolean addShowToWatchHistory(UserWatchHistoryRequest userWatchHistoryRequest, int userId) throws SQLException;
+
+    /**
+     * Updates the watch status of a show in the watch history of the user with the given ID.
+     * <p>
+     * Locks and reads the entry, then updates it in the same transaction; no username lookup is performed. If
+     * upsert mode is enabled this behaves like {@link #upsertWatchStatus(UserWatchHistoryRequest, int)} instead;
+     * the upsert does not read the entry, so it is reported as an entry with a {@code null} status whose previous
+     * values are unknown.
+     * </p>
+     *
+     * @param userWatchHistoryRequest the {@link UserWatchHistoryRequest} object containing updated watch status and show id
+     * @param userId the ID of the user
+     * @return the entry as it was before the update, or empty if no matching entry exists
+     * @throws SQLException if a database access error occurs
+     */
+    Optional<UserWatchHistory> updateWatchStatus(UserWatchHistoryRequest userWatchHistoryRequest, int userId) throws SQLException;
+
+    /**
+     * Sets the watch status of a show for the user with the given ID, creating the entry if it does not exist.
+     * <p>
+     * Issues a single vendor-specific upsert statement; the existing entry, if any, is never read. Foreign key
+     * violations are mapped back to the application's exceptions.
+     * </p>
+     *
+     * @param userWatchHistoryRequest the {@link UserWatchHistoryRequest} object containing the watch status and show id
+     * @param userId the ID of the user
+     * @return {@code true} if a row was inserted or updated
+     * @throws com.jmill29.tvtrackerapi.exception.ShowNotFoundException if the show does not exist
+     * @throws com.jmill29.tvtrackerapi.exception.UserNotFoundException if the user does not exist
+     * @throws SQLException if a database access error occurs
+     */
+    boolean upsertWatchStatus(UserWatchHistoryRequest userWatchHistoryRequest, int userId) throws SQLException;
+
+    /**
+     * Changes only the supplied fields of a show in the watch history of the user with the given ID.
+     * <p>
+     * Issues a single UPDATE whose SET clause lists just the supplied columns; the current row is never read.
+     * </p>
+     *
+     * @param userId the ID of the user
+     * @param showId the ID of the show (matches the {@code show_id} field)
+     * @param patch the fields to change; must change at least one field
+     * @return {@code true} if a row was updated, {@code false} if no matching entry exists
+     * @throws SQLException if a database access error occurs
+     */
+    boolean patchWatchHistory(int userId, int showId, UserWatchHistoryPatchRequest patch) throws SQLException;
+
+    /**
+     * Sets the number of episodes watched for many user-show pairs using one JDBC batch.
+     * <p>
+     * All rows are written in a single transaction: either every update is applied or none is. Pairs without a
+     * watch history entry are skipped.
+     * </p>
+     *
+     * @param progress the episode counts to write; at most one per user-show pair
+     * @return the number of entries updated
+     * @throws SQLException if a database access error occurs, in which case nothing is updated
+     */
+    int updateEpisodesWatched(List<EpisodeProgress> progress) throws SQLException;
+
+    /**
+     * Deletes a show from the watch history of the user with the given ID.
+     * <p>
+     * Locks and reads the entry, then deletes it in the same transaction; no username lookup is performed.
+     * </p>
+     *
+     * @param userId the ID of the user
+     * @param showId the ID of the show (matches the {@code show_id} field)
+     * @return the deleted entry, or empty if no matching entry exists
+     * @throws SQLException if a database access error occurs
+     */
+    Optional<UserWatchHistory> deleteShowFromWatchHistory(int userId, int showId) throws SQLException;
+
+    /**
+     * Checks if a show is in the watch history of the user with the given ID.
+     *
+     * @param userId the ID of the user
+     * @param showId the ID of the show (matches the {@code show_id} field)
+     * @return {@code true} if the show is in the watch history, {@code false} otherwise
+     * @throws SQLException if a database access error occurs
+     */
+    boolean isShowInWatchHistory(int userId, int showId) throws SQLException;
+
+    /**
+     * Looks up, in a single query, which of the given shows exist and which are already in the user's watch history.
+     *
+     * @param userId the ID of the user
+     * @param showIds the show IDs to check (at most a few thousand)
+     * @return a map containing every show ID that exists, mapped to {@code true} if it is already in the
+     *         user's watch history; show IDs that do not exist are absent
+     * @throws SQLException if a database access error occurs
+     */
+    Map<Integer, Boolean> findWatchHistoryState(int userId, Collection<Integer> showIds) throws SQLException;
+
+    /**
+     * Adds several shows to the watch history of the user with the given ID using one JDBC batch.
+     * <p>
+     * All rows are written in a single transaction: either every row is inserted or none is.
+     * </p>
+     *
+     * @param userWatchHistoryRequests the requests to insert; show IDs must exist and not already be in the watch history
+     * @param userId the ID of the user
+     * @return the number of rows inserted
+     * @throws com.jmill29.tvtrackerapi.exception.WatchHistoryAlreadyExistsException if a row was added concurrently, in which case nothing is inserted
+     * @throws SQLException if a database access error occurs, in which case nothing is inserted
+     */
+    int addShowsToWatchHistory(List<UserWatchHistoryRequest> userWatchHistoryRequests, int userId) throws SQLException;
+
+    /**
+     * Streams every show in the catalogue together with the user's watch status, one row at a time.
+     * <p>
+     * This is the streaming counterpart of {@link #getWatchHistoryByUserId(int, boolean)} with {@code getAll = true}:
+     * rows are read from a forward-only, read-only result set and handed to {@code action} as they arrive, so memory
+     * use does not grow with the size of the catalogue. Shows the user has no entry for are reported as "Not Watched".
+     * The connection is held until {@code action} has been called for the last row, so callers should not block in it.
+     * </p>
+     *
+     * @param userId the ID of the user
+     * @param action called once per show, in show ID order; an unchecked exception thrown by it stops the query
+     * @throws SQLException if a database access error occurs
+     */
+    void forEachShowWithWatchStatus(int userId, Consumer<UserWatchHistoryResponse> action) throws SQLException;
+
+    /**
+     * Aggregates the watch history of the user with the given ID in a single query.
+     *
+     * @param userId the ID of the user
+     * @return the number of entries per status, total episodes watched, and rating sum and count;
+     *         every counter is zero if the user has no watch history
+     * @throws SQLException if a database access error occurs
+     */
+    WatchHistoryStats getWatchHistoryStats(int userId) throws SQLException;
 }
@@ -4,71 +4,229 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import javax.sql.DataSource;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import com.jmill29.tvtrackerapi.cache.DataVersions;
+import com.jmill29.tvtrackerapi.cache.ShowCache;
+import com.jmill29.tvtrackerapi.datasource.WatchHistoryShards;
+import com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest;
 import com.jmill29.tvtrackerapi.dto.UserWatchHistoryRequest;
 import com.jmill29.tvtrackerapi.dto.UserWatchHistoryResponse;
+import com.jmill29.tvtrackerapi.enums.WatchStatus;
+import com.jmill29.tvtrackerapi.exception.ShowNotFoundException;
 import com.jmill29.tvtrackerapi.exception.UserNotFoundException;
+import com.jmill29.tvtrackerapi.exception.WatchHistoryAlreadyExistsException;
+import com.jmill29.tvtrackerapi.model.EpisodeProgress;
+import com.jmill29.tvtrackerapi.model.Show;
+import com.jmill29.tvtrackerapi.model.UserWatchHistory;
+import com.jmill29.tvtrackerapi.model.WatchHistoryStats;
 
 /**
  * JDBC-based implementation of the {@link UserWatchHistoryDao} interface for managing user watch history in the database.
  * <p>
  * Provides methods for adding, retrieving, updating, and deleting watch history records for users using direct JDBC queries.
+ * Inserts keyed by user ID are single statements: constraint violations are mapped back to
+ * {@link WatchHistoryAlreadyExistsException} / {@link ShowNotFoundException} instead of checking first.
+ * Status updates and deletes read the row they replace with {@code SELECT ... FOR UPDATE} in the same transaction
+ * and return it, so callers can adjust derived counters without re-aggregating. Upserts and partial updates stay a
+ * single statement and only report whether a row was written.
+ * When {@code app.watch-history.upsert-on-update} is enabled, status updates become a vendor-specific upsert
+ * ({@code INSERT ... AS new ON DUPLICATE KEY UPDATE} on MySQL 8.0.19+, {@code MERGE} on H2) that creates a
+ * missing entry.
+ * Partial updates build their SET clause from the supplied fields only; see
+ * {@link #patchWatchHistory(int, int, UserWatchHistoryPatchRequest)}.
+ * The full-catalogue view can also be streamed row by row; see {@link #forEachShowWithWatchStatus(int, Consumer)}.
+ * Every write that changes a row bumps the user's version in {@link DataVersions}, which backs watch history ETags.
+ * </p>
+ * <p>
+ * Watch history rows may be sharded by user ID over several databases (see {@link WatchHistoryShards}); users and
+ * the show catalogue stay on the primary. Calls keyed by user ID then run on the user's shard, and views that need
+ * show details read the user's rows from the shard and merge them with the catalogue from the primary instead of
+ * joining. Writes to a shard other than the primary check that the show and user exist first, since only the
+ * primary has foreign keys. Unsharded, every call runs on the primary exactly as before.
+ * </p>
+ * <p>
+ * When {@code app.watch-history.merge-cached-catalogue} is enabled, the full-catalogue lists read only the user's
+ * rows and merge them with the {@link ShowCache} snapshot of the catalogue instead of joining against
+ * {@code tv_shows}. While no snapshot is cached, they query as before.
  * </p>
  */
 @Repository
 public class UserWatchHistoryDaoImpl implements UserWatchHistoryDao {
 
+    /** Every show, with the user's status if present (LEFT JOIN), in show ID order */
+    private static final String ALL_SHOWS_WITH_STATUS_QUERY =
+            "SELECT s.show_id, s.show_name AS show_name, s.description, s.image_url, " +
+            "uwh.status, uwh.episodes_watched, uwh.rating, uwh.favorite " +
+            "FROM tv_shows s " +
+            "LEFT JOIN user_watch_history uwh ON s.show_id = uwh.show_id AND uwh.user_id = ? " +
+            "ORDER BY s.show_id";
+
+    /** Inserts one entry with every user-editable column */
+    private static final String INSERT_QUERY =
+            "INSERT INTO user_watch_history (user_id, show_id, status, episodes_watched, rating, favorite) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    /** The row an update or delete is about to replace, locked until the write's transaction ends */
+    private static final String LOCK_ENTRY_QUERY =
+            "SELECT status, episodes_watched, rating FROM user_watch_history " +
+            "WHERE user_id = ? AND show_id = ? FOR UPDATE";
+
+    /** Per-status totals for one user; SUM/COUNT over {@code rating} ignore unrated rows */
+    private static final String STATS_QUERY =
+            "SELECT status, COUNT(*) AS entries, COALESCE(SUM(episodes_watched), 0) AS episodes, " +
+            "COALESCE(SUM(rating), 0) AS rating_sum, COUNT(rating) AS rated " +
+            "FROM user_watch_history WHERE user_id = ? GROUP BY status";
+
+    /** Sharded: one user's rows, without show details, read from the user's shard */
+    private static final String USER_ROWS_QUERY =
+            "SELECT show_id, status, episodes_watched, rating, favorite FROM user_watch_history WHERE user_id = ?";
+
+    /** Sharded: the show details merged with a user's rows, read from the primary */
+    private static final String CATALOGUE_QUERY =
+            "SELECT show_id, show_name, description, image_url FROM tv_shows ORDER BY show_id";
+
+    /** Sharded: whether the show and the user exist, checked on the primary before a write to a shard without foreign keys */
+    private static final String PARENTS_EXIST_QUERY =
+            "SELECT (SELECT COUNT(*) FROM tv_shows WHERE show_id = ?), (SELECT COUNT(*) FROM users WHERE user_id = ?)";
+
+    /** Sharded: most show IDs bound into one {@code IN (...)} list */
+    private static final int IN_LIST_CHUNK = 1000;
+
     private final DataSource dataSource;
+    private final boolean upsertOnUpdate;
+    private final int streamFetchSize;
+    private final DataVersions dataVersions;
+    private final WatchHistoryShards shards;
+
+    /** Source of the catalogue merged into full-catalogue lists, or {@code null} to always join in SQL */
+    private final ShowCache catalogueCache;
+
+    /** Detected lazily from the first connection's metadata */
+    private volatile SqlDialect dialect;
 
 
     /**
-     * Constructs a new {@code UserWatchHistoryDaoImpl} with the given data source.
+     * Constructs a new unsharded {@code UserWatchHistoryDaoImpl} with the given data source.
      *
      * @param dataSource the {@link DataSource} for database connections
+     * @param upsertOnUpdate whether status updates keyed by user ID should create missing entries
+     * @param streamFetchSize rows fetched per round trip when streaming on drivers other than MySQL
+     * @param dataVersions the modification counters behind watch history ETags
      */
-    public UserWatchHistoryDaoImpl(DataSource dataSource) {
-        this.dataSource = dataSource;
+    public UserWatchHistoryDaoImpl(DataSource dataSource, boolean upsertOnUpdate, int streamFetchSize,
+                                   DataVersions dataVersions) {
+        this(dataSource, upsertOnUpdate, streamFetchSize, dataVersions, WatchHistoryShards.unsharded(dataSource));
+    }
+
+    /**
+     * Constructs a new {@code UserWatchHistoryDaoImpl} whose watch history rows may be spread over several shards.
+     *
+     * @param dataSource the {@link DataSource} for database connections; holds users and the show catalogue
+     * @param upsertOnUpdate whether status updates keyed by user ID should create missing entries
+     * @param streamFetchSize rows fetched per round trip when streaming on drivers other than MySQL
+     * @param dataVersions the modification counters behind watch history ETags
+     * @param shards the databases holding {@code user_watch_history}, and which one holds each user's rows
+     */
+    public UserWatchHistoryDaoImpl(DataSource dataSource, boolean upsertOnUpdate, int streamFetchSize,
+                                   DataVersions dataVersions, WatchHistoryShards shards) {
+        this(dataSource, upsertOnUpdate, streamFetchSize, dataVersions, shards, false, null);
+    }
+
+    /**
+     * Constructs a new {@code UserWatchHistoryDaoImpl} that may merge full-catalogue lists with the cached catalogue.
+     *
+     * @param dataSource the {@link DataSource} for database connections; holds users and the show catalogue
+     * @param upsertOnUpdate whether status updates keyed by user ID should create missing entries
+     * @param streamFetchSize rows fetched per round trip when streaming on drivers other than MySQL
+     * @param dataVersions the modification counters behind watch history ETags
+     * @param shards the databases holding {@code user_watch_history}, and which one holds each user's rows
+     * @param mergeCachedCatalogue whether full-catalogue lists merge the user's rows with the cached catalogue
+     * @param showCache the cache whose catalogue snapshot is merged
+     */
+    @Autowired
+    public UserWatchHistoryDaoImpl(
+            DataSource dataSource,
+            @Value("${app.watch-history.upsert-on-update:false}") boolean upsertOnUpdate,
+            @Value("${app.watch-history.stream-fetch-size:500}") int streamFetchSize,
+            DataVersions dataVersions,
+            WatchHistoryShards shards,
+            @Value("${app.watch-history.merge-cached-catalogue:false}") boolean mergeCachedCatalogue,
+            ShowCache showCache) {
+        this.dataSource = JdbcHelper.transactionAware(dataSource);
+        this.upsertOnUpdate = upsertOnUpdate;
+        this.streamFetchSize = streamFetchSize;
+        this.dataVersions = dataVersions;
+        this.shards = shards;
+        this.catalogueCache = mergeCachedCatalogue ? showCache : null;
     }
 
     /** {@inheritDoc} */
     @Override
     public boolean addShowToWatchHistory(UserWatchHistoryRequest userWatchHistoryRequest, String username) throws SQLException {
+        if (shards.isSharded()) {
+            return addShowToWatchHistory(userWatchHistoryRequest, userIdOf(username));
+        }
         try (Connection conn = dataSource.getConnection()) {
             int userId = getUserIdByUsername(conn, username);
-            String query = "INSERT INTO user_watch_history (user_id, show_id, status) VALUES (?, ?, ?)";
-            try (PreparedStatement pStmt = conn.prepareStatement(query)) {
-                pStmt.setInt(1, userId);
-                pStmt.setInt(2, userWatchHistoryRequest.getShowId());
-                // Store status as its DB value (enum to string)
-                pStmt.setString(3, userWatchHistoryRequest.getStatus().getDbValue());
-                int rowsAffected = pStmt.executeUpdate();
-                // Returns true if a row was inserted
-                return rowsAffected > 0;
-            }
+            return changed(userId, insertWatchHistory(conn, userWatchHistoryRequest, userId));
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean addShowToWatchHistory(UserWatchHistoryRequest userWatchHistoryRequest, int userId) throws SQLException {
+        return shards.withUser(userId, shard -> {
+            if (!shard.isPrimary()) {
+                requireShowAndUser(userId, userWatchHistoryRequest.getShowId());
+            }
+            try (Connection conn = shard.getDataSource().getConnection()) {
+                try {
+                    return changed(userId, insertWatchHistory(conn, userWatchHistoryRequest, userId));
+                } catch (SQLException ex) {
+                    throwIfConstraintViolation(conn, ex, userId, userWatchHistoryRequest.getShowId());
+                    throw ex;
+                }
+            }
+        });
+    }
+
     /** {@inheritDoc} */
     @Override
     public List<UserWatchHistoryResponse> getWatchHistoryByUserId(int userId, boolean getAll) throws SQLException {
+        List<Show> catalogue = getAll ? cachedCatalogue() : null;
+        if (catalogue != null) {
+            return mergeWithCachedCatalogue(userRows(userId), catalogue);
+        }
+        if (shards.isSharded()) {
+            return mergeWithCatalogue(userRows(userId), getAll);
+        }
         try (Connection conn = dataSource.getConnection()) {
             String query;
             if (!getAll) {
                 // Only shows the user has interacted with (INNER JOIN)
-                query = "SELECT uwh.show_id, s.show_name AS show_name, s.description, s.image_url, uwh.status " +
+                query = "SELECT uwh.show_id, s.show_name AS show_name, s.description, s.image_url, " +
+                        "uwh.status, uwh.episodes_watched, uwh.rating, uwh.favorite " +
                         "FROM user_watch_history uwh " +
                         "JOIN tv_shows s ON uwh.show_id = s.show_id AND uwh.user_id = ?";
             } else {
-                // All shows, with user's status if present (LEFT JOIN)
-                query = "SELECT uwh.show_id, s.show_name AS show_name, s.description, s.image_url, uwh.status " +
-                        "FROM tv_shows s " +
-                        "LEFT JOIN user_watch_history uwh ON s.show_id = uwh.show_id AND uwh.user_id = ? ";
+                query = ALL_SHOWS_WITH_STATUS_QUERY;
             }
             try (PreparedStatement pStmt = conn.prepareStatement(query)) {
                 pStmt.setInt(1, userId);
@@ -86,70 +244,205 @@ public class UserWatchHistoryDaoImpl implements UserWatchHistoryDao {
 
     /** {@inheritDoc} */
     @Override
-    public boolean updateWatchStatus(UserWatchHistoryRequest userWatchHistory, String username) throws SQLException {
+    public Optional<UserWatchHistory> updateWatchStatus(UserWatchHistoryRequest userWatchHistory, String username) throws SQLException {
+        if (shards.isSharded()) {
+            return updateStatus(userWatchHistory, userIdOf(username));
+        }
         try (Connection conn = dataSource.getConnection()) {
             int userId = getUserIdByUsername(conn, username);
-            String query = "UPDATE user_watch_history SET status = ? WHERE show_id = ? AND user_id = ?";
-            try (PreparedStatement pStmt = conn.prepareStatement(query)) {
-                // Update the status for a specific user-show pair
-                pStmt.setString(1, userWatchHistory.getStatus().getDbValue());
-                pStmt.setInt(2, userWatchHistory.getShowId());
-                pStmt.setInt(3, userId);
-                int rowsAffected = pStmt.executeUpdate();
-                // Returns true if a row was updated
-                return rowsAffected > 0;
+            return changed(userId, updateWatchHistoryStatus(conn, userWatchHistory, userId));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Optional<UserWatchHistory> updateWatchStatus(UserWatchHistoryRequest userWatchHistory, int userId) throws SQLException {
+        if (upsertOnUpdate) {
+            // The upsert does not read the row it replaces, so report a row whose previous values are unknown
+            return upsertWatchStatus(userWatchHistory, userId)
+                    ? Optional.of(new UserWatchHistory(userId, userWatchHistory.getShowId(), null))
+                    : Optional.empty();
+        }
+        return updateStatus(userWatchHistory, userId);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean upsertWatchStatus(UserWatchHistoryRequest userWatchHistory, int userId) throws SQLException {
+        return shards.withUser(userId, shard -> {
+            if (!shard.isPrimary()) {
+                requireShowAndUser(userId, userWatchHistory.getShowId());
             }
+            try (Connection conn = shard.getDataSource().getConnection()) {
+                try {
+                    return changed(userId, upsertWatchHistoryStatus(conn, userWatchHistory, userId));
+                } catch (SQLException ex) {
+                    throwIfConstraintViolation(conn, ex, userId, userWatchHistory.getShowId());
+                    throw ex;
+                }
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean patchWatchHistory(int userId, int showId, UserWatchHistoryPatchRequest patch) throws SQLException {
+        // Columns are always listed in the same order, so there are at most 15 distinct statements to cache
+        List<String> assignments = new ArrayList<>(4);
+        if (patch.getStatus() != null) {
+            assignments.add("status = ?");
+        }
+        if (patch.getEpisodesWatched() != null) {
+            assignments.add("episodes_watched = ?");
+        }
+        if (patch.isRatingSet()) {
+            assignments.add("rating = ?");
+        }
+        if (patch.getFavorite() != null) {
+            assignments.add("favorite = ?");
         }
+        if (assignments.isEmpty()) {
+            throw new IllegalArgumentException("Patch must change at least one field");
+        }
+
+        String query = "UPDATE user_watch_history SET " + String.join(", ", assignments) +
+                       " WHERE show_id = ? AND user_id = ?";
+        return shards.withUser(userId, shard -> {
+            try (Connection conn = shard.getDataSource().getConnection()) {
+                return changed(userId, JdbcHelper.update(conn, query, pStmt -> bindPatch(pStmt, patch, userId, showId)) > 0);
+            }
+        });
+    }
+
+    /**
+     * Binds the parameters of a patch UPDATE in the order its SET clause lists them.
+     *
+     * @param pStmt the prepared patch statement
+     * @param patch the fields to change
+     * @param userId the ID of the user
+     * @param showId the ID of the show
+     * @throws SQLException if a parameter cannot be set
+     */
+    private static void bindPatch(PreparedStatement pStmt, UserWatchHistoryPatchRequest patch, int userId, int showId)
+            throws SQLException {
+        int index = 1;
+        if (patch.getStatus() != null) {
+            pStmt.setString(index++, patch.getStatus().getDbValue());
+        }
+        if (patch.getEpisodesWatched() != null) {
+            pStmt.setInt(index++, patch.getEpisodesWatched());
+        }
+        if (patch.isRatingSet()) {
+            if (patch.getRating() != null) {
+                pStmt.setInt(index++, patch.getRating());
+            } else {
+                pStmt.setNull(index++, Types.INTEGER);
+            }
+        }
+        if (patch.getFavorite() != null) {
+            pStmt.setBoolean(index++, patch.getFavorite());
+        }
+        pStmt.setInt(index++, showId);
+        pStmt.setInt(index, userId);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * When watch history is sharded, each shard's rows are written in their own transaction, so a failure can
+     * leave the rows of shards that were already written in place.
+     * </p>
+     */
+    @Override
+    public int updateEpisodesWatched(List<EpisodeProgress> progress) throws SQLException {
+        if (progress.isEmpty()) {
+            return 0;
+        }
+        List<Integer> userIds = progress.stream().map(EpisodeProgress::getUserId).distinct().toList();
+        int updated = shards.withUsers(userIds, () -> {
+            Map<String, List<EpisodeProgress>> byShard = new LinkedHashMap<>();
+            for (EpisodeProgress entry : progress) {
+                byShard.computeIfAbsent(shards.shardOf(entry.getUserId()), name -> new ArrayList<>()).add(entry);
+            }
+            int count = 0;
+            for (Map.Entry<String, List<EpisodeProgress>> shardProgress : byShard.entrySet()) {
+                DataSource shardDataSource = shards.getShards().get(shardProgress.getKey()).getDataSource();
+                count += updateEpisodesWatched(shardDataSource, shardProgress.getValue());
+            }
+            return count;
+        });
+        if (updated > 0) {
+            userIds.forEach(dataVersions::userChanged);
+        }
+        return updated;
     }
 
     /** {@inheritDoc} */
     @Override
-    public boolean deleteShowFromWatchHistory(String username, int showId) throws SQLException {
+    public Optional<UserWatchHistory> deleteShowFromWatchHistory(String username, int showId) throws SQLException {
+        if (shards.isSharded()) {
+            return deleteShowFromWatchHistory(userIdOf(username), showId);
+        }
         try (Connection conn = dataSource.getConnection()) {
-            int id = getUserIdByUsername(conn, username);
-            String query = "DELETE FROM user_watch_history WHERE show_id = ? AND user_id = ?";
-            try (PreparedStatement pStmt = conn.prepareStatement(query)) {
-                pStmt.setInt(1, showId);
-                pStmt.setInt(2, id);
-                int rowsAffected = pStmt.executeUpdate();
-                // Returns true if a row was deleted
-                return rowsAffected > 0;
-            }
+            int userId = getUserIdByUsername(conn, username);
+            return changed(userId, deleteWatchHistory(conn, userId, showId));
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Optional<UserWatchHistory> deleteShowFromWatchHistory(int userId, int showId) throws SQLException {
+        return shards.withUser(userId, shard -> {
+            try (Connection conn = shard.getDataSource().getConnection()) {
+                return changed(userId, deleteWatchHistory(conn, userId, showId));
+            }
+        });
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean isShowInWatchHistory(String username, int showId) throws SQLException {
+        if (shards.isSharded()) {
+            return isShowInWatchHistory(userIdOf(username), showId);
+        }
         try (Connection conn = dataSource.getConnection()) {
-            int id = getUserIdByUsername(conn, username);
-            String query = "SELECT 1 FROM user_watch_history WHERE user_id = ? " +
-                            "AND show_id = ?";
-            try (PreparedStatement pStmt = conn.prepareStatement(query)) {
-                pStmt.setInt(1, id);
-                pStmt.setInt(2, showId);
-                try (ResultSet rs = pStmt.executeQuery()) {
-                    // Returns true if a row exists for this user-show pair
-                    return rs.next();
-                }
-            }
+            return watchHistoryExists(conn, getUserIdByUsername(conn, username), showId);
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean isShowInWatchHistory(int userId, int showId) throws SQLException {
+        return shards.withUser(userId, shard -> {
+            try (Connection conn = shard.getDataSource().getConnection()) {
+                return watchHistoryExists(conn, userId, showId);
+            }
+        });
+    }
+
     /** {@inheritDoc} */
     @Override
     public List<UserWatchHistoryResponse> getWatchHistoryByUsername(String username, boolean getAll) throws SQLException {
+        List<Show> catalogue = getAll ? cachedCatalogue() : null;
+        if (catalogue != null) {
+            return mergeWithCachedCatalogue(userRows(userIdOf(username)), catalogue);
+        }
+        if (shards.isSharded()) {
+            return getWatchHistoryByUserId(userIdOf(username), getAll);
+        }
         try (Connection conn = dataSource.getConnection()) {
             String query;
             if (!getAll) {
                 // Only shows the user has interacted with (INNER JOIN)
-                query = "SELECT uwh.show_id, s.show_name AS show_name, s.description, s.image_url, uwh.status " +
+                query = "SELECT uwh.show_id, s.show_name AS show_name, s.description, s.image_url, " +
+                        "uwh.status, uwh.episodes_watched, uwh.rating, uwh.favorite " +
                         "FROM user_watch_history uwh " +
                         "JOIN tv_shows s ON uwh.show_id = s.show_id " +
                         "JOIN users u ON uwh.user_id = u.user_id AND u.username = ?";
             } else {
                 // All shows, with user's status if present (LEFT JOIN)
-                query = "SELECT s.show_id, s.show_name AS show_name, s.description, s.image_url, uwh.status " +
+                query = "SELECT s.show_id, s.show_name AS show_name, s.description, s.image_url, " +
+                        "uwh.status, uwh.episodes_watched, uwh.rating, uwh.favorite " +
                         "FROM tv_shows s " +
                         "LEFT JOIN user_watch_history uwh ON s.show_id = uwh.show_id AND uwh.user_id = ?";
             }
@@ -174,9 +467,646 @@ public class UserWatchHistoryDaoImpl implements UserWatchHistoryDao {
 
     
 
+    /** {@inheritDoc} */
+    @Override
+    public Map<Integer, Boolean> findWatchHistoryState(int userId, Collection<Integer> showIds) throws SQLException {
+        Map<Integer, Boolean> state = new HashMap<>();
+        if (showIds.isEmpty()) {
+            return state;
+        }
+        if (shards.isSharded()) {
+            return findShardedWatchHistoryState(userId, showIds);
+        }
+        // One round trip: every requested show that exists, plus whether the user already has it
+        String query = "SELECT s.show_id, uwh.user_id FROM tv_shows s " +
+                       "LEFT JOIN user_watch_history uwh ON uwh.show_id = s.show_id AND uwh.user_id = ? " +
+                       "WHERE s.show_id IN (" + String.join(", ", Collections.nCopies(showIds.size(), "?")) + ")";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pStmt = conn.prepareStatement(query)) {
+            int index = 1;
+            pStmt.setInt(index++, userId);
+            for (int showId : showIds) {
+                pStmt.setInt(index++, showId);
+            }
+            try (ResultSet rs = pStmt.executeQuery()) {
+                while (rs.next()) {
+                    // user_id is NULL when the LEFT JOIN found no existing entry
+                    state.put(rs.getInt("show_id"), rs.getObject("user_id") != null);
+                }
+            }
+        }
+        return state;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int addShowsToWatchHistory(List<UserWatchHistoryRequest> userWatchHistoryRequests, int userId) throws SQLException {
+        if (userWatchHistoryRequests.isEmpty()) {
+            return 0;
+        }
+        try {
+            shards.withUser(userId, shard -> {
+                try (Connection conn = shard.getDataSource().getConnection()) {
+                    return JdbcHelper.inTransaction(conn, () -> {
+                        try (PreparedStatement pStmt = conn.prepareStatement(INSERT_QUERY)) {
+                            for (UserWatchHistoryRequest request : userWatchHistoryRequests) {
+                                bindInsert(pStmt, request, userId);
+                                pStmt.addBatch();
+                            }
+                            return pStmt.executeBatch();
+                        }
+                    });
+                }
+            });
+        } catch (SQLException ex) {
+            // Rolled back, either locally or by the caller's transaction once this exception reaches it
+            if (SqlDialect.isDuplicateKey(ex)) {
+                throw new WatchHistoryAlreadyExistsException(
+                    "One or more shows were added to the watch history for user ID " + userId + " concurrently; nothing was imported"
+                );
+            }
+            throw ex;
+        }
+        dataVersions.userChanged(userId);
+        return userWatchHistoryRequests.size();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void forEachShowWithWatchStatus(int userId, Consumer<UserWatchHistoryResponse> action) throws SQLException {
+        // Sharded: the user's rows are few and read up front; only the catalogue is streamed
+        Map<Integer, UserWatchHistoryResponse> userRows = shards.isSharded() ? userRows(userId) : null;
+        String query = userRows != null ? CATALOGUE_QUERY : ALL_SHOWS_WITH_STATUS_QUERY;
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pStmt = conn.prepareStatement(
+                     query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Connector/J only streams rows (instead of buffering the whole result) when the fetch size is MIN_VALUE
+            pStmt.setFetchSize(dialect(conn) == SqlDialect.MYSQL ? Integer.MIN_VALUE : streamFetchSize);
+            if (userRows == null) {
+                pStmt.setInt(1, userId);
+            }
+            try (ResultSet rs = pStmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(userRows != null
+                            ? withShow(rs, userRows.get(rs.getInt("show_id")))
+                            : mapUserWatchHistoryDto(rs));
+                }
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public WatchHistoryStats getWatchHistoryStats(int userId) throws SQLException {
+        WatchHistoryStats stats = new WatchHistoryStats();
+        shards.withUser(userId, shard -> {
+            try (Connection conn = shard.getDataSource().getConnection();
+                 PreparedStatement pStmt = conn.prepareStatement(STATS_QUERY)) {
+                pStmt.setInt(1, userId);
+                try (ResultSet rs = pStmt.executeQuery()) {
+                    while (rs.next()) {
+                        stats.addCount(WatchStatus.fromDbValue(rs.getString("status")), rs.getLong("entries"));
+                        stats.setTotalEpisodesWatched(stats.getTotalEpisodesWatched() + rs.getLong("episodes"));
+                        stats.setRatingSum(stats.getRatingSum() + rs.getLong("rating_sum"));
+                        stats.setRatedCount(stats.getRatedCount() + rs.getLong("rated"));
+                    }
+                }
+            }
+            return null;
+        });
+        return stats;
+    }
+
+    /**
+     * Sets the status of an existing entry on the user's shard.
+     *
+     * @param userWatchHistory the request containing the show ID and new status
+     * @param userId the ID of the user
+     * @return the row as it was before the update, or empty if no matching entry exists
+     * @throws SQLException if a database access error occurs
+     */
+    private Optional<UserWatchHistory> updateStatus(UserWatchHistoryRequest userWatchHistory, int userId) throws SQLException {
+        return shards.withUser(userId, shard -> {
+            try (Connection conn = shard.getDataSource().getConnection()) {
+                return changed(userId, updateWatchHistoryStatus(conn, userWatchHistory, userId));
+            }
+        });
+    }
+
+    /**
+     * Runs one JDBC batch of episode count updates on one database, in a single transaction.
+     *
+     * @param shardDataSource the database holding the rows
+     * @param progress the episode counts to write
+     * @return the number of entries updated
+     * @throws SQLException if a database access error occurs, in which case nothing is updated
+     */
+    private static int updateEpisodesWatched(DataSource shardDataSource, List<EpisodeProgress> progress) throws SQLException {
+        String query = "UPDATE user_watch_history SET episodes_watched = ? WHERE show_id = ? AND user_id = ?";
+        try (Connection conn = shardDataSource.getConnection()) {
+            return JdbcHelper.inTransaction(conn, () -> {
+                try (PreparedStatement pStmt = conn.prepareStatement(query)) {
+                    for (EpisodeProgress entry : progress) {
+                        pStmt.setInt(1, entry.getEpisodesWatched());
+                        pStmt.setInt(2, entry.getShowId());
+                        pStmt.setInt(3, entry.getUserId());
+                        pStmt.addBatch();
+                    }
+                    int count = 0;
+                    for (int rows : pStmt.executeBatch()) {
+                        // SUCCESS_NO_INFO (-2) means the driver applied the row but did not report a count
+                        count += rows == Statement.SUCCESS_NO_INFO ? 1 : rows;
+                    }
+                    return count;
+                }
+            });
+        }
+    }
+
+    /**
+     * Looks up a user's ID on the primary, where the {@code users} table lives.
+     *
+     * @param username the username to look up
+     * @return the user's ID
+     * @throws UserNotFoundException if no user has that username
+     * @throws SQLException if a database access error occurs
+     */
+    private int userIdOf(String username) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            return getUserIdByUsername(conn, username);
+        }
+    }
+
+    /**
+     * Sharded: checks on the primary that the show and user a new entry refers to exist, since the shards have no
+     * foreign keys to reject it.
+     *
+     * @param userId the ID of the user
+     * @param showId the ID of the show
+     * @throws ShowNotFoundException if the show does not exist
+     * @throws UserNotFoundException if the user does not exist
+     * @throws SQLException if a database access error occurs
+     */
+    private void requireShowAndUser(int userId, int showId) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pStmt = conn.prepareStatement(PARENTS_EXIST_QUERY)) {
+            pStmt.setInt(1, showId);
+            pStmt.setInt(2, userId);
+            try (ResultSet rs = pStmt.executeQuery()) {
+                rs.next();
+                if (rs.getInt(1) == 0) {
+                    throw new ShowNotFoundException("Show with ID, " + showId + ", not found");
+                }
+                if (rs.getInt(2) == 0) {
+                    throw new UserNotFoundException("User with ID " + userId + " does not exist");
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the cached catalogue snapshot when full-catalogue lists are merged in memory.
+     *
+     * @return every show sorted by ID, or {@code null} to join in SQL instead
+     */
+    private List<Show> cachedCatalogue() {
+        return catalogueCache != null ? catalogueCache.getAll() : null;
+    }
+
+    /**
+     * Reads a user's rows from their shard, keyed by show ID. The responses carry no show details.
+     *
+     * @param userId the ID of the user
+     * @return the user's rows by show ID
+     * @throws SQLException if a database access error occurs
+     */
+    private Map<Integer, UserWatchHistoryResponse> userRows(int userId) throws SQLException {
+        Map<Integer, UserWatchHistoryResponse> rows = new HashMap<>();
+        shards.withUser(userId, shard -> {
+            try (Connection conn = shard.getDataSource().getConnection()) {
+                JdbcHelper.forEachRow(conn, USER_ROWS_QUERY, pStmt -> pStmt.setInt(1, userId), rs -> {
+                    int rating = rs.getInt("rating");
+                    Integer nullableRating = rs.wasNull() ? null : rating;
+                    int showId = rs.getInt("show_id");
+                    rows.put(showId, new UserWatchHistoryResponse(showId, null, null, null,
+                            rs.getString("status"), rs.getInt("episodes_watched"), nullableRating,
+                            rs.getBoolean("favorite")));
+                });
+            }
+            return null;
+        });
+        return rows;
+    }
+
+    /**
+     * Sharded: adds the show details from the primary to a user's rows.
+     * <p>
+     * With {@code getAll} every show in the catalogue is returned, with "Not Watched" for shows the user has no
+     * entry for, exactly as the LEFT JOIN would. Otherwise only the user's shows are looked up, in chunks of IDs.
+     * Either way rows whose show has been deleted are dropped and the result is in show ID order.
+     * </p>
+     *
+     * @param userRows the user's rows by show ID
+     * @param getAll whether to return every show or only the user's
+     * @return the merged watch history
+     * @throws SQLException if a database access error occurs
+     */
+    private List<UserWatchHistoryResponse> mergeWithCatalogue(Map<Integer, UserWatchHistoryResponse> userRows,
+                                                              boolean getAll) throws SQLException {
+        List<UserWatchHistoryResponse> watchHistory = new ArrayList<>();
+        if (!getAll && userRows.isEmpty()) {
+            return watchHistory;
+        }
+        try (Connection conn = dataSource.getConnection()) {
+            if (getAll) {
+                JdbcHelper.forEachRow(conn, CATALOGUE_QUERY, JdbcHelper.ParameterBinder.NONE,
+                        rs -> watchHistory.add(withShow(rs, userRows.get(rs.getInt("show_id")))));
+                return watchHistory;
+            }
+            List<Integer> showIds = new ArrayList<>(userRows.keySet());
+            Collections.sort(showIds);
+            for (int from = 0; from < showIds.size(); from += IN_LIST_CHUNK) {
+                List<Integer> chunk = showIds.subList(from, Math.min(showIds.size(), from + IN_LIST_CHUNK));
+                String query = "SELECT show_id, show_name, description, image_url FROM tv_shows " +
+                               "WHERE show_id IN (" + JdbcHelper.placeholders(chunk.size()) + ") ORDER BY show_id";
+                JdbcHelper.forEachRow(conn, query, pStmt -> bindIds(pStmt, 1, chunk),
+                        rs -> watchHistory.add(withShow(rs, userRows.get(rs.getInt("show_id")))));
+            }
+        }
+        return watchHistory;
+    }
+
+    /**
+     * Adds the show details from the cached catalogue to a user's rows: every show in the catalogue, in show ID
+     * order, with "Not Watched" for shows the user has no entry for, exactly as the LEFT JOIN would. Rows whose
+     * show is not in the catalogue are dropped.
+     *
+     * @param userRows the user's rows by show ID
+     * @param catalogue every show, sorted by ID
+     * @return the merged watch history
+     */
+    private static List<UserWatchHistoryResponse> mergeWithCachedCatalogue(
+            Map<Integer, UserWatchHistoryResponse> userRows, List<Show> catalogue) {
+        List<UserWatchHistoryResponse> watchHistory = new ArrayList<>(catalogue.size());
+        for (Show show : catalogue) {
+            watchHistory.add(withShow(show.getId(), show.getName(), show.getDescription(), show.getImageUrl(),
+                    userRows.get(show.getId())));
+        }
+        return watchHistory;
+    }
+
+    /**
+     * Sharded: {@link #findWatchHistoryState(int, Collection)} as two queries, one for the shows on the primary and
+     * one for the user's entries on their shard.
+     *
+     * @param userId the ID of the user
+     * @param showIds the show IDs to check
+     * @return every show ID that exists, mapped to whether it is already in the user's watch history
+     * @throws SQLException if a database access error occurs
+     */
+    private Map<Integer, Boolean> findShardedWatchHistoryState(int userId, Collection<Integer> showIds) throws SQLException {
+        List<Integer> ids = List.copyOf(showIds);
+        Map<Integer, Boolean> state = new HashMap<>();
+        try (Connection conn = dataSource.getConnection()) {
+            JdbcHelper.forEachRow(conn,
+                    "SELECT show_id FROM tv_shows WHERE show_id IN (" + JdbcHelper.placeholders(ids.size()) + ")",
+                    pStmt -> bindIds(pStmt, 1, ids),
+                    rs -> state.put(rs.getInt("show_id"), false));
+        }
+        shards.withUser(userId, shard -> {
+            try (Connection conn = shard.getDataSource().getConnection()) {
+                JdbcHelper.forEachRow(conn,
+                        "SELECT show_id FROM user_watch_history WHERE user_id = ? AND show_id IN (" +
+                        JdbcHelper.placeholders(ids.size()) + ")",
+                        pStmt -> {
+                            pStmt.setInt(1, userId);
+                            bindIds(pStmt, 2, ids);
+                        },
+                        rs -> state.replace(rs.getInt("show_id"), true));
+            }
+            return null;
+        });
+        return state;
+    }
+
+    private static void bindIds(PreparedStatement pStmt, int firstIndex, List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            pStmt.setInt(firstIndex + i, ids.get(i));
+        }
+    }
+
+    /**
+     * Sharded: combines a catalogue row with the user's entry for that show.
+     *
+     * @param show the {@link ResultSet} positioned at a catalogue row
+     * @param entry the user's entry for the show, or {@code null}
+     * @return the merged response
+     * @throws SQLException if a database access error occurs
+     */
+    private static UserWatchHistoryResponse withShow(ResultSet show, UserWatchHistoryResponse entry) throws SQLException {
+        return withShow(show.getInt("show_id"), show.getString("show_name"), show.getString("description"),
+                show.getString("image_url"), entry);
+    }
+
+    /**
+     * Combines a show's details with the user's entry for that show, defaulting to "Not Watched", no episodes, no
+     * rating, and not a favorite, as {@link #mapUserWatchHistoryDto(ResultSet)} does for a LEFT JOIN row without
+     * an entry.
+     *
+     * @param showId the ID of the show
+     * @param showName the name of the show
+     * @param description the description of the show
+     * @param imageUrl the image URL of the show
+     * @param entry the user's entry for the show, or {@code null}
+     * @return the merged response
+     */
+    private static UserWatchHistoryResponse withShow(int showId, String showName, String description, String imageUrl,
+                                                     UserWatchHistoryResponse entry) {
+        return new UserWatchHistoryResponse(
+            showId,
+            showName,
+            description,
+            imageUrl,
+            entry != null ? entry.getStatus() : "Not Watched",
+            entry != null ? entry.getEpisodesWatched() : 0,
+            entry != null ? entry.getRating() : null,
+            entry != null && entry.isFavorite()
+        );
+    }
+
+    /**
+     * Bumps the user's watch history version if a write changed anything.
+     *
+     * @param userId the ID of the user who was written to
+     * @param changed whether the write changed a row
+     * @return {@code changed}, unchanged
+     */
+    private boolean changed(int userId, boolean changed) {
+        if (changed) {
+            dataVersions.userChanged(userId);
+        }
+        return changed;
+    }
+
+    /**
+     * Bumps a user's data version if a write replaced or deleted one of their rows.
+     *
+     * @param userId the ID of the user
+     * @param previous the replaced row, or empty if the write matched nothing
+     * @return {@code previous}, unchanged
+     */
+    private Optional<UserWatchHistory> changed(int userId, Optional<UserWatchHistory> previous) {
+        changed(userId, previous.isPresent());
+        return previous;
+    }
+
+    /**
+     * Inserts a watch history row for the given user.
+     *
+     * @param conn the active {@link Connection} to the database
+     * @param userWatchHistoryRequest the request containing the show ID, status, and optional progress fields
+     * @param userId the ID of the user
+     * @return {@code true} if a row was inserted
+     * @throws SQLException if a database access error occurs
+     */
+    private static boolean insertWatchHistory(Connection conn, UserWatchHistoryRequest userWatchHistoryRequest, int userId) throws SQLException {
+        try (PreparedStatement pStmt = conn.prepareStatement(INSERT_QUERY)) {
+            bindInsert(pStmt, userWatchHistoryRequest, userId);
+            int rowsAffected = pStmt.executeUpdate();
+            // Returns true if a row was inserted
+            return rowsAffected > 0;
+        }
+    }
+
+    /**
+     * Binds the parameters of {@link #INSERT_QUERY}, defaulting omitted fields to no episodes, no rating,
+     * and not a favorite.
+     *
+     * @param pStmt the prepared insert statement
+     * @param request the request containing the show ID, status, and optional progress fields
+     * @param userId the ID of the user
+     * @throws SQLException if a parameter cannot be set
+     */
+    private static void bindInsert(PreparedStatement pStmt, UserWatchHistoryRequest request, int userId) throws SQLException {
+        pStmt.setInt(1, userId);
+        pStmt.setInt(2, request.getShowId());
+        // Store status as its DB value (enum to string)
+        pStmt.setString(3, request.getStatus().getDbValue());
+        pStmt.setInt(4, request.getEpisodesWatched() != null ? request.getEpisodesWatched() : 0);
+        if (request.getRating() != null) {
+            pStmt.setInt(5, request.getRating());
+        } else {
+            pStmt.setNull(5, Types.INTEGER);
+        }
+        pStmt.setBoolean(6, request.getFavorite() != null && request.getFavorite());
+    }
+
+    /**
+     * Updates the status of a watch history row for the given user.
+     *
+     * @param conn the active {@link Connection} to the database
+     * @param userWatchHistory the request containing the show ID and new status
+     * @param userId the ID of the user
+     * @return the row as it was before the update, or empty if no matching entry exists
+     * @throws SQLException if a database access error occurs
+     */
+    private static Optional<UserWatchHistory> updateWatchHistoryStatus(Connection conn, UserWatchHistoryRequest userWatchHistory, int userId) throws SQLException {
+        return JdbcHelper.inTransaction(conn, () -> {
+            Optional<UserWatchHistory> previous = lockEntry(conn, userId, userWatchHistory.getShowId());
+            if (previous.isPresent()) {
+                setWatchHistoryStatus(conn, userWatchHistory, userId);
+            }
+            return previous;
+        });
+    }
+
+    /**
+     * Runs the UPDATE that sets the status of a watch history row.
+     *
+     * @param conn the active {@link Connection} to the database
+     * @param userWatchHistory the request containing the show ID and new status
+     * @param userId the ID of the user
+     * @return {@code true} if a row was updated
+     * @throws SQLException if a database access error occurs
+     */
+    private static boolean setWatchHistoryStatus(Connection conn, UserWatchHistoryRequest userWatchHistory, int userId) throws SQLException {
+        String query = "UPDATE user_watch_history SET status = ? WHERE show_id = ? AND user_id = ?";
+        try (PreparedStatement pStmt = conn.prepareStatement(query)) {
+            // Update the status for a specific user-show pair
+            pStmt.setString(1, userWatchHistory.getStatus().getDbValue());
+            pStmt.setInt(2, userWatchHistory.getShowId());
+            pStmt.setInt(3, userId);
+            // Returns true if a row was updated
+            return pStmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Deletes a watch history row for the given user.
+     *
+     * @param conn the active {@link Connection} to the database
+     * @param userId the ID of the user
+     * @param showId the ID of the show
+     * @return the deleted row, or empty if no matching entry exists
+     * @throws SQLException if a database access error occurs
+     */
+    private static Optional<UserWatchHistory> deleteWatchHistory(Connection conn, int userId, int showId) throws SQLException {
+        String query = "DELETE FROM user_watch_history WHERE show_id = ? AND user_id = ?";
+        return JdbcHelper.inTransaction(conn, () -> {
+            Optional<UserWatchHistory> previous = lockEntry(conn, userId, showId);
+            if (previous.isPresent()) {
+                JdbcHelper.update(conn, query, pStmt -> {
+                    pStmt.setInt(1, showId);
+                    pStmt.setInt(2, userId);
+                });
+            }
+            return previous;
+        });
+    }
+
+    /**
+     * Reads a watch history row and locks it until the current transaction ends, so the values returned are
+     * exactly the ones the following write replaces.
+     *
+     * @param conn the active {@link Connection} to the database, inside a transaction
+     * @param userId the ID of the user
+     * @param showId the ID of the show
+     * @return the row's status and progress, or empty if no row exists for this user-show pair
+     * @throws SQLException if a database access error occurs
+     */
+    private static Optional<UserWatchHistory> lockEntry(Connection conn, int userId, int showId) throws SQLException {
+        return JdbcHelper.queryForOptional(conn, LOCK_ENTRY_QUERY,
+            pStmt -> {
+                pStmt.setInt(1, userId);
+                pStmt.setInt(2, showId);
+            },
+            rs -> {
+                int rating = rs.getInt("rating");
+                Integer nullableRating = rs.wasNull() ? null : rating;
+                return new UserWatchHistory(userId, showId, WatchStatus.fromDbValue(rs.getString("status")),
+                    rs.getInt("episodes_watched"), nullableRating);
+            });
+    }
+
+    /**
+     * Checks whether a watch history row exists for the given user and show.
+     *
+     * @param conn the active {@link Connection} to the database
+     * @param userId the ID of the user
+     * @param showId the ID of the show
+     * @return {@code true} if a row exists for this user-show pair
+     * @throws SQLException if a database access error occurs
+     */
+    private static boolean watchHistoryExists(Connection conn, int userId, int showId) throws SQLException {
+        String query = "SELECT 1 FROM user_watch_history WHERE user_id = ? " +
+                        "AND show_id = ?";
+        try (PreparedStatement pStmt = conn.prepareStatement(query)) {
+            pStmt.setInt(1, userId);
+            pStmt.setInt(2, showId);
+            try (ResultSet rs = pStmt.executeQuery()) {
+                // Returns true if a row exists for this user-show pair
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Inserts or updates the status of a watch history row in one statement.
+     * <p>
+     * MySQL uses {@code INSERT ... AS new ON DUPLICATE KEY UPDATE}, which needs MySQL 8.0.19 or later for the row
+     * alias, and H2 uses {@code MERGE ... KEY}. Other databases
+     * fall back to an UPDATE followed by an INSERT when no row matched. The existing row is not read, so callers
+     * cannot tell an insert from an update.
+     * </p>
+     *
+     * @param conn the active {@link Connection} to the database
+     * @param userWatchHistory the request containing the show ID and status
+     * @param userId the ID of the user
+     * @return {@code true} if a row was inserted or updated
+     * @throws SQLException if a database access error occurs
+     */
+    private boolean upsertWatchHistoryStatus(Connection conn, UserWatchHistoryRequest userWatchHistory, int userId) throws SQLException {
+        String query;
+        switch (dialect(conn)) {
+            case MYSQL:
+                // A row alias instead of VALUES(), which is deprecated from MySQL 8.0.20
+                query = "INSERT INTO user_watch_history (user_id, show_id, status) VALUES (?, ?, ?) AS new " +
+                        "ON DUPLICATE KEY UPDATE status = new.status";
+                break;
+            case H2:
+                query = "MERGE INTO user_watch_history (user_id, show_id, status) KEY (user_id, show_id) VALUES (?, ?, ?)";
+                break;
+            default:
+                return setWatchHistoryStatus(conn, userWatchHistory, userId)
+                        || insertWatchHistory(conn, userWatchHistory, userId);
+        }
+        try (PreparedStatement pStmt = conn.prepareStatement(query)) {
+            pStmt.setInt(1, userId);
+            pStmt.setInt(2, userWatchHistory.getShowId());
+            pStmt.setString(3, userWatchHistory.getStatus().getDbValue());
+            // MySQL reports 1 for an insert and 2 for an existing row; H2 reports 1 either way
+            return pStmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Maps an integrity constraint violation raised by a watch history write to the matching application exception.
+     * <p>
+     * A duplicate key means the entry already exists. A missing parent row means either the show or the user does
+     * not exist; only on this failure path is the show looked up to tell the two apart. Any other exception is
+     * left for the caller to rethrow.
+     * </p>
+     *
+     * @param conn the active {@link Connection} to the database
+     * @param ex the exception thrown by the write
+     * @param userId the ID of the user
+     * @param showId the ID of the show
+     * @throws WatchHistoryAlreadyExistsException if the entry already exists
+     * @throws ShowNotFoundException if the show does not exist
+     * @throws UserNotFoundException if the user does not exist
+     * @throws SQLException if the show lookup fails
+     */
+    private static void throwIfConstraintViolation(Connection conn, SQLException ex, int userId, int showId)
+            throws WatchHistoryAlreadyExistsException, ShowNotFoundException, UserNotFoundException, SQLException {
+        if (SqlDialect.isDuplicateKey(ex)) {
+            throw new WatchHistoryAlreadyExistsException(
+                "Show ID " + showId + " is already in watch history for user ID " + userId
+            );
+        }
+        if (SqlDialect.isMissingParent(ex)) {
+            try (PreparedStatement pStmt = conn.prepareStatement("SELECT 1 FROM tv_shows WHERE show_id = ?")) {
+                pStmt.setInt(1, showId);
+                try (ResultSet rs = pStmt.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new ShowNotFoundException("Show with ID, " + showId + ", not found");
+                    }
+                }
+            }
+            throw new UserNotFoundException("User with ID " + userId + " does not exist");
+        }
+    }
+
+    /**
+     * Returns the dialect of the configured database, detecting it on first use.
+     *
+     * @param conn the active {@link Connection} to the database
+     * @return the detected dialect
+     * @throws SQLException if the database metadata cannot be read
+     */
+    private SqlDialect dialect(Connection conn) throws SQLException {
+        SqlDialect detected = dialect;
+        if (detected == null) {
+            detected = SqlDialect.of(conn);
+            dialect = detected;
+        }
+        return detected;
+    }
+
     /**
      * Maps a {@link ResultSet} row to a {@link UserWatchHistoryResponse} object.
-     * If the {@code status} column is {@code null}, defaults to {@code "Not Watched"}.
+     * If the {@code status} column is {@code null}, defaults to {@code "Not Watched"}; the progress columns
+     * are likewise {@code null} for shows the user has not tracked and map to no episodes, no rating, and
+     * not a favorite.
      *
      * @param rs the {@link ResultSet} positioned at a row
      * @return the mapped {@link UserWatchHistoryResponse} object
@@ -184,12 +1114,18 @@ public class UserWatchHistoryDaoImpl implements UserWatchHistoryDao {
      */
     private static UserWatchHistoryResponse mapUserWatchHistoryDto(ResultSet rs) throws SQLException {
         // Map a ResultSet row to a UserWatchHistoryResponse, defaulting status if null
+        String status = rs.getString("status");
+        int rating = rs.getInt("rating");
+        Integer nullableRating = rs.wasNull() ? null : rating;
         return new UserWatchHistoryResponse(
             rs.getInt("show_id"),
             rs.getString("show_name"),
             rs.getString("description"),
             rs.getString("image_url"),
-            rs.getString("status") != null ? rs.getString("status") : "Not Watched"
+            status != null ? status : "Not Watched",
+            rs.getInt("episodes_watched"),
+            nullableRating,
+            rs.getBoolean("favorite")
         );
     }
 
@@ -0,0 +1,107 @@
+package com.jmill29.tvtrackerapi.datasource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable consistent-hash ring mapping integer keys (user IDs) to named nodes (shards).
+ * <p>
+ * Each node is placed on the ring at {@code virtualNodes} points derived from its name alone, so the layout
+ * depends only on the set of node names, never on their order or on the JVM. Adding a node takes roughly
+ * {@code 1/N} of the keys from the existing nodes and moves nothing between them; removing one hands its keys
+ * to the remaining nodes and leaves every other key where it was.
+ * </p>
+ */
+public final class ConsistentHashRing {
+
+    private final List<String> nodes;
+    private final long[] points;
+    private final String[] owners;
+
+
+    /**
+     * Builds a ring.
+     *
+     * @param nodes        the distinct node names; at least one
+     * @param virtualNodes the number of points each node occupies on the ring; at least one
+     */
+    public ConsistentHashRing(List<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one node");
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("Virtual nodes per node must be greater than 0");
+        }
+        if (nodes.stream().distinct().count() != nodes.size()) {
+            throw new IllegalArgumentException("Hash ring nodes must be distinct: " + nodes);
+        }
+        // A TreeMap keeps the points sorted; on the (astronomically unlikely) collision the smaller name wins,
+        // so the outcome still does not depend on the order of the nodes
+        TreeMap<Long, String> ring = new TreeMap<>();
+        for (String node : nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.merge(hash(node + "#" + i), node, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+            }
+        }
+        this.nodes = List.copyOf(nodes);
+        this.points = new long[ring.size()];
+        this.owners = new String[ring.size()];
+        int index = 0;
+        for (Map.Entry<Long, String> point : ring.entrySet()) {
+            points[index] = point.getKey();
+            owners[index] = point.getValue();
+            index++;
+        }
+    }
+
+
+    /**
+     * Returns the node that owns a key: the first node point at or after the key's hash, wrapping around.
+     *
+     * @param key the key, e.g. a user ID
+     * @return the owning node's name
+     */
+    public String nodeFor(int key) {
+        int index = Arrays.binarySearch(points, mix(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /** @return the node names, in the order they were given */
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Hashes a node point name with 64-bit FNV-1a, finished with the same mixer used for keys.
+     *
+     * @param name the point name
+     * @return the point's position on the ring
+     */
+    private static long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Spreads sequential keys uniformly over the ring (the SplitMix64 finalizer).
+     *
+     * @param value the value to mix
+     * @return the mixed value
+     */
+    private static long mix(long value) {
+        long z = value + 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,55 @@
+package com.jmill29.tvtrackerapi.datasource;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Builds the extra connection pools (read replica, watch history shards) from the application's own pool.
+ */
+final class HikariPools {
+
+    private HikariPools() {
+    }
+
+
+    /**
+     * Creates a pool for another database with the same settings as the application's pool.
+     * <p>
+     * If {@code template} is (or wraps) a Hikari pool, its sizing, timeouts, driver properties and credentials
+     * are copied; otherwise Hikari's defaults apply. The URL and pool name are always replaced, and the
+     * credentials only when given.
+     * </p>
+     *
+     * @param template the application's data source
+     * @param jdbcUrl  the JDBC URL of the other database
+     * @param suffix   appended to the template's pool name, e.g. {@code "replica"}
+     * @param username the user for the other database, or blank to keep the template's
+     * @param password the password for the other database, or blank to keep the template's
+     * @return a new, not yet started pool
+     */
+    static HikariDataSource derive(DataSource template, String jdbcUrl, String suffix, String username, String password) {
+        HikariDataSource pool = new HikariDataSource();
+        String poolName = suffix;
+        try {
+            if (template.isWrapperFor(HikariDataSource.class)) {
+                HikariDataSource templatePool = template.unwrap(HikariDataSource.class);
+                templatePool.copyStateTo(pool);
+                poolName = templatePool.getPoolName() + "-" + suffix;
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Could not read the primary pool settings", ex);
+        }
+        pool.setJdbcUrl(jdbcUrl);
+        pool.setPoolName(poolName);
+        if (username != null && !username.isBlank()) {
+            pool.setUsername(username);
+        }
+        if (password != null && !password.isBlank()) {
+            pool.setPassword(password);
+        }
+        return pool;
+    }
+}
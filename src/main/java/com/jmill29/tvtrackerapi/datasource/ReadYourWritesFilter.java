@@ -0,0 +1,52 @@
+package com.jmill29.tvtrackerapi.datasource;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Marks the caller of every state-changing request as a recent writer in the {@link ReadYourWritesTracker}.
+ * <p>
+ * Runs after the security filters have authenticated the request, and records the write once the response has
+ * been produced, which is after the service transaction has committed. Requests that failed are recorded too: a
+ * partial batch may still have written, and an extra read from the primary is harmless.
+ * </p>
+ */
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final ReadYourWritesTracker tracker;
+
+
+    /**
+     * Constructs a {@code ReadYourWritesFilter}.
+     *
+     * @param tracker the tracker that routing decisions consult
+     */
+    public ReadYourWritesFilter(ReadYourWritesTracker tracker) {
+        this.tracker = tracker;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (WRITE_METHODS.contains(request.getMethod())) {
+                tracker.userWrote(ReadYourWritesTracker.currentUsername());
+            }
+        }
+    }
+}
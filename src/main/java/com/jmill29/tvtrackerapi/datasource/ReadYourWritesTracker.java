@@ -0,0 +1,133 @@
+package com.jmill29.tvtrackerapi.datasource;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.jmill29.tvtrackerapi.event.ShowChangedEvent;
+
+/**
+ * Remembers recent writes so that reads which could observe them are kept on the primary database.
+ * <p>
+ * A user who wrote within the last {@code app.datasource.replica.sticky-window-ms} milliseconds reads from the
+ * primary, so a replica that lags by less than the window never shows them data older than their own write.
+ * Catalogue changes are visible to everyone and feed the catalogue ETags, so after any show is written every
+ * user reads from the primary for the same window. The window should comfortably exceed the replica's usual
+ * replication lag.
+ * </p>
+ * <p>
+ * State is kept per instance: a user whose next request lands on another instance may briefly read from the
+ * replica there.
+ * </p>
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    /** Sweep expired users once the map grows past this size */
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+    private final long windowMillis;
+    private final Clock clock;
+
+    private volatile long catalogueStickyUntil;
+
+
+    /**
+     * Constructs a {@code ReadYourWritesTracker} using the system clock.
+     *
+     * @param windowMillis how long after a write the writer keeps reading from the primary, in milliseconds
+     */
+    @Autowired
+    public ReadYourWritesTracker(@Value("${app.datasource.replica.sticky-window-ms:5000}") long windowMillis) {
+        this(windowMillis, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs a {@code ReadYourWritesTracker} with an explicit clock (used by tests).
+     *
+     * @param windowMillis how long after a write the writer keeps reading from the primary, in milliseconds
+     * @param clock        the clock used to compute expiry times
+     */
+    ReadYourWritesTracker(long windowMillis, Clock clock) {
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("Read-your-writes window cannot be negative");
+        }
+        this.windowMillis = windowMillis;
+        this.clock = clock;
+    }
+
+
+    /**
+     * Records that a user has just written.
+     *
+     * @param username the name of the user; {@code null} (anonymous) is ignored
+     */
+    public void userWrote(String username) {
+        if (username == null || windowMillis == 0) {
+            return;
+        }
+        long now = clock.millis();
+        stickyUntil.put(username, now + windowMillis);
+        if (stickyUntil.size() > SWEEP_THRESHOLD) {
+            stickyUntil.values().removeIf(until -> until <= now);
+        }
+    }
+
+    /**
+     * Keeps every reader on the primary for one window after a show is created, updated or deleted.
+     *
+     * @param event the change event published after the write commits
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShowChanged(ShowChangedEvent event) {
+        catalogueStickyUntil = clock.millis() + windowMillis;
+    }
+
+    /**
+     * Decides whether a read-only call by a user must still go to the primary.
+     *
+     * @param username the name of the user, or {@code null} for an anonymous caller
+     * @return {@code true} if the catalogue or the user's own data changed within the window
+     */
+    public boolean mustReadPrimary(String username) {
+        long now = clock.millis();
+        if (catalogueStickyUntil > now) {
+            return true;
+        }
+        if (username == null) {
+            return false;
+        }
+        Long until = stickyUntil.get(username);
+        if (until == null) {
+            return false;
+        }
+        if (until <= now) {
+            stickyUntil.remove(username, until);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the name of the user authenticated on the current thread.
+     *
+     * @return the username, or {@code null} if the caller is anonymous or there is no security context
+     */
+    public static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
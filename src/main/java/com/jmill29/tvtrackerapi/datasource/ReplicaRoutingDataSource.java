@@ -0,0 +1,73 @@
+package com.jmill29.tvtrackerapi.datasource;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes connections for read-only transactions to a replica and everything else to the primary.
+ * <p>
+ * The decision is made when a physical connection is first needed, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy LazyConnectionDataSourceProxy}:
+ * the transaction manager opens its connection before the transaction is marked read-only, and the lazy proxy
+ * defers the real checkout until the first statement. Only {@code @Transactional(readOnly = true)} service
+ * calls that are not joining an outer read-write transaction are routed to the replica, and not while the
+ * {@link ReadYourWritesTracker} says the caller could see their own recent write there.
+ * </p>
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    /** Lookup keys of the two targets */
+    enum Target { PRIMARY, REPLICA }
+
+    private final Supplier<ReadYourWritesTracker> tracker;
+
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder replicaReads = new LongAdder();
+
+
+    /**
+     * Constructs a {@code ReplicaRoutingDataSource}.
+     *
+     * @param primary the data source that takes every write
+     * @param replica the data source read-only transactions are sent to
+     * @param tracker supplies the tracker of recent writes; looked up on first use
+     */
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Supplier<ReadYourWritesTracker> tracker) {
+        this.tracker = tracker;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Target.PRIMARY;
+        }
+        if (tracker.get().mustReadPrimary(ReadYourWritesTracker.currentUsername())) {
+            primaryReads.increment();
+            return Target.PRIMARY;
+        }
+        replicaReads.increment();
+        return Target.REPLICA;
+    }
+
+    /** @return the number of read-only connections kept on the primary by a recent write */
+    public long getPrimaryReadCount() {
+        return primaryReads.sum();
+    }
+
+    /** @return the number of read-only connections sent to the replica */
+    public long getReplicaReadCount() {
+        return replicaReads.sum();
+    }
+}
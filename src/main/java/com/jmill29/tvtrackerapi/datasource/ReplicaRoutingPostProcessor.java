@@ -0,0 +1,81 @@
+package com.jmill29.tvtrackerapi.datasource;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Puts a {@link ReplicaRoutingDataSource} in front of the application's {@link DataSource} when a replica is
+ * configured with {@code app.datasource.replica.url}; with no URL the data source is left as it is.
+ * <p>
+ * Like the query-counting wrapper this is a post-processor, so the auto-configured pool stays the primary. The
+ * replica gets its own Hikari pool with the primary's settings, its own URL and pool name, and the primary's
+ * credentials unless {@code app.datasource.replica.username} and {@code password} are set. The router is wrapped
+ * in a {@link LazyConnectionDataSourceProxy} so it sees the read-only flag of the transaction, and this
+ * post-processor runs first so that the query counter wraps the whole arrangement and counts connections to
+ * either database.
+ * </p>
+ */
+@Component
+public class ReplicaRoutingPostProcessor implements BeanPostProcessor, Ordered, DisposableBean {
+
+    private final String replicaUrl;
+    private final String replicaUsername;
+    private final String replicaPassword;
+    private final ObjectProvider<ReadYourWritesTracker> tracker;
+
+    private HikariDataSource replica;
+
+
+    /**
+     * Constructs a {@code ReplicaRoutingPostProcessor}.
+     *
+     * @param replicaUrl      the JDBC URL of the read replica; blank disables routing
+     * @param replicaUsername the replica user, or blank to use the primary's
+     * @param replicaPassword the replica password, or blank to use the primary's
+     * @param tracker         the tracker of recent writes, looked up lazily because it is an ordinary bean
+     */
+    public ReplicaRoutingPostProcessor(@Value("${app.datasource.replica.url:}") String replicaUrl,
+                                       @Value("${app.datasource.replica.username:}") String replicaUsername,
+                                       @Value("${app.datasource.replica.password:}") String replicaPassword,
+                                       ObjectProvider<ReadYourWritesTracker> tracker) {
+        this.replicaUrl = replicaUrl;
+        this.replicaUsername = replicaUsername;
+        this.replicaPassword = replicaPassword;
+        this.tracker = tracker;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (replicaUrl.isBlank() || replica != null || !(bean instanceof DataSource primary)) {
+            return bean;
+        }
+        replica = HikariPools.derive(primary, replicaUrl, "replica", replicaUsername, replicaPassword);
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, tracker::getObject));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    /** Closes the replica pool; the primary pool is closed by its own bean. */
+    @Override
+    public void destroy() {
+        if (replica != null) {
+            replica.close();
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package com.jmill29.tvtrackerapi.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.jmill29.tvtrackerapi.datasource.WatchHistoryShards.Shard;
+
+/**
+ * Moves users' watch history between shards so that every user ends up on their owner in a new ring, while
+ * the application keeps serving requests.
+ * <p>
+ * Resharding runs in three steps:
+ * </p>
+ * <ol>
+ *   <li>With every stripe locked, so that no transaction is part way through writing, the new ring is recorded
+ *       as the target. Users that have been moved are routed by it; everyone else still by the ring in force.</li>
+ *   <li>Each shard is scanned for the users it holds that the new ring assigns elsewhere, and each is moved under
+ *       its stripe's write lock: the rows are copied to the new shard in one transaction, the move is recorded,
+ *       and only then are the rows deleted from the old shard. Users who wrote their first rows after their shard
+ *       was scanned are remembered by {@link WatchHistoryShards#shardOf(int)} and moved afterwards.</li>
+ *   <li>With every stripe locked, the last such users are moved and the new ring is recorded and takes over.</li>
+ * </ol>
+ * <p>
+ * DAO calls made inside a transaction keep their stripe's read lock until the transaction ends, so neither the
+ * scan nor a move can miss a user's uncommitted writes; a move would otherwise copy the rows without them and
+ * then delete them.
+ * </p>
+ * <p>
+ * A move replaces whatever the new shard holds for the user, and the target and the users moved so far are
+ * recorded on the primary, so a resharding that failed part way, or was cut short by a restart, is resumed by
+ * running it again with the same members. Rows a recorded move did not get to delete from the old shard are
+ * deleted when it resumes. Rows moved onto the primary whose show or user has since been deleted are dropped, as
+ * the primary's foreign keys would reject them.
+ * </p>
+ */
+@Component
+public class WatchHistoryResharder {
+
+    private static final Logger log = LoggerFactory.getLogger(WatchHistoryResharder.class);
+
+    private static final String SELECT_USERS = "SELECT DISTINCT user_id FROM user_watch_history";
+
+    private static final String SELECT_ROWS =
+            "SELECT show_id, status, episodes_watched, rating, favorite, created_at " +
+            "FROM user_watch_history WHERE user_id = ?";
+
+    private static final String INSERT_ROW =
+            "INSERT INTO user_watch_history " +
+            "(user_id, show_id, status, episodes_watched, rating, favorite, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    /** Show IDs checked per query when moving rows onto the primary */
+    private static final int IN_LIST_CHUNK = 1000;
+
+    private static final String DELETE_ROWS = "DELETE FROM user_watch_history WHERE user_id = ?";
+
+    /** How long to wait for each stripe while taking them all to finish, and how many times to try */
+    private static final long LOCK_ALL_TIMEOUT_MILLIS = 2_000;
+    private static final int LOCK_ALL_ATTEMPTS = 10;
+
+    /**
+     * Outcome of a resharding.
+     */
+    public static final class Result {
+
+        private final List<String> ring;
+        private final int usersMoved;
+        private final long rowsMoved;
+
+        Result(List<String> ring, int usersMoved, long rowsMoved) {
+            this.ring = ring;
+            this.usersMoved = usersMoved;
+            this.rowsMoved = rowsMoved;
+        }
+
+        /** @return the members of the ring now in force */
+        public List<String> getRing() {
+            return ring;
+        }
+
+        /** @return the number of users whose rows changed shard */
+        public int getUsersMoved() {
+            return usersMoved;
+        }
+
+        /** @return the number of rows copied to a new shard */
+        public long getRowsMoved() {
+            return rowsMoved;
+        }
+    }
+
+    /**
+     * One watch history row in transit.
+     */
+    private static final class Row {
+        int showId;
+        String status;
+        int episodesWatched;
+        Integer rating;
+        boolean favorite;
+        Timestamp createdAt;
+    }
+
+    private final WatchHistoryShards shards;
+
+    /** Allows one resharding at a time; a lock rather than a monitor since it is held across JDBC calls */
+    private final ReentrantLock reshardLock = new ReentrantLock();
+
+    private int usersMoved;
+    private long rowsMoved;
+
+
+    /**
+     * Constructs a {@code WatchHistoryResharder}.
+     *
+     * @param shards the shards to move users between
+     */
+    public WatchHistoryResharder(WatchHistoryShards shards) {
+        this.shards = shards;
+    }
+
+
+    /**
+     * Moves every user whose owner differs between the ring in force and a ring over {@code members}, then makes
+     * that ring the one in force.
+     *
+     * @param members the names of the shards in the new ring
+     * @return how many users and rows were moved
+     * @throws IllegalArgumentException if a member is not a configured shard
+     * @throws IllegalStateException    if a resharding to a different ring is already in progress
+     * @throws SQLException             if a move fails; users moved so far stay moved and running again resumes
+     */
+    public Result reshard(List<String> members) throws SQLException {
+        reshardLock.lock();
+        try {
+            return reshardLocked(members);
+        } finally {
+            reshardLock.unlock();
+        }
+    }
+
+    private Result reshardLocked(List<String> members) throws SQLException {
+        ConsistentHashRing target = shards.ring(members);
+        // Waits out transactions already writing, whose rows the scan below could not see yet
+        List<Lock> paused = lockAll();
+        try {
+            if (!shards.beginResharding(target)) {
+                throw new IllegalStateException("Already resharding to " + shards.getTargetRingMembers());
+            }
+        } finally {
+            unlock(paused);
+        }
+        ConsistentHashRing current = shards.currentRing();
+        usersMoved = 0;
+        rowsMoved = 0;
+
+        for (Shard shard : shards.getShards().values()) {
+            for (int userId : usersOn(shard)) {
+                if (shards.isMoved(userId)) {
+                    if (!shard.getName().equals(target.nodeFor(userId))) {
+                        removeLeftovers(shard, userId);
+                    }
+                    continue;
+                }
+                String owner = current.nodeFor(userId);
+                if (!owner.equals(shard.getName())) {
+                    log.warn("Skipping user {} on shard {}: the ring in force assigns it to {}",
+                            userId, shard.getName(), owner);
+                } else if (!owner.equals(target.nodeFor(userId))) {
+                    move(userId, current, target);
+                }
+            }
+        }
+        for (int userId : shards.touchedUsers()) {
+            move(userId, current, target);
+        }
+
+        List<Lock> all = lockAll();
+        try {
+            for (int userId : shards.touchedUsers()) {
+                move(userId, current, target);
+            }
+            shards.finishResharding();
+        } finally {
+            unlock(all);
+        }
+        log.info("Watch history resharded onto {}: {} users and {} rows moved", members, usersMoved, rowsMoved);
+        return new Result(shards.getRingMembers(), usersMoved, rowsMoved);
+    }
+
+    /**
+     * Takes every stripe's write lock, in stripe order. A transaction that spans users in several stripes holds
+     * their read locks until it ends, so each lock is only waited for briefly; if one cannot be had, the locks
+     * taken so far are released for the transaction to finish, and the attempt is repeated.
+     *
+     * @return the locks, all held
+     * @throws IllegalStateException if the locks could not all be taken, in which case the resharding stays in
+     *                               progress and running it again resumes
+     */
+    private List<Lock> lockAll() {
+        for (int attempt = 1; attempt <= LOCK_ALL_ATTEMPTS; attempt++) {
+            List<Lock> held = new ArrayList<>(WatchHistoryShards.LOCK_STRIPES);
+            try {
+                for (Lock lock : shards.allMoveLocks()) {
+                    if (!lock.tryLock(LOCK_ALL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        break;
+                    }
+                    held.add(lock);
+                }
+            } catch (InterruptedException ex) {
+                unlock(held);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while pausing watch history calls to finish resharding", ex);
+            }
+            if (held.size() == WatchHistoryShards.LOCK_STRIPES) {
+                return held;
+            }
+            unlock(held);
+        }
+        throw new IllegalStateException("Could not pause watch history calls to finish resharding; run it again to resume");
+    }
+
+    private static void unlock(List<Lock> held) {
+        for (int i = held.size() - 1; i >= 0; i--) {
+            held.get(i).unlock();
+        }
+    }
+
+    /**
+     * Moves one user from their owner in {@code current} to their owner in {@code target}, unless already moved.
+     *
+     * @param userId  the ID of the user
+     * @param current the ring in force
+     * @param target  the ring being moved to
+     * @throws SQLException if the copy or delete fails
+     */
+    private void move(int userId, ConsistentHashRing current, ConsistentHashRing target) throws SQLException {
+        Lock lock = shards.moveLock(userId);
+        lock.lock();
+        try {
+            if (shards.isMoved(userId)) {
+                return;
+            }
+            Shard from = shards.getShards().get(current.nodeFor(userId));
+            Shard to = shards.getShards().get(target.nodeFor(userId));
+            List<Row> rows = readRows(from, userId);
+            if (to.isPrimary()) {
+                rows = withExistingParents(to, userId, rows);
+            }
+            replaceRows(to, userId, rows);
+            // Recorded before the delete, so a crash in between leaves the user routed to the copy
+            shards.markMoved(userId);
+            deleteRows(from, userId);
+            usersMoved++;
+            rowsMoved += rows.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the rows a recorded move left behind on a user's old shard, e.g. because of a restart.
+     *
+     * @param shard  a shard that is not the user's owner in the target ring
+     * @param userId the ID of the user
+     * @throws SQLException if the delete fails
+     */
+    private void removeLeftovers(Shard shard, int userId) throws SQLException {
+        Lock lock = shards.moveLock(userId);
+        lock.lock();
+        try {
+            deleteRows(shard, userId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void deleteRows(Shard shard, int userId) throws SQLException {
+        try (Connection conn = shard.getDataSource().getConnection();
+             PreparedStatement pStmt = conn.prepareStatement(DELETE_ROWS)) {
+            pStmt.setInt(1, userId);
+            pStmt.executeUpdate();
+        }
+    }
+
+    private static List<Integer> usersOn(Shard shard) throws SQLException {
+        List<Integer> users = new ArrayList<>();
+        try (Connection conn = shard.getDataSource().getConnection();
+             PreparedStatement pStmt = conn.prepareStatement(SELECT_USERS);
+             ResultSet rs = pStmt.executeQuery()) {
+            while (rs.next()) {
+                users.add(rs.getInt(1));
+            }
+        }
+        return users;
+    }
+
+    private static List<Row> readRows(Shard shard, int userId) throws SQLException {
+        List<Row> rows = new ArrayList<>();
+        try (Connection conn = shard.getDataSource().getConnection();
+             PreparedStatement pStmt = conn.prepareStatement(SELECT_ROWS)) {
+            pStmt.setInt(1, userId);
+            try (ResultSet rs = pStmt.executeQuery()) {
+                while (rs.next()) {
+                    Row row = new Row();
+                    row.showId = rs.getInt("show_id");
+                    row.status = rs.getString("status");
+                    row.episodesWatched = rs.getInt("episodes_watched");
+                    int rating = rs.getInt("rating");
+                    row.rating = rs.wasNull() ? null : rating;
+                    row.favorite = rs.getBoolean("favorite");
+                    row.createdAt = rs.getTimestamp("created_at");
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Drops rows the primary's foreign keys would reject: all of them if the user was deleted, otherwise those
+     * whose show was deleted.
+     */
+    private static List<Row> withExistingParents(Shard primary, int userId, List<Row> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        try (Connection conn = primary.getDataSource().getConnection()) {
+            try (PreparedStatement pStmt = conn.prepareStatement("SELECT 1 FROM users WHERE user_id = ?")) {
+                pStmt.setInt(1, userId);
+                try (ResultSet rs = pStmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return List.of();
+                    }
+                }
+            }
+            Set<Integer> shows = new HashSet<>();
+            for (int from = 0; from < rows.size(); from += IN_LIST_CHUNK) {
+                List<Row> chunk = rows.subList(from, Math.min(rows.size(), from + IN_LIST_CHUNK));
+                String query = "SELECT show_id FROM tv_shows WHERE show_id IN ("
+                        + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+                try (PreparedStatement pStmt = conn.prepareStatement(query)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pStmt.setInt(i + 1, chunk.get(i).showId);
+                    }
+                    try (ResultSet rs = pStmt.executeQuery()) {
+                        while (rs.next()) {
+                            shows.add(rs.getInt(1));
+                        }
+                    }
+                }
+            }
+            return rows.stream().filter(row -> shows.contains(row.showId)).toList();
+        }
+    }
+
+    /**
+     * Replaces a user's rows on a shard in one transaction, so a move that is retried never collides with rows an
+     * earlier attempt left behind.
+     */
+    private static void replaceRows(Shard shard, int userId, List<Row> rows) throws SQLException {
+        try (Connection conn = shard.getDataSource().getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement pStmt = conn.prepareStatement(DELETE_ROWS)) {
+                    pStmt.setInt(1, userId);
+                    pStmt.executeUpdate();
+                }
+                if (!rows.isEmpty()) {
+                    insertRows(conn, userId, rows);
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException ex) {
+                conn.rollback();
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static void insertRows(Connection conn, int userId, List<Row> rows) throws SQLException {
+        try (PreparedStatement pStmt = conn.prepareStatement(INSERT_ROW)) {
+            for (Row row : rows) {
+                pStmt.setInt(1, userId);
+                pStmt.setInt(2, row.showId);
+                pStmt.setString(3, row.status);
+                pStmt.setInt(4, row.episodesWatched);
+                if (row.rating != null) {
+                    pStmt.setInt(5, row.rating);
+                } else {
+                    pStmt.setNull(5, Types.INTEGER);
+                }
+                pStmt.setBoolean(6, row.favorite);
+                pStmt.setTimestamp(7, row.createdAt);
+                pStmt.addBatch();
+            }
+            pStmt.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,855 @@
+package com.jmill29.tvtrackerapi.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.jmill29.tvtrackerapi.event.ShowChangedEvent;
+import com.jmill29.tvtrackerapi.event.UserChangedEvent;
+import com.jmill29.tvtrackerapi.metrics.QueryCountingDataSource;
+import com.jmill29.tvtrackerapi.utils.TransactionUtil;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * The databases that hold {@code user_watch_history}, and which of them holds each user's rows.
+ * <p>
+ * The application's own database is always the shard named {@value #PRIMARY}; it also holds {@code users},
+ * {@code tv_shows} and the rest of the schema. Each {@code app.watch-history.shards.<name>=<jdbc url>} property
+ * adds a shard database with its own Hikari pool (the primary's settings and credentials), whose
+ * {@code user_watch_history} table is created from {@code db/shard/{vendor}} at startup. Shard tables have no
+ * foreign keys, since the users and shows they reference live on the primary. With no shards configured every
+ * call goes straight to the primary.
+ * </p>
+ * <p>
+ * Users are assigned to shards by a {@link ConsistentHashRing}. The ring in force is recorded on the primary in
+ * {@code watch_history_ring}, so configuring a shard, and starting its pool, never moves any users by itself. The
+ * first startup records {@code app.watch-history.ring} (by default the primary alone); afterwards the property
+ * may be left blank, and a value that disagrees with the recorded ring stops the application from starting.
+ * The {@link WatchHistoryResharder} moves users onto a new ring while the application keeps serving: each DAO
+ * call holds a read lock for its user's stripe ({@value #LOCK_STRIPES} stripes), and a user's rows are moved under
+ * the matching write lock, so calls for that user wait for the few milliseconds of the move and never see it
+ * half done. A call made inside a transaction keeps its read lock until the transaction ends, so a move never
+ * copies a user's rows while one of their writes is still uncommitted. The target ring and the users already
+ * moved are recorded too, so a restart part way through keeps routing every user to their rows and the
+ * resharding can be resumed.
+ * </p>
+ * <p>
+ * Each instance reads the recorded layout once, at startup, and the locks above only exclude calls made by the
+ * same instance. Every instance therefore registers in {@code watch_history_instances} and refreshes its row every
+ * {@code app.watch-history.instance-heartbeat-ms}; an instance whose row is older than three heartbeats counts as
+ * gone. Resharding refuses to start while any other instance counts as running, and an instance refuses to start
+ * while another running instance has a resharding in progress.
+ * </p>
+ * <p>
+ * Deleting a show or user cascades on the primary only. Once such a delete commits, the matching rows on the
+ * other shards are deleted here; until then they are ignored by every query that merges with the catalogue.
+ * </p>
+ */
+@Component
+@DependsOnDatabaseInitialization
+public class WatchHistoryShards implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(WatchHistoryShards.class);
+
+    /** Name of the shard that is the application's own database */
+    public static final String PRIMARY = "primary";
+
+    static final int LOCK_STRIPES = 256;
+
+    private static final String SELECT_LAYOUT =
+            "SELECT members, target_members FROM watch_history_ring WHERE ring_id = 1";
+
+    private static final String INSERT_LAYOUT = "INSERT INTO watch_history_ring (ring_id, members) VALUES (1, ?)";
+
+    private static final String UPDATE_TARGET = "UPDATE watch_history_ring SET target_members = ? WHERE ring_id = 1";
+
+    private static final String FINISH_LAYOUT =
+            "UPDATE watch_history_ring SET members = target_members, target_members = NULL WHERE ring_id = 1";
+
+    private static final String SELECT_MOVED = "SELECT user_id FROM watch_history_moved_users";
+
+    private static final String INSERT_MOVED = "INSERT INTO watch_history_moved_users (user_id) VALUES (?)";
+
+    private static final String DELETE_MOVED = "DELETE FROM watch_history_moved_users";
+
+    private static final String CLEAR_TARGET = "UPDATE watch_history_ring SET target_members = NULL WHERE ring_id = 1";
+
+    private static final String REGISTER_INSTANCE = "INSERT INTO watch_history_instances (instance_id) VALUES (?)";
+
+    private static final String HEARTBEAT =
+            "UPDATE watch_history_instances SET heartbeat_at = CURRENT_TIMESTAMP WHERE instance_id = ?";
+
+    private static final String DEREGISTER_INSTANCE = "DELETE FROM watch_history_instances WHERE instance_id = ?";
+
+    private static final String DELETE_GONE_INSTANCES =
+            "DELETE FROM watch_history_instances WHERE heartbeat_at < TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP)";
+
+    /** Compared on the primary's clock, so the instances' clocks need not agree */
+    private static final String COUNT_OTHER_INSTANCES =
+            "SELECT COUNT(*) FROM watch_history_instances " +
+            "WHERE instance_id <> ? AND heartbeat_at >= TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP)";
+
+    /** Heartbeat interval of instances built in code */
+    static final long DEFAULT_HEARTBEAT_MILLIS = 10_000;
+
+    /** Heartbeats an instance may miss before it counts as gone */
+    private static final int MISSED_HEARTBEATS = 3;
+
+    /**
+     * Work run against the shard holding one user's rows.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface ShardWork<T> {
+        T run(Shard shard) throws SQLException;
+    }
+
+    /**
+     * Work run while the placement of several users is fixed; see {@link #withUsers(Collection, UsersWork)}.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface UsersWork<T> {
+        T run() throws SQLException;
+    }
+
+    /**
+     * One shard database.
+     */
+    public static final class Shard {
+
+        private final String name;
+        private final DataSource dataSource;
+
+        Shard(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = new TransactionAwareDataSourceProxy(dataSource);
+        }
+
+        /** @return the shard's name */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the shard's data source; on the primary it joins the current Spring-managed transaction, on
+         *         other shards each statement commits on its own
+         */
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        /** @return {@code true} for the application's own database, whose tables have foreign keys */
+        public boolean isPrimary() {
+            return PRIMARY.equals(name);
+        }
+    }
+
+    /**
+     * The ring in force and, while resharding, the ring being moved to.
+     */
+    private static final class Placement {
+
+        final ConsistentHashRing current;
+        final ConsistentHashRing target;
+
+        /** Users whose rows are already on their owner in {@link #target} */
+        final Set<Integer> moved = ConcurrentHashMap.newKeySet();
+
+        /** Users that changing rings would move and that were routed since resharding began */
+        final Set<Integer> touched = ConcurrentHashMap.newKeySet();
+
+        Placement(ConsistentHashRing current, ConsistentHashRing target) {
+            this.current = current;
+            this.target = target;
+        }
+    }
+
+    private final Map<String, Shard> shards;
+    private final Shard primary;
+    private final int virtualNodes;
+    private final ReentrantReadWriteLock[] locks = new ReentrantReadWriteLock[LOCK_STRIPES];
+
+    /** Whether the layout is recorded on the primary; off only for a primary alone built in code */
+    private final boolean persistent;
+
+    /** This instance's row in {@code watch_history_instances} */
+    private final String instanceId = UUID.randomUUID().toString();
+
+    /** How long, in whole seconds, an instance counts as running after its last heartbeat */
+    private final int instanceTimeoutSeconds;
+
+    /** Serializes changes of placement; a lock rather than a monitor since they write to the primary */
+    private final ReentrantLock layoutLock = new ReentrantLock();
+
+    private volatile Placement placement;
+    private boolean ownsPools;
+
+
+    /**
+     * Constructs the shards configured under {@code app.watch-history.shards}, migrating each shard's schema, and
+     * loads the recorded layout.
+     *
+     * @param dataSource   the application's data source, which is the primary shard
+     * @param environment  the environment the shard URLs are read from
+     * @param ring         the comma-separated ring members, or blank for the recorded ring
+     * @param virtualNodes the number of ring points per shard
+     * @param heartbeatMillis how often this instance refreshes its row in {@code watch_history_instances}
+     * @throws IllegalStateException if {@code ring} disagrees with the recorded ring, another running instance is
+     *                               resharding, or the layout cannot be read
+     */
+    @Autowired
+    public WatchHistoryShards(DataSource dataSource, Environment environment,
+                              @Value("${app.watch-history.ring:}") String ring,
+                              @Value("${app.watch-history.ring-virtual-nodes:128}") int virtualNodes,
+                              @Value("${app.watch-history.instance-heartbeat-ms:10000}") long heartbeatMillis) {
+        this(dataSource, createPools(dataSource, environment), parseMembers(ring), virtualNodes, true, heartbeatMillis);
+        this.ownsPools = true;
+    }
+
+    /**
+     * Constructs shards over existing data sources. With any other shard, the layout is loaded from, and recorded
+     * in, the primary's {@code watch_history_ring} table.
+     *
+     * @param primary      the application's data source
+     * @param others       the other shards by name; none may be named {@value #PRIMARY}
+     * @param ringMembers  the shards users are assigned to, or empty for the recorded ring
+     * @param virtualNodes the number of ring points per shard
+     * @throws IllegalStateException if {@code ringMembers} disagrees with the recorded ring, another running
+     *                               instance is resharding, or the layout cannot be read
+     */
+    public WatchHistoryShards(DataSource primary, Map<String, ? extends DataSource> others,
+                              List<String> ringMembers, int virtualNodes) {
+        this(primary, others, ringMembers, virtualNodes, !others.isEmpty(), DEFAULT_HEARTBEAT_MILLIS);
+    }
+
+    private WatchHistoryShards(DataSource primary, Map<String, ? extends DataSource> others,
+                               List<String> ringMembers, int virtualNodes, boolean persistent, long heartbeatMillis) {
+        if (heartbeatMillis <= 0) {
+            throw new IllegalArgumentException("Instance heartbeat interval must be greater than 0");
+        }
+        Map<String, Shard> all = new LinkedHashMap<>();
+        all.put(PRIMARY, new Shard(PRIMARY, primary));
+        new TreeMap<>(others).forEach((name, dataSource) -> {
+            if (PRIMARY.equals(name)) {
+                throw new IllegalArgumentException("'" + PRIMARY + "' is reserved for the application's database");
+            }
+            all.put(name, new Shard(name, dataSource));
+        });
+        this.shards = Collections.unmodifiableMap(all);
+        this.primary = all.get(PRIMARY);
+        this.virtualNodes = virtualNodes;
+        this.persistent = persistent;
+        this.instanceTimeoutSeconds = (int) Math.max(1, (MISSED_HEARTBEATS * heartbeatMillis + 999) / 1000);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+        if (!persistent) {
+            this.placement = new Placement(ring(List.of(PRIMARY)), null);
+            return;
+        }
+        try {
+            // Registered before the layout is read, so a resharding that begins in between sees this instance
+            register();
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Could not register this instance on the primary", ex);
+        }
+        try {
+            this.placement = loadPlacement(ringMembers);
+        } catch (SQLException ex) {
+            deregisterQuietly();
+            throw new IllegalStateException("Could not load the watch history ring from the primary", ex);
+        } catch (RuntimeException ex) {
+            deregisterQuietly();
+            throw ex;
+        }
+    }
+
+    /**
+     * Creates an unsharded instance in which every user lives on the primary.
+     *
+     * @param primary the application's data source
+     * @return shards consisting of the primary alone
+     */
+    public static WatchHistoryShards unsharded(DataSource primary) {
+        return new WatchHistoryShards(primary, Map.of(), List.of(), 1);
+    }
+
+
+    /** @return {@code true} if any shard besides the primary is configured */
+    public boolean isSharded() {
+        return shards.size() > 1;
+    }
+
+    /** @return the primary shard */
+    public Shard getPrimary() {
+        return primary;
+    }
+
+    /** @return every shard by name, primary first */
+    public Map<String, Shard> getShards() {
+        return shards;
+    }
+
+    /** @return the members of the ring in force */
+    public List<String> getRingMembers() {
+        return placement.current.getNodes();
+    }
+
+    /** @return the members of the ring being moved to, or {@code null} if no resharding is in progress */
+    public List<String> getTargetRingMembers() {
+        ConsistentHashRing target = placement.target;
+        return target == null ? null : target.getNodes();
+    }
+
+    /**
+     * Returns the shard currently holding a user's rows. The answer can change when resharding moves the
+     * user; use {@link #withUser(int, ShardWork)} to act on it.
+     *
+     * @param userId the ID of the user
+     * @return the shard's name
+     */
+    public String shardOf(int userId) {
+        Placement current = placement;
+        String owner = current.current.nodeFor(userId);
+        if (current.target == null) {
+            return owner;
+        }
+        if (current.moved.contains(userId)) {
+            return current.target.nodeFor(userId);
+        }
+        if (!owner.equals(current.target.nodeFor(userId))) {
+            // May have just written rows the resharder's scan has already passed; it moves these at the end
+            current.touched.add(userId);
+        }
+        return owner;
+    }
+
+    /**
+     * Runs work against the shard holding a user's rows, keeping the user where they are until it returns, or
+     * until the current transaction ends if there is one.
+     *
+     * @param userId the ID of the user
+     * @param work   the work to run
+     * @param <T>    the result type
+     * @return the work's result
+     * @throws SQLException if the work fails
+     */
+    public <T> T withUser(int userId, ShardWork<T> work) throws SQLException {
+        if (!isSharded()) {
+            return work.run(primary);
+        }
+        Lock lock = stripe(userId).readLock();
+        lock.lock();
+        try {
+            return work.run(shards.get(shardOf(userId)));
+        } finally {
+            TransactionUtil.afterCompletion(lock::unlock);
+        }
+    }
+
+    /**
+     * Runs work that spans several users, keeping each of them where they are until it returns, or until the
+     * current transaction ends if there is one. The work looks up each user's shard with {@link #shardOf(int)}.
+     *
+     * @param userIds the IDs of the users
+     * @param work    the work to run
+     * @param <T>     the result type
+     * @return the work's result
+     * @throws SQLException if the work fails
+     */
+    public <T> T withUsers(Collection<Integer> userIds, UsersWork<T> work) throws SQLException {
+        if (!isSharded()) {
+            return work.run();
+        }
+        // Taken in stripe order, so two multi-user calls can never wait on each other's write lock in a cycle
+        int[] stripes = userIds.stream().mapToInt(WatchHistoryShards::stripeIndex).distinct().sorted().toArray();
+        int held = 0;
+        try {
+            for (int stripe : stripes) {
+                locks[stripe].readLock().lock();
+                held++;
+            }
+            return work.run();
+        } finally {
+            for (int i = held - 1; i >= 0; i--) {
+                TransactionUtil.afterCompletion(locks[stripes[i]].readLock()::unlock);
+            }
+        }
+    }
+
+    /**
+     * Deletes the rows of a deleted show from the shards, where no foreign key cascades the delete.
+     *
+     * @param event the change event, published after the write commits
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShowChanged(ShowChangedEvent event) {
+        if (!isSharded() || event.getShowId() == 0) {
+            return;
+        }
+        try {
+            if (existsOnPrimary("SELECT 1 FROM tv_shows WHERE show_id = ?", event.getShowId())) {
+                return;
+            }
+            for (Shard shard : shards.values()) {
+                if (!shard.isPrimary()) {
+                    deleteFrom(shard, "DELETE FROM user_watch_history WHERE show_id = ?", event.getShowId());
+                }
+            }
+        } catch (SQLException ex) {
+            log.warn("Could not delete watch history of deleted show {} from the shards", event.getShowId(), ex);
+        }
+    }
+
+    /**
+     * Deletes the rows of a deleted user from their shard, where no foreign key cascades the delete.
+     *
+     * @param event the change event, published after the write commits
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        int userId = event.getUserId();
+        if (!isSharded() || userId == 0) {
+            return;
+        }
+        try {
+            if (existsOnPrimary("SELECT 1 FROM users WHERE user_id = ?", userId)) {
+                return;
+            }
+            withUser(userId, shard -> {
+                if (!shard.isPrimary()) {
+                    deleteFrom(shard, "DELETE FROM user_watch_history WHERE user_id = ?", userId);
+                }
+                return null;
+            });
+        } catch (SQLException ex) {
+            log.warn("Could not delete watch history of deleted user {} from its shard", userId, ex);
+        }
+    }
+
+    /**
+     * Refreshes this instance's row in {@code watch_history_instances}, recreating it if it was removed.
+     * <p>
+     * Runs every {@code app.watch-history.instance-heartbeat-ms} milliseconds (ten seconds by default).
+     * </p>
+     */
+    @Scheduled(
+        initialDelayString = "${app.watch-history.instance-heartbeat-ms:10000}",
+        fixedDelayString = "${app.watch-history.instance-heartbeat-ms:10000}")
+    public void heartbeat() {
+        if (!persistent) {
+            return;
+        }
+        try (Connection conn = primary.getDataSource().getConnection();
+             PreparedStatement pStmt = conn.prepareStatement(HEARTBEAT)) {
+            pStmt.setString(1, instanceId);
+            if (pStmt.executeUpdate() == 0) {
+                register();
+            }
+        } catch (SQLException ex) {
+            log.warn("Could not refresh this instance's watch history heartbeat", ex);
+        }
+    }
+
+    /**
+     * Deregisters this instance and closes the shard pools created from configuration; the primary pool is closed
+     * by its own bean.
+     */
+    @Override
+    public void destroy() throws SQLException {
+        deregisterQuietly();
+        if (!ownsPools) {
+            return;
+        }
+        for (Shard shard : shards.values()) {
+            if (!shard.isPrimary()) {
+                shard.getDataSource().unwrap(HikariDataSource.class).close();
+            }
+        }
+    }
+
+    // Resharding hooks used by WatchHistoryResharder
+
+    /**
+     * Builds a ring over configured shards with this instance's virtual node count.
+     *
+     * @param members the ring members
+     * @return the ring
+     */
+    ConsistentHashRing ring(List<String> members) {
+        for (String member : members) {
+            if (!shards.containsKey(member)) {
+                throw new IllegalArgumentException("Unknown watch history shard '" + member + "'; configured: "
+                        + shards.keySet());
+            }
+        }
+        return new ConsistentHashRing(members, virtualNodes);
+    }
+
+    /**
+     * Records {@code target} on the primary and starts routing moved users by it while everyone else stays on the
+     * current ring.
+     *
+     * @param target the ring to move to
+     * @return {@code false} if a resharding to a different ring is already in progress; resuming the same
+     *         target is allowed
+     * @throws IllegalStateException if another application instance is running, in which case no target is
+     *                               recorded
+     * @throws SQLException if the target cannot be recorded
+     */
+    boolean beginResharding(ConsistentHashRing target) throws SQLException {
+        layoutLock.lock();
+        try {
+            Placement current = placement;
+            if (current.target != null) {
+                if (!sameMembers(current.target.getNodes(), target.getNodes())) {
+                    return false;
+                }
+                requireNoOtherInstances();
+                return true;
+            }
+            if (persistent) {
+                try (Connection conn = primary.getDataSource().getConnection()) {
+                    try (PreparedStatement pStmt = conn.prepareStatement(UPDATE_TARGET)) {
+                        pStmt.setString(1, String.join(",", target.getNodes()));
+                        pStmt.executeUpdate();
+                    }
+                    // Checked only once the target is recorded: an instance starting from now on sees the target
+                    // and refuses to start, and one that read the layout earlier had registered before that
+                    try {
+                        requireNoOtherInstances();
+                    } catch (IllegalStateException ex) {
+                        try (PreparedStatement pStmt = conn.prepareStatement(CLEAR_TARGET)) {
+                            pStmt.executeUpdate();
+                        }
+                        throw ex;
+                    }
+                }
+            }
+            placement = new Placement(current.current, target);
+            return true;
+        } finally {
+            layoutLock.unlock();
+        }
+    }
+
+    /** @return the placement in force; its {@code target} is set while resharding */
+    ConsistentHashRing currentRing() {
+        return placement.current;
+    }
+
+    /** @return the ring being moved to, or {@code null} */
+    ConsistentHashRing targetRing() {
+        return placement.target;
+    }
+
+    /**
+     * Records, on the primary as well, that a user's rows now live on their owner in the target ring. Call while
+     * holding {@link #moveLock(int)}, once the rows have been copied.
+     *
+     * @param userId the ID of the user
+     * @throws SQLException if the move cannot be recorded, in which case the user is still routed by the current ring
+     */
+    void markMoved(int userId) throws SQLException {
+        if (persistent) {
+            try (Connection conn = primary.getDataSource().getConnection();
+                 PreparedStatement pStmt = conn.prepareStatement(INSERT_MOVED)) {
+                pStmt.setInt(1, userId);
+                pStmt.executeUpdate();
+            }
+        }
+        placement.moved.add(userId);
+    }
+
+    /**
+     * @param userId the ID of the user
+     * @return {@code true} if the user has been moved to the target ring
+     */
+    boolean isMoved(int userId) {
+        return placement.moved.contains(userId);
+    }
+
+    /** @return the users routed by the current ring since resharding began whom the target ring would move */
+    List<Integer> touchedUsers() {
+        return new ArrayList<>(placement.touched);
+    }
+
+    /**
+     * @param userId the ID of the user
+     * @return the lock that keeps every DAO call for the user (and the others in its stripe) out while it moves
+     */
+    Lock moveLock(int userId) {
+        return stripe(userId).writeLock();
+    }
+
+    /**
+     * Makes the target ring the ring in force, on the primary first. Call while holding every {@link #moveLock(int)}
+     * stripe, after all users the change affects have been moved.
+     *
+     * @throws SQLException if the new ring cannot be recorded, in which case the resharding stays in progress
+     */
+    void finishResharding() throws SQLException {
+        layoutLock.lock();
+        try {
+            if (persistent) {
+                try (Connection conn = primary.getDataSource().getConnection()) {
+                    conn.setAutoCommit(false);
+                    try {
+                        try (PreparedStatement pStmt = conn.prepareStatement(FINISH_LAYOUT)) {
+                            pStmt.executeUpdate();
+                        }
+                        try (PreparedStatement pStmt = conn.prepareStatement(DELETE_MOVED)) {
+                            pStmt.executeUpdate();
+                        }
+                        conn.commit();
+                    } catch (SQLException | RuntimeException ex) {
+                        conn.rollback();
+                        throw ex;
+                    } finally {
+                        conn.setAutoCommit(true);
+                    }
+                }
+            }
+            placement = new Placement(placement.target, null);
+        } finally {
+            layoutLock.unlock();
+        }
+    }
+
+    /** @return the write locks of every stripe, in stripe order */
+    List<Lock> allMoveLocks() {
+        return Arrays.stream(locks).map(lock -> (Lock) lock.writeLock()).toList();
+    }
+
+    private ReentrantReadWriteLock stripe(int userId) {
+        return locks[stripeIndex(userId)];
+    }
+
+    private static int stripeIndex(int userId) {
+        return Math.floorMod(userId, LOCK_STRIPES);
+    }
+
+    /**
+     * Loads the layout recorded on the primary, or records the configured ring (by default the primary alone) if
+     * there is none yet.
+     *
+     * @param configured the ring members from configuration, or empty to take the recorded ring
+     * @return the placement to start with
+     * @throws IllegalStateException if the configured ring disagrees with the recorded one, or if no ring is
+     *                               recorded yet and the configured one would route users away from rows already
+     *                               on the primary, or if another running instance has a resharding in progress
+     * @throws SQLException if the layout cannot be read or recorded
+     */
+    private Placement loadPlacement(List<String> configured) throws SQLException {
+        try (Connection conn = primary.getDataSource().getConnection()) {
+            String members = null;
+            String targetMembers = null;
+            try (PreparedStatement pStmt = conn.prepareStatement(SELECT_LAYOUT);
+                 ResultSet rs = pStmt.executeQuery()) {
+                if (rs.next()) {
+                    members = rs.getString("members");
+                    targetMembers = rs.getString("target_members");
+                }
+            }
+
+            if (members == null) {
+                List<String> initial = configured.isEmpty() ? List.of(PRIMARY) : configured;
+                ConsistentHashRing ring = ring(initial);
+                if (!initial.equals(List.of(PRIMARY)) && hasRows(conn)) {
+                    throw new IllegalStateException("app.watch-history.ring " + initial + " would route users away "
+                            + "from the watch history already on the primary; start with the primary alone and "
+                            + "move users with the resharding endpoint");
+                }
+                try (PreparedStatement pStmt = conn.prepareStatement(INSERT_LAYOUT)) {
+                    pStmt.setString(1, String.join(",", initial));
+                    pStmt.executeUpdate();
+                }
+                return new Placement(ring, null);
+            }
+
+            List<String> recorded = parseMembers(members);
+            List<String> recordedTarget = targetMembers == null ? null : parseMembers(targetMembers);
+            if (!configured.isEmpty() && !sameMembers(configured, recorded)
+                    && (recordedTarget == null || !sameMembers(configured, recordedTarget))) {
+                throw new IllegalStateException("app.watch-history.ring " + configured + " does not match the ring "
+                        + recorded + " recorded in watch_history_ring" + (recordedTarget == null ? ""
+                        : " (resharding to " + recordedTarget + ")") + "; leave it blank to use the recorded ring, "
+                        + "and change rings with the resharding endpoint");
+            }
+            if (recordedTarget != null && otherInstances(conn) > 0) {
+                throw new IllegalStateException("Watch history is being resharded onto " + recordedTarget
+                        + " while another instance is running; start this instance once the resharding finishes");
+            }
+            Placement loaded = new Placement(ring(recorded), recordedTarget == null ? null : ring(recordedTarget));
+            if (recordedTarget != null) {
+                try (PreparedStatement pStmt = conn.prepareStatement(SELECT_MOVED);
+                     ResultSet rs = pStmt.executeQuery()) {
+                    while (rs.next()) {
+                        loaded.moved.add(rs.getInt(1));
+                    }
+                }
+                log.warn("Resharding of watch history onto {} was interrupted with {} users moved; "
+                        + "run it again to finish", recordedTarget, loaded.moved.size());
+            }
+            return loaded;
+        }
+    }
+
+    /**
+     * Records this instance in {@code watch_history_instances}, clearing out the rows of instances long gone.
+     */
+    private void register() throws SQLException {
+        try (Connection conn = primary.getDataSource().getConnection()) {
+            try (PreparedStatement pStmt = conn.prepareStatement(DELETE_GONE_INSTANCES)) {
+                pStmt.setInt(1, -instanceTimeoutSeconds);
+                pStmt.executeUpdate();
+            }
+            try (PreparedStatement pStmt = conn.prepareStatement(REGISTER_INSTANCE)) {
+                pStmt.setString(1, instanceId);
+                pStmt.executeUpdate();
+            }
+        }
+    }
+
+    private void deregisterQuietly() {
+        if (!persistent) {
+            return;
+        }
+        try (Connection conn = primary.getDataSource().getConnection();
+             PreparedStatement pStmt = conn.prepareStatement(DEREGISTER_INSTANCE)) {
+            pStmt.setString(1, instanceId);
+            pStmt.executeUpdate();
+        } catch (SQLException ex) {
+            log.warn("Could not deregister this instance; it counts as running until its heartbeat expires", ex);
+        }
+    }
+
+    /**
+     * @param conn a connection to the primary
+     * @return the number of other instances whose heartbeat has not expired
+     */
+    private int otherInstances(Connection conn) throws SQLException {
+        try (PreparedStatement pStmt = conn.prepareStatement(COUNT_OTHER_INSTANCES)) {
+            pStmt.setString(1, instanceId);
+            pStmt.setInt(2, -instanceTimeoutSeconds);
+            try (ResultSet rs = pStmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if any other instance is running, since it would keep routing users by the
+     *                               ring it read at startup
+     */
+    private void requireNoOtherInstances() throws SQLException {
+        if (!persistent) {
+            return;
+        }
+        int others;
+        try (Connection conn = primary.getDataSource().getConnection()) {
+            others = otherInstances(conn);
+        }
+        if (others > 0) {
+            throw new IllegalStateException(others + " other application instance(s) are running; stop them before "
+                    + "resharding, since each keeps routing users by the ring it read at startup");
+        }
+    }
+
+    private static boolean hasRows(Connection conn) throws SQLException {
+        try (PreparedStatement pStmt = conn.prepareStatement("SELECT 1 FROM user_watch_history LIMIT 1");
+             ResultSet rs = pStmt.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    private static boolean sameMembers(List<String> a, List<String> b) {
+        return Set.copyOf(a).equals(Set.copyOf(b));
+    }
+
+    private boolean existsOnPrimary(String query, int id) throws SQLException {
+        try (Connection conn = primary.getDataSource().getConnection();
+             PreparedStatement pStmt = conn.prepareStatement(query)) {
+            pStmt.setInt(1, id);
+            try (ResultSet rs = pStmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static void deleteFrom(Shard shard, String query, int id) throws SQLException {
+        try (Connection conn = shard.getDataSource().getConnection();
+             PreparedStatement pStmt = conn.prepareStatement(query)) {
+            pStmt.setInt(1, id);
+            pStmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Creates a pool for every {@code app.watch-history.shards.<name>} URL and brings its schema up to date.
+     *
+     * @param primary     the application's data source, whose pool settings are copied
+     * @param environment the environment the URLs are read from
+     * @return the pools by shard name, wrapped so that per-request query budgets count them
+     */
+    private static Map<String, DataSource> createPools(DataSource primary, Environment environment) {
+        Map<String, String> urls = Binder.get(environment)
+                .bind("app.watch-history.shards", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of());
+        Map<String, DataSource> pools = new TreeMap<>();
+        urls.forEach((name, url) -> {
+            HikariDataSource pool = HikariPools.derive(primary, url, name, null, null);
+            Flyway.configure()
+                    .dataSource(pool)
+                    .locations("classpath:db/shard/" + DatabaseDriver.fromJdbcUrl(url).getId())
+                    .load()
+                    .migrate();
+            pools.put(name, new QueryCountingDataSource(pool));
+        });
+        return pools;
+    }
+
+    private static List<String> parseMembers(String members) {
+        if (members == null || members.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(members.split(",")).map(String::trim).filter(member -> !member.isEmpty()).toList();
+    }
+}
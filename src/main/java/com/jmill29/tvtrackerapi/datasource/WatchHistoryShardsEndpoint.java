@@ -0,0 +1,74 @@
+package com.jmill29.tvtrackerapi.datasource;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint for inspecting the watch history shards and resharding them online.
+ * <p>
+ * {@code GET /actuator/watchhistoryshards} lists the configured shards and the ring in force.
+ * {@code POST /actuator/watchhistoryshards} with a body such as {@code {"ring": "primary,shard-a,shard-b"}} moves
+ * users onto a ring over those shards and returns how many were moved; it blocks until the move completes, and the
+ * new ring is recorded on the primary. If it fails or the application restarts part way, posting the same ring
+ * again resumes it. It is refused while any other application instance is running, since the others keep routing
+ * users by the ring they read at startup. The endpoint is not exposed by default; add it to
+ * {@code management.endpoints.web.exposure.include} while resharding. Like the metrics endpoint it only answers
+ * requests from the local machine by users with the {@code ADMIN} role.
+ * </p>
+ */
+@Component
+@Endpoint(id = "watchhistoryshards")
+public class WatchHistoryShardsEndpoint {
+
+    private final WatchHistoryShards shards;
+    private final WatchHistoryResharder resharder;
+
+
+    /**
+     * Constructs a {@code WatchHistoryShardsEndpoint}.
+     *
+     * @param shards    the shards to report on
+     * @param resharder the resharder that moves users between them
+     */
+    public WatchHistoryShardsEndpoint(WatchHistoryShards shards, WatchHistoryResharder resharder) {
+        this.shards = shards;
+        this.resharder = resharder;
+    }
+
+
+    /**
+     * @return the configured shards, the ring in force, and the ring being moved to (or {@code null})
+     */
+    @ReadOperation
+    public Map<String, Object> layout() {
+        Map<String, Object> layout = new LinkedHashMap<>();
+        layout.put("shards", List.copyOf(shards.getShards().keySet()));
+        layout.put("ring", shards.getRingMembers());
+        layout.put("reshardingTo", shards.getTargetRingMembers());
+        return layout;
+    }
+
+    /**
+     * Moves users onto a new ring.
+     *
+     * @param ring the comma-separated names of the shards in the new ring
+     * @return the ring now in force and how many users and rows were moved
+     * @throws SQLException if a move fails; running the same request again resumes it
+     */
+    @WriteOperation
+    public WatchHistoryResharder.Result reshard(String ring) throws SQLException {
+        List<String> members = Arrays.stream(ring.split(","))
+                .map(String::trim)
+                .filter(member -> !member.isEmpty())
+                .toList();
+        return resharder.reshard(members);
+    }
+}
@@ -0,0 +1,87 @@
+package com.jmill29.tvtrackerapi.dto;
+
+import java.util.List;
+
+import com.jmill29.tvtrackerapi.model.Show;
+
+/**
+ * Response DTO holding one page of the show catalogue.
+ * <p>
+ * Pages are ordered by show ID. To fetch the following page, pass {@code nextCursor} back as the
+ * {@code cursor} request parameter; it is {@code null} once the last page has been returned.
+ * </p>
+ */
+public class ShowPage {
+
+    /** The shows on this page, in ascending ID order. */
+    private List<Show> items;
+
+    /** The cursor for the next page, or {@code null} if this is the last page. */
+    private Integer nextCursor;
+
+    /**
+     * Default constructor.
+     */
+    public ShowPage() {
+    }
+
+    /**
+     * Constructs a {@code ShowPage} with all fields.
+     *
+     * @param items      the shows on this page
+     * @param nextCursor the cursor for the next page, or {@code null} if this is the last page
+     */
+    public ShowPage(List<Show> items, Integer nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Gets the shows on this page.
+     *
+     * @return the shows on this page
+     */
+    public List<Show> getItems() {
+        return items;
+    }
+
+    /**
+     * Sets the shows on this page.
+     *
+     * @param items the shows on this page
+     */
+    public void setItems(List<Show> items) {
+        this.items = items;
+    }
+
+    /**
+     * Gets the cursor for the next page.
+     *
+     * @return the next cursor, or {@code null} if this is the last page
+     */
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Sets the cursor for the next page.
+     *
+     * @param nextCursor the next cursor, or {@code null} if this is the last page
+     */
+    public void setNextCursor(Integer nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Returns a string representation of the ShowPage object.
+     *
+     * @return a string representation of the page
+     */
+    @Override
+    public String toString() {
+        return "ShowPage{" +
+                "items=" + (items == null ? 0 : items.size()) +
+                ", nextCursor=" + nextCursor +
+                '}';
+    }
+}
@@ -0,0 +1,79 @@
+package com.jmill29.tvtrackerapi.dto;
+
+/**
+ * Request DTO for exchanging a username and password for a signed bearer token.
+ */
+public class TokenRequest {
+
+    /** The username of the user */
+    private String username;
+
+    /** The user's raw password */
+    private String password;
+
+    /**
+     * Default constructor.
+     */
+    public TokenRequest() {
+    }
+
+    /**
+     * Constructs a {@code TokenRequest} with all fields initialized.
+     *
+     * @param username the user's username
+     * @param password the user's raw password
+     */
+    public TokenRequest(String username, String password) {
+        this.username = username;
+        this.password = password;
+    }
+
+    /**
+     * Gets the user's username.
+     *
+     * @return the username
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Sets the user's username.
+     *
+     * @param username the username
+     */
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    /**
+     * Gets the user's raw password.
+     *
+     * @return the password
+     */
+    public String getPassword() {
+        return password;
+    }
+
+    /**
+     * Sets the user's raw password.
+     *
+     * @param password the password
+     */
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    /**
+     * Returns a string representation of the TokenRequest object, with the password protected.
+     *
+     * @return a string representation of the token request
+     */
+    @Override
+    public String toString() {
+        return "TokenRequest{" +
+                "username='" + username + '\'' +
+                ", password='[PROTECTED]'" +
+                '}';
+    }
+}
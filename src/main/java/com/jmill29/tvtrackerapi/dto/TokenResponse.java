@@ -0,0 +1,106 @@
+package com.jmill29.tvtrackerapi.dto;
+
+/**
+ * Response DTO returned after a successful token request.
+ * <p>
+ * The {@code accessToken} is sent on subsequent requests as {@code Authorization: Bearer <accessToken>}.
+ * </p>
+ */
+public class TokenResponse {
+
+    /** The signed bearer token */
+    private String accessToken;
+
+    /** The token type, always {@code "Bearer"} */
+    private String tokenType;
+
+    /** The number of seconds until the token expires */
+    private long expiresIn;
+
+    /**
+     * Default constructor.
+     */
+    public TokenResponse() {
+    }
+
+    /**
+     * Constructs a {@code TokenResponse} with all fields initialized.
+     *
+     * @param accessToken the signed bearer token
+     * @param tokenType   the token type
+     * @param expiresIn   the number of seconds until the token expires
+     */
+    public TokenResponse(String accessToken, String tokenType, long expiresIn) {
+        this.accessToken = accessToken;
+        this.tokenType = tokenType;
+        this.expiresIn = expiresIn;
+    }
+
+    /**
+     * Gets the signed bearer token.
+     *
+     * @return the access token
+     */
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    /**
+     * Sets the signed bearer token.
+     *
+     * @param accessToken the access token
+     */
+    public void setAccessToken(String accessToken) {
+        this.accessToken = accessToken;
+    }
+
+    /**
+     * Gets the token type.
+     *
+     * @return the token type
+     */
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    /**
+     * Sets the token type.
+     *
+     * @param tokenType the token type
+     */
+    public void setTokenType(String tokenType) {
+        this.tokenType = tokenType;
+    }
+
+    /**
+     * Gets the number of seconds until the token expires.
+     *
+     * @return the lifetime in seconds
+     */
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+
+    /**
+     * Sets the number of seconds until the token expires.
+     *
+     * @param expiresIn the lifetime in seconds
+     */
+    public void setExpiresIn(long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+
+    /**
+     * Returns a string representation of the TokenResponse object, with the token protected.
+     *
+     * @return a string representation of the token response
+     */
+    @Override
+    public String toString() {
+        return "TokenResponse{" +
+                "accessToken='[PROTECTED]'" +
+                ", tokenType='" + tokenType + '\'' +
+                ", expiresIn=" + expiresIn +
+                '}';
+    }
+}
@@ -0,0 +1,139 @@
+package com.jmill29.tvtrackerapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.jmill29.tvtrackerapi.enums.WatchStatus;
+
+/**
+ * Request DTO for partially updating an entry in a user's watch history.
+ * <p>
+ * Only the fields present in the request body are changed; omitted fields keep their stored values. Because a
+ * show may be unrated, an explicit {@code "rating": null} clears the rating, whereas omitting {@code rating}
+ * leaves it unchanged.
+ * </p>
+ */
+public class UserWatchHistoryPatchRequest {
+
+    /** The new watch status, or {@code null} to keep the current one. */
+    private WatchStatus status;
+
+    /** The new number of episodes watched, or {@code null} to keep the current one. */
+    private Integer episodesWatched;
+
+    /** The new rating from 1 to 5, or {@code null} to clear it (only if {@link #ratingSet} is set). */
+    private Integer rating;
+
+    /** Whether {@code rating} was present in the request, even if {@code null}. */
+    private boolean ratingSet;
+
+    /** The new favorite flag, or {@code null} to keep the current one. */
+    private Boolean favorite;
+
+    /**
+     * Default constructor.
+     */
+    public UserWatchHistoryPatchRequest() {
+    }
+
+    /**
+     * Gets the new watch status.
+     *
+     * @return the watch status, or {@code null} to keep the current one
+     */
+    public WatchStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets the new watch status.
+     *
+     * @param status the watch status
+     */
+    public void setStatus(WatchStatus status) {
+        this.status = status;
+    }
+
+    /**
+     * Gets the new number of episodes watched.
+     *
+     * @return the number of episodes watched, or {@code null} to keep the current one
+     */
+    public Integer getEpisodesWatched() {
+        return episodesWatched;
+    }
+
+    /**
+     * Sets the new number of episodes watched.
+     *
+     * @param episodesWatched the number of episodes watched
+     */
+    public void setEpisodesWatched(Integer episodesWatched) {
+        this.episodesWatched = episodesWatched;
+    }
+
+    /**
+     * Gets the new rating.
+     *
+     * @return the rating from 1 to 5, or {@code null} if the rating is cleared or not changed
+     */
+    public Integer getRating() {
+        return rating;
+    }
+
+    /**
+     * Sets the new rating and marks it as supplied.
+     *
+     * @param rating the rating from 1 to 5, or {@code null} to clear it
+     */
+    public void setRating(Integer rating) {
+        this.rating = rating;
+        this.ratingSet = true;
+    }
+
+    /**
+     * Returns whether the request changes the rating.
+     *
+     * @return {@code true} if {@code rating} was supplied, even as {@code null}
+     */
+    @JsonIgnore
+    public boolean isRatingSet() {
+        return ratingSet;
+    }
+
+    /**
+     * Gets the new favorite flag.
+     *
+     * @return the favorite flag, or {@code null} to keep the current one
+     */
+    public Boolean getFavorite() {
+        return favorite;
+    }
+
+    /**
+     * Sets the new favorite flag.
+     *
+     * @param favorite the favorite flag
+     */
+    public void setFavorite(Boolean favorite) {
+        this.favorite = favorite;
+    }
+
+    /**
+     * Returns whether the request changes at least one field.
+     *
+     * @return {@code true} if any field was supplied
+     */
+    @JsonIgnore
+    public boolean isEmpty() {
+        return status == null && episodesWatched == null && !ratingSet && favorite == null;
+    }
+
+    @Override
+    public String toString() {
+        return "UserWatchHistoryPatchRequest{" +
+                "status=" + (status != null ? status.name() : null) +
+                ", episodesWatched=" + episodesWatched +
+                ", rating=" + (ratingSet ? rating : "unchanged") +
+                ", favorite=" + favorite +
+                '}';
+    }
+}
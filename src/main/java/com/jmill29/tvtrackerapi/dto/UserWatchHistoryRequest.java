@@ -5,7 +5,9 @@ import com.jmill29.tvtrackerapi.enums.WatchStatus;
 /**
  * Request DTO for adding or updating a user's watch history for a show.
  * <p>
- * Contains the show's ID and the desired watch status.
+ * Contains the show's ID and the desired watch status. When adding a show, the number of episodes watched,
+ * the rating, and the favorite flag may also be given; omitted values default to no episodes, no rating, and
+ * not a favorite. Status updates only read the show ID and status.
  * </p>
  */
 public class UserWatchHistoryRequest {
@@ -16,6 +18,15 @@ public class UserWatchHistoryRequest {
     /** The user's watch status for the show. */
     private WatchStatus status;
 
+    /** The number of episodes the user has watched, or {@code null} if not given. */
+    private Integer episodesWatched;
+
+    /** The user's rating of the show from 1 to 5, or {@code null} if unrated. */
+    private Integer rating;
+
+    /** Whether the show is one of the user's favorites, or {@code null} if not given. */
+    private Boolean favorite;
+
     /**
      * Default constructor.
      */
@@ -68,11 +79,69 @@ public class UserWatchHistoryRequest {
     public void setStatus(WatchStatus status) {
         this.status = status;
     }
+
+    /**
+     * Gets the number of episodes the user has watched.
+     *
+     * @return the number of episodes watched, or {@code null} if not given
+     */
+    public Integer getEpisodesWatched() {
+        return episodesWatched;
+    }
+
+    /**
+     * Sets the number of episodes the user has watched.
+     *
+     * @param episodesWatched the number of episodes watched
+     */
+    public void setEpisodesWatched(Integer episodesWatched) {
+        this.episodesWatched = episodesWatched;
+    }
+
+    /**
+     * Gets the user's rating of the show.
+     *
+     * @return the rating from 1 to 5, or {@code null} if unrated
+     */
+    public Integer getRating() {
+        return rating;
+    }
+
+    /**
+     * Sets the user's rating of the show.
+     *
+     * @param rating the rating from 1 to 5, or {@code null} if unrated
+     */
+    public void setRating(Integer rating) {
+        this.rating = rating;
+    }
+
+    /**
+     * Gets whether the show is one of the user's favorites.
+     *
+     * @return the favorite flag, or {@code null} if not given
+     */
+    public Boolean getFavorite() {
+        return favorite;
+    }
+
+    /**
+     * Sets whether the show is one of the user's favorites.
+     *
+     * @param favorite the favorite flag
+     */
+    public void setFavorite(Boolean favorite) {
+        this.favorite = favorite;
+    }
+
     @Override
     public String toString() {
         return "UserWatchHistoryRequest{" +
                 "showId=" + showId +
                 ", status=" + (status != null ? status.name() : null) +
+                ", episodesWatched=" + episodesWatched +
+                ", rating=" + rating +
+                ", favorite=" + favorite +
                 '}';
     }
 }
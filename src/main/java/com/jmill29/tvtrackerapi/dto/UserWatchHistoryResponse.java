@@ -3,7 +3,8 @@ package com.jmill29.tvtrackerapi.dto;
 /**
  * Data Transfer Object representing a user's watch history for a show.
  * <p>
- * Used to transfer show metadata and the user's current watch status.
+ * Used to transfer show metadata and the user's current watch status, episode progress, rating, and
+ * favorite flag. Shows the user has not tracked report no episodes watched, no rating, and not a favorite.
  * </p>
  */
 public class UserWatchHistoryResponse {
@@ -23,6 +24,15 @@ public class UserWatchHistoryResponse {
     /** The user's watch status for the show (e.g., "Watched", "Watching", "Plan to Watch"). */
     private String status;
 
+    /** The number of episodes the user has watched. */
+    private int episodesWatched;
+
+    /** The user's rating of the show from 1 to 5, or {@code null} if unrated. */
+    private Integer rating;
+
+    /** Whether the show is one of the user's favorites. */
+    private boolean favorite;
+
     /**
      * Default constructor.
      */
@@ -30,7 +40,7 @@ public class UserWatchHistoryResponse {
     }
 
     /**
-     * Constructs a {@code UserWatchHistoryResponse} with all fields.
+     * Constructs a {@code UserWatchHistoryResponse} with no episodes watched, no rating, and not a favorite.
      *
      * @param showId      the unique ID of the show
      * @param showName    the name of the show
@@ -46,6 +56,26 @@ public class UserWatchHistoryResponse {
         this.status = status;
     }
 
+    /**
+     * Constructs a {@code UserWatchHistoryResponse} with all fields.
+     *
+     * @param showId          the unique ID of the show
+     * @param showName        the name of the show
+     * @param description     the description of the show
+     * @param imageUrl        the image URL for the show
+     * @param status          the user's watch status for the show
+     * @param episodesWatched the number of episodes the user has watched
+     * @param rating          the user's rating from 1 to 5, or {@code null} if unrated
+     * @param favorite        whether the show is one of the user's favorites
+     */
+    public UserWatchHistoryResponse(int showId, String showName, String description, String imageUrl, String status,
+            int episodesWatched, Integer rating, boolean favorite) {
+        this(showId, showName, description, imageUrl, status);
+        this.episodesWatched = episodesWatched;
+        this.rating = rating;
+        this.favorite = favorite;
+    }
+
     /**
      * Gets the unique ID of the show.
      *
@@ -136,6 +166,60 @@ public class UserWatchHistoryResponse {
         this.status = status;
     }
 
+    /**
+     * Gets the number of episodes the user has watched.
+     *
+     * @return the number of episodes watched
+     */
+    public int getEpisodesWatched() {
+        return episodesWatched;
+    }
+
+    /**
+     * Sets the number of episodes the user has watched.
+     *
+     * @param episodesWatched the number of episodes watched
+     */
+    public void setEpisodesWatched(int episodesWatched) {
+        this.episodesWatched = episodesWatched;
+    }
+
+    /**
+     * Gets the user's rating of the show.
+     *
+     * @return the rating from 1 to 5, or {@code null} if unrated
+     */
+    public Integer getRating() {
+        return rating;
+    }
+
+    /**
+     * Sets the user's rating of the show.
+     *
+     * @param rating the rating from 1 to 5, or {@code null} if unrated
+     */
+    public void setRating(Integer rating) {
+        this.rating = rating;
+    }
+
+    /**
+     * Gets whether the show is one of the user's favorites.
+     *
+     * @return {@code true} if the show is a favorite
+     */
+    public boolean isFavorite() {
+        return favorite;
+    }
+
+    /**
+     * Sets whether the show is one of the user's favorites.
+     *
+     * @param favorite {@code true} if the show is a favorite
+     */
+    public void setFavorite(boolean favorite) {
+        this.favorite = favorite;
+    }
+
     @Override
     public String toString() {
         return "UserWatchHistoryResponse{" +
@@ -144,6 +228,9 @@ public class UserWatchHistoryResponse {
                 ", description='" + description + '\'' +
                 ", imageUrl='" + imageUrl + '\'' +
                 ", status='" + status + '\'' +
+                ", episodesWatched=" + episodesWatched +
+                ", rating=" + rating +
+                ", favorite=" + favorite +
                 '}';
     }
 }
@@ -0,0 +1,108 @@
+package com.jmill29.tvtrackerapi.dto;
+
+import com.jmill29.tvtrackerapi.enums.BatchItemOutcome;
+
+/**
+ * Response DTO describing what happened to one item of a bulk watch history import.
+ * <p>
+ * Results are returned in the same order as the items in the request.
+ * </p>
+ */
+public class WatchHistoryBatchItemResponse {
+
+    /** The show ID from the request item, or 0 if the item was missing. */
+    private int showId;
+
+    /** The outcome for this item. */
+    private BatchItemOutcome outcome;
+
+    /** A human-readable description of the outcome. */
+    private String message;
+
+    /**
+     * Default constructor.
+     */
+    public WatchHistoryBatchItemResponse() {
+    }
+
+    /**
+     * Constructs a {@code WatchHistoryBatchItemResponse} with all fields.
+     *
+     * @param showId  the show ID from the request item
+     * @param outcome the outcome for this item
+     * @param message a human-readable description of the outcome
+     */
+    public WatchHistoryBatchItemResponse(int showId, BatchItemOutcome outcome, String message) {
+        this.showId = showId;
+        this.outcome = outcome;
+        this.message = message;
+    }
+
+    /**
+     * Gets the show ID from the request item.
+     *
+     * @return the show ID
+     */
+    public int getShowId() {
+        return showId;
+    }
+
+    /**
+     * Sets the show ID from the request item.
+     *
+     * @param showId the show ID
+     */
+    public void setShowId(int showId) {
+        this.showId = showId;
+    }
+
+    /**
+     * Gets the outcome for this item.
+     *
+     * @return the outcome
+     */
+    public BatchItemOutcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Sets the outcome for this item.
+     *
+     * @param outcome the outcome
+     */
+    public void setOutcome(BatchItemOutcome outcome) {
+        this.outcome = outcome;
+    }
+
+    /**
+     * Gets the human-readable description of the outcome.
+     *
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Sets the human-readable description of the outcome.
+     *
+     * @param message the message
+     */
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Returns a string representation of the WatchHistoryBatchItemResponse object.
+     *
+     * @return a string representation of the batch item result
+     */
+    @Override
+    public String toString() {
+        return "WatchHistoryBatchItemResponse{" +
+                "showId=" + showId +
+                ", outcome=" + outcome +
+                ", message='" + message + '\'' +
+                '}';
+    }
+}
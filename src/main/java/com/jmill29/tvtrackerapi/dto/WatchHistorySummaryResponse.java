@@ -0,0 +1,129 @@
+package com.jmill29.tvtrackerapi.dto;
+
+import java.util.Map;
+
+/**
+ * Response DTO summarizing a user's watch history.
+ * <p>
+ * Counts are keyed by the watch status's display value (e.g. {@code "Currently Watching"}) and include every
+ * status, with zero for statuses the user has no entries in.
+ * </p>
+ */
+public class WatchHistorySummaryResponse {
+
+    /** The number of entries per watch status, in status order. */
+    private Map<String, Long> statusCounts;
+
+    /** The number of shows in the user's watch history. */
+    private long totalShows;
+
+    /** The total number of episodes watched across all shows. */
+    private long totalEpisodesWatched;
+
+    /** The average rating over rated shows, or {@code null} if no show is rated. */
+    private Double averageRating;
+
+    /**
+     * Default constructor.
+     */
+    public WatchHistorySummaryResponse() {
+    }
+
+    /**
+     * Constructs a {@code WatchHistorySummaryResponse} with all fields.
+     *
+     * @param statusCounts         the number of entries per watch status
+     * @param totalShows           the number of shows in the watch history
+     * @param totalEpisodesWatched the total number of episodes watched
+     * @param averageRating        the average rating, or {@code null} if no show is rated
+     */
+    public WatchHistorySummaryResponse(Map<String, Long> statusCounts, long totalShows, long totalEpisodesWatched,
+            Double averageRating) {
+        this.statusCounts = statusCounts;
+        this.totalShows = totalShows;
+        this.totalEpisodesWatched = totalEpisodesWatched;
+        this.averageRating = averageRating;
+    }
+
+    /**
+     * Gets the number of entries per watch status.
+     *
+     * @return the counts keyed by status display value
+     */
+    public Map<String, Long> getStatusCounts() {
+        return statusCounts;
+    }
+
+    /**
+     * Sets the number of entries per watch status.
+     *
+     * @param statusCounts the counts keyed by status display value
+     */
+    public void setStatusCounts(Map<String, Long> statusCounts) {
+        this.statusCounts = statusCounts;
+    }
+
+    /**
+     * Gets the number of shows in the watch history.
+     *
+     * @return the total number of shows
+     */
+    public long getTotalShows() {
+        return totalShows;
+    }
+
+    /**
+     * Sets the number of shows in the watch history.
+     *
+     * @param totalShows the total number of shows
+     */
+    public void setTotalShows(long totalShows) {
+        this.totalShows = totalShows;
+    }
+
+    /**
+     * Gets the total number of episodes watched.
+     *
+     * @return the total number of episodes watched
+     */
+    public long getTotalEpisodesWatched() {
+        return totalEpisodesWatched;
+    }
+
+    /**
+     * Sets the total number of episodes watched.
+     *
+     * @param totalEpisodesWatched the total number of episodes watched
+     */
+    public void setTotalEpisodesWatched(long totalEpisodesWatched) {
+        this.totalEpisodesWatched = totalEpisodesWatched;
+    }
+
+    /**
+     * Gets the average rating over rated shows.
+     *
+     * @return the average rating, or {@code null} if no show is rated
+     */
+    public Double getAverageRating() {
+        return averageRating;
+    }
+
+    /**
+     * Sets the average rating over rated shows.
+     *
+     * @param averageRating the average rating, or {@code null} if no show is rated
+     */
+    public void setAverageRating(Double averageRating) {
+        this.averageRating = averageRating;
+    }
+
+    @Override
+    public String toString() {
+        return "WatchHistorySummaryResponse{" +
+                "statusCounts=" + statusCounts +
+                ", totalShows=" + totalShows +
+                ", totalEpisodesWatched=" + totalEpisodesWatched +
+                ", averageRating=" + averageRating +
+                '}';
+    }
+}
@@ -0,0 +1,19 @@
+package com.jmill29.tvtrackerapi.enums;
+
+/**
+ * Enum representing the outcome of a single item in a bulk watch history import.
+ */
+public enum BatchItemOutcome {
+
+    /** The show was added to the user's watch history. */
+    ADDED,
+
+    /** The show was already in the user's watch history (or repeated earlier in the same request). */
+    ALREADY_EXISTS,
+
+    /** No show with the given ID exists. */
+    SHOW_NOT_FOUND,
+
+    /** The item was missing, had a non-positive show ID, or had no status. */
+    INVALID
+}
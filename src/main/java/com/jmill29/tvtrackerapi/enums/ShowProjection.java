@@ -0,0 +1,66 @@
+package com.jmill29.tvtrackerapi.enums;
+
+/**
+ * Enum representing which show columns a listing request wants returned.
+ * <p>
+ * List views rarely display the full synopsis, so {@link #SUMMARY} lets them skip the
+ * {@code description} column entirely instead of reading and serializing it for every row.
+ * </p>
+ */
+public enum ShowProjection {
+
+    /** Every show column, including the description. */
+    FULL("full"),
+
+    /** Every show column except the description. */
+    SUMMARY("summary");
+
+    /** The value accepted in the {@code fields} request parameter. */
+    private final String value;
+
+    /**
+     * Constructs a {@code ShowProjection} with the given request parameter value.
+     *
+     * @param value the value accepted in the {@code fields} request parameter
+     */
+    ShowProjection(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Returns the value accepted in the {@code fields} request parameter.
+     *
+     * @return the request parameter value
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Returns whether this projection includes the show description.
+     *
+     * @return {@code true} if the description column should be read
+     */
+    public boolean includesDescription() {
+        return this == FULL;
+    }
+
+    /**
+     * Parses the given request parameter value to return the corresponding {@code ShowProjection}.
+     *
+     * @param value the {@code fields} request parameter, or {@code null} for the default
+     * @return the matching projection, or {@link #FULL} if {@code value} is {@code null} or blank
+     * @throws IllegalArgumentException if no matching projection is found
+     */
+    public static ShowProjection fromValue(String value) {
+        if (value == null || value.isBlank()) {
+            return FULL;
+        }
+        for (ShowProjection projection : values()) {
+            if (projection.value.equalsIgnoreCase(value.trim())) {
+                return projection;
+            }
+        }
+        throw new IllegalArgumentException("Invalid fields value: " + value);
+    }
+}
@@ -0,0 +1,60 @@
+package com.jmill29.tvtrackerapi.event;
+
+/**
+ * Application event published by the show DAO whenever a row in {@code tv_shows} is inserted, updated, or deleted.
+ * <p>
+ * Listeners such as the show cache and search index use this event to drop or reload their copy of the affected
+ * show and anything derived from the whole catalogue. For an insert the event carries the newly generated ID.
+ * A show ID of 0 means the affected show is unknown and listeners should discard all per-show state. A delete is
+ * flagged, since it also cascades to the show's watch history rows.
+ * </p>
+ * <p>
+ * Listeners are {@code @TransactionalEventListener}s with fallback execution: an event published inside a
+ * transaction is delivered only once it commits, so a rolled-back write never reaches a cache, and an event
+ * published outside one is delivered at once.
+ * </p>
+ */
+public class ShowChangedEvent {
+
+    /** The ID of the affected show, or 0 if unknown */
+    private final int showId;
+
+    /** Whether the show was deleted rather than inserted or updated */
+    private final boolean deleted;
+
+    /**
+     * Constructs a new {@code ShowChangedEvent} for an inserted or updated show.
+     *
+     * @param showId the ID of the affected show, or 0 if unknown
+     */
+    public ShowChangedEvent(int showId) {
+        this(showId, false);
+    }
+
+    /**
+     * Constructs a new {@code ShowChangedEvent}.
+     *
+     * @param showId  the ID of the affected show, or 0 if unknown
+     * @param deleted whether the show was deleted
+     */
+    public ShowChangedEvent(int showId, boolean deleted) {
+        this.showId = showId;
+        this.deleted = deleted;
+    }
+
+    public int getShowId() {
+        return showId;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    @Override
+    public String toString() {
+        return "ShowChangedEvent{" +
+                "showId=" + showId +
+                ", deleted=" + deleted +
+                '}';
+    }
+}
@@ -0,0 +1,48 @@
+package com.jmill29.tvtrackerapi.event;
+
+/**
+ * Application event published by the user DAO whenever a user's stored credentials or roles may have changed.
+ * <p>
+ * Listeners such as the authentication cache use this event to drop any state derived from the previous
+ * version of the user. A {@code null} username means the affected user could not be identified cheaply
+ * (e.g., a delete by ID), and listeners should discard everything they hold for all users.
+ * </p>
+ * <p>
+ * Like {@link ShowChangedEvent}, the event is delivered after the publishing transaction commits.
+ * </p>
+ */
+public class UserChangedEvent {
+
+    /** The ID of the affected user, or 0 if unknown */
+    private final int userId;
+
+    /** The username of the affected user, or {@code null} if unknown */
+    private final String username;
+
+    /**
+     * Constructs a new {@code UserChangedEvent}.
+     *
+     * @param userId   the ID of the affected user, or 0 if unknown
+     * @param username the username of the affected user, or {@code null} if unknown
+     */
+    public UserChangedEvent(int userId, String username) {
+        this.userId = userId;
+        this.username = username;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return "UserChangedEvent{" +
+                "userId=" + userId +
+                ", username='" + username + '\'' +
+                '}';
+    }
+}
@@ -2,11 +2,14 @@ package com.jmill29.tvtrackerapi.exception;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import com.jmill29.tvtrackerapi.dto.ErrorResponse;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * Global exception handler for the TV Tracker API application.
  * <p>
@@ -22,13 +25,30 @@ import com.jmill29.tvtrackerapi.dto.ErrorResponse;
  *   <li>{@link WatchHistoryNotFoundException} - 404 NOT_FOUND</li>
  *   <li>{@link WatchHistoryAlreadyExistsException} - 409 CONFLICT</li>
  *   <li>{@link IllegalArgumentException} - 400 BAD_REQUEST</li>
+ *   <li>{@link AuthenticationException} - 401 UNAUTHORIZED</li>
  * </ul>
  *
- * <p>All responses include a timestamp and error message.</p>
+ * <p>All responses include a timestamp and error message. Every handled exception also increments the
+ * {@value #EXCEPTION_COUNTER} counter, tagged with the mapped exception type and the response status.</p>
  */
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    static final String EXCEPTION_COUNTER = "api.exceptions";
+
+    private final MeterRegistry meterRegistry;
+
+
+    /**
+     * Constructs a {@code GlobalExceptionHandler}.
+     *
+     * @param meterRegistry the registry the exception counters are recorded in
+     */
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+
     /**
      * Handles {@link UserAlreadyExistsException} and returns a 409 CONFLICT response.
      *
@@ -37,6 +57,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(UserAlreadyExistsException.class)
     public ResponseEntity<ErrorResponse> handleException(UserAlreadyExistsException ex) {
+        countException(UserAlreadyExistsException.class, HttpStatus.CONFLICT);
         ErrorResponse errorResponse = new ErrorResponse(
             HttpStatus.CONFLICT.value(),
             ex.getMessage(),
@@ -53,6 +74,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(DatabaseException.class)
     public ResponseEntity<ErrorResponse> handleException(DatabaseException ex) {
+        countException(DatabaseException.class, HttpStatus.INTERNAL_SERVER_ERROR);
         ErrorResponse errorResponse = new ErrorResponse(
             HttpStatus.INTERNAL_SERVER_ERROR.value(),
             ex.getMessage(),
@@ -69,6 +91,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(NoShowsFoundException.class)
     public ResponseEntity<ErrorResponse> handleException(NoShowsFoundException ex) {
+        countException(NoShowsFoundException.class, HttpStatus.NOT_FOUND);
         ErrorResponse errorResponse = new ErrorResponse(
             HttpStatus.NOT_FOUND.value(),
             ex.getMessage(),
@@ -85,6 +108,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleException(UserNotFoundException ex) {
+        countException(UserNotFoundException.class, HttpStatus.NOT_FOUND);
         ErrorResponse errorResponse = new ErrorResponse(
             HttpStatus.NOT_FOUND.value(),
             ex.getMessage(),
@@ -101,6 +125,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(WatchHistoryNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleException(WatchHistoryNotFoundException ex) {
+        countException(WatchHistoryNotFoundException.class, HttpStatus.NOT_FOUND);
         ErrorResponse errorResponse = new ErrorResponse(
             HttpStatus.NOT_FOUND.value(),
             ex.getMessage(),
@@ -117,6 +142,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(WatchHistoryAlreadyExistsException.class)
     public ResponseEntity<ErrorResponse> handleException(WatchHistoryAlreadyExistsException ex) {
+        countException(WatchHistoryAlreadyExistsException.class, HttpStatus.CONFLICT);
         ErrorResponse errorResponse = new ErrorResponse(
             HttpStatus.CONFLICT.value(),
             ex.getMessage(),
@@ -133,6 +159,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleException(IllegalArgumentException ex) {
+        countException(IllegalArgumentException.class, HttpStatus.BAD_REQUEST);
         ErrorResponse errorResponse = new ErrorResponse(
             HttpStatus.BAD_REQUEST.value(),
             ex.getMessage(),
@@ -149,6 +176,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(ShowNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleException(ShowNotFoundException ex) {
+        countException(ShowNotFoundException.class, HttpStatus.NOT_FOUND);
         ErrorResponse errorResponse = new ErrorResponse(
             HttpStatus.NOT_FOUND.value(),
             ex.getMessage(),
@@ -156,4 +184,33 @@ public class GlobalExceptionHandler {
         );
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
+
+    /**
+     * Handles {@link AuthenticationException} and returns a 401 UNAUTHORIZED response.
+     *
+     * @param ex the exception thrown when presented credentials cannot be verified
+     * @return a standardized {@link ErrorResponse} with HTTP 401 status
+     */
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<ErrorResponse> handleException(AuthenticationException ex) {
+        countException(AuthenticationException.class, HttpStatus.UNAUTHORIZED);
+        ErrorResponse errorResponse = new ErrorResponse(
+            HttpStatus.UNAUTHORIZED.value(),
+            ex.getMessage(),
+            System.currentTimeMillis()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
+    }
+
+    /**
+     * Increments the counter for a handled exception type.
+     *
+     * @param exceptionType the exception type the handler is mapped to
+     * @param status        the status returned to the client
+     */
+    private void countException(Class<? extends Exception> exceptionType, HttpStatus status) {
+        meterRegistry.counter(EXCEPTION_COUNTER,
+            "exception", exceptionType.getSimpleName(),
+            "status", String.valueOf(status.value())).increment();
+    }
 }
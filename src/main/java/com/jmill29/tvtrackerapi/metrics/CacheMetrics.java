@@ -0,0 +1,75 @@
+package com.jmill29.tvtrackerapi.metrics;
+
+import org.springframework.stereotype.Component;
+
+import com.jmill29.tvtrackerapi.cache.ShowCache;
+import com.jmill29.tvtrackerapi.cache.WatchSummaryCache;
+import com.jmill29.tvtrackerapi.security.AuthenticationCache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the hit, miss, eviction, and size statistics of the application's in-process caches.
+ * <p>
+ * Meters follow Micrometer's cache naming ({@code cache.gets}, {@code cache.evictions}, {@code cache.size})
+ * and are told apart by the {@code cache} tag: {@code shows} for the {@link ShowCache}, {@code credentials}
+ * for the {@link AuthenticationCache}, and {@code watch-summaries} for the {@link WatchSummaryCache}. The caches keep their own counters, so nothing is recorded on the
+ * lookup path; the values are read when the registry is scraped.
+ * </p>
+ */
+@Component
+public class CacheMetrics implements MeterBinder {
+
+    private final ShowCache showCache;
+    private final AuthenticationCache authenticationCache;
+    private final WatchSummaryCache watchSummaryCache;
+
+
+    /**
+     * Constructs a {@code CacheMetrics} binder.
+     *
+     * @param showCache           the show cache
+     * @param authenticationCache the cache of verified credentials
+     * @param watchSummaryCache   the cache of per-user watch history counters
+     */
+    public CacheMetrics(ShowCache showCache, AuthenticationCache authenticationCache, WatchSummaryCache watchSummaryCache) {
+        this.showCache = showCache;
+        this.authenticationCache = authenticationCache;
+        this.watchSummaryCache = watchSummaryCache;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", showCache, ShowCache::getHitCount)
+            .tags("cache", "shows", "result", "hit").register(registry);
+        FunctionCounter.builder("cache.gets", showCache, ShowCache::getMissCount)
+            .tags("cache", "shows", "result", "miss").register(registry);
+        FunctionCounter.builder("cache.evictions", showCache, ShowCache::getEvictionCount)
+            .tags("cache", "shows").register(registry);
+        Gauge.builder("cache.size", showCache, ShowCache::size)
+            .tags("cache", "shows").register(registry);
+
+        FunctionCounter.builder("cache.gets", authenticationCache, AuthenticationCache::getHitCount)
+            .tags("cache", "credentials", "result", "hit").register(registry);
+        FunctionCounter.builder("cache.gets", authenticationCache, AuthenticationCache::getMissCount)
+            .tags("cache", "credentials", "result", "miss").register(registry);
+        FunctionCounter.builder("cache.evictions", authenticationCache, AuthenticationCache::getEvictionCount)
+            .tags("cache", "credentials").register(registry);
+        Gauge.builder("cache.size", authenticationCache, AuthenticationCache::size)
+            .tags("cache", "credentials").register(registry);
+
+        FunctionCounter.builder("cache.gets", watchSummaryCache, WatchSummaryCache::getHitCount)
+            .tags("cache", "watch-summaries", "result", "hit").register(registry);
+        FunctionCounter.builder("cache.gets", watchSummaryCache, WatchSummaryCache::getMissCount)
+            .tags("cache", "watch-summaries", "result", "miss").register(registry);
+        FunctionCounter.builder("cache.evictions", watchSummaryCache, WatchSummaryCache::getEvictionCount)
+            .tags("cache", "watch-summaries").register(registry);
+        Gauge.builder("cache.size", watchSummaryCache, WatchSummaryCache::size)
+            .tags("cache", "watch-summaries").register(registry);
+    }
+}
@@ -0,0 +1,56 @@
+package com.jmill29.tvtrackerapi.metrics;
+
+import java.util.List;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import com.jmill29.tvtrackerapi.dao.ShowDao;
+import com.jmill29.tvtrackerapi.dao.UserDao;
+import com.jmill29.tvtrackerapi.dao.UserWatchHistoryDao;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Wraps every DAO bean in a proxy that times each call with a {@link DaoTimingInterceptor}.
+ * <p>
+ * The DAOs are injected by interface everywhere, so a plain JDK proxy is enough and the implementations
+ * stay free of metrics code. The meter registry is resolved lazily because post-processors are created
+ * before the beans Micrometer depends on.
+ * </p>
+ */
+@Component
+public class DaoMetricsPostProcessor implements BeanPostProcessor {
+
+    /** The DAO interfaces whose implementations are timed; the simple name becomes the {@code dao} tag */
+    private static final List<Class<?>> DAO_TYPES = List.of(ShowDao.class, UserDao.class, UserWatchHistoryDao.class);
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+
+    /**
+     * Constructs a {@code DaoMetricsPostProcessor}.
+     *
+     * @param meterRegistry provider of the registry the timers are recorded in
+     */
+    public DaoMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        for (Class<?> daoType : DAO_TYPES) {
+            if (daoType.isInstance(bean)) {
+                ProxyFactory proxyFactory = new ProxyFactory(bean);
+                proxyFactory.addAdvice(new DaoTimingInterceptor(daoType.getSimpleName(), meterRegistry::getIfAvailable));
+                return proxyFactory.getProxy();
+            }
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,78 @@
+package com.jmill29.tvtrackerapi.metrics;
+
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records the duration of every DAO method call in the {@value #TIMER_NAME} timer.
+ * <p>
+ * Each call is tagged with the DAO interface ({@code dao}), the method name ({@code method}), whether it
+ * returned normally ({@code outcome=success|error}), and the simple class name of any exception it threw
+ * ({@code exception}, {@code none} on success). Timings include the time spent waiting for a pooled
+ * connection, so pool starvation shows up here as well as in the Hikari metrics.
+ * </p>
+ */
+class DaoTimingInterceptor implements MethodInterceptor {
+
+    static final String TIMER_NAME = "dao.calls";
+
+    private final String daoName;
+    private final Supplier<MeterRegistry> registrySupplier;
+    private volatile MeterRegistry registry;
+
+
+    /**
+     * Constructs a {@code DaoTimingInterceptor}.
+     *
+     * @param daoName          the value of the {@code dao} tag
+     * @param registrySupplier supplies the registry on first use, or {@code null} while none is available
+     */
+    DaoTimingInterceptor(String daoName, Supplier<MeterRegistry> registrySupplier) {
+        this.daoName = daoName;
+        this.registrySupplier = registrySupplier;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        MeterRegistry meterRegistry = registry();
+        if (meterRegistry == null) {
+            return invocation.proceed();
+        }
+
+        String exception = "none";
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return invocation.proceed();
+        } catch (Throwable ex) {
+            exception = ex.getClass().getSimpleName();
+            throw ex;
+        } finally {
+            sample.stop(Timer.builder(TIMER_NAME)
+                .description("Duration of DAO method calls")
+                .tag("dao", daoName)
+                .tag("method", invocation.getMethod().getName())
+                .tag("outcome", "none".equals(exception) ? "success" : "error")
+                .tag("exception", exception)
+                .register(meterRegistry));
+        }
+    }
+
+    /**
+     * @return the meter registry, or {@code null} if it has not been created yet
+     */
+    private MeterRegistry registry() {
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry == null) {
+            meterRegistry = registrySupplier.get();
+            registry = meterRegistry;
+        }
+        return meterRegistry;
+    }
+}
@@ -0,0 +1,106 @@
+package com.jmill29.tvtrackerapi.metrics;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Counts the statements and connection checkouts made while handling each HTTP request.
+ * <p>
+ * Runs ahead of the security filters so credential lookups are included. Per-endpoint totals are recorded in
+ * the {@value #STATEMENTS_SUMMARY} and {@value #CONNECTIONS_SUMMARY} summaries, tagged with the matched URI
+ * pattern. A request that exceeds either budget is logged as a warning and counted in
+ * {@value #BUDGET_EXCEEDED_COUNTER}, which is usually the sign of an N+1 query pattern.
+ * </p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    static final String STATEMENTS_SUMMARY = "http.request.statements";
+    static final String CONNECTIONS_SUMMARY = "http.request.connections";
+    static final String BUDGET_EXCEEDED_COUNTER = "http.request.query.budget.exceeded";
+
+    private final MeterRegistry meterRegistry;
+    private final int maxStatements;
+    private final int maxConnections;
+
+
+    /**
+     * Constructs a {@code QueryBudgetFilter}.
+     *
+     * @param meterRegistry  the registry the per-request totals are recorded in
+     * @param maxStatements  the number of statements a request may execute before it is flagged
+     * @param maxConnections the number of connection checkouts a request may make before it is flagged
+     */
+    public QueryBudgetFilter(MeterRegistry meterRegistry,
+                             @Value("${app.query-budget.max-statements:10}") int maxStatements,
+                             @Value("${app.query-budget.max-connections:5}") int maxConnections) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatements = maxStatements;
+        this.maxConnections = maxConnections;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            record(request, QueryCounter.stop());
+        }
+    }
+
+    /**
+     * Publishes the totals for a finished request and flags it if it went over budget.
+     *
+     * @param request the finished request
+     * @param counts  the totals recorded while it was handled
+     */
+    private void record(HttpServletRequest request, QueryCounter.Counts counts) {
+        if (counts == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        DistributionSummary.builder(STATEMENTS_SUMMARY)
+            .description("JDBC statements executed per HTTP request")
+            .tag("method", request.getMethod())
+            .tag("uri", uri)
+            .register(meterRegistry)
+            .record(counts.getStatements());
+        DistributionSummary.builder(CONNECTIONS_SUMMARY)
+            .description("Pooled connections checked out per HTTP request")
+            .tag("method", request.getMethod())
+            .tag("uri", uri)
+            .register(meterRegistry)
+            .record(counts.getConnections());
+
+        if (counts.getStatements() > maxStatements || counts.getConnections() > maxConnections) {
+            meterRegistry.counter(BUDGET_EXCEEDED_COUNTER, "method", request.getMethod(), "uri", uri).increment();
+            log.warn("{} {} used {} statements on {} connections (budget: {} statements, {} connections)",
+                request.getMethod(), request.getRequestURI(), counts.getStatements(), counts.getConnections(),
+                maxStatements, maxConnections);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.jmill29.tvtrackerapi.metrics;
+
+/**
+ * Thread-bound tally of the JDBC work done on behalf of one unit of work, usually an HTTP request.
+ * <p>
+ * A scope is opened with {@link #start()} and closed with {@link #stop()} on the same thread. While a scope is
+ * open, the {@link QueryCountingDataSource} counts every connection checkout and every statement execution on
+ * that thread; outside a scope nothing is counted and connections are handed out unwrapped. Work done on other
+ * threads (e.g. the body of a streamed response) is not attributed to the scope.
+ * </p>
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+
+    /**
+     * Opens a new scope on the current thread, replacing any scope that is already open.
+     *
+     * @return the counts for the new scope
+     */
+    public static Counts start() {
+        Counts counts = new Counts();
+        CURRENT.set(counts);
+        return counts;
+    }
+
+    /**
+     * Closes the scope open on the current thread.
+     *
+     * @return the counts for the closed scope, or {@code null} if no scope was open
+     */
+    public static Counts stop() {
+        Counts counts = CURRENT.get();
+        CURRENT.remove();
+        return counts;
+    }
+
+    /**
+     * @return the counts for the scope open on the current thread, or {@code null} if there is none
+     */
+    public static Counts current() {
+        return CURRENT.get();
+    }
+
+
+    /**
+     * Connection checkouts and statement executions recorded in one scope.
+     */
+    public static final class Counts {
+        private int connections;
+        private int statements;
+
+        void connectionAcquired() {
+            connections++;
+        }
+
+        void statementExecuted() {
+            statements++;
+        }
+
+        /** @return the number of connections checked out of the pool */
+        public int getConnections() {
+            return connections;
+        }
+
+        /** @return the number of statements executed; a JDBC batch counts as one */
+        public int getStatements() {
+            return statements;
+        }
+
+        @Override
+        public String toString() {
+            return "Counts{" +
+                    "connections=" + connections +
+                    ", statements=" + statements +
+                    '}';
+        }
+    }
+}
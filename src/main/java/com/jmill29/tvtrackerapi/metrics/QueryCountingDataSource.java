@@ -0,0 +1,120 @@
+package com.jmill29.tvtrackerapi.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * {@link DataSource} decorator that reports connection checkouts and statement executions to the
+ * {@link QueryCounter} scope open on the calling thread.
+ * <p>
+ * When no scope is open the pooled connection is returned as is, so startup work and background jobs pay
+ * nothing. Inside a scope the connection is wrapped in a JDK proxy whose statements count each
+ * {@code execute*} call.
+ * </p>
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+    /**
+     * Constructs a {@code QueryCountingDataSource}.
+     *
+     * @param targetDataSource the pooled data source to decorate
+     */
+    public QueryCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public Connection getConnection() throws SQLException {
+        return track(super.getConnection());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return track(super.getConnection(username, password));
+    }
+
+
+    /**
+     * Records a checkout and wraps the connection if a scope is open.
+     *
+     * @param connection the connection obtained from the target data source
+     * @return the connection to hand to the caller
+     */
+    private static Connection track(Connection connection) {
+        QueryCounter.Counts counts = QueryCounter.current();
+        if (counts == null) {
+            return connection;
+        }
+        counts.connectionAcquired();
+        return (Connection) Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(),
+            new Class<?>[] {Connection.class}, new ConnectionHandler(connection));
+    }
+
+    /**
+     * Invokes a method on the real JDBC object, unwrapping reflection failures.
+     */
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+
+    /**
+     * Wraps statements created from the connection so their executions are counted.
+     */
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeTarget(target, method, args);
+            if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                // Proxy the declared type so callers can still cast to PreparedStatement/CallableStatement
+                return Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(),
+                    new Class<?>[] {method.getReturnType()}, new StatementHandler(statement));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Counts every {@code execute*} call made on a statement.
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+
+        private StatementHandler(Statement target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().startsWith("execute")) {
+                QueryCounter.Counts counts = QueryCounter.current();
+                if (counts != null) {
+                    counts.statementExecuted();
+                }
+            }
+            return invokeTarget(target, method, args);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.jmill29.tvtrackerapi.metrics;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decorates the application's {@link DataSource} with a {@link QueryCountingDataSource}.
+ * <p>
+ * Applied as a post-processor rather than by declaring a second data source bean so the auto-configured pool
+ * (and the embedded database used by tests) is wrapped whichever one is in use. The wrapper supports
+ * {@code unwrap}, so the Hikari pool metrics still find the underlying pool.
+ * </p>
+ */
+@Component
+public class QueryCountingPostProcessor implements BeanPostProcessor {
+
+    /** {@inheritDoc} */
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof DataSource dataSource && !(bean instanceof QueryCountingDataSource)) {
+            return new QueryCountingDataSource(dataSource);
+        }
+        return bean;
+    }
+}
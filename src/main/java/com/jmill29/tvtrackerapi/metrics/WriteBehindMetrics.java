@@ -0,0 +1,59 @@
+package com.jmill29.tvtrackerapi.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.jmill29.tvtrackerapi.service.WatchProgressBuffer;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the queue depth and flush statistics of the {@link WatchProgressBuffer}.
+ * <p>
+ * {@code watch.progress.pending} is the number of user-show pairs waiting to be written and
+ * {@code watch.progress.flush} times each flush. {@code watch.progress.updates} counts updates that were
+ * {@code coalesced} into a pending pair or {@code refused} because the buffer was full,
+ * {@code watch.progress.flushed} counts the rows written, and {@code watch.progress.flush.failures} counts
+ * batches that failed and were put back. Like {@link CacheMetrics}, the values are read from
+ * the buffer's own counters when the registry is scraped.
+ * </p>
+ */
+@Component
+public class WriteBehindMetrics implements MeterBinder {
+
+    private final WatchProgressBuffer progressBuffer;
+
+
+    /**
+     * Constructs a {@code WriteBehindMetrics} binder.
+     *
+     * @param progressBuffer the write-behind buffer for episode progress
+     */
+    public WriteBehindMetrics(WatchProgressBuffer progressBuffer) {
+        this.progressBuffer = progressBuffer;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("watch.progress.pending", progressBuffer, WatchProgressBuffer::getPendingCount)
+            .register(registry);
+        FunctionTimer.builder("watch.progress.flush", progressBuffer,
+                WatchProgressBuffer::getFlushCount, WatchProgressBuffer::getFlushTimeNanos, TimeUnit.NANOSECONDS)
+            .register(registry);
+        FunctionCounter.builder("watch.progress.updates", progressBuffer, WatchProgressBuffer::getCoalescedCount)
+            .tags("result", "coalesced").register(registry);
+        FunctionCounter.builder("watch.progress.updates", progressBuffer, WatchProgressBuffer::getRefusedCount)
+            .tags("result", "refused").register(registry);
+        FunctionCounter.builder("watch.progress.flushed", progressBuffer, WatchProgressBuffer::getFlushedCount)
+            .register(registry);
+        FunctionCounter.builder("watch.progress.flush.failures", progressBuffer, WatchProgressBuffer::getFailedFlushCount)
+            .register(registry);
+    }
+}
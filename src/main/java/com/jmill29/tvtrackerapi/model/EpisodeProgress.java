@@ -0,0 +1,69 @@
+package com.jmill29.tvtrackerapi.model;
+
+/**
+ * The number of episodes a user has watched of one show, as reported by a player.
+ * <p>
+ * Used to write buffered progress updates back to {@code user_watch_history} in one batch.
+ * </p>
+ */
+public class EpisodeProgress {
+
+    /** The ID of the user */
+    private final int userId;
+
+    /** The ID of the show */
+    private final int showId;
+
+    /** The number of episodes watched */
+    private final int episodesWatched;
+
+    /**
+     * Constructs an {@code EpisodeProgress}.
+     *
+     * @param userId          the ID of the user
+     * @param showId          the ID of the show
+     * @param episodesWatched the number of episodes watched
+     */
+    public EpisodeProgress(int userId, int showId, int episodesWatched) {
+        this.userId = userId;
+        this.showId = showId;
+        this.episodesWatched = episodesWatched;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public int getShowId() {
+        return showId;
+    }
+
+    public int getEpisodesWatched() {
+        return episodesWatched;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EpisodeProgress other)) {
+            return false;
+        }
+        return userId == other.userId && showId == other.showId && episodesWatched == other.episodesWatched;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * userId + showId) + episodesWatched;
+    }
+
+    @Override
+    public String toString() {
+        return "EpisodeProgress{" +
+                "userId=" + userId +
+                ", showId=" + showId +
+                ", episodesWatched=" + episodesWatched +
+                '}';
+    }
+}
@@ -1,12 +1,15 @@
 package com.jmill29.tvtrackerapi.model;
 
 import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 /**
  * Represents a TV show within the application.
  * <p>
  * This model is used throughout the system to encapsulate show-related data,
- * including metadata such as title, description, episode count, and creation timestamp.
+ * including metadata such as title, description, episode count, genres, and creation timestamp.
  * </p>
  */
 public class Show {
@@ -17,7 +20,8 @@ public class Show {
     /** The title of the show */
     private String name;
 
-    /** A brief description or synopsis of the show */
+    /** A brief description or synopsis of the show; {@code null} (and omitted from JSON) in summary listings */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private String description;
 
     /** A URL pointing to the show's image or poster */
@@ -32,6 +36,9 @@ public class Show {
     /** The timestamp when the show record was created in the system */
     private LocalDateTime createdAt;
 
+    /** The names of the genres the show belongs to, sorted by name; empty if it has none */
+    private List<String> genres = List.of();
+
     /**
      * Default no-args constructor.
      */
@@ -115,6 +122,14 @@ public class Show {
         this.createdAt = createdAt;
     }
 
+    public List<String> getGenres() {
+        return genres;
+    }
+
+    public void setGenres(List<String> genres) {
+        this.genres = genres == null ? List.of() : genres;
+    }
+
     /**
      * Returns a string representation of this show object.
      * Useful for debugging and logging purposes.
@@ -131,6 +146,7 @@ public class Show {
                 ", numEpisodes=" + numEpisodes +
                 ", releaseYear=" + releaseYear +
                 ", createdAt=" + createdAt +
+                ", genres=" + genres +
                 '}';
     }
 }
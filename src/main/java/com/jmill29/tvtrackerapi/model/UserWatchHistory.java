@@ -1,12 +1,15 @@
 package com.jmill29.tvtrackerapi.model;
 
+import java.util.Objects;
+
 import com.jmill29.tvtrackerapi.enums.WatchStatus;
 
 /**
  * Represents a user's watch history entry for a specific TV show.
  * <p>
  * Each entry contains a user ID, a show ID, and a {@link WatchStatus}
- * that indicates the user's current viewing status for the show.
+ * that indicates the user's current viewing status for the show, along with
+ * the number of episodes watched and an optional rating.
  * </p>
  */
 public class UserWatchHistory {
@@ -20,6 +23,12 @@ public class UserWatchHistory {
     /** The user's current watch status for the show */
     private WatchStatus status;
 
+    /** The number of episodes of the show the user has watched */
+    private int episodesWatched;
+
+    /** The user's rating of the show, or {@code null} if unrated */
+    private Integer rating;
+
     /**
      * Default no-args constructor.
      */
@@ -27,7 +36,7 @@ public class UserWatchHistory {
     }
 
     /**
-     * Constructs a new {@code UserWatchHistory} entry with all fields.
+     * Constructs a new {@code UserWatchHistory} entry with no episodes watched and no rating.
      *
      * @param userId  the ID of the user
      * @param showId  the ID of the show
@@ -39,6 +48,21 @@ public class UserWatchHistory {
         this.status = status;
     }
 
+    /**
+     * Constructs a new {@code UserWatchHistory} entry with all fields.
+     *
+     * @param userId          the ID of the user
+     * @param showId          the ID of the show
+     * @param status          the user's watch status for the show
+     * @param episodesWatched the number of episodes watched
+     * @param rating          the user's rating, or {@code null} if unrated
+     */
+    public UserWatchHistory(int userId, int showId, WatchStatus status, int episodesWatched, Integer rating) {
+        this(userId, showId, status);
+        this.episodesWatched = episodesWatched;
+        this.rating = rating;
+    }
+
     /**
      * Returns the user ID.
      *
@@ -93,10 +117,46 @@ public class UserWatchHistory {
         this.status = status;
     }
 
+    /**
+     * Returns the number of episodes watched.
+     *
+     * @return the number of episodes watched
+     */
+    public int getEpisodesWatched() {
+        return episodesWatched;
+    }
+
+    /**
+     * Sets the number of episodes watched.
+     *
+     * @param episodesWatched the number of episodes watched
+     */
+    public void setEpisodesWatched(int episodesWatched) {
+        this.episodesWatched = episodesWatched;
+    }
+
+    /**
+     * Returns the user's rating.
+     *
+     * @return the rating, or {@code null} if unrated
+     */
+    public Integer getRating() {
+        return rating;
+    }
+
+    /**
+     * Sets the user's rating.
+     *
+     * @param rating the rating, or {@code null} if unrated
+     */
+    public void setRating(Integer rating) {
+        this.rating = rating;
+    }
+
     /**
      * Returns a string representation of the UserWatchHistory object.
      *
-     * @return a string with user ID, show ID, and status
+     * @return a string with user ID, show ID, status, and progress
      */
     @Override
     public String toString() {
@@ -104,11 +164,13 @@ public class UserWatchHistory {
                 "userId=" + userId +
                 ", showId=" + showId +
                 ", status=" + status +
+                ", episodesWatched=" + episodesWatched +
+                ", rating=" + rating +
                 '}';
     }
 
     /**
-     * Compares this object to another for equality based on user ID, show ID, and status.
+     * Compares this object to another for equality based on user ID, show ID, status, and progress.
      *
      * @param o the object to compare
      * @return {@code true} if the objects are equal, {@code false} otherwise
@@ -122,11 +184,13 @@ public class UserWatchHistory {
 
         if (userId != that.userId) return false;
         if (showId != that.showId) return false;
-        return status == that.status;
+        if (episodesWatched != that.episodesWatched) return false;
+        if (status != that.status) return false;
+        return Objects.equals(rating, that.rating);
     }
 
     /**
-     * Generates a hash code based on user ID, show ID, and status.
+     * Generates a hash code based on user ID, show ID, status, and progress.
      *
      * @return the hash code
      */
@@ -135,6 +199,8 @@ public class UserWatchHistory {
         int result = userId;
         result = 31 * result + showId;
         result = 31 * result + (status != null ? status.hashCode() : 0);
+        result = 31 * result + episodesWatched;
+        result = 31 * result + Objects.hashCode(rating);
         return result;
     }
 }
@@ -0,0 +1,185 @@
+package com.jmill29.tvtrackerapi.model;
+
+import java.util.Arrays;
+
+import com.jmill29.tvtrackerapi.enums.WatchStatus;
+
+/**
+ * Aggregate counters over one user's watch history.
+ * <p>
+ * Holds the number of entries per {@link WatchStatus}, the total number of episodes watched, and the sum and
+ * count of ratings, which is everything needed to answer a watch-history summary and to adjust it
+ * incrementally as entries are added, replaced, and deleted.
+ * </p>
+ */
+public class WatchHistoryStats {
+
+    /** Entries per status, indexed by {@link WatchStatus#ordinal()} */
+    private final long[] statusCounts = new long[WatchStatus.values().length];
+
+    /** The sum of {@code episodes_watched} over every entry */
+    private long totalEpisodesWatched;
+
+    /** The sum of every non-null rating */
+    private long ratingSum;
+
+    /** The number of entries with a rating */
+    private long ratedCount;
+
+    /**
+     * Default no-args constructor; every counter starts at zero.
+     */
+    public WatchHistoryStats() {
+    }
+
+    /**
+     * Returns the number of entries with the given status.
+     *
+     * @param status the watch status
+     * @return the number of entries
+     */
+    public long getCount(WatchStatus status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    /**
+     * Adds {@code delta} entries with the given status.
+     *
+     * @param status the watch status
+     * @param delta  the number of entries to add; may be negative
+     */
+    public void addCount(WatchStatus status, long delta) {
+        statusCounts[status.ordinal()] += delta;
+    }
+
+    /**
+     * Counts one entry.
+     *
+     * @param status          the watch status of the entry
+     * @param episodesWatched the number of episodes watched
+     * @param rating          the rating, or {@code null} if the entry is unrated
+     */
+    public void addEntry(WatchStatus status, int episodesWatched, Integer rating) {
+        statusCounts[status.ordinal()]++;
+        totalEpisodesWatched += episodesWatched;
+        if (rating != null) {
+            ratingSum += rating;
+            ratedCount++;
+        }
+    }
+
+    /**
+     * Uncounts one entry, e.g. the previous version of a row that was replaced or deleted.
+     *
+     * @param status          the watch status of the entry
+     * @param episodesWatched the number of episodes watched
+     * @param rating          the rating, or {@code null} if the entry was unrated
+     */
+    public void removeEntry(WatchStatus status, int episodesWatched, Integer rating) {
+        statusCounts[status.ordinal()]--;
+        totalEpisodesWatched -= episodesWatched;
+        if (rating != null) {
+            ratingSum -= rating;
+            ratedCount--;
+        }
+    }
+
+    /**
+     * Adds every counter of {@code other} to these counters.
+     *
+     * @param other the counters to add
+     */
+    public void add(WatchHistoryStats other) {
+        for (int i = 0; i < statusCounts.length; i++) {
+            statusCounts[i] += other.statusCounts[i];
+        }
+        totalEpisodesWatched += other.totalEpisodesWatched;
+        ratingSum += other.ratingSum;
+        ratedCount += other.ratedCount;
+    }
+
+    /**
+     * Returns the number of entries over all statuses.
+     *
+     * @return the total number of entries
+     */
+    public long getTotalCount() {
+        return Arrays.stream(statusCounts).sum();
+    }
+
+    public long getTotalEpisodesWatched() {
+        return totalEpisodesWatched;
+    }
+
+    public void setTotalEpisodesWatched(long totalEpisodesWatched) {
+        this.totalEpisodesWatched = totalEpisodesWatched;
+    }
+
+    public long getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(long ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    public long getRatedCount() {
+        return ratedCount;
+    }
+
+    public void setRatedCount(long ratedCount) {
+        this.ratedCount = ratedCount;
+    }
+
+    /**
+     * Returns the mean rating.
+     *
+     * @return the average of every non-null rating, or {@code null} if nothing is rated
+     */
+    public Double getAverageRating() {
+        return ratedCount == 0 ? null : (double) ratingSum / ratedCount;
+    }
+
+    /**
+     * Returns an independent copy of these counters.
+     *
+     * @return a new {@code WatchHistoryStats} with the same values
+     */
+    public WatchHistoryStats copy() {
+        WatchHistoryStats copy = new WatchHistoryStats();
+        System.arraycopy(statusCounts, 0, copy.statusCounts, 0, statusCounts.length);
+        copy.totalEpisodesWatched = totalEpisodesWatched;
+        copy.ratingSum = ratingSum;
+        copy.ratedCount = ratedCount;
+        return copy;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof WatchHistoryStats other)) {
+            return false;
+        }
+        return Arrays.equals(statusCounts, other.statusCounts)
+                && totalEpisodesWatched == other.totalEpisodesWatched
+                && ratingSum == other.ratingSum
+                && ratedCount == other.ratedCount;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(statusCounts) + Long.hashCode(totalEpisodesWatched + 31 * ratingSum + 961 * ratedCount);
+    }
+
+    @Override
+    public String toString() {
+        return "WatchHistoryStats{" +
+                "statusCounts=" + Arrays.toString(statusCounts) +
+                ", totalEpisodesWatched=" + totalEpisodesWatched +
+                ", ratingSum=" + ratingSum +
+                ", ratedCount=" + ratedCount +
+                '}';
+    }
+}
@@ -0,0 +1,324 @@
+package com.jmill29.tvtrackerapi.search;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.jmill29.tvtrackerapi.dao.ShowDao;
+import com.jmill29.tvtrackerapi.event.ShowChangedEvent;
+import com.jmill29.tvtrackerapi.model.Show;
+
+/**
+ * In-memory inverted index from genre to the shows in it.
+ * <p>
+ * Each genre maps to a {@link BitSet} with one bit per show ID, so multi-genre filters are answered with
+ * word-wide set operations: every {@code allOf} genre is intersected, the {@code anyOf} genres are unioned
+ * and intersected with that, and the {@code noneOf} genres are removed. Show IDs are auto-increment keys, so
+ * the bitmaps stay dense, and iterating the result yields shows in ID order, which makes cursor paging free.
+ * Genre names are matched case-insensitively.
+ * </p>
+ * <p>
+ * Like the {@link ShowSearchIndex}, the index is built from {@link ShowDao#findAll()} once the application
+ * is ready and kept in sync by reloading the affected show whenever a {@link ShowChangedEvent} is published.
+ * Until it has been built, {@link #isReady()} returns {@code false}.
+ * </p>
+ */
+@Component
+public class GenreIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(GenreIndex.class);
+
+    /** Catalogue reads attempted by {@link #load()} before giving up on shows that keep changing */
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private final ShowDao showDao;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Integer, Show> shows = new HashMap<>();
+    private final Map<String, BitSet> postings = new HashMap<>();
+
+    /** Every indexed show ID; the universe that {@code noneOf}-only filters are taken from */
+    private final BitSet allShows = new BitSet();
+
+    /** Incremented on every change event so that a catalogue read before the change is never installed */
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile boolean ready;
+
+
+    /**
+     * Constructs a {@code GenreIndex}.
+     *
+     * @param showDao the DAO used to build the index and reload changed shows
+     */
+    @Autowired
+    public GenreIndex(ShowDao showDao) {
+        this.showDao = showDao;
+    }
+
+
+    /**
+     * Builds the index from the full catalogue once the application has started.
+     * <p>
+     * A failure is logged rather than rethrown; callers build it on demand instead.
+     * </p>
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        try {
+            if (load()) {
+                log.info("Genre index built with {} genres over {} shows", postings.size(), shows.size());
+            } else {
+                log.warn("Shows kept changing while the genre index was built; it will be built on first use");
+            }
+        } catch (SQLException ex) {
+            log.warn("Unable to build the genre index; it will be built on first use", ex);
+        }
+    }
+
+    /**
+     * Builds the index from {@link ShowDao#findAll()}, reading the catalogue again if a show changes meanwhile.
+     *
+     * @return {@code true} if the index was built; {@code false} if shows kept changing on every attempt
+     * @throws SQLException if the catalogue cannot be read
+     */
+    public boolean load() throws SQLException {
+        for (int attempt = 0; attempt < MAX_LOAD_ATTEMPTS; attempt++) {
+            long expectedGeneration = generation.get();
+            if (rebuild(showDao.findAll(), expectedGeneration)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the current change generation; capture it before reading the catalogue passed to
+     *         {@link #rebuild(List, long)}
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Replaces the contents of the index with the given shows and marks it ready, unless a change event was
+     * handled after {@code expectedGeneration} was read.
+     *
+     * @param catalogue          every show in the catalogue, with its genres
+     * @param expectedGeneration the generation observed before the catalogue was loaded
+     * @return {@code true} if the index was replaced
+     */
+    public boolean rebuild(List<Show> catalogue, long expectedGeneration) {
+        lock.writeLock().lock();
+        try {
+            if (generation.get() != expectedGeneration) {
+                return false;
+            }
+            shows.clear();
+            postings.clear();
+            allShows.clear();
+            for (Show show : catalogue) {
+                addShow(show);
+            }
+            ready = true;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a show to the index, replacing any previous entry with the same ID.
+     *
+     * @param show the show to index
+     */
+    public void put(Show show) {
+        lock.writeLock().lock();
+        try {
+            removeShow(show.getId());
+            addShow(show);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a show from the index.
+     *
+     * @param showId the ID of the show to remove
+     */
+    public void remove(int showId) {
+        lock.writeLock().lock();
+        try {
+            removeShow(showId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reloads the affected show when a show or its genres are inserted, updated, or deleted.
+     *
+     * @param event the change published by the show DAO
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShowChanged(ShowChangedEvent event) {
+        // Voids any catalogue read before this change, including one a build is about to install
+        generation.incrementAndGet();
+        if (!ready) {
+            return;
+        }
+        try {
+            if (event.getShowId() <= 0) {
+                if (!load()) {
+                    ready = false;
+                }
+                return;
+            }
+            Optional<Show> show = showDao.findById(event.getShowId());
+            if (show.isPresent()) {
+                put(show.get());
+            } else {
+                remove(event.getShowId());
+            }
+        } catch (SQLException ex) {
+            ready = false;
+            log.warn("Unable to refresh the genre index after {}; it will be rebuilt on next use", event, ex);
+        }
+    }
+
+    /**
+     * @return {@code true} once the index has been built and can answer filters
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** @return the number of distinct genres in the index */
+    public int genreCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the shows matching a genre filter, in ID order.
+     * <p>
+     * A show matches if it is in every {@code allOf} genre, in at least one {@code anyOf} genre (when any are
+     * given), and in none of the {@code noneOf} genres. If both {@code allOf} and {@code anyOf} are empty,
+     * every show not excluded by {@code noneOf} matches. Unknown genres match no shows.
+     * </p>
+     *
+     * @param allOf   genres a show must all be in
+     * @param anyOf   genres a show must be in at least one of
+     * @param noneOf  genres a show must not be in
+     * @param afterId only shows with an ID greater than this are returned
+     * @param limit   the maximum number of shows to return
+     * @return up to {@code limit} matching shows, in ascending ID order
+     */
+    public List<Show> filter(Collection<String> allOf, Collection<String> anyOf, Collection<String> noneOf,
+            int afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = (BitSet) allShows.clone();
+            for (String genre : allOf) {
+                BitSet ids = postings.get(normalize(genre));
+                if (ids == null) {
+                    return List.of();
+                }
+                matches.and(ids);
+            }
+            if (!anyOf.isEmpty()) {
+                BitSet union = new BitSet();
+                for (String genre : anyOf) {
+                    BitSet ids = postings.get(normalize(genre));
+                    if (ids != null) {
+                        union.or(ids);
+                    }
+                }
+                matches.and(union);
+            }
+            for (String genre : noneOf) {
+                BitSet ids = postings.get(normalize(genre));
+                if (ids != null) {
+                    matches.andNot(ids);
+                }
+            }
+
+            List<Show> results = new ArrayList<>(Math.min(limit, matches.cardinality()));
+            for (int id = matches.nextSetBit(afterId + 1); id >= 0 && results.size() < limit; id = matches.nextSetBit(id + 1)) {
+                results.add(shows.get(id));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Folds a genre name for lookup.
+     *
+     * @param genre the genre name
+     * @return the trimmed, lower-cased name
+     */
+    static String normalize(String genre) {
+        return genre.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Indexes a show. Must be called while holding the write lock.
+     *
+     * @param show the show to index
+     */
+    private void addShow(Show show) {
+        shows.put(show.getId(), show);
+        allShows.set(show.getId());
+        for (String genre : show.getGenres()) {
+            postings.computeIfAbsent(normalize(genre), key -> new BitSet()).set(show.getId());
+        }
+    }
+
+    /**
+     * Removes a show and its postings. Must be called while holding the write lock.
+     *
+     * @param showId the ID of the show to remove
+     */
+    private void removeShow(int showId) {
+        Show show = shows.remove(showId);
+        if (show == null) {
+            return;
+        }
+        allShows.clear(showId);
+        for (String genre : show.getGenres()) {
+            String key = normalize(genre);
+            BitSet ids = postings.get(key);
+            if (ids != null) {
+                ids.clear(showId);
+                if (ids.isEmpty()) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package com.jmill29.tvtrackerapi.search;
+
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.jmill29.tvtrackerapi.dao.ShowDao;
+import com.jmill29.tvtrackerapi.event.ShowChangedEvent;
+import com.jmill29.tvtrackerapi.model.Show;
+
+/**
+ * In-memory search index over show names.
+ * <p>
+ * Names are folded to lower case with diacritics removed (so "Pokémon" matches "pokemon"), split into word
+ * tokens, and indexed two ways: a sorted token dictionary for prefix matches and a trigram posting list for
+ * fuzzy matches that tolerate typos. Results are ranked exact name match first, then name prefix, then
+ * every-word prefix, then (only if those do not fill the page) by trigram similarity.
+ * </p>
+ * <p>
+ * The index is built from {@link ShowDao#findAll()} once the application is ready and is kept in sync by
+ * reloading the affected show whenever a {@link ShowChangedEvent} is published. Until it has been built,
+ * {@link #isReady()} returns {@code false} and callers should fall back to the database.
+ * </p>
+ */
+@Component
+public class ShowSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ShowSearchIndex.class);
+
+    /** Minimum trigram similarity (Dice coefficient) for a fuzzy-only match to be returned */
+    static final double MIN_FUZZY_SIMILARITY = 0.3;
+
+    /** Catalogue reads attempted by {@link #load()} before giving up on shows that keep changing */
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{Alnum}]+");
+
+    private static final double EXACT_SCORE = 4.0;
+    private static final double NAME_PREFIX_SCORE = 3.0;
+    private static final double TOKEN_PREFIX_SCORE = 2.0;
+
+    private final ShowDao showDao;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private final TreeMap<String, Set<Integer>> tokenPostings = new TreeMap<>();
+    private final Map<String, Set<Integer>> trigramPostings = new HashMap<>();
+
+    /** Incremented on every change event so that a catalogue read before the change is never installed */
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile boolean ready;
+
+
+    /**
+     * Constructs a {@code ShowSearchIndex}.
+     *
+     * @param showDao the DAO used to build the index and reload changed shows
+     */
+    @Autowired
+    public ShowSearchIndex(ShowDao showDao) {
+        this.showDao = showDao;
+    }
+
+
+    /**
+     * Builds the index from the full catalogue once the application has started.
+     * <p>
+     * A failure is logged rather than rethrown; searches then fall back to the database.
+     * </p>
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        try {
+            if (load()) {
+                log.info("Show search index built with {} shows", documents.size());
+            } else {
+                log.warn("Shows kept changing while the show search index was built; searches will use the database");
+            }
+        } catch (SQLException ex) {
+            log.warn("Unable to build the show search index; searches will use the database", ex);
+        }
+    }
+
+    /**
+     * Builds the index from {@link ShowDao#findAll()}, reading the catalogue again if a show changes meanwhile.
+     *
+     * @return {@code true} if the index was built; {@code false} if shows kept changing on every attempt
+     * @throws SQLException if the catalogue cannot be read
+     */
+    public boolean load() throws SQLException {
+        for (int attempt = 0; attempt < MAX_LOAD_ATTEMPTS; attempt++) {
+            long expectedGeneration = generation.get();
+            if (rebuild(showDao.findAll(), expectedGeneration)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the current change generation; capture it before reading the catalogue passed to
+     *         {@link #rebuild(List, long)}
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Replaces the contents of the index with the given shows and marks it ready, unless a change event was
+     * handled after {@code expectedGeneration} was read.
+     *
+     * @param shows              every show in the catalogue
+     * @param expectedGeneration the generation observed before the shows were loaded
+     * @return {@code true} if the index was replaced
+     */
+    public boolean rebuild(List<Show> shows, long expectedGeneration) {
+        lock.writeLock().lock();
+        try {
+            if (generation.get() != expectedGeneration) {
+                return false;
+            }
+            documents.clear();
+            tokenPostings.clear();
+            trigramPostings.clear();
+            for (Show show : shows) {
+                addDocument(show);
+            }
+            ready = true;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a show to the index, replacing any previous entry with the same ID.
+     *
+     * @param show the show to index
+     */
+    public void put(Show show) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(show.getId());
+            addDocument(show);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a show from the index.
+     *
+     * @param showId the ID of the show to remove
+     */
+    public void remove(int showId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(showId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reloads the affected show when a show is inserted, updated, or deleted.
+     *
+     * @param event the change published by the show DAO
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShowChanged(ShowChangedEvent event) {
+        // Voids any catalogue read before this change, including one a build is about to install
+        generation.incrementAndGet();
+        if (!ready) {
+            return;
+        }
+        try {
+            if (event.getShowId() <= 0) {
+                if (!load()) {
+                    ready = false;
+                }
+                return;
+            }
+            Optional<Show> show = showDao.findById(event.getShowId());
+            if (show.isPresent()) {
+                put(show.get());
+            } else {
+                remove(event.getShowId());
+            }
+        } catch (SQLException ex) {
+            // A stale index is worse than none: fall back to the database until the next successful build
+            ready = false;
+            log.warn("Unable to refresh the show search index after {}; searches will use the database", event, ex);
+        }
+    }
+
+    /**
+     * @return {@code true} once the index has been built and can answer searches
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** @return the number of shows in the index */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Searches show names, returning the best matches first.
+     *
+     * @param query the text typed by the user
+     * @param limit the maximum number of results
+     * @return up to {@code limit} matching shows, best match first; empty if nothing matches
+     */
+    public List<Show> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String[] queryTokens = normalized.split(" ");
+        Set<String> queryTrigrams = trigrams(queryTokens);
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Double> scores = new HashMap<>();
+
+            // Prefix matches: every query word must start some word of the name
+            Set<Integer> prefixMatches = null;
+            for (String token : queryTokens) {
+                Set<Integer> matches = new HashSet<>();
+                for (Set<Integer> ids : prefixRange(token).values()) {
+                    matches.addAll(ids);
+                }
+                if (prefixMatches == null) {
+                    prefixMatches = matches;
+                } else {
+                    prefixMatches.retainAll(matches);
+                }
+                if (prefixMatches.isEmpty()) {
+                    break;
+                }
+            }
+            for (int id : prefixMatches) {
+                Document doc = documents.get(id);
+                double base = doc.normalizedName.equals(normalized) ? EXACT_SCORE
+                        : doc.normalizedName.startsWith(normalized) ? NAME_PREFIX_SCORE
+                        : TOKEN_PREFIX_SCORE;
+                // Within a tier, names closest in length to the query rank first
+                scores.put(id, base + (double) normalized.length() / doc.normalizedName.length());
+            }
+
+            // Fuzzy matches are only needed when prefix matching cannot fill the page; this keeps
+            // type-ahead queries on short prefixes from scanning large trigram posting lists
+            if (scores.size() < limit && !queryTrigrams.isEmpty()) {
+                Map<Integer, Integer> shared = new HashMap<>();
+                for (String trigram : queryTrigrams) {
+                    Set<Integer> ids = trigramPostings.get(trigram);
+                    if (ids != null) {
+                        for (int id : ids) {
+                            shared.merge(id, 1, Integer::sum);
+                        }
+                    }
+                }
+                for (Map.Entry<Integer, Integer> entry : shared.entrySet()) {
+                    if (scores.containsKey(entry.getKey())) {
+                        continue;
+                    }
+                    Document doc = documents.get(entry.getKey());
+                    double similarity = 2.0 * entry.getValue() / (queryTrigrams.size() + doc.trigrams.length);
+                    if (similarity >= MIN_FUZZY_SIMILARITY) {
+                        scores.put(entry.getKey(), similarity);
+                    }
+                }
+            }
+
+            // Keep only the best `limit` results in a bounded heap instead of sorting every match
+            Comparator<Map.Entry<Integer, Double>> bestFirst =
+                    Map.Entry.<Integer, Double>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(entry -> documents.get(entry.getKey()).normalizedName)
+                    .thenComparing(Map.Entry::getKey);
+            PriorityQueue<Map.Entry<Integer, Double>> best = new PriorityQueue<>(limit + 1, bestFirst.reversed());
+            for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+                best.add(entry);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+
+            List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(best);
+            ranked.sort(bestFirst);
+            List<Show> results = new ArrayList<>(ranked.size());
+            for (Map.Entry<Integer, Double> entry : ranked) {
+                results.add(documents.get(entry.getKey()).show);
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Folds text for indexing and searching: removes diacritics, lower-cases, and collapses every run of
+     * non-alphanumeric characters to a single space.
+     *
+     * @param text the text to fold, may be {@code null}
+     * @return the folded text, or an empty string if nothing searchable remains
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String stripped = DIACRITICS.matcher(decomposed).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Computes the distinct trigrams of a set of tokens. Each token is padded so that word boundaries
+     * contribute trigrams too, which makes short words and word starts count more.
+     *
+     * @param tokens the folded tokens
+     * @return the distinct trigrams
+     */
+    static Set<String> trigrams(String[] tokens) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String token : tokens) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + token + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                result.add(padded.substring(i, i + 3));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the token dictionary entries that start with the given prefix.
+     * Must be called while holding the read or write lock.
+     *
+     * @param prefix the folded prefix
+     * @return a view of the matching dictionary entries
+     */
+    private SortedMap<String, Set<Integer>> prefixRange(String prefix) {
+        return tokenPostings.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+
+    /**
+     * Indexes a show. Must be called while holding the write lock.
+     *
+     * @param show the show to index
+     */
+    private void addDocument(Show show) {
+        String normalizedName = normalize(show.getName());
+        String[] tokens = normalizedName.isEmpty() ? new String[0] : normalizedName.split(" ");
+        String[] showTrigrams = trigrams(tokens).toArray(new String[0]);
+
+        documents.put(show.getId(), new Document(show, normalizedName, tokens, showTrigrams));
+        for (String token : tokens) {
+            tokenPostings.computeIfAbsent(token, key -> new HashSet<>()).add(show.getId());
+        }
+        for (String trigram : showTrigrams) {
+            trigramPostings.computeIfAbsent(trigram, key -> new HashSet<>()).add(show.getId());
+        }
+    }
+
+    /**
+     * Removes a show and its postings. Must be called while holding the write lock.
+     *
+     * @param showId the ID of the show to remove
+     */
+    private void removeDocument(int showId) {
+        Document doc = documents.remove(showId);
+        if (doc == null) {
+            return;
+        }
+        for (String token : doc.tokens) {
+            removePosting(tokenPostings, token, showId);
+        }
+        for (String trigram : doc.trigrams) {
+            removePosting(trigramPostings, trigram, showId);
+        }
+    }
+
+    /**
+     * Removes one show ID from a posting list, dropping the list once it is empty.
+     *
+     * @param postings the posting lists
+     * @param key      the token or trigram
+     * @param showId   the show ID to remove
+     */
+    private static void removePosting(Map<String, Set<Integer>> postings, String key, int showId) {
+        Set<Integer> ids = postings.get(key);
+        if (ids != null) {
+            ids.remove(showId);
+            if (ids.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+
+    /**
+     * An indexed show together with the folded forms used for matching.
+     */
+    private static final class Document {
+        private final Show show;
+        private final String normalizedName;
+        private final String[] tokens;
+        private final String[] trigrams;
+
+        private Document(Show show, String normalizedName, String[] tokens, String[] trigrams) {
+            this.show = show;
+            this.normalizedName = normalizedName;
+            this.tokens = tokens;
+            this.trigrams = trigrams;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.jmill29.tvtrackerapi.security;
+
+import java.util.Collection;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * Security principal for an authenticated user that also carries the user's database ID.
+ * <p>
+ * The principal is resolved once by the security layer (from the users table on a Basic login, or from the
+ * {@code uid} claim of a bearer token) and is then available to controllers via
+ * {@link org.springframework.security.core.annotation.AuthenticationPrincipal @AuthenticationPrincipal}, so
+ * the service and DAO layers can work with {@code user_id} directly instead of looking it up by username.
+ * </p>
+ */
+public class AuthenticatedUser extends User {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The ID of the user (matches the {@code user_id} column) */
+    private final int userId;
+
+    /**
+     * Constructs an enabled, non-expired, non-locked {@code AuthenticatedUser}.
+     *
+     * @param userId      the ID of the user
+     * @param username    the username of the user
+     * @param password    the stored password hash, or an empty string if not available
+     * @param authorities the roles granted to the user
+     */
+    public AuthenticatedUser(int userId, String username, String password,
+            Collection<? extends GrantedAuthority> authorities) {
+        this(userId, username, password, true, authorities);
+    }
+
+    /**
+     * Constructs an {@code AuthenticatedUser}.
+     *
+     * @param userId      the ID of the user
+     * @param username    the username of the user
+     * @param password    the stored password hash, or an empty string if not available
+     * @param enabled     whether the user account is enabled
+     * @param authorities the roles granted to the user
+     */
+    public AuthenticatedUser(int userId, String username, String password, boolean enabled,
+            Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, enabled, true, true, true, authorities);
+        this.userId = userId;
+    }
+
+    /**
+     * Gets the ID of the user.
+     *
+     * @return the user ID
+     */
+    public int getUserId() {
+        return userId;
+    }
+
+    /**
+     * Returns a string representation of the AuthenticatedUser object, without the password.
+     *
+     * @return a string representation of the principal
+     */
+    @Override
+    public String toString() {
+        return "AuthenticatedUser{" +
+                "userId=" + userId +
+                ", username='" + getUsername() + '\'' +
+                ", authorities=" + getAuthorities() +
+                '}';
+    }
+}
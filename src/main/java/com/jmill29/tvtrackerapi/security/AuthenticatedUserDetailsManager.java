@@ -0,0 +1,61 @@
+package com.jmill29.tvtrackerapi.security;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.provisioning.JdbcUserDetailsManager;
+
+/**
+ * {@link JdbcUserDetailsManager} that loads users as {@link AuthenticatedUser} principals.
+ * <p>
+ * The users query also selects {@code user_id}, so the ID is resolved in the same round trip as the
+ * password hash and never needs to be looked up again for the rest of the request.
+ * </p>
+ */
+public class AuthenticatedUserDetailsManager extends JdbcUserDetailsManager {
+
+    static final String USERS_BY_USERNAME_QUERY =
+            "SELECT username, password, enabled, user_id FROM users WHERE username = ?";
+
+
+    /**
+     * Constructs an {@code AuthenticatedUserDetailsManager}.
+     *
+     * @param dataSource the {@link DataSource} connected to the user database
+     */
+    public AuthenticatedUserDetailsManager(DataSource dataSource) {
+        super(dataSource);
+        setUsersByUsernameQuery(USERS_BY_USERNAME_QUERY);
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    protected List<UserDetails> loadUsersByUsername(String username) {
+        return getJdbcTemplate().query(USERS_BY_USERNAME_QUERY, (rs, rowNum) -> new AuthenticatedUser(
+                rs.getInt("user_id"),
+                rs.getString("username"),
+                rs.getString("password"),
+                rs.getBoolean("enabled"),
+                AuthorityUtils.NO_AUTHORITIES
+        ), username);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected UserDetails createUserDetails(String username, UserDetails userFromUserQuery,
+            List<GrantedAuthority> combinedAuthorities) {
+        String returnUsername = isUsernameBasedPrimaryKey() ? username : userFromUserQuery.getUsername();
+        return new AuthenticatedUser(
+                ((AuthenticatedUser) userFromUserQuery).getUserId(),
+                returnUsername,
+                userFromUserQuery.getPassword(),
+                userFromUserQuery.isEnabled(),
+                combinedAuthorities
+        );
+    }
+}
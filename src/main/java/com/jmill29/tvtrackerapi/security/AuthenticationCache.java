@@ -0,0 +1,273 @@
+package com.jmill29.tvtrackerapi.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.jmill29.tvtrackerapi.event.UserChangedEvent;
+
+/**
+ * Bounded, time-limited cache of successfully verified credentials.
+ * <p>
+ * Entries are keyed on an HMAC-SHA256 of {@code username:password} computed with a random per-process salt,
+ * so neither the raw password nor an offline-crackable hash of it is ever kept in memory. A hit lets the
+ * caller skip both the users/authorities queries and the BCrypt comparison. Entries expire after a fixed
+ * TTL, the least recently used entry is dropped once the cache is full, and all entries for a user are
+ * discarded as soon as a {@link UserChangedEvent} is published for them.
+ * </p>
+ */
+@Component
+public class AuthenticationCache {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final Map<String, Entry> entries;
+
+    /** Guards {@code entries}; a lock rather than a monitor so waiting virtual threads do not pin their carrier */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final SecretKeySpec saltKey;
+
+    /** Incremented on every invalidation so that in-flight lookups cannot re-populate stale results. */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+
+    /**
+     * Constructs an {@code AuthenticationCache} using the system clock.
+     *
+     * @param maxEntries the maximum number of cached credentials
+     * @param ttlSeconds how long a verified credential stays valid in the cache, in seconds
+     */
+    @Autowired
+    public AuthenticationCache(
+            @Value("${app.security.auth-cache.max-entries:10000}") int maxEntries,
+            @Value("${app.security.auth-cache.ttl-seconds:300}") long ttlSeconds) {
+        this(maxEntries, ttlSeconds, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs an {@code AuthenticationCache} with an explicit clock (used by tests).
+     *
+     * @param maxEntries the maximum number of cached credentials
+     * @param ttlSeconds how long a verified credential stays valid in the cache, in seconds
+     * @param clock      the clock used to compute expiry times
+     */
+    AuthenticationCache(int maxEntries, long ttlSeconds, Clock clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Authentication cache size must be greater than 0");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.clock = clock;
+
+        byte[] salt = new byte[32];
+        new SecureRandom().nextBytes(salt);
+        this.saltKey = new SecretKeySpec(salt, HMAC_ALGORITHM);
+
+        // Access-ordered so the eldest entry is always the least recently used one
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+
+    /**
+     * Computes the cache key for a username/password pair.
+     *
+     * @param username the presented username
+     * @param password the presented raw password
+     * @return a salted, non-reversible key for the credentials
+     */
+    public String keyFor(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(saltKey);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            byte[] digest = mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HmacSHA256 is not available", ex);
+        }
+    }
+
+    /**
+     * Returns the current invalidation generation. Callers capture it before verifying credentials
+     * and pass it to {@link #put(String, Authentication, long)}.
+     *
+     * @return the current generation
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Looks up a previously verified credential.
+     *
+     * @param key the key returned by {@link #keyFor(String, String)}
+     * @return a fresh authenticated token for the cached principal, or {@code null} on a miss
+     */
+    public Authentication get(String key) {
+        Entry entry;
+        lock.lock();
+        try {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAt <= clock.millis()) {
+                entries.remove(key);
+                evictions.increment();
+                entry = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        // Hand out a new token per request so callers never share mutable authentication state
+        return UsernamePasswordAuthenticationToken.authenticated(entry.principal, null, entry.authorities);
+    }
+
+    /**
+     * Caches a successful authentication result.
+     * <p>
+     * The result is dropped if any invalidation happened after {@code expectedGeneration} was read.
+     * </p>
+     *
+     * @param key                the key returned by {@link #keyFor(String, String)}
+     * @param result             the successful authentication returned by the delegate provider
+     * @param expectedGeneration the generation observed before the credentials were verified
+     */
+    public void put(String key, Authentication result, long expectedGeneration) {
+        Entry entry = new Entry(result.getName(), result.getPrincipal(), result.getAuthorities(),
+                clock.millis() + ttlMillis);
+
+        lock.lock();
+        try {
+            if (generation.get() != expectedGeneration) {
+                return;
+            }
+            entries.put(key, entry);
+            if (entries.size() > maxEntries) {
+                Iterator<String> eldest = entries.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes every cached credential belonging to the given user.
+     *
+     * @param username the username whose entries should be discarded
+     */
+    public void evictUser(String username) {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            entries.values().removeIf(entry -> entry.username.equals(username));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes every cached credential.
+     */
+    public void evictAll() {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops cached credentials when a user is updated or deleted.
+     *
+     * @param event the change published by the user DAO
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getUsername() == null) {
+            evictAll();
+        } else {
+            evictUser(event.getUsername());
+        }
+    }
+
+    /** @return the number of lookups that found a valid entry */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /** @return the number of lookups that found no valid entry */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /** @return the number of entries removed because they expired or the cache was full */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /** @return the number of entries currently cached */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * A cached, verified credential.
+     */
+    private static final class Entry {
+        private final String username;
+        private final Object principal;
+        private final Collection<? extends GrantedAuthority> authorities;
+        private final long expiresAt;
+
+        private Entry(String username, Object principal, Collection<? extends GrantedAuthority> authorities, long expiresAt) {
+            this.username = username;
+            this.principal = principal;
+            this.authorities = authorities;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.jmill29.tvtrackerapi.security;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * {@link AuthenticationProvider} that short-circuits repeat username/password authentications using an
+ * {@link AuthenticationCache}.
+ * <p>
+ * On a miss the request is verified by the delegate provider (database lookup plus BCrypt comparison) and
+ * the successful result is cached. Failed attempts are never cached, so a wrong password always goes through
+ * the full verification path.
+ * </p>
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final AuthenticationCache cache;
+
+
+    /**
+     * Constructs a {@code CachingAuthenticationProvider}.
+     *
+     * @param delegate the provider that performs the actual credential verification
+     * @param cache    the cache of previously verified credentials
+     */
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, AuthenticationCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (username == null || credentials == null) {
+            return delegate.authenticate(authentication);
+        }
+
+        String key = cache.keyFor(username, credentials.toString());
+        Authentication cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Capture the generation before verifying so a concurrent user update cannot be overwritten
+        long generation = cache.generation();
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated()) {
+            cache.put(key, result, generation);
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+}
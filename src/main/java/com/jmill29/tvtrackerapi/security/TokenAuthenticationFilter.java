@@ -0,0 +1,67 @@
+package com.jmill29.tvtrackerapi.security;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Servlet filter that authenticates requests carrying an {@code Authorization: Bearer <token>} header.
+ * <p>
+ * The token is verified in memory by the {@link TokenService}; no database query or password hashing
+ * is involved. Requests without a bearer token pass through untouched so HTTP Basic authentication
+ * continues to work. An invalid or expired token is rejected immediately with 401 Unauthorized.
+ * </p>
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenService tokenService;
+
+
+    /**
+     * Constructs a {@code TokenAuthenticationFilter}.
+     *
+     * @param tokenService the service used to verify bearer tokens
+     */
+    public TokenAuthenticationFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+
+    /** {@inheritDoc} */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        try {
+            Authentication authentication = tokenService.authenticate(header.substring(BEARER_PREFIX.length()).trim());
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(authentication);
+            SecurityContextHolder.setContext(context);
+        } catch (AuthenticationException ex) {
+            SecurityContextHolder.clearContext();
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), ex.getMessage());
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
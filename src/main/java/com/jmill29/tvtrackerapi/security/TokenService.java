@@ -0,0 +1,254 @@
+package com.jmill29.tvtrackerapi.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Issues and verifies locally signed bearer tokens.
+ * <p>
+ * Tokens are compact JWTs ({@code header.payload.signature}, base64url-encoded) signed with HMAC-SHA256
+ * using a key from configuration. The payload carries the username ({@code sub}), the user's ID ({@code uid}),
+ * the granted roles ({@code roles}), and the issue/expiry times ({@code iat}/{@code exp}) in epoch seconds.
+ * Verification is done purely in memory, so requests authenticated with a token need no database query and
+ * no BCrypt work; the resulting principal is an {@link AuthenticatedUser}.
+ * </p>
+ */
+@Component
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String HEADER_JSON = "{\"alg\":\"HS256\",\"typ\":\"JWT\"}";
+    private static final int MIN_KEY_BYTES = 32;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec signingKey;
+    private final long ttlSeconds;
+    private final Clock clock;
+    private final String encodedHeader;
+
+
+    /**
+     * Constructs a {@code TokenService} using the system clock.
+     * <p>
+     * If no secret is configured a random key is generated, which means tokens do not survive a restart and
+     * are not accepted by other instances.
+     * </p>
+     *
+     * @param secret     the HMAC signing secret (at least 32 bytes), or blank to generate one
+     * @param ttlSeconds how long an issued token remains valid, in seconds
+     */
+    @Autowired
+    public TokenService(
+            @Value("${app.security.token.secret:}") String secret,
+            @Value("${app.security.token.ttl-seconds:3600}") long ttlSeconds) {
+        this(secret, ttlSeconds, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs a {@code TokenService} with an explicit clock (used by tests).
+     *
+     * @param secret     the HMAC signing secret (at least 32 bytes), or blank to generate one
+     * @param ttlSeconds how long an issued token remains valid, in seconds
+     * @param clock      the clock used for issue and expiry times
+     */
+    TokenService(String secret, long ttlSeconds, Clock clock) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            log.warn("app.security.token.secret is not set; generating a random signing key. "
+                    + "Issued tokens will not survive a restart.");
+            keyBytes = new byte[MIN_KEY_BYTES];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length < MIN_KEY_BYTES) {
+                throw new IllegalStateException("app.security.token.secret must be at least " + MIN_KEY_BYTES + " bytes long");
+            }
+        }
+        this.signingKey = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+        this.ttlSeconds = ttlSeconds;
+        this.clock = clock;
+        this.encodedHeader = ENCODER.encodeToString(HEADER_JSON.getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    /**
+     * Issues a signed token for an authenticated user.
+     *
+     * @param authentication a successful authentication result whose principal is an {@link AuthenticatedUser}
+     * @return the compact, signed token
+     * @throws IllegalArgumentException if the principal does not carry a user ID
+     */
+    public String issueToken(Authentication authentication) throws IllegalArgumentException {
+        if (!(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
+            throw new IllegalArgumentException("Cannot issue a token for a principal without a user ID");
+        }
+        long now = clock.millis() / 1000;
+
+        List<String> roles = new ArrayList<>();
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            roles.add(authority.getAuthority());
+        }
+
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", authentication.getName());
+        claims.put("uid", user.getUserId());
+        claims.put("roles", roles);
+        claims.put("iat", now);
+        claims.put("exp", now + ttlSeconds);
+
+        try {
+            String payload = ENCODER.encodeToString(MAPPER.writeValueAsBytes(claims));
+            String signingInput = encodedHeader + "." + payload;
+            return signingInput + "." + ENCODER.encodeToString(sign(signingInput));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to serialize token claims", ex);
+        }
+    }
+
+    /**
+     * Verifies a token's signature and expiry and converts it into an authenticated principal.
+     *
+     * @param token the compact token presented by the client
+     * @return an authenticated {@link Authentication} for the token's subject
+     * @throws BadCredentialsException if the token is malformed, has an invalid signature, or has expired
+     */
+    public Authentication authenticate(String token) throws BadCredentialsException {
+        String[] parts = token.split("\\.");
+        if (parts.length != 3 || !encodedHeader.equals(parts[0])) {
+            throw new BadCredentialsException("Malformed token");
+        }
+
+        byte[] expected = sign(parts[0] + "." + parts[1]);
+        byte[] actual;
+        try {
+            actual = DECODER.decode(parts[2]);
+        } catch (IllegalArgumentException ex) {
+            throw new BadCredentialsException("Malformed token signature");
+        }
+        // Constant-time comparison so signature checks do not leak timing information
+        if (!MessageDigest.isEqual(expected, actual)) {
+            throw new BadCredentialsException("Invalid token signature");
+        }
+
+        JsonNode claims = readClaims(parts[1]);
+        if (claims.path("exp").asLong(0) <= clock.millis() / 1000) {
+            throw new BadCredentialsException("Token has expired");
+        }
+
+        String username = claims.path("sub").asText(null);
+        if (username == null || username.isEmpty()) {
+            throw new BadCredentialsException("Token has no subject");
+        }
+
+        int userId = claims.path("uid").asInt(0);
+        if (userId <= 0) {
+            throw new BadCredentialsException("Token has no user ID");
+        }
+
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (JsonNode role : claims.path("roles")) {
+            authorities.add(new SimpleGrantedAuthority(role.asText()));
+        }
+
+        AuthenticatedUser principal = new AuthenticatedUser(userId, username, "", authorities);
+        return UsernamePasswordAuthenticationToken.authenticated(principal, null, authorities);
+    }
+
+    /**
+     * @return how long an issued token remains valid, in seconds
+     */
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    /**
+     * Reads the subject from a token's payload <em>without</em> verifying its signature.
+     * <p>
+     * Only safe to call for tokens that have already been verified by {@link #authenticate(String)},
+     * e.g. from a controller behind the token filter.
+     * </p>
+     *
+     * @param token the compact token
+     * @return the {@code sub} claim
+     * @throws IllegalArgumentException if the token is malformed or has no subject
+     */
+    public static String peekSubject(String token) throws IllegalArgumentException {
+        String[] parts = token.split("\\.");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed bearer token");
+        }
+        try {
+            String subject = readClaims(parts[1]).path("sub").asText(null);
+            if (subject == null || subject.isEmpty()) {
+                throw new IllegalArgumentException("Bearer token has no subject");
+            }
+            return subject;
+        } catch (BadCredentialsException ex) {
+            throw new IllegalArgumentException("Malformed bearer token", ex);
+        }
+    }
+
+
+    /**
+     * Decodes and parses a base64url-encoded JSON claims segment.
+     *
+     * @param encodedPayload the encoded payload segment
+     * @return the parsed claims
+     * @throws BadCredentialsException if the payload is not valid base64url JSON
+     */
+    private static JsonNode readClaims(String encodedPayload) throws BadCredentialsException {
+        try {
+            return MAPPER.readTree(DECODER.decode(encodedPayload));
+        } catch (IllegalArgumentException | IOException ex) {
+            throw new BadCredentialsException("Malformed token payload");
+        }
+    }
+
+    /**
+     * Computes the HMAC-SHA256 signature of the given signing input.
+     *
+     * @param signingInput the {@code header.payload} string
+     * @return the raw signature bytes
+     */
+    private byte[] sign(String signingInput) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            return mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HmacSHA256 is not available", ex);
+        }
+    }
+}
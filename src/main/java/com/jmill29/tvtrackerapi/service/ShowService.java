@@ -3,6 +3,8 @@ package com.jmill29.tvtrackerapi.service;
 import java.util.List;
 import java.util.Optional;
 
+import com.jmill29.tvtrackerapi.dto.ShowPage;
+import com.jmill29.tvtrackerapi.enums.ShowProjection;
 import com.jmill29.tvtrackerapi.exception.DatabaseException;
 import com.jmill29.tvtrackerapi.exception.NoShowsFoundException;
 import com.jmill29.tvtrackerapi.exception.ShowAlreadyExistsException;
@@ -39,6 +41,22 @@ public interface ShowService {
     List<Show> findAll()
             throws DatabaseException, NoShowsFoundException;
 
+    /**
+     * Retrieves one page of the show catalogue, ordered by show ID.
+     * <p>
+     * Page sizes above the service's maximum are capped rather than rejected.
+     *
+     * @param cursor     the {@code nextCursor} of the previous page, or {@code null} for the first page
+     * @param limit      the requested number of shows, or {@code null} for the default page size
+     * @param projection which columns to return for each show
+     * @return the requested page, with a {@code nextCursor} if more shows follow
+     * @throws IllegalArgumentException if the cursor is negative or the limit is less than 1
+     * @throws DatabaseException if a database access error occurs
+     * @throws NoShowsFoundException if the first page is requested and the catalogue is empty
+     */
+    ShowPage findPage(Integer cursor, Integer limit, ShowProjection projection)
+            throws IllegalArgumentException, DatabaseException, NoShowsFoundException;
+
     /**
      * Searches for shows by name (case-insensitive).
      *
@@ -51,6 +69,22 @@ public interface ShowService {
     List<Show> findByName(String name)
             throws IllegalArgumentException, DatabaseException, ShowNotFoundException;
 
+    /**
+     * Searches show names for type-ahead and fuzzy matches.
+     * <p>
+     * Matching is case- and diacritic-insensitive. Results are ranked exact name match first, then names
+     * starting with the query, then names where every query word starts a word of the name, then names
+     * within a small edit distance of the query.
+     *
+     * @param query the text typed by the user
+     * @param limit the maximum number of results, or {@code null} for the default (capped at the service maximum)
+     * @return the best matches first; empty if nothing matches
+     * @throws IllegalArgumentException if the query is null or blank, or the limit is less than 1
+     * @throws DatabaseException if the search index is unavailable and the database fallback fails
+     */
+    List<Show> search(String query, Integer limit)
+            throws IllegalArgumentException, DatabaseException;
+
     /**
      * Searches for shows by genre.
      *
@@ -63,6 +97,26 @@ public interface ShowService {
     List<Show> findByGenre(String genre)
             throws IllegalArgumentException, DatabaseException, NoShowsFoundException;
 
+    /**
+     * Filters shows by several genres at once, returning one page in ID order.
+     * <p>
+     * A show matches if it is in every {@code allOf} genre, in at least one {@code anyOf} genre (when any are
+     * given), and in none of the {@code noneOf} genres. Genre names are case-insensitive; unknown genres match
+     * no shows. Follow {@link ShowPage#getNextCursor()} to read further pages.
+     *
+     * @param allOf  genres a show must all be in, may be {@code null}
+     * @param anyOf  genres a show must be in at least one of, may be {@code null}
+     * @param noneOf genres a show must not be in, may be {@code null}
+     * @param cursor the {@code nextCursor} from the previous page, or {@code null} for the first page
+     * @param limit  the number of shows per page, or {@code null} for the default (capped at the service maximum)
+     * @return the requested page of matching shows; empty if nothing matches
+     * @throws IllegalArgumentException if no {@code allOf} or {@code anyOf} genre is given, a genre is blank,
+     *                                  or the cursor or limit is invalid
+     * @throws DatabaseException if the genre index is not built and loading the catalogue fails
+     */
+    ShowPage findByGenres(List<String> allOf, List<String> anyOf, List<String> noneOf, Integer cursor, Integer limit)
+            throws IllegalArgumentException, DatabaseException;
+
     /**
      * Saves a new or existing show to the database.
      * <p>
@@ -79,6 +133,18 @@ public interface ShowService {
     boolean save(Show show)
             throws IllegalArgumentException, DatabaseException, ShowAlreadyExistsException, ShowNotFoundException;
 
+    /**
+     * Adds a new show and links it to its genres in one transaction.
+     *
+     * @param show the new {@link Show}, with the names of its genres
+     * @return {@code true} if the show and its genres were inserted, {@code false} otherwise
+     * @throws IllegalArgumentException if the show is null, already has an ID, or names an unknown genre
+     * @throws DatabaseException if a database access error occurs
+     * @throws ShowAlreadyExistsException if a show with the same name and release year already exists
+     */
+    boolean addShowandGenres(Show show)
+            throws IllegalArgumentException, DatabaseException, ShowAlreadyExistsException;
+
     /**
      * Deletes a show by its ID.
      *
@@ -1,36 +1,95 @@
 package com.jmill29.tvtrackerapi.service;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.jmill29.tvtrackerapi.cache.ShowCache;
 import com.jmill29.tvtrackerapi.dao.ShowDao;
+import com.jmill29.tvtrackerapi.dto.ShowPage;
+import com.jmill29.tvtrackerapi.enums.ShowProjection;
 import com.jmill29.tvtrackerapi.exception.DatabaseException;
 import com.jmill29.tvtrackerapi.exception.NoShowsFoundException;
 import com.jmill29.tvtrackerapi.exception.ShowAlreadyExistsException;
 import com.jmill29.tvtrackerapi.exception.ShowNotFoundException;
 import com.jmill29.tvtrackerapi.model.Show;
+import com.jmill29.tvtrackerapi.search.GenreIndex;
+import com.jmill29.tvtrackerapi.search.ShowSearchIndex;
 
 /**
  * Implementation of the {@link ShowService} interface.
  * <p>
  * Provides business logic for managing TV shows, including retrieval,
- * search, insertion, updating, and deletion.
+ * search, insertion, updating, and deletion. Lookups by ID, the full list, and catalogue pages are served
+ * from the {@link ShowCache}, which is warmed once the application is ready and invalidated by the DAO's
+ * change events, so in steady state they issue no queries. Name searches go through the in-memory
+ * {@link ShowSearchIndex}, falling back to a {@code LIKE} query only while the index is unavailable.
+ * Multi-genre filters are answered by bitmap operations on the in-memory {@link GenreIndex}.
+ * <p>
+ * The uncached name and genre lookups are read-only transactions and may be served by a read replica. The reads
+ * that fill the cache stay on the primary so that a lagging replica can never pin stale rows in it.
  */
 @Service
 public class ShowServiceImpl implements ShowService {
 
+    /** Number of shows returned when the client does not ask for a page size. */
+    static final int DEFAULT_PAGE_SIZE = 50;
+
+    /** Largest page a client may request; larger requests are capped to this size. */
+    static final int MAX_PAGE_SIZE = 200;
+
+    /** Number of search results returned when the client does not ask for a limit. */
+    static final int DEFAULT_SEARCH_LIMIT = 10;
+
+    /** Largest number of search results a client may request. */
+    static final int MAX_SEARCH_LIMIT = 50;
+
+    private static final Logger log = LoggerFactory.getLogger(ShowServiceImpl.class);
+
     private final ShowDao showDao;
+    private final ShowCache showCache;
+    private final ShowSearchIndex showSearchIndex;
+    private final GenreIndex genreIndex;
 
     /**
      * Initializes a new {@code ShowServiceImpl} with the given {@link ShowDao}.
      *
      * @param showDao the data access object used to interact with the show database
+     * @param showCache the cache of shows read through this service
+     * @param showSearchIndex the in-memory index used for name searches
+     * @param genreIndex the in-memory index used for genre filters
      */
-    public ShowServiceImpl(ShowDao showDao) {
+    public ShowServiceImpl(ShowDao showDao, ShowCache showCache, ShowSearchIndex showSearchIndex, GenreIndex genreIndex) {
         this.showDao = showDao;
+        this.showCache = showCache;
+        this.showSearchIndex = showSearchIndex;
+        this.genreIndex = genreIndex;
+    }
+
+    /**
+     * Loads the whole catalogue into the cache once the application has started.
+     * <p>
+     * A failure is logged rather than rethrown; the cache then fills on demand.
+     * </p>
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmCache() {
+        long generation = showCache.generation();
+        try {
+            List<Show> shows = showDao.findAll();
+            showCache.putAll(shows, generation);
+            log.info("Show cache warmed with {} shows", shows.size());
+        } catch (SQLException ex) {
+            log.warn("Unable to warm the show cache; it will be filled on demand", ex);
+        }
     }
 
     /** {@inheritDoc} */
@@ -41,11 +100,18 @@ public class ShowServiceImpl implements ShowService {
             throw new IllegalArgumentException("ID must be greater than zero.");
         }
 
+        Show cached = showCache.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
         try {
+            long generation = showCache.generation();
             Optional<Show> show = showDao.findById(id);
             if (show.isEmpty()) {
                 throw new ShowNotFoundException("Show with ID " + id + " not found.");
             }
+            showCache.put(show.get(), generation);
             return show;
         } catch (SQLException ex) {
             throw new DatabaseException("Error accessing the database while retrieving show with ID " + id + ": " + ex);
@@ -54,13 +120,21 @@ public class ShowServiceImpl implements ShowService {
 
     /** {@inheritDoc} */
     @Override
+    @Transactional(readOnly = true)
     public List<Show> findAll()
             throws DatabaseException, NoShowsFoundException {
+        List<Show> cached = showCache.getAll();
+        if (cached != null && !cached.isEmpty()) {
+            return cached;
+        }
+
         try {
+            long generation = showCache.generation();
             List<Show> shows = showDao.findAll();
             if (shows.isEmpty()) {
                 throw new NoShowsFoundException("No shows found in the database.");
             }
+            showCache.putAll(shows, generation);
             return shows;
         } catch (SQLException e) {
             throw new DatabaseException("Error accessing the database while retrieving shows." + e);
@@ -69,6 +143,46 @@ public class ShowServiceImpl implements ShowService {
 
     /** {@inheritDoc} */
     @Override
+    @Transactional(readOnly = true)
+    public ShowPage findPage(Integer cursor, Integer limit, ShowProjection projection)
+            throws IllegalArgumentException, DatabaseException, NoShowsFoundException {
+        int afterId = cursor == null ? 0 : cursor;
+        if (afterId < 0) {
+            throw new IllegalArgumentException("Cursor cannot be negative.");
+        }
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Limit must be greater than zero.");
+        }
+        pageSize = Math.min(pageSize, MAX_PAGE_SIZE);
+        boolean includeDescription = projection == null || projection.includesDescription();
+
+        try {
+            // Fetch one extra row so we know whether another page follows without a COUNT query
+            List<Show> shows = showCache.getPage(afterId, pageSize + 1);
+            if (shows == null) {
+                shows = showDao.findPage(afterId, pageSize + 1, includeDescription);
+            } else if (!includeDescription) {
+                shows = withoutDescriptions(shows);
+            }
+            if (shows.isEmpty() && afterId == 0) {
+                throw new NoShowsFoundException("No shows found in the database.");
+            }
+
+            Integer nextCursor = null;
+            if (shows.size() > pageSize) {
+                shows = shows.subList(0, pageSize);
+                nextCursor = shows.get(pageSize - 1).getId();
+            }
+            return new ShowPage(shows, nextCursor);
+        } catch (SQLException e) {
+            throw new DatabaseException("Error accessing the database while retrieving shows after ID " + afterId + ": " + e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @Transactional(readOnly = true)
     public List<Show> findByName(String name)
             throws IllegalArgumentException, DatabaseException, ShowNotFoundException {
         if (name == null || name.isBlank()) {
@@ -88,6 +202,32 @@ public class ShowServiceImpl implements ShowService {
 
     /** {@inheritDoc} */
     @Override
+    public List<Show> search(String query, Integer limit)
+            throws IllegalArgumentException, DatabaseException {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query cannot be null or empty.");
+        }
+        int maxResults = limit == null ? DEFAULT_SEARCH_LIMIT : limit;
+        if (maxResults < 1) {
+            throw new IllegalArgumentException("Limit must be greater than zero.");
+        }
+        maxResults = Math.min(maxResults, MAX_SEARCH_LIMIT);
+
+        if (showSearchIndex.isReady()) {
+            return showSearchIndex.search(query, maxResults);
+        }
+
+        try {
+            List<Show> shows = showDao.findByName(query.trim());
+            return shows.size() > maxResults ? shows.subList(0, maxResults) : shows;
+        } catch (SQLException e) {
+            throw new DatabaseException("Error accessing the database while searching for shows by name: " + query + ", " + e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @Transactional(readOnly = true)
     public List<Show> findByGenre(String genre)
             throws IllegalArgumentException, DatabaseException, NoShowsFoundException {
         if (genre == null || genre.isBlank()) {
@@ -105,6 +245,46 @@ public class ShowServiceImpl implements ShowService {
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public ShowPage findByGenres(List<String> allOf, List<String> anyOf, List<String> noneOf, Integer cursor, Integer limit)
+            throws IllegalArgumentException, DatabaseException {
+        List<String> all = genreList(allOf);
+        List<String> any = genreList(anyOf);
+        List<String> none = genreList(noneOf);
+        if (all.isEmpty() && any.isEmpty()) {
+            throw new IllegalArgumentException("At least one genre to include must be given.");
+        }
+        int afterId = cursor == null ? 0 : cursor;
+        if (afterId < 0) {
+            throw new IllegalArgumentException("Cursor cannot be negative.");
+        }
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Limit must be greater than zero.");
+        }
+        pageSize = Math.min(pageSize, MAX_PAGE_SIZE);
+
+        if (!genreIndex.isReady()) {
+            try {
+                if (!genreIndex.load()) {
+                    throw new DatabaseException("Shows kept changing while the genre index was built; try again.");
+                }
+            } catch (SQLException ex) {
+                throw new DatabaseException("Error accessing the database while building the genre index: " + ex);
+            }
+        }
+
+        // Fetch one extra show so we know whether another page follows
+        List<Show> shows = genreIndex.filter(all, any, none, afterId, pageSize + 1);
+        Integer nextCursor = null;
+        if (shows.size() > pageSize) {
+            shows = shows.subList(0, pageSize);
+            nextCursor = shows.get(pageSize - 1).getId();
+        }
+        return new ShowPage(shows, nextCursor);
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean save(Show show)
@@ -126,6 +306,25 @@ public class ShowServiceImpl implements ShowService {
 
     /** {@inheritDoc} */
     @Override
+    public boolean addShowandGenres(Show show)
+            throws IllegalArgumentException, DatabaseException, ShowAlreadyExistsException {
+        if (show == null) {
+            throw new IllegalArgumentException("Show cannot be null.");
+        }
+        if (show.getId() != 0) {
+            throw new IllegalArgumentException("A new show cannot already have an ID.");
+        }
+
+        try {
+            return showDao.saveWithGenres(show);
+        } catch (SQLException ex) {
+            throw new DatabaseException("Error accessing the database while saving the show and its genres: " + ex);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @Transactional
     public boolean deleteById(int id)
             throws DatabaseException, IllegalArgumentException {
         if (id <= 0) {
@@ -145,14 +344,38 @@ public class ShowServiceImpl implements ShowService {
     }
 
     /**
-     * Placeholder for a future feature that will allow adding a show along with its genres.
+     * Copies cached shows without their descriptions so summary pages never modify shared cache entries.
      *
-     * @param show the show to be inserted along with its genres
-     * @return currently unimplemented
-     * @throws SQLException if a database error occurs
-     * @throws UnsupportedOperationException always, since the method is not yet implemented
+     * @param shows the cached shows
+     * @return new {@code Show} objects with a {@code null} description
      */
-    private boolean addShowandGenres(Show show) throws SQLException {
-        throw new UnsupportedOperationException("Not supported yet.");
+    private static List<Show> withoutDescriptions(List<Show> shows) {
+        List<Show> copies = new ArrayList<>(shows.size());
+        for (Show show : shows) {
+            Show copy = new Show(show.getId(), show.getName(), null, show.getImageUrl(),
+                show.getNumEpisodes(), show.getReleaseYear(), show.getCreatedAt());
+            copy.setGenres(show.getGenres());
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    /**
+     * Validates a list of genre names from a filter.
+     *
+     * @param genres the genre names, may be {@code null}
+     * @return the names, or an empty list if none were given
+     * @throws IllegalArgumentException if any name is blank
+     */
+    private static List<String> genreList(List<String> genres) throws IllegalArgumentException {
+        if (genres == null) {
+            return List.of();
+        }
+        for (String genre : genres) {
+            if (genre == null || genre.isBlank()) {
+                throw new IllegalArgumentException("Genre cannot be null or empty.");
+            }
+        }
+        return genres;
     }
 }
@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.jmill29.tvtrackerapi.dao.UserDao;
 import com.jmill29.tvtrackerapi.dto.UserRequest;
@@ -13,6 +14,7 @@ import com.jmill29.tvtrackerapi.exception.DatabaseException;
 import com.jmill29.tvtrackerapi.exception.UserAlreadyExistsException;
 import com.jmill29.tvtrackerapi.exception.UserNotFoundException;
 import com.jmill29.tvtrackerapi.model.User;
+import com.jmill29.tvtrackerapi.utils.TransactionUtil;
 
 /**
  * Service implementation for user-related operations.
@@ -122,11 +124,12 @@ public class UserServiceImpl implements UserService {
      *   <li>Attempts to persist the new user and assign the default role "ROLE_USER".</li>
      *   <li>If either the save or role assignment fails, returns {@code false}.</li>
      *   <li>If a {@link SQLException} occurs during either operation, wraps and throws it as a {@link DatabaseException}.</li>
-     *   <li>Side effect: If user creation succeeds but role assignment fails, the user will exist in the database without the intended role.</li>
+     *   <li>Both writes run in one transaction, so if role assignment fails the new user is rolled back rather than left without a role.</li>
      * </ul>
      * @see UserService#registerUser(UserRequest)
      */
     @Override
+    @Transactional
     public boolean registerUser(UserRequest user) throws IllegalArgumentException, DatabaseException, UserAlreadyExistsException {
         // Validate input
         if (user == null) {
@@ -137,8 +140,11 @@ public class UserServiceImpl implements UserService {
         User newUser = new User(0, user.getName(), user.getUsername(), user.getPassword(), user.getEmail(), null);
         try {
             // Save the user and assign the default role. Both must succeed to return true.
-            // Note: If save succeeds but assignRoleToUser fails, the user will exist without the intended role.
-            return userDao.save(newUser) && userDao.assignRoleToUser(user.getUsername(), "ROLE_USER");
+            if (userDao.save(newUser) && userDao.assignRoleToUser(user.getUsername(), "ROLE_USER")) {
+                return true;
+            }
+            TransactionUtil.setRollbackOnly();
+            return false;
         } catch (SQLException e) {
             // Wrap SQL exceptions in a custom DatabaseException for service layer consistency.
             throw new DatabaseException("Error registering user with Username, " + user.getUsername() + ": " + e);
@@ -1,9 +1,13 @@
 package com.jmill29.tvtrackerapi.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
+import com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest;
 import com.jmill29.tvtrackerapi.dto.UserWatchHistoryRequest;
 import com.jmill29.tvtrackerapi.dto.UserWatchHistoryResponse;
+import com.jmill29.tvtrackerapi.dto.WatchHistoryBatchItemResponse;
+import com.jmill29.tvtrackerapi.dto.WatchHistorySummaryResponse;
 import com.jmill29.tvtrackerapi.exception.DatabaseException;
 import com.jmill29.tvtrackerapi.exception.WatchHistoryAlreadyExistsException;
 import com.jmill29.tvtrackerapi.exception.WatchHistoryNotFoundException;
@@ -111,4 +115,135 @@ public interface UserWatchHistoryService {
      */
     List<UserWatchHistoryResponse> getWatchHistoryByUsername(String username, boolean getAll)
             throws IllegalArgumentException, DatabaseException, WatchHistoryNotFoundException;
+
+    /**
+     * Adds a show to the watch history of an already authenticated user.
+     * <p>
+     * The user ID comes from the authenticated principal, so no username lookup is performed. The entry is written
+     * with a single INSERT; a duplicate or a missing show is detected from the rejected statement rather than
+     * checked beforehand.
+     * </p>
+     *
+     * @param userWatchHistoryRequest the request containing the show ID to add
+     * @param userId the ID of the authenticated user
+     * @return {@code true} if the show was successfully added to the watch history
+     * @throws IllegalArgumentException if the request is null or the user ID is invalid
+     * @throws DatabaseException if a database error occurs
+     * @throws WatchHistoryAlreadyExistsException if the show is already in the user's watch history
+     * @throws com.jmill29.tvtrackerapi.exception.ShowNotFoundException if the show ID does not match any entry in the database
+     */
+    boolean addShowToWatchHistory(UserWatchHistoryRequest userWatchHistoryRequest, int userId)
+            throws IllegalArgumentException, DatabaseException, WatchHistoryAlreadyExistsException, com.jmill29.tvtrackerapi.exception.ShowNotFoundException;
+
+    /**
+     * Updates the watch status of a show in the watch history of an already authenticated user.
+     * <p>
+     * Locks and reads the entry, then updates it, on one connection; the show is only looked up if no entry was
+     * updated, to choose between {@link WatchHistoryNotFoundException} and
+     * {@link com.jmill29.tvtrackerapi.exception.ShowNotFoundException}. If {@code app.watch-history.upsert-on-update}
+     * is enabled, a single upsert creates a missing entry instead.
+     * </p>
+     *
+     * @param userWatchHistoryRequest the request object containing the updated watch status
+     * @param userId the ID of the authenticated user
+     * @return {@code true} if the operation was successful
+     * @throws IllegalArgumentException if input is invalid
+     * @throws DatabaseException if a database access error occurs
+     * @throws WatchHistoryNotFoundException if the watch history entry does not exist
+     * @throws com.jmill29.tvtrackerapi.exception.ShowNotFoundException if the show ID does not match any entry in the database
+     */
+    boolean updateWatchStatus(UserWatchHistoryRequest userWatchHistoryRequest, int userId)
+            throws IllegalArgumentException, DatabaseException, WatchHistoryNotFoundException, com.jmill29.tvtrackerapi.exception.ShowNotFoundException;
+
+    /**
+     * Changes only the supplied fields of a show in the watch history of an already authenticated user.
+     * <p>
+     * Runs a single UPDATE without reading the entry first; the show is only looked up if no entry was updated,
+     * to choose between {@link WatchHistoryNotFoundException} and
+     * {@link com.jmill29.tvtrackerapi.exception.ShowNotFoundException}.
+     * </p>
+     * <p>
+     * When write-behind is enabled, a patch that only sets {@code episodesWatched} is buffered and written later
+     * once a read confirms the entry exists; a missing entry is reported as for any other patch. Reads, and the
+     * watch history ETag, reflect the new count only once it is flushed. An entry deleted before the flush drops
+     * the buffered count.
+     * </p>
+     *
+     * @param userId the ID of the authenticated user
+     * @param showId the ID of the show to update
+     * @param patch the fields to change
+     * @return {@code true} if the operation was successful
+     * @throws IllegalArgumentException if no field is supplied, the episode count is negative, or the rating is not between 1 and 5
+     * @throws DatabaseException if a database access error occurs
+     * @throws WatchHistoryNotFoundException if the watch history entry does not exist
+     * @throws com.jmill29.tvtrackerapi.exception.ShowNotFoundException if the show ID does not match any entry in the database
+     */
+    boolean patchWatchHistory(int userId, int showId, UserWatchHistoryPatchRequest patch)
+            throws IllegalArgumentException, DatabaseException, WatchHistoryNotFoundException, com.jmill29.tvtrackerapi.exception.ShowNotFoundException;
+
+    /**
+     * Deletes a show from the watch history of an already authenticated user.
+     * <p>
+     * Runs a single DELETE; the show is only looked up if no entry was deleted, to choose between
+     * {@link WatchHistoryNotFoundException} and {@link com.jmill29.tvtrackerapi.exception.ShowNotFoundException}.
+     * </p>
+     *
+     * @param userId the ID of the authenticated user
+     * @param showId the ID of the show to delete
+     * @return {@code true} if the operation was successful
+     * @throws IllegalArgumentException if input is invalid
+     * @throws DatabaseException if a database access error occurs
+     * @throws WatchHistoryNotFoundException if the watch history entry does not exist
+     * @throws com.jmill29.tvtrackerapi.exception.ShowNotFoundException if the show ID does not match any entry in the database
+     */
+    boolean deleteShowFromWatchHistory(int userId, int showId)
+            throws IllegalArgumentException, DatabaseException, WatchHistoryNotFoundException, com.jmill29.tvtrackerapi.exception.ShowNotFoundException;
+
+    /**
+     * Adds many shows to the watch history of an already authenticated user in one go.
+     * <p>
+     * All show IDs are validated with a single query, and the new entries are written with one JDBC batch in a single
+     * transaction. Items that are invalid, refer to a missing show, or are already in the watch history are skipped
+     * and reported rather than failing the whole request.
+     * </p>
+     *
+     * @param userWatchHistoryRequests the items to import
+     * @param userId the ID of the authenticated user
+     * @return one result per request item, in request order
+     * @throws IllegalArgumentException if the list is null, empty, or larger than the maximum batch size, or the user ID is invalid
+     * @throws DatabaseException if a database access error occurs, in which case nothing is imported
+     * @throws WatchHistoryAlreadyExistsException if entries were added concurrently, in which case nothing is imported
+     */
+    List<WatchHistoryBatchItemResponse> addShowsToWatchHistory(List<UserWatchHistoryRequest> userWatchHistoryRequests, int userId)
+            throws IllegalArgumentException, DatabaseException, WatchHistoryAlreadyExistsException;
+
+    /**
+     * Streams every show in the catalogue with the authenticated user's watch status, one entry at a time.
+     * <p>
+     * Produces the same entries as {@link #getWatchHistoryByUserId(int, boolean)} with {@code getAll = true}, but
+     * without building the whole list in memory. The user ID is validated before the first entry is produced.
+     * </p>
+     *
+     * @param userId the ID of the authenticated user
+     * @param action called once per show, in show ID order
+     * @throws IllegalArgumentException if the user ID is invalid
+     * @throws DatabaseException if a database access error occurs
+     */
+    void streamWatchHistoryByUserId(int userId, Consumer<UserWatchHistoryResponse> action)
+            throws IllegalArgumentException, DatabaseException;
+
+    /**
+     * Summarizes the authenticated user's watch history: the number of shows per status, the total number of
+     * episodes watched, and the average rating.
+     * <p>
+     * Served from incrementally maintained counters, so repeat calls issue no query.
+     * </p>
+     *
+     * @param userId the ID of the authenticated user
+     * @return the summary; every count is zero if the user has no watch history
+     * @throws IllegalArgumentException if the user ID is invalid
+     * @throws DatabaseException if the counters are not cached and a database access error occurs
+     */
+    WatchHistorySummaryResponse getWatchHistorySummary(int userId)
+            throws IllegalArgumentException, DatabaseException;
 }
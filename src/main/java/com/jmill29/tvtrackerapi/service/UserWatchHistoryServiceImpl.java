@@ -1,50 +1,100 @@
 package com.jmill29.tvtrackerapi.service;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.jmill29.tvtrackerapi.cache.WatchSummaryCache;
 import com.jmill29.tvtrackerapi.dao.UserWatchHistoryDao;
+import com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest;
 import com.jmill29.tvtrackerapi.dto.UserWatchHistoryRequest;
 import com.jmill29.tvtrackerapi.dto.UserWatchHistoryResponse;
+import com.jmill29.tvtrackerapi.dto.WatchHistoryBatchItemResponse;
+import com.jmill29.tvtrackerapi.dto.WatchHistorySummaryResponse;
+import com.jmill29.tvtrackerapi.enums.BatchItemOutcome;
+import com.jmill29.tvtrackerapi.enums.WatchStatus;
 import com.jmill29.tvtrackerapi.exception.DatabaseException;
 import com.jmill29.tvtrackerapi.exception.ShowNotFoundException;
 import com.jmill29.tvtrackerapi.exception.UserNotFoundException;
 import com.jmill29.tvtrackerapi.exception.WatchHistoryAlreadyExistsException;
 import com.jmill29.tvtrackerapi.exception.WatchHistoryNotFoundException;
+import com.jmill29.tvtrackerapi.model.UserWatchHistory;
+import com.jmill29.tvtrackerapi.model.WatchHistoryStats;
+import com.jmill29.tvtrackerapi.utils.TransactionUtil;
 
 
 /**
  * Service implementation for user watch history operations.
  * Handles business logic and exception translation for watch history features.
+ * <p>
+ * Per-user summaries are served from the {@link WatchSummaryCache}: additions, status updates and deletes adjust
+ * the cached counters in place, upserts and patches, which do not read the values they replace, evict them, and
+ * {@link #reconcileSummaries()} periodically re-aggregates every cached user from {@code user_watch_history} to
+ * correct any drift.
+ * </p>
+ * <p>
+ * Patches that only report episode progress are handed to the {@link WatchProgressBuffer} when write-behind is
+ * enabled, and written in coalesced batches instead of one UPDATE each.
+ * </p>
+ * <p>
+ * Methods that make more than one DAO call are {@code @Transactional}, so the calls share one connection and
+ * commit together; reads are marked read-only. Methods whose common path is a single statement are left
+ * unannotated rather than paying for a transaction's extra round trips. Changes to the summary cache are
+ * applied only once the surrounding transaction, if any, commits.
+ * </p>
  */
 @Service
 public class UserWatchHistoryServiceImpl implements UserWatchHistoryService {
 
+    /** Upper bound on the number of items accepted by a single bulk import */
+    static final int MAX_BATCH_SIZE = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(UserWatchHistoryServiceImpl.class);
+
     private final UserWatchHistoryDao userWatchHistoryDao;
     private final UserService userService;
     private final ShowService showService;
+    private final WatchSummaryCache summaryCache;
+    private final WatchProgressBuffer progressBuffer;
 
     public UserWatchHistoryServiceImpl(
         UserWatchHistoryDao userWatchHistoryDao,
         UserService userService,
-        ShowService showService) {
+        ShowService showService,
+        WatchSummaryCache summaryCache,
+        WatchProgressBuffer progressBuffer) {
         this.userWatchHistoryDao = userWatchHistoryDao;
         this.userService = userService;
         this.showService = showService;
+        this.summaryCache = summaryCache;
+        this.progressBuffer = progressBuffer;
     }
 
     /** {@inheritDoc} */
     @Override
+    @Transactional
     public boolean addShowToWatchHistory(UserWatchHistoryRequest userWatchHistoryRequest, String username)
         throws IllegalArgumentException, DatabaseException, WatchHistoryAlreadyExistsException, ShowNotFoundException {
         // check if userWatchHistoryRequest is null
         if (userWatchHistoryRequest == null) {
             throw new IllegalArgumentException("Must include a Request Body");
         }
+        validateProgress(userWatchHistoryRequest.getEpisodesWatched(), userWatchHistoryRequest.getRating());
 
-        validateUsername(username);
+        int userId = validateUsername(username);
 
         // Check if the show is already in the user's watch history
         if (isShowInWatchHistory(username, userWatchHistoryRequest.getShowId())) {
@@ -58,7 +108,11 @@ public class UserWatchHistoryServiceImpl implements UserWatchHistoryService {
         }
 
         try {
-            return userWatchHistoryDao.addShowToWatchHistory(userWatchHistoryRequest, username);
+            boolean added = userWatchHistoryDao.addShowToWatchHistory(userWatchHistoryRequest, username);
+            if (added) {
+                recordAdded(userId, List.of(userWatchHistoryRequest));
+            }
+            return added;
         } catch (SQLException ex) {
             // If a SQLException occurs, wrap it in a DatabaseException
             throw new DatabaseException("Database error occurred while adding show ID " + userWatchHistoryRequest.getShowId() + " to watch history for user " + username + ", " + ex);
@@ -69,6 +123,7 @@ public class UserWatchHistoryServiceImpl implements UserWatchHistoryService {
      * {@inheritDoc}
      */
     @Override
+    @Transactional(readOnly = true)
     public List<UserWatchHistoryResponse> getWatchHistoryByUserId(int userId, boolean getAll) throws IllegalArgumentException, DatabaseException, WatchHistoryNotFoundException {
         try {
             // check if userId is less than or equal to 0
@@ -102,12 +157,13 @@ public class UserWatchHistoryServiceImpl implements UserWatchHistoryService {
      * {@inheritDoc}
      */
     @Override
+    @Transactional
     public boolean updateWatchStatus(UserWatchHistoryRequest userWatchHistoryRequest, String username) throws IllegalArgumentException, DatabaseException, WatchHistoryNotFoundException {
         if (userWatchHistoryRequest == null) {
             throw new IllegalArgumentException("UserWatchHistory cannot be null");
         }
 
-        validateUsername(username);
+        int userId = validateUsername(username);
 
         if (showService.findById(userWatchHistoryRequest.getShowId()).isEmpty()) {
             throw new ShowNotFoundException("Show with ID, " + userWatchHistoryRequest.getShowId() + ", not found");
@@ -121,7 +177,10 @@ public class UserWatchHistoryServiceImpl implements UserWatchHistoryService {
         } 
 
         try {
-            if (userWatchHistoryDao.updateWatchStatus(userWatchHistoryRequest, username)) {
+            Optional<UserWatchHistory> previous = userWatchHistoryDao.updateWatchStatus(userWatchHistoryRequest, username);
+            if (previous.isPresent()) {
+                UserWatchHistory before = previous.get();
+                recordReplaced(userId, before, userWatchHistoryRequest.getStatus(), before.getEpisodesWatched(), before.getRating());
                 return true;
             } else {
                 throw new WatchHistoryNotFoundException(
@@ -137,9 +196,10 @@ public class UserWatchHistoryServiceImpl implements UserWatchHistoryService {
      * {@inheritDoc}
      */
     @Override
+    @Transactional
     public boolean deleteShowFromWatchHistory(String username, int showId) throws 
         IllegalArgumentException, DatabaseException, WatchHistoryNotFoundException, ShowNotFoundException {
-        validateUsername(username);
+        int userId = validateUsername(username);
 
         if (showId <= 0) {
             throw new IllegalArgumentException("Show ID must be greater than 0");
@@ -149,8 +209,11 @@ public class UserWatchHistoryServiceImpl implements UserWatchHistoryService {
             throw new ShowNotFoundException("Show with ID, " + showId + ", not found");
         }
         
+        progressBuffer.discard(userId, showId);
         try {
-            if (userWatchHistoryDao.deleteShowFromWatchHistory(username, showId)) {
+            Optional<UserWatchHistory> previous = userWatchHistoryDao.deleteShowFromWatchHistory(username, showId);
+            if (previous.isPresent()) {
+                recordReplaced(userId, previous.get(), null, 0, null);
                 return true;
             } else {
                 throw new WatchHistoryNotFoundException(
@@ -166,6 +229,7 @@ public class UserWatchHistoryServiceImpl implements UserWatchHistoryService {
      * {@inheritDoc}
      */
     @Override
+    @Transactional(readOnly = true)
     public boolean isShowInWatchHistory(String username, int showId) throws IllegalArgumentException, DatabaseException {
         validateUsername(username);
 
@@ -184,6 +248,7 @@ public class UserWatchHistoryServiceImpl implements UserWatchHistoryService {
      * {@inheritDoc}
      */
     @Override
+    @Transactional(readOnly = true)
     public List<UserWatchHistoryResponse> getWatchHistoryByUsername(String username, boolean getAll) throws IllegalArgumentException, DatabaseException, WatchHistoryNotFoundException {
         validateUsername(username);
 
@@ -202,20 +267,399 @@ public class UserWatchHistoryServiceImpl implements UserWatchHistoryService {
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean addShowToWatchHistory(UserWatchHistoryRequest userWatchHistoryRequest, int userId)
+        throws IllegalArgumentException, DatabaseException, WatchHistoryAlreadyExistsException, ShowNotFoundException {
+        if (userWatchHistoryRequest == null) {
+            throw new IllegalArgumentException("Must include a Request Body");
+        }
+        validateProgress(userWatchHistoryRequest.getEpisodesWatched(), userWatchHistoryRequest.getRating());
+
+        validateUserId(userId);
+
+        try {
+            // Single INSERT: the DAO maps duplicate-key and missing-show violations to our exceptions
+            boolean added = userWatchHistoryDao.addShowToWatchHistory(userWatchHistoryRequest, userId);
+            if (added) {
+                recordAdded(userId, List.of(userWatchHistoryRequest));
+            }
+            return added;
+        } catch (SQLException ex) {
+            throw new DatabaseException("Database error occurred while adding show ID " + userWatchHistoryRequest.getShowId() + " to watch history for user ID " + userId + ", " + ex);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean updateWatchStatus(UserWatchHistoryRequest userWatchHistoryRequest, int userId)
+        throws IllegalArgumentException, DatabaseException, WatchHistoryNotFoundException, ShowNotFoundException {
+        if (userWatchHistoryRequest == null) {
+            throw new IllegalArgumentException("UserWatchHistory cannot be null");
+        }
+
+        validateUserId(userId);
+
+        int showId = userWatchHistoryRequest.getShowId();
+        try {
+            Optional<UserWatchHistory> previous = userWatchHistoryDao.updateWatchStatus(userWatchHistoryRequest, userId);
+            if (previous.isPresent()) {
+                UserWatchHistory before = previous.get();
+                recordReplaced(userId, before, userWatchHistoryRequest.getStatus(), before.getEpisodesWatched(), before.getRating());
+                return true;
+            }
+        } catch (SQLException ex) {
+            throw new DatabaseException("Database error occurred while updating watch status for user ID " + userId + ", " + ex);
+        }
+
+        // Nothing was updated; work out why only now so the common path stays a single statement
+        if (showService.findById(showId).isEmpty()) {
+            throw new ShowNotFoundException("Show with ID, " + showId + ", not found");
+        }
+        throw new WatchHistoryNotFoundException(
+                "Watch history for item with ID " + showId + " for user ID " + userId + " does not exist"
+        );
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean patchWatchHistory(int userId, int showId, UserWatchHistoryPatchRequest patch)
+        throws IllegalArgumentException, DatabaseException, WatchHistoryNotFoundException, ShowNotFoundException {
+        if (patch == null || patch.isEmpty()) {
+            throw new IllegalArgumentException("Must include at least one field to update");
+        }
+
+        validateUserId(userId);
+
+        if (showId <= 0) {
+            throw new IllegalArgumentException("Show ID must be greater than 0");
+        }
+        validateProgress(patch.getEpisodesWatched(), patch.getRating());
+
+        if (patch.getEpisodesWatched() != null) {
+            boolean progressOnly = patch.getStatus() == null && !patch.isRatingSet() && patch.getFavorite() == null;
+            // Check the entry first so a missing one is still reported instead of being accepted and dropped later
+            if (progressOnly && progressBuffer.isEnabled() && entryExists(userId, showId)
+                    && progressBuffer.offer(userId, showId, patch.getEpisodesWatched())) {
+                return true;
+            }
+            // This write supersedes any buffered progress for the entry
+            progressBuffer.discard(userId, showId);
+        }
+
+        try {
+            if (userWatchHistoryDao.patchWatchHistory(userId, showId, patch)) {
+                // The replaced values are not read, so the cached counters are dropped rather than adjusted;
+                // favorites are not summarized, so toggling one leaves them valid
+                if (patch.getStatus() != null || patch.getEpisodesWatched() != null || patch.isRatingSet()) {
+                    evictSummary(userId);
+                }
+                return true;
+            }
+        } catch (SQLException ex) {
+            throw new DatabaseException("Database error occurred while updating show ID " + showId + " in watch history for user ID " + userId + ", " + ex);
+        }
+
+        // Nothing was updated; work out why only now so the common path stays a single statement
+        if (showService.findById(showId).isEmpty()) {
+            throw new ShowNotFoundException("Show with ID, " + showId + ", not found");
+        }
+        throw new WatchHistoryNotFoundException(
+                "Watch history for item with ID " + showId + " for user ID " + userId + " does not exist"
+        );
+    }
+
+    /**
+     * Checks whether the user has a watch history entry for the show.
+     *
+     * @param userId the ID of the user
+     * @param showId the ID of the show
+     * @return {@code true} if the entry exists
+     * @throws DatabaseException if a database access error occurs
+     */
+    private boolean entryExists(int userId, int showId) throws DatabaseException {
+        try {
+            return userWatchHistoryDao.isShowInWatchHistory(userId, showId);
+        } catch (SQLException ex) {
+            throw new DatabaseException("Database error occurred while checking if show ID " + showId + " is in watch history for user ID " + userId + ", " + ex);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean deleteShowFromWatchHistory(int userId, int showId)
+        throws IllegalArgumentException, DatabaseException, WatchHistoryNotFoundException, ShowNotFoundException {
+        validateUserId(userId);
+
+        if (showId <= 0) {
+            throw new IllegalArgumentException("Show ID must be greater than 0");
+        }
+
+        // Buffered progress must not be written to an entry re-added after this delete
+        progressBuffer.discard(userId, showId);
+        try {
+            Optional<UserWatchHistory> previous = userWatchHistoryDao.deleteShowFromWatchHistory(userId, showId);
+            if (previous.isPresent()) {
+                recordReplaced(userId, previous.get(), null, 0, null);
+                return true;
+            }
+        } catch (SQLException ex) {
+            throw new DatabaseException("Database error occurred while deleting show ID " + showId + " from watch history for user ID " + userId + ", " + ex);
+        }
+
+        // Nothing was deleted; work out why only now so the common path stays a single statement
+        if (showService.findById(showId).isEmpty()) {
+            throw new ShowNotFoundException("Show with ID, " + showId + ", not found");
+        }
+        throw new WatchHistoryNotFoundException(
+                "Item with ID, " + showId + ", not found in user's watch history"
+        );
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @Transactional
+    public List<WatchHistoryBatchItemResponse> addShowsToWatchHistory(List<UserWatchHistoryRequest> userWatchHistoryRequests, int userId)
+        throws IllegalArgumentException, DatabaseException, WatchHistoryAlreadyExistsException {
+        if (userWatchHistoryRequests == null || userWatchHistoryRequests.isEmpty()) {
+            throw new IllegalArgumentException("Must include at least one item to import");
+        }
+        if (userWatchHistoryRequests.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Cannot import more than " + MAX_BATCH_SIZE + " items at once");
+        }
+
+        validateUserId(userId);
+
+        Set<Integer> candidateIds = new LinkedHashSet<>();
+        for (UserWatchHistoryRequest request : userWatchHistoryRequests) {
+            if (isValidBatchItem(request)) {
+                candidateIds.add(request.getShowId());
+            }
+        }
+
+        try {
+            // One query validates every show ID and finds existing entries at the same time
+            Map<Integer, Boolean> state = userWatchHistoryDao.findWatchHistoryState(userId, candidateIds);
+
+            List<WatchHistoryBatchItemResponse> results = new ArrayList<>(userWatchHistoryRequests.size());
+            List<UserWatchHistoryRequest> toInsert = new ArrayList<>();
+            Set<Integer> seen = new HashSet<>();
+            for (UserWatchHistoryRequest request : userWatchHistoryRequests) {
+                if (!isValidBatchItem(request)) {
+                    results.add(new WatchHistoryBatchItemResponse(
+                        request == null ? 0 : request.getShowId(), BatchItemOutcome.INVALID,
+                        "Item must have a show ID greater than 0, a status, and a valid episode count and rating"));
+                    continue;
+                }
+
+                int showId = request.getShowId();
+                Boolean alreadyInHistory = state.get(showId);
+                if (alreadyInHistory == null) {
+                    results.add(new WatchHistoryBatchItemResponse(showId, BatchItemOutcome.SHOW_NOT_FOUND,
+                        "Show with ID, " + showId + ", not found"));
+                } else if (alreadyInHistory || !seen.add(showId)) {
+                    results.add(new WatchHistoryBatchItemResponse(showId, BatchItemOutcome.ALREADY_EXISTS,
+                        "Show ID " + showId + " is already in watch history"));
+                } else {
+                    toInsert.add(request);
+                    results.add(new WatchHistoryBatchItemResponse(showId, BatchItemOutcome.ADDED,
+                        "Show added to watch history"));
+                }
+            }
+
+            userWatchHistoryDao.addShowsToWatchHistory(toInsert, userId);
+            if (!toInsert.isEmpty()) {
+                recordAdded(userId, toInsert);
+            }
+            return results;
+        } catch (SQLException ex) {
+            throw new DatabaseException("Database error occurred while importing watch history for user ID " + userId + ", " + ex);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void streamWatchHistoryByUserId(int userId, Consumer<UserWatchHistoryResponse> action)
+        throws IllegalArgumentException, DatabaseException {
+        validateUserId(userId);
+
+        try {
+            userWatchHistoryDao.forEachShowWithWatchStatus(userId, action);
+        } catch (SQLException ex) {
+            throw new DatabaseException("Database error occurred while streaming watch history for user ID " + userId + ", " + ex);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public WatchHistorySummaryResponse getWatchHistorySummary(int userId)
+        throws IllegalArgumentException, DatabaseException {
+        validateUserId(userId);
+
+        WatchHistoryStats stats = summaryCache.get(userId);
+        if (stats == null) {
+            try {
+                long generation = summaryCache.generation();
+                stats = userWatchHistoryDao.getWatchHistoryStats(userId);
+                summaryCache.put(userId, stats, generation);
+            } catch (SQLException ex) {
+                throw new DatabaseException("Database error occurred while summarizing watch history for user ID " + userId + ", " + ex);
+            }
+        }
+
+        Map<String, Long> statusCounts = new LinkedHashMap<>();
+        for (WatchStatus status : WatchStatus.values()) {
+            statusCounts.put(status.getDbValue(), stats.getCount(status));
+        }
+        return new WatchHistorySummaryResponse(statusCounts, stats.getTotalCount(),
+            stats.getTotalEpisodesWatched(), stats.getAverageRating());
+    }
+
+    /**
+     * Re-aggregates the counters of every cached user from the database and replaces any that have drifted.
+     * <p>
+     * Runs every {@code app.watch-summary-cache.reconcile-interval-ms} milliseconds (five minutes by default).
+     * Users whose counters were changed or evicted while being re-aggregated are skipped until the next run.
+     * </p>
+     */
+    @Scheduled(
+        initialDelayString = "${app.watch-summary-cache.reconcile-interval-ms:300000}",
+        fixedDelayString = "${app.watch-summary-cache.reconcile-interval-ms:300000}")
+    public void reconcileSummaries() {
+        int drifted = 0;
+        for (int userId : summaryCache.userIds()) {
+            try {
+                long generation = summaryCache.generation();
+                if (summaryCache.replace(userId, userWatchHistoryDao.getWatchHistoryStats(userId), generation)) {
+                    drifted++;
+                }
+            } catch (SQLException ex) {
+                log.warn("Unable to reconcile watch history summaries; will retry on the next run", ex);
+                return;
+            }
+        }
+        if (drifted > 0) {
+            log.info("Corrected {} drifted watch history summaries", drifted);
+        }
+    }
+
+    /**
+     * Adjusts the cached summary of a user after entries were added.
+     *
+     * @param userId the ID of the user
+     * @param added the added entries; if any has no status, the cached summary is dropped instead
+     */
+    private void recordAdded(int userId, List<UserWatchHistoryRequest> added) {
+        WatchHistoryStats delta = new WatchHistoryStats();
+        for (UserWatchHistoryRequest request : added) {
+            if (request.getStatus() == null) {
+                evictSummary(userId);
+                return;
+            }
+            delta.addEntry(request.getStatus(),
+                request.getEpisodesWatched() != null ? request.getEpisodesWatched() : 0, request.getRating());
+        }
+        TransactionUtil.afterCommit(() -> summaryCache.recordChange(userId, delta));
+    }
+
+    /**
+     * Adjusts the cached summary of a user after one entry was updated or deleted, uncounting the values the
+     * write replaced and counting the new ones.
+     *
+     * @param userId the ID of the user
+     * @param before the entry as it was before the write; a {@code null} status means its previous values are
+     *               unknown (an upsert, which may also have created it), so the cached summary is dropped instead
+     * @param status the entry's status after the write, or {@code null} if it was deleted
+     * @param episodesWatched the entry's episode count after the write
+     * @param rating the entry's rating after the write, or {@code null} if unrated
+     */
+    private void recordReplaced(int userId, UserWatchHistory before, WatchStatus status, int episodesWatched, Integer rating) {
+        if (before.getStatus() == null) {
+            evictSummary(userId);
+            return;
+        }
+        WatchHistoryStats delta = new WatchHistoryStats();
+        delta.removeEntry(before.getStatus(), before.getEpisodesWatched(), before.getRating());
+        if (status != null) {
+            delta.addEntry(status, episodesWatched, rating);
+        }
+        TransactionUtil.afterCommit(() -> summaryCache.recordChange(userId, delta));
+    }
+
+    /**
+     * Drops the cached summary of a user once the current write commits.
+     *
+     * @param userId the ID of the user
+     */
+    private void evictSummary(int userId) {
+        TransactionUtil.afterCommit(() -> summaryCache.evict(userId));
+    }
+
+    /**
+     * Checks whether a bulk import item carries the fields needed to insert it.
+     *
+     * @param request the item to check
+     * @return {@code true} if the item is non-null, has a positive show ID and a status, and has valid progress fields
+     */
+    private static boolean isValidBatchItem(UserWatchHistoryRequest request) {
+        return request != null && request.getShowId() > 0 && request.getStatus() != null
+            && (request.getEpisodesWatched() == null || request.getEpisodesWatched() >= 0)
+            && (request.getRating() == null || isValidRating(request.getRating()));
+    }
+
+    /**
+     * Validates optional progress fields before they reach the database's constraints.
+     *
+     * @param episodesWatched the number of episodes watched, or {@code null} if not given
+     * @param rating the rating, or {@code null} if not given
+     * @throws IllegalArgumentException if the episode count is negative or the rating is not between 1 and 5
+     */
+    private static void validateProgress(Integer episodesWatched, Integer rating) throws IllegalArgumentException {
+        if (episodesWatched != null && episodesWatched < 0) {
+            throw new IllegalArgumentException("Episodes watched cannot be negative");
+        }
+        if (rating != null && !isValidRating(rating)) {
+            throw new IllegalArgumentException("Rating must be between 1 and 5");
+        }
+    }
+
+    /**
+     * Checks whether a rating is within the range accepted by {@code user_watch_history}.
+     *
+     * @param rating the rating to check
+     * @return {@code true} if the rating is between 1 and 5
+     */
+    private static boolean isValidRating(int rating) {
+        return rating >= 1 && rating <= 5;
+    }
+
+    /**
+     * Validates a user ID taken from the authenticated principal.
+     *
+     * @param userId the user ID to validate
+     * @throws IllegalArgumentException if the user ID is less than or equal to 0
+     */
+    private static void validateUserId(int userId) throws IllegalArgumentException {
+        if (userId <= 0) {
+            throw new IllegalArgumentException("User ID must be greater than 0");
+        }
+    }
+
     /**
      * Validates the provided username and checks if the user exists.
      *
      * @param username the username to validate
+     * @return the ID of the user
      * @throws IllegalArgumentException if the username is null or empty
      * @throws UserNotFoundException if the user does not exist in the system
      */
-    private void validateUsername(String username) throws IllegalArgumentException, UserNotFoundException {
+    private int validateUsername(String username) throws IllegalArgumentException, UserNotFoundException {
         if (username == null || username.trim().isEmpty()) {
             throw new IllegalArgumentException("Username cannot be null or empty");
         }
 
-        if (userService.findByUsername(username).isEmpty()) {
-            throw new UserNotFoundException("User with username " + username + " does not exist");
-        }
+        return userService.findByUsername(username)
+            .orElseThrow(() -> new UserNotFoundException("User with username " + username + " does not exist"))
+            .getUserId();
     }
 } 
@@ -0,0 +1,325 @@
+package com.jmill29.tvtrackerapi.service;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.jmill29.tvtrackerapi.cache.WatchSummaryCache;
+import com.jmill29.tvtrackerapi.dao.UserWatchHistoryDao;
+import com.jmill29.tvtrackerapi.model.EpisodeProgress;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind buffer for episode progress updates.
+ * <p>
+ * When {@code app.watch-history.write-behind.enabled} is set, progress-only updates are recorded here instead of
+ * being written straight away. Updates are coalesced per user-show pair, so a player reporting progress every few
+ * seconds costs one row per flush rather than one UPDATE per report. Pending updates are written with
+ * {@link UserWatchHistoryDao#updateEpisodesWatched(List)} in batches of {@code flush-size} entries every
+ * {@code flush-interval-ms} milliseconds, as soon as {@code flush-size} pairs are pending, and on shutdown.
+ * A flush triggered by reaching {@code flush-size} runs on the task scheduler, never on the reporting thread.
+ * </p>
+ * <p>
+ * A crash loses every pair still pending. While flushes succeed that is at most the last {@code flush-interval-ms}
+ * of progress; while they fail, a failed flush puts its entries back unless a newer count has arrived, and they
+ * are retried on the next flush, so everything reported since the last successful flush is at risk. Either way
+ * the loss is capped at {@code max-pending} pairs: once that many are waiting, further pairs are refused and the
+ * caller writes them synchronously. Buffered updates are not visible to reads, nor do they change watch history
+ * ETags, until they are flushed, and an update for an entry deleted in the meantime is dropped when flushed.
+ * </p>
+ */
+@Component
+public class WatchProgressBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(WatchProgressBuffer.class);
+
+    private final UserWatchHistoryDao userWatchHistoryDao;
+    private final WatchSummaryCache summaryCache;
+    private final Executor flushExecutor;
+    private final boolean enabled;
+    private final int flushSize;
+    private final int maxPending;
+
+    /**
+     * Latest episode count per user-show pair, keyed by {@link #key(int, int)}. The map locks per bin, so
+     * concurrent reports for different pairs do not contend.
+     */
+    private final Map<Long, Integer> pending = new ConcurrentHashMap<>();
+
+    /** Serializes flushes, so an older count is never written after a newer one for the same pair. */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /** Set while a flush handed to {@code flushExecutor} has not started, so a burst of reports queues only one */
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder refused = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+
+
+    /**
+     * Constructs a {@code WatchProgressBuffer}.
+     *
+     * @param userWatchHistoryDao the DAO that writes flushed progress
+     * @param summaryCache the cache of per-user counters, evicted for every user whose progress is flushed
+     * @param flushExecutor runs the flushes triggered by reaching {@code flushSize}
+     * @param enabled whether progress updates are buffered at all
+     * @param flushSize the number of pending pairs that triggers a flush, and the size of each flushed batch
+     * @param maxPending the number of pending pairs beyond which updates for new pairs are refused
+     */
+    @Autowired
+    public WatchProgressBuffer(
+            UserWatchHistoryDao userWatchHistoryDao,
+            WatchSummaryCache summaryCache,
+            @Qualifier("taskScheduler") Executor flushExecutor,
+            @Value("${app.watch-history.write-behind.enabled:false}") boolean enabled,
+            @Value("${app.watch-history.write-behind.flush-size:500}") int flushSize,
+            @Value("${app.watch-history.write-behind.max-pending:10000}") int maxPending) {
+        if (flushSize <= 0) {
+            throw new IllegalArgumentException("Write-behind flush size must be greater than 0");
+        }
+        if (maxPending < flushSize) {
+            throw new IllegalArgumentException("Write-behind max pending must be at least the flush size");
+        }
+        this.userWatchHistoryDao = userWatchHistoryDao;
+        this.summaryCache = summaryCache;
+        this.flushExecutor = flushExecutor;
+        this.enabled = enabled;
+        this.flushSize = flushSize;
+        this.maxPending = maxPending;
+    }
+
+
+    /** @return {@code true} if progress updates are buffered */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records the number of episodes a user has watched of a show, replacing any count still pending for them.
+     * <p>
+     * If this update makes {@code flush-size} pairs pending, a flush is handed to the flush executor unless one is
+     * already waiting there; the calling thread never writes to the database.
+     * </p>
+     *
+     * @param userId the ID of the user
+     * @param showId the ID of the show
+     * @param episodesWatched the number of episodes watched
+     * @return {@code true} if the update was buffered; {@code false} if buffering is disabled or full and the
+     *         caller must write the update itself
+     */
+    public boolean offer(int userId, int showId, int episodesWatched) {
+        if (!enabled) {
+            return false;
+        }
+        long key = key(userId, showId);
+        // The bound is approximate under concurrency, which is fine for a memory and durability limit
+        if (pending.size() >= maxPending && !pending.containsKey(key)) {
+            refused.increment();
+            return false;
+        }
+        if (pending.put(key, episodesWatched) != null) {
+            coalesced.increment();
+        } else if (pending.size() >= flushSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                flushExecutor.execute(this::runRequestedFlush);
+            } catch (RejectedExecutionException ex) {
+                // The periodic flush still picks the counts up
+                flushRequested.set(false);
+                log.warn("Unable to schedule an episode progress flush; it will run with the next periodic flush", ex);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Runs a flush requested by {@link #offer(int, int, int)}, allowing the next request as soon as it starts.
+     */
+    private void runRequestedFlush() {
+        flushRequested.set(false);
+        flush();
+    }
+
+    /**
+     * Drops the pending count for a user-show pair, before the caller writes the entry synchronously.
+     * <p>
+     * Waits for a running flush to finish, so that a count taken by that flush cannot overwrite the caller's
+     * newer write.
+     * </p>
+     *
+     * @param userId the ID of the user
+     * @param showId the ID of the show
+     */
+    public void discard(int userId, int showId) {
+        if (!enabled) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            pending.remove(key(userId, showId));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes every pending count to the database.
+     * <p>
+     * Runs every {@code app.watch-history.write-behind.flush-interval-ms} milliseconds (one second by default).
+     * </p>
+     */
+    @Scheduled(
+        initialDelayString = "${app.watch-history.write-behind.flush-interval-ms:1000}",
+        fixedDelayString = "${app.watch-history.write-behind.flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes pending counts when the application shuts down, before the data source is closed.
+     */
+    @PreDestroy
+    public void close() {
+        flush();
+        if (!pending.isEmpty()) {
+            log.error("Discarding {} episode progress updates that could not be written at shutdown", pending.size());
+        }
+    }
+
+    /**
+     * Writes pending counts in batches of {@code flushSize} until none are left or a batch fails.
+     * Must be called with {@code flushLock} held.
+     */
+    private void drain() {
+        long start = System.nanoTime();
+        try {
+            Iterator<Long> keys = pending.keySet().iterator();
+            while (keys.hasNext()) {
+                List<EpisodeProgress> batch = new ArrayList<>(flushSize);
+                while (keys.hasNext() && batch.size() < flushSize) {
+                    long key = keys.next();
+                    // remove() returns the latest count, so a report that raced with the iterator is not lost
+                    Integer episodesWatched = pending.remove(key);
+                    if (episodesWatched != null) {
+                        batch.add(new EpisodeProgress(userId(key), showId(key), episodesWatched));
+                    }
+                }
+                if (!writeBatch(batch)) {
+                    return;
+                }
+            }
+        } finally {
+            flushes.increment();
+            flushNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Writes one batch, putting it back on failure.
+     *
+     * @param batch the counts to write
+     * @return {@code true} if the batch was written
+     */
+    private boolean writeBatch(List<EpisodeProgress> batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        try {
+            userWatchHistoryDao.updateEpisodesWatched(batch);
+        } catch (SQLException ex) {
+            failedFlushes.increment();
+            for (EpisodeProgress entry : batch) {
+                // A newer count that arrived during the flush wins over the one being retried
+                pending.putIfAbsent(key(entry.getUserId(), entry.getShowId()), entry.getEpisodesWatched());
+            }
+            log.warn("Unable to flush {} episode progress updates; will retry on the next flush", batch.size(), ex);
+            return false;
+        }
+
+        flushed.add(batch.size());
+        // Episode totals changed behind the summary cache's back
+        Set<Integer> userIds = new LinkedHashSet<>();
+        for (EpisodeProgress entry : batch) {
+            userIds.add(entry.getUserId());
+        }
+        userIds.forEach(summaryCache::evict);
+        return true;
+    }
+
+    private static long key(int userId, int showId) {
+        return ((long) userId << 32) | (showId & 0xFFFFFFFFL);
+    }
+
+    private static int userId(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int showId(long key) {
+        return (int) key;
+    }
+
+    /** @return the number of user-show pairs waiting to be flushed */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /** @return the number of updates that replaced a count still pending for the same pair */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /** @return the number of updates refused because {@code max-pending} pairs were already waiting */
+    public long getRefusedCount() {
+        return refused.sum();
+    }
+
+    /** @return the number of counts written to the database */
+    public long getFlushedCount() {
+        return flushed.sum();
+    }
+
+    /** @return the number of batches that failed and were put back */
+    public long getFailedFlushCount() {
+        return failedFlushes.sum();
+    }
+
+    /** @return the number of flushes run */
+    public long getFlushCount() {
+        return flushes.sum();
+    }
+
+    /** @return the total time spent flushing, in nanoseconds */
+    public long getFlushTimeNanos() {
+        return flushNanos.sum();
+    }
+}
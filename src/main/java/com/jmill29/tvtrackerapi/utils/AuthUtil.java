@@ -2,7 +2,7 @@
 /**
  * Utility class for authentication-related helper methods.
  * <p>
- * Provides static methods for extracting user credentials from HTTP Basic Authorization headers.
+ * Provides static methods for extracting user credentials from HTTP Basic and Bearer Authorization headers.
  * This class is not intended to be instantiated.
  */
 package com.jmill29.tvtrackerapi.utils;
@@ -10,6 +10,8 @@ package com.jmill29.tvtrackerapi.utils;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 
+import com.jmill29.tvtrackerapi.security.TokenService;
+
 
 /**
  * Utility methods for extracting authentication information from HTTP headers.
@@ -18,15 +20,20 @@ public class AuthUtil {
 
 
     /**
-     * Extracts the username from a Basic Authorization header value.
+     * Extracts the username from a Basic or Bearer Authorization header value.
      * <p>
-     * The header must be in the format {@code "Basic base64(username:password)"}.
+     * The header must be in the format {@code "Basic base64(username:password)"} or
+     * {@code "Bearer <token>"}. Bearer tokens are not re-verified here; they have already
+     * been checked by the token filter before the request reached a controller.
      *
      * @param authHeader the value of the HTTP Authorization header
      * @return the username extracted from the header
      * @throws IllegalArgumentException if the header is missing, invalid, or not in the expected format
      */
     public static String extractUsernameFromAuthHeader(String authHeader) throws IllegalArgumentException {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return TokenService.peekSubject(authHeader.substring("Bearer ".length()).trim());
+        }
         if (authHeader == null || !authHeader.startsWith("Basic ")) {
             throw new IllegalArgumentException("Missing or Invalid Authorization header");
         }
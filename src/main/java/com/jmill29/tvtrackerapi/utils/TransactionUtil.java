@@ -0,0 +1,67 @@
+package com.jmill29.tvtrackerapi.utils;
+
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+
+/**
+ * Utility methods for tying in-memory side effects to the outcome of the current transaction.
+ */
+public class TransactionUtil {
+
+
+    /**
+     * Runs an action once the current transaction commits, or immediately if there is no transaction.
+     * <p>
+     * Used for caches and version counters that must not change before the rows they describe are visible to
+     * other connections, and must not change at all if the transaction rolls back.
+     * </p>
+     *
+     * @param action the action to run
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Runs an action once the current transaction has committed or rolled back, or immediately if there is no
+     * transaction. The action runs on the thread that ends the transaction.
+     * <p>
+     * Used to hold a lock for as long as the writes made under it are uncommitted.
+     * </p>
+     *
+     * @param action the action to run
+     */
+    public static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Marks the current {@code @Transactional} method's transaction for rollback without throwing, for writes
+     * that report failure through their return value. Does nothing if there is no transaction.
+     */
+    public static void setRollbackOnly() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        }
+    }
+}
@@ -3,6 +3,8 @@ USE tv_show_tracker;
 
 
 -- Drop tables if they already exist (for reset convenience)
+-- The migration history goes too: on the next start Flyway baselines this schema at V1 and applies V2 onwards
+DROP TABLE IF EXISTS flyway_schema_history;
 DROP TABLE IF EXISTS user_watch_history;
 DROP TABLE IF EXISTS show_genres;
 DROP TABLE IF EXISTS authorities;
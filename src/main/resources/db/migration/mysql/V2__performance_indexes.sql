@@ -0,0 +1,17 @@
+-- Secondary indexes for the DAO lookups that had none. Keep in step with the H2 copy under src/test/resources.
+
+-- Genre filters and GenreIndex look show_genres up by genre. InnoDB drops the index it created implicitly for
+-- the genre_id foreign key once this one exists.
+CREATE INDEX idx_show_genres_genre ON show_genres (genre_id, show_id);
+
+-- Deleting a show cascades to user_watch_history by show_id
+CREATE INDEX idx_user_watch_history_show ON user_watch_history (show_id);
+
+-- Case-insensitive duplicate check on insert (ShowDaoImpl.alreadyExists). A generated column rather than a
+-- functional index so the same query can use it on H2.
+ALTER TABLE tv_shows ADD COLUMN show_name_lower VARCHAR(255) GENERATED ALWAYS AS (LOWER(show_name)) VIRTUAL;
+CREATE INDEX idx_tv_shows_name_lower_year ON tv_shows (show_name_lower, release_year);
+
+-- Case-insensitive genre name resolution when saving a show with genres
+ALTER TABLE genres ADD COLUMN name_lower VARCHAR(100) GENERATED ALWAYS AS (LOWER(name)) VIRTUAL;
+CREATE INDEX idx_genres_name_lower ON genres (name_lower);
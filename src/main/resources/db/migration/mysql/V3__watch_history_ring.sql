@@ -0,0 +1,15 @@
+-- Layout of the watch history shards (see WatchHistoryShards). Keep in step with the H2 copy under src/test/resources.
+
+-- The ring in force and, while resharding, the ring being moved to, as comma-separated shard names. One row,
+-- written at the first startup and by every resharding.
+CREATE TABLE watch_history_ring (
+    ring_id TINYINT PRIMARY KEY,
+    members VARCHAR(1000) NOT NULL,
+    target_members VARCHAR(1000) DEFAULT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+-- Users already moved to the target ring by a resharding in progress; emptied when it finishes
+CREATE TABLE watch_history_moved_users (
+    user_id INT PRIMARY KEY
+);
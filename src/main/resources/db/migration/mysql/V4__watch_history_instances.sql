@@ -0,0 +1,8 @@
+-- Running application instances (see WatchHistoryShards). Keep in step with the H2 copy under src/test/resources.
+
+-- One row per instance, refreshed by its heartbeat and deleted at shutdown. Resharding refuses to start while any
+-- other instance has a recent heartbeat, since that instance would keep routing users by its own copy of the ring.
+CREATE TABLE watch_history_instances (
+    instance_id VARCHAR(64) PRIMARY KEY,
+    heartbeat_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,17 @@
+-- Schema of a watch history shard (see WatchHistoryShards). Keep in step with the H2 copy under src/test/resources.
+-- Same columns and keys as user_watch_history on the primary, but without foreign keys: users and tv_shows live
+-- on the primary, so the DAO checks them there before writing and deletes the rows of deleted shows and users.
+
+CREATE TABLE user_watch_history (
+    user_id INT NOT NULL,
+    show_id INT NOT NULL,
+    status ENUM('Not Watched', 'Want to Watch', 'Currently Watching', 'Already Watched') NOT NULL,
+    episodes_watched INT DEFAULT 0,
+    rating INT DEFAULT NULL CHECK (rating IS NULL OR rating BETWEEN 1 AND 5),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    favorite BOOLEAN NOT NULL DEFAULT FALSE,
+    PRIMARY KEY (user_id, show_id)
+);
+
+-- Removing a deleted show's rows looks them up by show_id
+CREATE INDEX idx_user_watch_history_show ON user_watch_history (show_id);
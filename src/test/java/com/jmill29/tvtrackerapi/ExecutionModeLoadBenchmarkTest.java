@@ -0,0 +1,204 @@
+package com.jmill29.tvtrackerapi;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.jmill29.tvtrackerapi.security.AuthenticatedUser;
+import com.jmill29.tvtrackerapi.security.TokenService;
+
+/**
+ * Compares request throughput on Tomcat's platform thread pool with the virtual-thread execution mode.
+ * <p>
+ * The application is started twice against an in-memory H2 database. Every JDBC statement is delayed by
+ * {@value #STATEMENT_LATENCY_MILLIS} ms to stand in for a MySQL round trip, and {@value #CLIENTS} concurrent
+ * clients call {@code GET /api/watch-history} (two statements per request) with a bearer token. Both runs
+ * use the same {@value #POOL_SIZE}-connection pool, so the difference comes from the request threads alone.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ * </p>
+ */
+@Tag("benchmark")
+@DisplayName("Platform vs virtual thread load benchmark")
+class ExecutionModeLoadBenchmarkTest {
+
+    private static final int STATEMENT_LATENCY_MILLIS = 10;
+    private static final int POOL_SIZE = 400;
+    private static final int CLIENTS = 1_000;
+    private static final int REQUESTS = 10_000;
+    private static final int WARMUP_REQUESTS = 1_000;
+
+    @Test
+    @DisplayName("virtual threads vs the 200-thread platform pool")
+    void platformVersusVirtualThreads() throws Exception {
+        double platform = run(false);
+        double virtual = run(true);
+
+        System.out.printf("[benchmark] %d clients, %d ms per statement: platform threads %.0f req/s, "
+            + "virtual threads %.0f req/s (%.1fx)%n",
+            CLIENTS, STATEMENT_LATENCY_MILLIS, platform, virtual, virtual / platform);
+    }
+
+    /**
+     * Starts the application in one execution mode and measures its throughput.
+     *
+     * @param virtualThreads whether to enable the virtual-thread execution mode
+     * @return completed requests per second
+     */
+    private double run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                TvtrackerapiApplication.class, LatencyConfig.class)
+                .properties(
+                    "server.port=0",
+                    "spring.threads.virtual.enabled=" + virtualThreads,
+                    "server.tomcat.threads.max=200",
+                    "spring.datasource.url=jdbc:h2:mem:load" + virtualThreads + ";DB_CLOSE_DELAY=-1",
+                    "spring.datasource.username=sa",
+                    "spring.datasource.password=",
+                    "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                    "spring.datasource.hikari.minimum-idle=" + POOL_SIZE,
+                    "spring.devtools.restart.enabled=false",
+                    "logging.level.root=WARN")
+                .run()) {
+            seed(context.getBean(DataSource.class));
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/api/watch-history");
+            String token = issueToken(context.getBean(TokenService.class));
+
+            try (HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build()) {
+                HttpRequest request = HttpRequest.newBuilder(uri).header("Authorization", "Bearer " + token).GET().build();
+                fire(client, request, WARMUP_REQUESTS);
+
+                long start = System.nanoTime();
+                fire(client, request, REQUESTS);
+                return REQUESTS / ((System.nanoTime() - start) / 1e9);
+            }
+        }
+    }
+
+    /**
+     * Sends {@code total} requests with at most {@value #CLIENTS} in flight and checks every one succeeded.
+     */
+    private static void fire(HttpClient client, HttpRequest request, int total) throws Exception {
+        Semaphore inFlight = new Semaphore(CLIENTS);
+        AtomicInteger ok = new AtomicInteger();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(total);
+            for (int i = 0; i < total; i++) {
+                inFlight.acquire();
+                futures.add(clients.submit(() -> {
+                    try {
+                        if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                            ok.incrementAndGet();
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        assertEquals(total, ok.get());
+    }
+
+    private static void seed(DataSource dataSource) throws Exception {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO users (user_id, name, username, password, email, enabled) VALUES (1, 'Load User', 'load', 'pass', 'load@example.com', TRUE)");
+            stmt.execute("INSERT INTO tv_shows (show_id, show_name, description, image_url, num_episodes, release_year) VALUES (1, 'Load Show', 'desc', 'img.jpg', 10, 2020)");
+            stmt.execute("INSERT INTO user_watch_history (user_id, show_id, status) VALUES (1, 1, 'Want to Watch')");
+        }
+    }
+
+    private static String issueToken(TokenService tokenService) {
+        List<SimpleGrantedAuthority> roles = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        return tokenService.issueToken(UsernamePasswordAuthenticationToken.authenticated(
+            new AuthenticatedUser(1, "load", "", roles), null, roles));
+    }
+
+
+    /**
+     * Delays every statement execution to simulate the network round trip to a remote database.
+     */
+    @Configuration(proxyBeanMethods = false)
+    static class LatencyConfig {
+
+        @Bean
+        static BeanPostProcessor latencyInjectingPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new LatencyDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    private static final class LatencyDataSource extends DelegatingDataSource {
+
+        private LatencyDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement) {
+                        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {method.getReturnType()},
+                            (statementProxy, statementMethod, statementArgs) -> {
+                                if (statementMethod.getName().startsWith("execute")) {
+                                    Thread.sleep(STATEMENT_LATENCY_MILLIS);
+                                }
+                                return invoke(statement, statementMethod, statementArgs);
+                            });
+                    }
+                    return result;
+                });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.jmill29.tvtrackerapi.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("DataVersions Test")
+class DataVersionsTest {
+
+    @Test
+    @DisplayName("a catalogue write changes the catalogue tag and every user's watch history tag")
+    void catalogueChanged_changesAllTags() {
+        DataVersions versions = new DataVersions(8);
+        String catalogue = versions.catalogueETag();
+        String history = versions.watchHistoryETag(1);
+
+        versions.catalogueChanged();
+        assertEquals(1, versions.getCatalogueVersion());
+        assertNotEquals(catalogue, versions.catalogueETag());
+        assertNotEquals(history, versions.watchHistoryETag(1));
+    }
+
+    @Test
+    @DisplayName("a user write changes that user's tag but not the catalogue tag or other slots")
+    void userChanged_changesOnlyThatSlot() {
+        DataVersions versions = new DataVersions(8);
+        String catalogue = versions.catalogueETag();
+        String other = versions.watchHistoryETag(2);
+        String history = versions.watchHistoryETag(1);
+
+        versions.userChanged(1);
+        assertNotEquals(history, versions.watchHistoryETag(1));
+        assertEquals(other, versions.watchHistoryETag(2));
+        assertEquals(catalogue, versions.catalogueETag());
+    }
+
+    @Test
+    @DisplayName("users sharing a slot share a version but never a tag")
+    void sharedSlot_distinctTags() {
+        DataVersions versions = new DataVersions(8);
+        versions.userChanged(1);
+        assertEquals(1, versions.getUserVersion(9));
+        assertNotEquals(versions.watchHistoryETag(1), versions.watchHistoryETag(9));
+        // Negative IDs still map to a valid slot
+        versions.userChanged(-1);
+        assertEquals(1, versions.getUserVersion(7));
+    }
+
+    @Test
+    @DisplayName("constructor rejects a non-positive slot count")
+    void rejectsInvalidSlots() {
+        assertThrows(IllegalArgumentException.class, () -> new DataVersions(0));
+    }
+}
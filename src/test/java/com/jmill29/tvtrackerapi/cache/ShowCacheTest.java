@@ -0,0 +1,112 @@
+package com.jmill29.tvtrackerapi.cache;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.jmill29.tvtrackerapi.event.ShowChangedEvent;
+import com.jmill29.tvtrackerapi.model.Show;
+
+@DisplayName("ShowCache Test")
+class ShowCacheTest {
+
+    private static Show show(int id) {
+        return new Show(id, "Show " + id, "desc", "img", 1, (short)2020, null);
+    }
+
+    @Test
+    @DisplayName("put and get round-trip and are counted as hits and misses")
+    void putAndGet() {
+        ShowCache cache = new ShowCache(10);
+        assertNull(cache.get(1));
+        Show show = show(1);
+        cache.put(show, cache.generation());
+        assertSame(show, cache.get(1));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    @DisplayName("putAll keeps a sorted snapshot and serves lookups from it")
+    void putAllKeepsSortedSnapshot() {
+        ShowCache cache = new ShowCache(10);
+        cache.putAll(List.of(show(3), show(1), show(2)), cache.generation());
+        List<Show> all = cache.getAll();
+        assertEquals(List.of(1, 2, 3), all.stream().map(Show::getId).toList());
+        assertEquals(2, cache.get(2).getId());
+    }
+
+    @Test
+    @DisplayName("getPage returns shows after the cursor")
+    void getPageUsesKeysetSemantics() {
+        ShowCache cache = new ShowCache(10);
+        assertNull(cache.getPage(0, 2));
+        cache.putAll(List.of(show(1), show(4), show(7), show(9)), cache.generation());
+        assertEquals(List.of(1, 4), cache.getPage(0, 2).stream().map(Show::getId).toList());
+        assertEquals(List.of(7, 9), cache.getPage(5, 5).stream().map(Show::getId).toList());
+        assertTrue(cache.getPage(9, 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("no snapshot is kept when the catalogue exceeds the cache size")
+    void oversizedCatalogueIsNotSnapshotted() {
+        ShowCache cache = new ShowCache(2);
+        cache.putAll(List.of(show(1), show(2), show(3)), cache.generation());
+        assertNull(cache.getAll());
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("least recently used show is evicted when full")
+    void evictsLeastRecentlyUsed() {
+        ShowCache cache = new ShowCache(2);
+        cache.put(show(1), cache.generation());
+        cache.put(show(2), cache.generation());
+        cache.get(1);
+        cache.put(show(3), cache.generation());
+        assertEquals(1, cache.get(1).getId());
+        assertNull(cache.get(2));
+    }
+
+    @Test
+    @DisplayName("ShowChangedEvent evicts the show and the snapshot")
+    void changeEventInvalidates() {
+        ShowCache cache = new ShowCache(10);
+        cache.putAll(List.of(show(1), show(2)), cache.generation());
+        cache.onShowChanged(new ShowChangedEvent(1));
+        assertNull(cache.getAll());
+        assertNull(cache.get(1));
+        assertEquals(2, cache.get(2).getId());
+
+        cache.putAll(List.of(show(1), show(2)), cache.generation());
+        cache.onShowChanged(new ShowChangedEvent(0));
+        assertNull(cache.getAll());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("results loaded before an invalidation are not cached")
+    void staleLoadIsDropped() {
+        ShowCache cache = new ShowCache(10);
+        long generation = cache.generation();
+        cache.evict(1);
+        cache.put(show(1), generation);
+        cache.putAll(List.of(show(2)), generation);
+        assertEquals(0, cache.size());
+        assertNull(cache.getAll());
+    }
+
+    @Test
+    @DisplayName("constructor rejects a non-positive size")
+    void rejectsInvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> new ShowCache(0));
+    }
+}
@@ -0,0 +1,139 @@
+package com.jmill29.tvtrackerapi.cache;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.jmill29.tvtrackerapi.enums.WatchStatus;
+import com.jmill29.tvtrackerapi.event.ShowChangedEvent;
+import com.jmill29.tvtrackerapi.event.UserChangedEvent;
+import com.jmill29.tvtrackerapi.model.WatchHistoryStats;
+
+@DisplayName("WatchSummaryCache Test")
+class WatchSummaryCacheTest {
+
+    private static WatchHistoryStats stats(long wantToWatch) {
+        WatchHistoryStats stats = new WatchHistoryStats();
+        stats.addCount(WatchStatus.WANT_TO_WATCH, wantToWatch);
+        return stats;
+    }
+
+    @Test
+    @DisplayName("put and get round-trip copies and are counted as hits and misses")
+    void putAndGet() {
+        WatchSummaryCache cache = new WatchSummaryCache(10);
+        assertNull(cache.get(1));
+        cache.put(1, stats(2), cache.generation());
+
+        WatchHistoryStats cached = cache.get(1);
+        assertEquals(stats(2), cached);
+        cached.addCount(WatchStatus.WANT_TO_WATCH, 5);
+        assertEquals(stats(2), cache.get(1));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    @DisplayName("recordChange adjusts cached counters and ignores users that are not cached")
+    void recordChangeAdjustsCounters() {
+        WatchSummaryCache cache = new WatchSummaryCache(10);
+        cache.put(1, stats(1), cache.generation());
+        WatchHistoryStats added = stats(2);
+        added.addEntry(WatchStatus.ALREADY_WATCHED, 10, 4);
+        cache.recordChange(1, added);
+        cache.recordChange(2, stats(1));
+
+        WatchHistoryStats cached = cache.get(1);
+        assertEquals(3, cached.getCount(WatchStatus.WANT_TO_WATCH));
+        assertEquals(1, cached.getCount(WatchStatus.ALREADY_WATCHED));
+        assertEquals(4, cached.getTotalCount());
+        assertEquals(10, cached.getTotalEpisodesWatched());
+        assertEquals(4.0, cached.getAverageRating());
+        assertNull(cache.get(2));
+    }
+
+    @Test
+    @DisplayName("recordChange moves a replaced entry between statuses and uncounts a deleted one")
+    void recordChangeReplacesAndDeletes() {
+        WatchSummaryCache cache = new WatchSummaryCache(10);
+        WatchHistoryStats loaded = new WatchHistoryStats();
+        loaded.addEntry(WatchStatus.CURRENTLY_WATCHING, 4, 6);
+        loaded.addEntry(WatchStatus.WANT_TO_WATCH, 0, null);
+        cache.put(1, loaded, cache.generation());
+
+        WatchHistoryStats replaced = new WatchHistoryStats();
+        replaced.removeEntry(WatchStatus.CURRENTLY_WATCHING, 4, 6);
+        replaced.addEntry(WatchStatus.ALREADY_WATCHED, 10, 8);
+        cache.recordChange(1, replaced);
+        WatchHistoryStats deleted = new WatchHistoryStats();
+        deleted.removeEntry(WatchStatus.WANT_TO_WATCH, 0, null);
+        cache.recordChange(1, deleted);
+
+        WatchHistoryStats expected = new WatchHistoryStats();
+        expected.addEntry(WatchStatus.ALREADY_WATCHED, 10, 8);
+        assertEquals(expected, cache.get(1));
+    }
+
+    @Test
+    @DisplayName("counters loaded before a write are not cached")
+    void staleLoadIsDropped() {
+        WatchSummaryCache cache = new WatchSummaryCache(10);
+        long generation = cache.generation();
+        cache.recordChange(1, stats(1));
+        cache.put(1, stats(0), generation);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("replace only updates users that are still cached and have drifted")
+    void replaceCorrectsDrift() {
+        WatchSummaryCache cache = new WatchSummaryCache(10);
+        cache.put(1, stats(1), cache.generation());
+        assertFalse(cache.replace(1, stats(1), cache.generation()));
+        assertTrue(cache.replace(1, stats(3), cache.generation()));
+        assertEquals(stats(3), cache.get(1));
+        assertFalse(cache.replace(2, stats(3), cache.generation()));
+        assertEquals(List.of(1), cache.userIds());
+    }
+
+    @Test
+    @DisplayName("the least recently used user is evicted once the cache is full")
+    void evictsLeastRecentlyUsed() {
+        WatchSummaryCache cache = new WatchSummaryCache(2);
+        cache.put(1, stats(1), cache.generation());
+        cache.put(2, stats(2), cache.generation());
+        cache.get(1);
+        cache.put(3, stats(3), cache.generation());
+        assertEquals(stats(1), cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("user changes and show deletes invalidate counters")
+    void changeEventsInvalidate() {
+        WatchSummaryCache cache = new WatchSummaryCache(10);
+        cache.put(1, stats(1), cache.generation());
+        cache.put(2, stats(2), cache.generation());
+        cache.onUserChanged(new UserChangedEvent(1, "one"));
+        assertNull(cache.get(1));
+        assertEquals(stats(2), cache.get(2));
+
+        cache.onShowChanged(new ShowChangedEvent(5));
+        assertEquals(stats(2), cache.get(2));
+        cache.onShowChanged(new ShowChangedEvent(5, true));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("constructor rejects a non-positive size")
+    void rejectsInvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> new WatchSummaryCache(0));
+    }
+}
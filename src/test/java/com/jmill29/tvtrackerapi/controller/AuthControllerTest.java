@@ -10,9 +10,17 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
+import static org.mockito.ArgumentMatchers.any;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 
+import com.jmill29.tvtrackerapi.dto.TokenRequest;
+import com.jmill29.tvtrackerapi.dto.TokenResponse;
 import com.jmill29.tvtrackerapi.dto.UserRequest;
+import com.jmill29.tvtrackerapi.security.TokenService;
 import com.jmill29.tvtrackerapi.service.UserService;
 
 @DisplayName("AuthController Test")
@@ -20,6 +28,12 @@ class AuthControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private TokenService tokenService;
+
     @InjectMocks
     private AuthController authController;
 
@@ -53,4 +67,25 @@ class AuthControllerTest {
         doThrow(new IllegalArgumentException("Invalid input")).when(userService).registerUser(null);
         assertThrows(IllegalArgumentException.class, () -> authController.registerUser(req));
     }
+
+    @Test
+    @DisplayName("issueToken returns a bearer token when credentials are valid")
+    void issueToken_success() {
+        Authentication auth = UsernamePasswordAuthenticationToken.authenticated("username", null, java.util.List.of());
+        when(authenticationManager.authenticate(any(Authentication.class))).thenReturn(auth);
+        when(tokenService.issueToken(auth)).thenReturn("abc.def.ghi");
+        when(tokenService.getTtlSeconds()).thenReturn(3600L);
+        ResponseEntity<TokenResponse> response = authController.issueToken(new TokenRequest("username", "password"));
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("abc.def.ghi", response.getBody().getAccessToken());
+        assertEquals("Bearer", response.getBody().getTokenType());
+        assertEquals(3600L, response.getBody().getExpiresIn());
+    }
+
+    @Test
+    @DisplayName("issueToken propagates exception if credentials are invalid")
+    void issueToken_badCredentials() {
+        when(authenticationManager.authenticate(any(Authentication.class))).thenThrow(new BadCredentialsException("Bad credentials"));
+        assertThrows(BadCredentialsException.class, () -> authController.issueToken(new TokenRequest("username", "wrong")));
+    }
 }
@@ -3,15 +3,27 @@ package com.jmill29.tvtrackerapi.controller;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import com.jmill29.tvtrackerapi.cache.DataVersions;
+import com.jmill29.tvtrackerapi.dto.ShowPage;
+import com.jmill29.tvtrackerapi.enums.ShowProjection;
 import com.jmill29.tvtrackerapi.model.Show;
 import com.jmill29.tvtrackerapi.service.ShowService;
 
@@ -19,6 +31,8 @@ import com.jmill29.tvtrackerapi.service.ShowService;
 class ShowControllerTest {
     @Mock
     private ShowService showService;
+    @Spy
+    private DataVersions dataVersions = new DataVersions(16);
     @InjectMocks
     private ShowController showController;
 
@@ -27,33 +41,131 @@ class ShowControllerTest {
         MockitoAnnotations.openMocks(this);
     }
 
+    private static ServletWebRequest get(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/shows");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
     @Test
-    @DisplayName("getAllShows returns a list of shows")
-    void getAllShows_returnsList() {
-        List<Show> shows = List.of(new Show());
-        when(showService.findAll()).thenReturn(shows);
-        ResponseEntity<List<Show>> response = showController.getAllShows();
+    @DisplayName("getAllShows returns a page of shows")
+    void getAllShows_returnsPage() {
+        ShowPage page = new ShowPage(List.of(new Show()), 1);
+        when(showService.findPage(null, null, ShowProjection.FULL)).thenReturn(page);
+        ResponseEntity<ShowPage> response = showController.getAllShows(null, null, null, get(null));
         assertEquals(200, response.getStatusCode().value());
-        assertEquals(shows, response.getBody());
+        assertEquals(page, response.getBody());
     }
 
     @Test
-    @DisplayName("getAllShows returns empty list")
-    void getAllShows_returnsEmptyList() {
-        List<Show> shows = List.of();
-        when(showService.findAll()).thenReturn(shows);
-        ResponseEntity<List<Show>> response = showController.getAllShows();
+    @DisplayName("getAllShows returns empty page")
+    void getAllShows_returnsEmptyPage() {
+        ShowPage page = new ShowPage(List.of(), null);
+        when(showService.findPage(10, 5, ShowProjection.FULL)).thenReturn(page);
+        ResponseEntity<ShowPage> response = showController.getAllShows(10, 5, null, get(null));
         assertEquals(200, response.getStatusCode().value());
-        assertEquals(shows, response.getBody());
+        assertEquals(page, response.getBody());
+    }
+
+    @Test
+    @DisplayName("getAllShows passes the summary projection to the service")
+    void getAllShows_summaryProjection() {
+        ShowPage page = new ShowPage(List.of(new Show()), null);
+        when(showService.findPage(null, 20, ShowProjection.SUMMARY)).thenReturn(page);
+        showController.getAllShows(null, 20, "summary", get(null));
+        verify(showService).findPage(null, 20, ShowProjection.SUMMARY);
+    }
+
+    @Test
+    @DisplayName("getAllShows throws IllegalArgumentException for unknown fields value")
+    void getAllShows_invalidFields() {
+        assertThrows(IllegalArgumentException.class, () -> showController.getAllShows(null, null, "everything", get(null)));
     }
 
     @Test
     @DisplayName("getAllShows throws exception on service error")
     void getAllShows_serviceThrowsException() {
-        when(showService.findAll()).thenThrow(new RuntimeException("DB error"));
-        RuntimeException ex = org.junit.jupiter.api.Assertions.assertThrows(RuntimeException.class, () ->
-            showController.getAllShows()
+        when(showService.findPage(null, null, ShowProjection.FULL)).thenThrow(new RuntimeException("DB error"));
+        RuntimeException ex = assertThrows(RuntimeException.class, () ->
+            showController.getAllShows(null, null, null, get(null))
         );
         assertEquals("DB error", ex.getMessage());
     }
+
+    @Test
+    @DisplayName("searchShows returns ranked matches")
+    void searchShows_returnsResults() {
+        List<Show> shows = List.of(new Show());
+        when(showService.search("bad", 5)).thenReturn(shows);
+        ResponseEntity<List<Show>> response = showController.searchShows("bad", 5, get(null));
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(shows, response.getBody());
+    }
+
+    @Test
+    @DisplayName("filterByGenres passes the genre filter to the service")
+    void filterByGenres_returnsPage() {
+        ShowPage page = new ShowPage(List.of(new Show()), null);
+        List<String> all = List.of("Drama", "Thriller");
+        List<String> none = List.of("Horror");
+        when(showService.findByGenres(all, null, none, null, 10)).thenReturn(page);
+        ResponseEntity<ShowPage> response = showController.filterByGenres(all, null, none, null, 10, get(null));
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(page, response.getBody());
+    }
+
+    @Test
+    @DisplayName("getAllShows returns a catalogue ETag and answers a matching If-None-Match with 304 without querying")
+    void getAllShows_conditionalGet() {
+        ShowPage page = new ShowPage(List.of(new Show()), null);
+        when(showService.findPage(null, null, ShowProjection.FULL)).thenReturn(page);
+        ServletWebRequest first = get(null);
+        ResponseEntity<ShowPage> response = showController.getAllShows(null, null, null, first);
+        assertEquals("no-cache", response.getHeaders().getCacheControl());
+        String etag = first.getResponse().getHeader("ETag");
+        assertEquals("\"" + dataVersions.catalogueETag() + "\"", etag);
+
+        ServletWebRequest revalidate = get(etag);
+        assertNull(showController.getAllShows(null, null, null, revalidate));
+        assertEquals(304, revalidate.getResponse().getStatus());
+        verify(showService).findPage(null, null, ShowProjection.FULL);
+    }
+
+    @Test
+    @DisplayName("a catalogue write changes the ETag so the next conditional GET returns the new page")
+    void catalogueChange_invalidatesETag() {
+        String etag = "\"" + dataVersions.catalogueETag() + "\"";
+        dataVersions.catalogueChanged();
+        assertNotEquals(etag, "\"" + dataVersions.catalogueETag() + "\"");
+
+        ShowPage page = new ShowPage(List.of(new Show()), null);
+        when(showService.findByGenres(List.of("Drama"), null, null, null, null)).thenReturn(page);
+        ResponseEntity<ShowPage> response = showController.filterByGenres(List.of("Drama"), null, null, null, null, get(etag));
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(page, response.getBody());
+    }
+
+    @Test
+    @DisplayName("searchShows answers a matching If-None-Match with 304 without searching")
+    void searchShows_notModified() {
+        ServletWebRequest request = get("\"" + dataVersions.catalogueETag() + "\"");
+        assertNull(showController.searchShows("bad", 5, request));
+        assertEquals(304, request.getResponse().getStatus());
+        verifyNoInteractions(showService);
+    }
+
+    @Test
+    @DisplayName("with ETags disabled getAllShows sends no tag and ignores If-None-Match")
+    void getAllShows_etagDisabled() {
+        when(dataVersions.isEnabled()).thenReturn(false);
+        ShowPage page = new ShowPage(List.of(new Show()), null);
+        when(showService.findPage(null, null, ShowProjection.FULL)).thenReturn(page);
+        ServletWebRequest request = get("\"" + dataVersions.catalogueETag() + "\"");
+        ResponseEntity<ShowPage> response = showController.getAllShows(null, null, null, request);
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(page, response.getBody());
+        assertNull(request.getResponse().getHeader("ETag"));
+    }
 }
@@ -1,201 +1,301 @@
 package com.jmill29.tvtrackerapi.controller;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jmill29.tvtrackerapi.cache.DataVersions;
+import com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest;
 import com.jmill29.tvtrackerapi.dto.UserWatchHistoryRequest;
 import com.jmill29.tvtrackerapi.dto.UserWatchHistoryResponse;
+import com.jmill29.tvtrackerapi.dto.WatchHistorySummaryResponse;
+import com.jmill29.tvtrackerapi.security.AuthenticatedUser;
 import com.jmill29.tvtrackerapi.service.UserWatchHistoryService;
-import com.jmill29.tvtrackerapi.utils.AuthUtil;
 
 @DisplayName("UserWatchHistoryController Test")
 class UserWatchHistoryControllerTest {
     @Mock
     private UserWatchHistoryService userWatchHistoryService;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+    @Spy
+    private DataVersions dataVersions = new DataVersions(16);
     @InjectMocks
     private UserWatchHistoryController controller;
 
+    private final AuthenticatedUser user = new AuthenticatedUser(1, "testuser", "", List.of());
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
     }
 
+    private static ServletWebRequest get(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/watch-history");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
     @Test
-    @DisplayName("getWatchHistoryByUsername returns list")
-    void getWatchHistoryByUsername_returnsList() {
-        String username = "testuser";
-        String authHeader = "Bearer token";
+    @DisplayName("getWatchHistory returns list")
+    void getWatchHistory_returnsList() {
         List<UserWatchHistoryResponse> mockList = List.of(mock(UserWatchHistoryResponse.class));
-        try (org.mockito.MockedStatic<AuthUtil> mocked = mockStatic(AuthUtil.class)) {
-            mocked.when(() -> AuthUtil.extractUsernameFromAuthHeader(authHeader)).thenReturn(username);
-            when(userWatchHistoryService.getWatchHistoryByUsername(username, false)).thenReturn(mockList);
-            ResponseEntity<List<UserWatchHistoryResponse>> response = controller.getWatchHistoryByUsername(false, authHeader);
-            assertEquals(200, response.getStatusCode().value());
-            assertEquals(mockList, response.getBody());
-        }
+        when(userWatchHistoryService.getWatchHistoryByUserId(1, false)).thenReturn(mockList);
+        ResponseEntity<List<UserWatchHistoryResponse>> response = controller.getWatchHistory(false, user, get(null));
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(mockList, response.getBody());
     }
 
     @Test
     @DisplayName("addShowToWatchHistory returns ok")
     void addShowToWatchHistory_returnsOk() {
-        String username = "testuser";
-        String authHeader = "Bearer token";
         UserWatchHistoryRequest req = new UserWatchHistoryRequest();
-        try (org.mockito.MockedStatic<AuthUtil> mocked = mockStatic(AuthUtil.class)) {
-            mocked.when(() -> AuthUtil.extractUsernameFromAuthHeader(authHeader)).thenReturn(username);
-            when(userWatchHistoryService.addShowToWatchHistory(req, username)).thenReturn(true);
-            ResponseEntity<String> response = controller.addShowToWatchHistory(req, authHeader);
-            assertEquals(200, response.getStatusCode().value());
-            assertEquals("Show added to watch history successfully.", response.getBody());
-        }
+        when(userWatchHistoryService.addShowToWatchHistory(req, 1)).thenReturn(true);
+        ResponseEntity<String> response = controller.addShowToWatchHistory(req, user);
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("Show added to watch history successfully.", response.getBody());
     }
 
     @Test
     @DisplayName("updateWatchStatus returns ok")
     void updateWatchStatus_returnsOk() {
-        String username = "testuser";
-        String authHeader = "Bearer token";
         UserWatchHistoryRequest req = new UserWatchHistoryRequest();
-        try (org.mockito.MockedStatic<AuthUtil> mocked = mockStatic(AuthUtil.class)) {
-            mocked.when(() -> AuthUtil.extractUsernameFromAuthHeader(authHeader)).thenReturn(username);
-            when(userWatchHistoryService.updateWatchStatus(req, username)).thenReturn(true);
-            ResponseEntity<String> response = controller.updateWatchStatus(req, authHeader);
-            assertEquals(200, response.getStatusCode().value());
-            assertEquals("Watch status updated successfully.", response.getBody());
-        }
+        when(userWatchHistoryService.updateWatchStatus(req, 1)).thenReturn(true);
+        ResponseEntity<String> response = controller.updateWatchStatus(req, user);
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("Watch status updated successfully.", response.getBody());
+    }
+
+    @Test
+    @DisplayName("patchWatchHistory returns ok")
+    void patchWatchHistory_returnsOk() {
+        UserWatchHistoryPatchRequest patch = new UserWatchHistoryPatchRequest();
+        patch.setEpisodesWatched(7);
+        when(userWatchHistoryService.patchWatchHistory(1, 5, patch)).thenReturn(true);
+        ResponseEntity<String> response = controller.patchWatchHistory(5, patch, user);
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("Watch history updated successfully.", response.getBody());
+    }
+
+    @Test
+    @DisplayName("patch body distinguishes an explicit null rating from an omitted one")
+    void patchBody_distinguishesNullRating() throws Exception {
+        UserWatchHistoryPatchRequest omitted = objectMapper.readValue("{\"episodesWatched\": 3}", UserWatchHistoryPatchRequest.class);
+        assertFalse(omitted.isRatingSet());
+        assertEquals(3, omitted.getEpisodesWatched());
+
+        UserWatchHistoryPatchRequest cleared = objectMapper.readValue("{\"rating\": null}", UserWatchHistoryPatchRequest.class);
+        assertTrue(cleared.isRatingSet());
+        assertNull(cleared.getRating());
+        assertFalse(cleared.isEmpty());
+
+        assertTrue(objectMapper.readValue("{}", UserWatchHistoryPatchRequest.class).isEmpty());
     }
 
     @Test
     @DisplayName("deleteShowFromWatchHistory returns ok")
     void deleteShowFromWatchHistory_returnsOk() {
-        String username = "testuser";
-        String authHeader = "Bearer token";
         int showId = 1;
-        try (org.mockito.MockedStatic<AuthUtil> mocked = mockStatic(AuthUtil.class)) {
-            mocked.when(() -> AuthUtil.extractUsernameFromAuthHeader(authHeader)).thenReturn(username);
-            when(userWatchHistoryService.deleteShowFromWatchHistory(username, showId)).thenReturn(true);
-            ResponseEntity<String> response = controller.deleteShowFromWatchHistory(showId, authHeader);
-            assertEquals(200, response.getStatusCode().value());
-            assertEquals("Show removed from watch history successfully.", response.getBody());
-        }
+        when(userWatchHistoryService.deleteShowFromWatchHistory(1, showId)).thenReturn(true);
+        ResponseEntity<String> response = controller.deleteShowFromWatchHistory(showId, user);
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("Show removed from watch history successfully.", response.getBody());
     }
 
     @Test
-    @DisplayName("getWatchHistoryByUsername returns empty list")
-    void getWatchHistoryByUsername_returnsEmptyList() {
-        String username = "testuser";
-        String authHeader = "Bearer token";
+    @DisplayName("getWatchHistory returns empty list")
+    void getWatchHistory_returnsEmptyList() {
         List<UserWatchHistoryResponse> emptyList = List.of();
-        try (org.mockito.MockedStatic<AuthUtil> mocked = mockStatic(AuthUtil.class)) {
-            mocked.when(() -> AuthUtil.extractUsernameFromAuthHeader(authHeader)).thenReturn(username);
-            when(userWatchHistoryService.getWatchHistoryByUsername(username, false)).thenReturn(emptyList);
-            ResponseEntity<List<UserWatchHistoryResponse>> response = controller.getWatchHistoryByUsername(false, authHeader);
-            assertEquals(200, response.getStatusCode().value());
-            assertEquals(emptyList, response.getBody());
-        }
+        when(userWatchHistoryService.getWatchHistoryByUserId(1, true)).thenReturn(emptyList);
+        ResponseEntity<List<UserWatchHistoryResponse>> response = controller.getWatchHistory(true, user, get(null));
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(emptyList, response.getBody());
     }
 
     @Test
-    @DisplayName("getWatchHistoryByUsername unauthorized")
-    void getWatchHistoryByUsername_unauthorized() {
-        String authHeader = null;
-        try (org.mockito.MockedStatic<AuthUtil> mocked = mockStatic(AuthUtil.class)) {
-            mocked.when(() -> AuthUtil.extractUsernameFromAuthHeader(authHeader)).thenThrow(new RuntimeException("Unauthorized"));
-            RuntimeException ex = org.junit.jupiter.api.Assertions.assertThrows(RuntimeException.class, () ->
-                controller.getWatchHistoryByUsername(false, authHeader)
-            );
-            assertEquals("Unauthorized", ex.getMessage());
-        }
+    @DisplayName("getWatchHistory propagates service exception")
+    void getWatchHistory_propagatesException() {
+        when(userWatchHistoryService.getWatchHistoryByUserId(1, false)).thenThrow(new RuntimeException("No watch history found"));
+        RuntimeException ex = org.junit.jupiter.api.Assertions.assertThrows(RuntimeException.class, () ->
+            controller.getWatchHistory(false, user, get(null))
+        );
+        assertEquals("No watch history found", ex.getMessage());
     }
 
     @Test
     @DisplayName("addShowToWatchHistory duplicate")
     void addShowToWatchHistory_duplicate() {
-        String username = "testuser";
-        String authHeader = "Bearer token";
         UserWatchHistoryRequest req = new UserWatchHistoryRequest();
-        try (org.mockito.MockedStatic<AuthUtil> mocked = mockStatic(AuthUtil.class)) {
-            mocked.when(() -> AuthUtil.extractUsernameFromAuthHeader(authHeader)).thenReturn(username);
-            when(userWatchHistoryService.addShowToWatchHistory(req, username)).thenThrow(new RuntimeException("Show already in watch history"));
-            RuntimeException ex = org.junit.jupiter.api.Assertions.assertThrows(RuntimeException.class, () ->
-                controller.addShowToWatchHistory(req, authHeader)
-            );
-            assertEquals("Show already in watch history", ex.getMessage());
-        }
+        when(userWatchHistoryService.addShowToWatchHistory(req, 1)).thenThrow(new RuntimeException("Show already in watch history"));
+        RuntimeException ex = org.junit.jupiter.api.Assertions.assertThrows(RuntimeException.class, () ->
+            controller.addShowToWatchHistory(req, user)
+        );
+        assertEquals("Show already in watch history", ex.getMessage());
     }
 
     @Test
     @DisplayName("addShowToWatchHistory invalid request")
     void addShowToWatchHistory_invalidRequest() {
-        String authHeader = "Bearer token";
         UserWatchHistoryRequest req = null;
-        String username = "testuser";
-        try (org.mockito.MockedStatic<AuthUtil> mocked = mockStatic(AuthUtil.class)) {
-            mocked.when(() -> AuthUtil.extractUsernameFromAuthHeader(authHeader)).thenReturn(username);
-            when(userWatchHistoryService.addShowToWatchHistory(req, username)).thenThrow(new IllegalArgumentException("Invalid request body"));
-            IllegalArgumentException ex = org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class, () ->
-                controller.addShowToWatchHistory(req, authHeader)
-            );
-            assertEquals("Invalid request body", ex.getMessage());
-        }
+        when(userWatchHistoryService.addShowToWatchHistory(req, 1)).thenThrow(new IllegalArgumentException("Invalid request body"));
+        IllegalArgumentException ex = org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class, () ->
+            controller.addShowToWatchHistory(req, user)
+        );
+        assertEquals("Invalid request body", ex.getMessage());
     }
 
     @Test
     @DisplayName("updateWatchStatus not found")
     void updateWatchStatus_notFound() {
-        String username = "testuser";
-        String authHeader = "Bearer token";
         UserWatchHistoryRequest req = new UserWatchHistoryRequest();
-        try (org.mockito.MockedStatic<AuthUtil> mocked = mockStatic(AuthUtil.class)) {
-            mocked.when(() -> AuthUtil.extractUsernameFromAuthHeader(authHeader)).thenReturn(username);
-            when(userWatchHistoryService.updateWatchStatus(req, username)).thenThrow(new RuntimeException("Watch history entry not found"));
-            RuntimeException ex = org.junit.jupiter.api.Assertions.assertThrows(RuntimeException.class, () ->
-                controller.updateWatchStatus(req, authHeader)
-            );
-            assertEquals("Watch history entry not found", ex.getMessage());
-        }
+        when(userWatchHistoryService.updateWatchStatus(req, 1)).thenThrow(new RuntimeException("Watch history entry not found"));
+        RuntimeException ex = org.junit.jupiter.api.Assertions.assertThrows(RuntimeException.class, () ->
+            controller.updateWatchStatus(req, user)
+        );
+        assertEquals("Watch history entry not found", ex.getMessage());
     }
 
     @Test
     @DisplayName("deleteShowFromWatchHistory not found")
     void deleteShowFromWatchHistory_notFound() {
-        String username = "testuser";
-        String authHeader = "Bearer token";
         int showId = 1;
-        try (org.mockito.MockedStatic<AuthUtil> mocked = mockStatic(AuthUtil.class)) {
-            mocked.when(() -> AuthUtil.extractUsernameFromAuthHeader(authHeader)).thenReturn(username);
-            when(userWatchHistoryService.deleteShowFromWatchHistory(username, showId)).thenThrow(new RuntimeException("Show not found in watch history"));
-            RuntimeException ex = org.junit.jupiter.api.Assertions.assertThrows(RuntimeException.class, () ->
-                controller.deleteShowFromWatchHistory(showId, authHeader)
-            );
-            assertEquals("Show not found in watch history", ex.getMessage());
-        }
+        when(userWatchHistoryService.deleteShowFromWatchHistory(1, showId)).thenThrow(new RuntimeException("Show not found in watch history"));
+        RuntimeException ex = org.junit.jupiter.api.Assertions.assertThrows(RuntimeException.class, () ->
+            controller.deleteShowFromWatchHistory(showId, user)
+        );
+        assertEquals("Show not found in watch history", ex.getMessage());
     }
 
     @Test
     @DisplayName("deleteShowFromWatchHistory invalid show id")
     void deleteShowFromWatchHistory_invalidShowId() {
-        String username = "testuser";
-        String authHeader = "Bearer token";
         int showId = -1;
-        try (org.mockito.MockedStatic<AuthUtil> mocked = mockStatic(AuthUtil.class)) {
-            mocked.when(() -> AuthUtil.extractUsernameFromAuthHeader(authHeader)).thenReturn(username);
-            when(userWatchHistoryService.deleteShowFromWatchHistory(username, showId)).thenThrow(new IllegalArgumentException("Invalid show ID"));
-            IllegalArgumentException ex = org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class, () ->
-                controller.deleteShowFromWatchHistory(showId, authHeader)
-            );
-            assertEquals("Invalid show ID", ex.getMessage());
-        }
+        when(userWatchHistoryService.deleteShowFromWatchHistory(1, showId)).thenThrow(new IllegalArgumentException("Invalid show ID"));
+        IllegalArgumentException ex = org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class, () ->
+            controller.deleteShowFromWatchHistory(showId, user)
+        );
+        assertEquals("Invalid show ID", ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("addShowsToWatchHistory returns per-item results")
+    void addShowsToWatchHistory_returnsResults() {
+        List<UserWatchHistoryRequest> reqs = List.of(new UserWatchHistoryRequest());
+        List<com.jmill29.tvtrackerapi.dto.WatchHistoryBatchItemResponse> results = List.of(
+            new com.jmill29.tvtrackerapi.dto.WatchHistoryBatchItemResponse(1, com.jmill29.tvtrackerapi.enums.BatchItemOutcome.ADDED, "ok"));
+        when(userWatchHistoryService.addShowsToWatchHistory(reqs, 1)).thenReturn(results);
+        ResponseEntity<List<com.jmill29.tvtrackerapi.dto.WatchHistoryBatchItemResponse>> response = controller.addShowsToWatchHistory(reqs, user);
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(results, response.getBody());
+    }
+
+    @Test
+    @DisplayName("streamWatchHistory writes every entry as a JSON array")
+    @SuppressWarnings("unchecked")
+    void streamWatchHistory_writesJsonArray() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<UserWatchHistoryResponse> action = invocation.getArgument(1);
+            action.accept(new UserWatchHistoryResponse(1, "Show A", "desc", "a.jpg", "Not Watched"));
+            action.accept(new UserWatchHistoryResponse(2, "Show B", "desc", "b.jpg", "Already Watched"));
+            return null;
+        }).when(userWatchHistoryService).streamWatchHistoryByUserId(eq(1), any(Consumer.class));
+
+        ResponseEntity<StreamingResponseBody> response = controller.streamWatchHistory(user, get(null));
+        assertEquals(200, response.getStatusCode().value());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        UserWatchHistoryResponse[] entries = objectMapper.readValue(
+            out.toString(StandardCharsets.UTF_8), UserWatchHistoryResponse[].class);
+        assertEquals(2, entries.length);
+        assertEquals("Show B", entries[1].getShowName());
+        assertEquals("Already Watched", entries[1].getStatus());
+    }
+
+    @Test
+    @DisplayName("streamWatchHistory writes an empty array when there are no shows")
+    void streamWatchHistory_emptyCatalogue() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = controller.streamWatchHistory(user, get(null));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        assertEquals("[]", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("getWatchHistorySummary returns the user's summary")
+    void getWatchHistorySummary_returnsSummary() {
+        WatchHistorySummaryResponse summary = new WatchHistorySummaryResponse(java.util.Map.of("Want to Watch", 1L), 1, 0, null);
+        when(userWatchHistoryService.getWatchHistorySummary(1)).thenReturn(summary);
+        ResponseEntity<WatchHistorySummaryResponse> response = controller.getWatchHistorySummary(user);
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(summary, response.getBody());
+    }
+
+    @Test
+    @DisplayName("getWatchHistory answers a matching If-None-Match with 304 without querying")
+    void getWatchHistory_notModified() {
+        when(userWatchHistoryService.getWatchHistoryByUserId(1, false)).thenReturn(List.of());
+        ServletWebRequest first = get(null);
+        ResponseEntity<List<UserWatchHistoryResponse>> response = controller.getWatchHistory(false, user, first);
+        assertEquals("no-cache, private", response.getHeaders().getCacheControl());
+        String etag = first.getResponse().getHeader("ETag");
+        assertEquals("\"" + dataVersions.watchHistoryETag(1) + "\"", etag);
+
+        ServletWebRequest revalidate = get(etag);
+        assertNull(controller.getWatchHistory(false, user, revalidate));
+        assertEquals(304, revalidate.getResponse().getStatus());
+        org.mockito.Mockito.verify(userWatchHistoryService).getWatchHistoryByUserId(1, false);
+    }
+
+    @Test
+    @DisplayName("a write to the user's history changes the ETag; another user's tag never matches")
+    void watchHistoryETag_changesPerUser() {
+        String etag = "\"" + dataVersions.watchHistoryETag(1) + "\"";
+        AuthenticatedUser other = new AuthenticatedUser(17, "other", "", List.of());
+        // User 17 shares user 1's slot, but the user ID keeps their tags apart
+        when(userWatchHistoryService.getWatchHistoryByUserId(17, false)).thenReturn(List.of());
+        assertEquals(200, controller.getWatchHistory(false, other, get(etag)).getStatusCode().value());
+
+        dataVersions.userChanged(1);
+        assertNotEquals(etag, "\"" + dataVersions.watchHistoryETag(1) + "\"");
+        when(userWatchHistoryService.getWatchHistoryByUserId(1, false)).thenReturn(List.of());
+        assertEquals(200, controller.getWatchHistory(false, user, get(etag)).getStatusCode().value());
+    }
+
+    @Test
+    @DisplayName("streamWatchHistory answers a matching If-None-Match with 304 without streaming")
+    void streamWatchHistory_notModified() {
+        ServletWebRequest request = get("\"" + dataVersions.watchHistoryETag(1) + "\"");
+        assertNull(controller.streamWatchHistory(user, request));
+        assertEquals(304, request.getResponse().getStatus());
+        verifyNoInteractions(userWatchHistoryService);
     }
 }
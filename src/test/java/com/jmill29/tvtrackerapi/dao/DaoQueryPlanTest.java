@@ -0,0 +1,321 @@
+package com.jmill29.tvtrackerapi.dao;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.jmill29.tvtrackerapi.cache.DataVersions;
+import com.jmill29.tvtrackerapi.dto.UserResponse;
+import com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest;
+import com.jmill29.tvtrackerapi.dto.UserWatchHistoryRequest;
+import com.jmill29.tvtrackerapi.enums.WatchStatus;
+import com.jmill29.tvtrackerapi.model.EpisodeProgress;
+import com.jmill29.tvtrackerapi.model.Show;
+import com.jmill29.tvtrackerapi.model.User;
+
+/**
+ * Runs every DAO method, records each SELECT, UPDATE and DELETE they send together with its parameters, and
+ * checks the H2 {@code EXPLAIN} plan of each one for full table scans.
+ * <p>
+ * A scan is only accepted where reading the whole table is the point of the query: statements without
+ * parameters (full catalogue, user list, genre index load), the "every show with the user's status" listings,
+ * and the substring name search fallback, whose leading wildcard no index can serve.
+ * </p>
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = Replace.ANY)
+@ActiveProfiles("test")
+@DisplayName("DAO query plan test")
+class DaoQueryPlanTest {
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("PUBLIC\\.(\\w+)\\.tableScan");
+
+    /** SQL fragments of parameterized queries that read one table in full on purpose, and that table */
+    private static final Map<String, String> INTENDED_SCANS = Map.of(
+        "FROM tv_shows s LEFT JOIN user_watch_history uwh ON s.show_id = uwh.show_id AND uwh.user_id = ?", "TV_SHOWS",
+        "WHERE LOWER(show_name) LIKE LOWER(?)", "TV_SHOWS");
+
+    @Autowired
+    private DataSource dataSource;
+
+    private RecordingDataSource recordingDataSource;
+    private ShowDao showDao;
+    private UserDao userDao;
+    private UserWatchHistoryDao userWatchHistoryDao;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM user_watch_history");
+            stmt.execute("DELETE FROM show_genres");
+            stmt.execute("DELETE FROM authorities");
+            stmt.execute("DELETE FROM users");
+            stmt.execute("DELETE FROM tv_shows");
+            stmt.execute("DELETE FROM genres");
+            stmt.execute("INSERT INTO users (user_id, name, username, password, email, enabled) VALUES (1, 'Test User', 'testuser', 'pass', 'test@example.com', TRUE)");
+            stmt.execute("INSERT INTO genres (genre_id, name) VALUES (1, 'Drama'), (2, 'Comedy'), (3, 'Thriller')");
+            // Enough rows that an index lookup is always cheaper than a scan for the optimizer
+            for (int i = 1; i <= 200; i++) {
+                stmt.execute("INSERT INTO tv_shows (show_id, show_name, description, image_url, num_episodes, release_year) "
+                    + "VALUES (" + i + ", 'Show " + i + "', 'desc', 'img.jpg', 10, " + (1990 + i % 30) + ")");
+                stmt.execute("INSERT INTO show_genres (show_id, genre_id) VALUES (" + i + ", " + (1 + i % 3) + ")");
+            }
+            stmt.execute("INSERT INTO user_watch_history (user_id, show_id, status) VALUES (1, 3, 'Want to Watch')");
+            // The fixture sets IDs explicitly, so move the identities past them before the DAOs insert
+            stmt.execute("ALTER TABLE tv_shows ALTER COLUMN show_id RESTART WITH 1000");
+            stmt.execute("ALTER TABLE users ALTER COLUMN user_id RESTART WITH 1000");
+        }
+
+        recordingDataSource = new RecordingDataSource(dataSource);
+        ApplicationEventPublisher publisher = event -> { };
+        DataVersions dataVersions = new DataVersions(16);
+        showDao = new ShowDaoImpl(recordingDataSource, publisher, dataVersions);
+        userDao = new UserDaoImpl(recordingDataSource, NoOpPasswordEncoder.getInstance(), publisher);
+        userWatchHistoryDao = new UserWatchHistoryDaoImpl(recordingDataSource, false, 500, dataVersions);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        // Other test classes share this database and do not clear these tables
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM user_watch_history");
+            stmt.execute("DELETE FROM show_genres");
+            stmt.execute("DELETE FROM genres");
+            stmt.execute("DELETE FROM authorities");
+            stmt.execute("DELETE FROM tv_shows");
+        }
+    }
+
+    @Test
+    @DisplayName("ShowDao queries only scan a table when they read all of it")
+    void showDao_queriesUseIndexes() throws Exception {
+        showDao.findById(1);
+        showDao.findAll();
+        showDao.findPage(10, 10, true);
+        showDao.findPage(10, 10, false);
+        showDao.findByName("Show 1");
+        showDao.findByGenre("Drama");
+
+        Show show = new Show(0, "New Show", "desc", "img.jpg", 8, (short) 2022, null);
+        show.setGenres(List.of("drama", "Comedy"));
+        assertTrue(showDao.saveWithGenres(show));
+        show.setDescription("updated");
+        assertTrue(showDao.save(show));
+        assertTrue(showDao.deleteById(show.getId()));
+
+        assertNoUnintendedScans();
+    }
+
+    @Test
+    @DisplayName("the duplicate check on insert uses the lower-case name index")
+    void showDao_duplicateCheckUsesNameIndex() throws Exception {
+        assertTrue(showDao.save(new Show(0, "Another Show", "desc", "img.jpg", 8, (short) 2022, null)));
+
+        String plan = explain(recordingDataSource.find("show_name_lower = LOWER(?)"));
+        assertTrue(plan.toUpperCase(Locale.ROOT).contains("IDX_TV_SHOWS_NAME_LOWER_YEAR"), plan);
+    }
+
+    @Test
+    @DisplayName("UserDao queries only scan a table when they read all of it")
+    void userDao_queriesUseIndexes() throws Exception {
+        userDao.findById(1);
+        userDao.findByUsername("testuser");
+        userDao.findAll();
+
+        assertTrue(userDao.save(new User(0, "Plan User", "planuser", "pass", "plan@example.com", null)));
+        UserResponse created = userDao.findByUsername("planuser").orElseThrow();
+        assertTrue(userDao.save(new User(created.getUserId(), "Renamed", "planuser", null, "plan@example.com", null)));
+        assertTrue(userDao.assignRoleToUser("planuser", "ROLE_USER"));
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM authorities WHERE username = 'planuser'");
+        }
+        assertTrue(userDao.deleteById(created.getUserId()));
+
+        assertNoUnintendedScans();
+    }
+
+    @Test
+    @DisplayName("UserWatchHistoryDao queries only scan a table when they read all of it")
+    void userWatchHistoryDao_queriesUseIndexes() throws Exception {
+        assertTrue(userWatchHistoryDao.addShowToWatchHistory(new UserWatchHistoryRequest(1, WatchStatus.WANT_TO_WATCH), 1));
+        assertTrue(userWatchHistoryDao.addShowToWatchHistory(new UserWatchHistoryRequest(2, WatchStatus.WANT_TO_WATCH), "testuser"));
+
+        userWatchHistoryDao.getWatchHistoryByUserId(1, false);
+        userWatchHistoryDao.getWatchHistoryByUserId(1, true);
+        userWatchHistoryDao.getWatchHistoryByUsername("testuser", false);
+        userWatchHistoryDao.getWatchHistoryByUsername("testuser", true);
+        userWatchHistoryDao.forEachShowWithWatchStatus(1, response -> { });
+        userWatchHistoryDao.isShowInWatchHistory(1, 1);
+        userWatchHistoryDao.isShowInWatchHistory("testuser", 2);
+        userWatchHistoryDao.findWatchHistoryState(1, List.of(1, 2, 4));
+        userWatchHistoryDao.getWatchHistoryStats(1);
+
+        userWatchHistoryDao.updateWatchStatus(new UserWatchHistoryRequest(1, WatchStatus.ALREADY_WATCHED), 1);
+        userWatchHistoryDao.updateWatchStatus(new UserWatchHistoryRequest(2, WatchStatus.ALREADY_WATCHED), "testuser");
+        UserWatchHistoryPatchRequest patch = new UserWatchHistoryPatchRequest();
+        patch.setEpisodesWatched(4);
+        patch.setRating(5);
+        userWatchHistoryDao.patchWatchHistory(1, 1, patch);
+        userWatchHistoryDao.updateEpisodesWatched(List.of(new EpisodeProgress(1, 1, 5), new EpisodeProgress(1, 2, 6)));
+
+        assertTrue(userWatchHistoryDao.deleteShowFromWatchHistory(1, 1).isPresent());
+        assertTrue(userWatchHistoryDao.deleteShowFromWatchHistory("testuser", 2).isPresent());
+        userWatchHistoryDao.addShowsToWatchHistory(List.of(
+            new UserWatchHistoryRequest(5, WatchStatus.CURRENTLY_WATCHING),
+            new UserWatchHistoryRequest(6, WatchStatus.CURRENTLY_WATCHING)), 1);
+
+        assertNoUnintendedScans();
+    }
+
+
+    /**
+     * Explains every recorded statement and fails with the plans of those that scan a table they should not.
+     */
+    private void assertNoUnintendedScans() throws SQLException {
+        List<String> failures = new ArrayList<>();
+        for (RecordedStatement statement : recordingDataSource.distinctStatements()) {
+            String plan = explain(statement);
+            Matcher matcher = TABLE_SCAN.matcher(plan);
+            while (matcher.find()) {
+                if (!isIntendedScan(statement, matcher.group(1))) {
+                    failures.add(statement.sql() + "\n    " + plan.replace("\n", "\n    "));
+                    break;
+                }
+            }
+        }
+        assertFalse(recordingDataSource.distinctStatements().isEmpty(), "no statements recorded");
+        assertTrue(failures.isEmpty(), "queries with a full table scan:\n" + String.join("\n", failures));
+    }
+
+    private static boolean isIntendedScan(RecordedStatement statement, String table) {
+        if (statement.parameters().isEmpty()) {
+            return true;
+        }
+        for (Map.Entry<String, String> scan : INTENDED_SCANS.entrySet()) {
+            if (statement.sql().contains(scan.getKey()) && scan.getValue().equals(table)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String explain(RecordedStatement statement) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pStmt = conn.prepareStatement("EXPLAIN " + statement.sql())) {
+            for (Map.Entry<Integer, Object> parameter : statement.parameters().entrySet()) {
+                pStmt.setObject(parameter.getKey(), parameter.getValue());
+            }
+            try (ResultSet rs = pStmt.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+                return plan.toString();
+            }
+        }
+    }
+
+
+    /**
+     * A statement as it was executed: its SQL and the parameters bound at the time.
+     */
+    private record RecordedStatement(String sql, Map<Integer, Object> parameters) {
+    }
+
+    /**
+     * Hands out proxied connections whose prepared SELECT, UPDATE and DELETE statements record what they execute.
+     */
+    private static final class RecordingDataSource extends DelegatingDataSource {
+
+        private final Map<String, RecordedStatement> statements = new LinkedHashMap<>();
+
+        private RecordingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof PreparedStatement statement && isExplainable(String.valueOf(args[0]))) {
+                        return record(statement, String.valueOf(args[0]));
+                    }
+                    return result;
+                });
+        }
+
+        private Object record(PreparedStatement statement, String sql) {
+            Map<Integer, Object> parameters = new HashMap<>();
+            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {PreparedStatement.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("setNull")) {
+                        parameters.put((Integer) args[0], null);
+                    } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        parameters.put(index, args[1]);
+                    } else if (name.equals("clearParameters")) {
+                        parameters.clear();
+                    } else if (name.startsWith("execute") || name.equals("addBatch")) {
+                        statements.putIfAbsent(sql, new RecordedStatement(sql, new HashMap<>(parameters)));
+                    }
+                    return invoke(statement, method, args);
+                });
+        }
+
+        private static boolean isExplainable(String sql) {
+            String verb = sql.stripLeading().toUpperCase(Locale.ROOT);
+            return verb.startsWith("SELECT") || verb.startsWith("UPDATE") || verb.startsWith("DELETE");
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        RecordedStatement find(String sqlFragment) {
+            return statements.values().stream()
+                .filter(statement -> statement.sql().contains(sqlFragment))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("no statement containing " + sqlFragment));
+        }
+
+        List<RecordedStatement> distinctStatements() {
+            return List.copyOf(statements.values());
+        }
+    }
+}
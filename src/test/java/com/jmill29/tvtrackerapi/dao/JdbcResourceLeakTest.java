@@ -0,0 +1,242 @@
+package com.jmill29.tvtrackerapi.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.jmill29.tvtrackerapi.cache.DataVersions;
+import com.jmill29.tvtrackerapi.dto.UserResponse;
+import com.jmill29.tvtrackerapi.dto.UserWatchHistoryRequest;
+import com.jmill29.tvtrackerapi.enums.WatchStatus;
+import com.jmill29.tvtrackerapi.exception.ShowAlreadyExistsException;
+import com.jmill29.tvtrackerapi.exception.ShowNotFoundException;
+import com.jmill29.tvtrackerapi.exception.UserAlreadyExistsException;
+import com.jmill29.tvtrackerapi.exception.WatchHistoryAlreadyExistsException;
+import com.jmill29.tvtrackerapi.model.Show;
+import com.jmill29.tvtrackerapi.model.User;
+
+/**
+ * Runs every DAO method many times, including the paths that throw, and checks that each statement and
+ * connection the DAOs open is explicitly closed again.
+ * <p>
+ * The pool would eventually reclaim statements left open on a returned connection, so leaks do not fail any
+ * functional test; they only show up as server-side cursors piling up under load.
+ * </p>
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = Replace.ANY)
+@ActiveProfiles("test")
+@DisplayName("DAO JDBC resource leak test")
+class JdbcResourceLeakTest {
+
+    /**
+     * Every iteration checks the same calls, so a short loop finds any leak; raise it with
+     * {@code -Dleak-test.iterations=10000} to exercise the pool under sustained churn.
+     */
+    private static final int ITERATIONS = Integer.getInteger("leak-test.iterations", 200);
+
+    @Autowired
+    private DataSource dataSource;
+
+    private LeakTrackingDataSource trackingDataSource;
+    private ShowDao showDao;
+    private UserDao userDao;
+    private UserWatchHistoryDao userWatchHistoryDao;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM user_watch_history");
+            stmt.execute("DELETE FROM show_genres");
+            stmt.execute("DELETE FROM authorities");
+            stmt.execute("DELETE FROM users");
+            stmt.execute("DELETE FROM tv_shows");
+            stmt.execute("DELETE FROM genres");
+            stmt.execute("INSERT INTO users (user_id, name, username, password, email, enabled) VALUES (1, 'Test User', 'testuser', 'pass', 'test@example.com', TRUE)");
+            stmt.execute("INSERT INTO tv_shows (show_id, show_name, description, image_url, num_episodes, release_year) VALUES (1, 'Test Show', 'A test show', 'test.jpg', 10, 2020)");
+            stmt.execute("INSERT INTO tv_shows (show_id, show_name, description, image_url, num_episodes, release_year) VALUES (2, 'Other Show', 'Another show', 'other.jpg', 8, 2021)");
+            stmt.execute("INSERT INTO genres (genre_id, name) VALUES (1, 'Drama')");
+            stmt.execute("INSERT INTO show_genres (show_id, genre_id) VALUES (1, 1)");
+            // The fixture sets IDs explicitly, so move the identities past them before the DAOs insert
+            stmt.execute("ALTER TABLE tv_shows ALTER COLUMN show_id RESTART WITH 1000");
+            stmt.execute("ALTER TABLE users ALTER COLUMN user_id RESTART WITH 1000");
+        }
+
+        trackingDataSource = new LeakTrackingDataSource(dataSource);
+        ApplicationEventPublisher publisher = event -> { };
+        DataVersions dataVersions = new DataVersions(4096);
+        showDao = new ShowDaoImpl(trackingDataSource, publisher, dataVersions);
+        userDao = new UserDaoImpl(trackingDataSource, NoOpPasswordEncoder.getInstance(), publisher);
+        userWatchHistoryDao = new UserWatchHistoryDaoImpl(trackingDataSource, false, 500, dataVersions);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        // Other test classes share this database and do not clear these tables
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM show_genres");
+            stmt.execute("DELETE FROM genres");
+            stmt.execute("DELETE FROM authorities");
+        }
+    }
+
+    @Test
+    @DisplayName("ShowDao methods close every statement and connection")
+    void showDao_closesResources() throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            showDao.findById(1);
+            showDao.findAll();
+            showDao.findPage(0, 10, i % 2 == 0);
+            showDao.findByName("Test");
+            showDao.findByGenre("Drama");
+
+            Show show = new Show(0, "Leak Show " + i, "desc", "img.jpg", 8, (short) 2022, null);
+            assertTrue(showDao.save(show));
+            show.setDescription("updated");
+            assertTrue(showDao.save(show));
+            assertTrue(showDao.deleteById(show.getId()));
+
+            assertThrows(ShowAlreadyExistsException.class,
+                () -> showDao.save(new Show(0, "Test Show", "dup", "img.jpg", 8, (short) 2020, null)));
+            assertThrows(ShowNotFoundException.class,
+                () -> showDao.save(new Show(99_999, "Missing", "desc", "img.jpg", 8, (short) 2020, null)));
+        }
+        trackingDataSource.assertAllClosed();
+    }
+
+    @Test
+    @DisplayName("UserDao methods close every statement and connection")
+    void userDao_closesResources() throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            userDao.findById(1);
+            userDao.findByUsername("testuser");
+            userDao.findAll();
+
+            String username = "leak" + i;
+            assertTrue(userDao.save(new User(0, "Leak User", username, "pass", username + "@example.com", null)));
+            UserResponse created = userDao.findByUsername(username).orElseThrow();
+            assertTrue(userDao.save(new User(created.getUserId(), "Renamed", username, null, username + "@example.com", null)));
+            assertTrue(userDao.deleteById(created.getUserId()));
+
+            assertTrue(userDao.assignRoleToUser("testuser", "ROLE_" + i));
+            assertThrows(UserAlreadyExistsException.class,
+                () -> userDao.save(new User(0, "Dup", "testuser", "pass", "dup@example.com", null)));
+        }
+        trackingDataSource.assertAllClosed();
+    }
+
+    @Test
+    @DisplayName("UserWatchHistoryDao methods close every statement and connection")
+    void userWatchHistoryDao_closesResources() throws Exception {
+        UserWatchHistoryRequest first = new UserWatchHistoryRequest(1, WatchStatus.WANT_TO_WATCH);
+        UserWatchHistoryRequest second = new UserWatchHistoryRequest(2, WatchStatus.CURRENTLY_WATCHING);
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertTrue(userWatchHistoryDao.addShowToWatchHistory(first, 1));
+            assertTrue(userWatchHistoryDao.addShowToWatchHistory(second, "testuser"));
+            assertThrows(WatchHistoryAlreadyExistsException.class, () -> userWatchHistoryDao.addShowToWatchHistory(first, 1));
+
+            userWatchHistoryDao.getWatchHistoryByUserId(1, i % 2 == 0);
+            userWatchHistoryDao.getWatchHistoryByUsername("testuser", i % 2 == 0);
+            userWatchHistoryDao.forEachShowWithWatchStatus(1, response -> { });
+            userWatchHistoryDao.isShowInWatchHistory(1, 1);
+            userWatchHistoryDao.isShowInWatchHistory("testuser", 2);
+            userWatchHistoryDao.findWatchHistoryState(1, List.of(1, 2));
+
+            userWatchHistoryDao.updateWatchStatus(new UserWatchHistoryRequest(1, WatchStatus.ALREADY_WATCHED), 1);
+            userWatchHistoryDao.updateWatchStatus(new UserWatchHistoryRequest(2, WatchStatus.ALREADY_WATCHED), "testuser");
+            userWatchHistoryDao.upsertWatchStatus(new UserWatchHistoryRequest(1, WatchStatus.NOT_WATCHED), 1);
+            userWatchHistoryDao.updateEpisodesWatched(List.of(new com.jmill29.tvtrackerapi.model.EpisodeProgress(1, 1, i)));
+
+            assertTrue(userWatchHistoryDao.deleteShowFromWatchHistory(1, 1).isPresent());
+            assertTrue(userWatchHistoryDao.deleteShowFromWatchHistory("testuser", 2).isPresent());
+            assertEquals(2, userWatchHistoryDao.addShowsToWatchHistory(List.of(first, second), 1));
+            userWatchHistoryDao.deleteShowFromWatchHistory(1, 1);
+            userWatchHistoryDao.deleteShowFromWatchHistory(1, 2);
+        }
+        trackingDataSource.assertAllClosed();
+    }
+
+
+    /**
+     * Hands out proxied connections and statements and remembers every one that has not been closed yet.
+     */
+    private static final class LeakTrackingDataSource extends DelegatingDataSource {
+
+        private final Set<Object> openConnections = ConcurrentHashMap.newKeySet();
+        private final Map<Object, String> openStatements = new ConcurrentHashMap<>();
+
+        private LeakTrackingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            openConnections.add(connection);
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName())) {
+                        openConnections.remove(connection);
+                    }
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement) {
+                        return trackStatement(statement, method, args);
+                    }
+                    return result;
+                });
+        }
+
+        private Object trackStatement(Statement statement, Method factoryMethod, Object[] args) {
+            String sql = args != null && args.length > 0 ? String.valueOf(args[0]) : factoryMethod.getName();
+            openStatements.put(statement, sql);
+            InvocationHandler handler = (proxy, method, methodArgs) -> {
+                if ("close".equals(method.getName())) {
+                    openStatements.remove(statement);
+                }
+                return invoke(statement, method, methodArgs);
+            };
+            return Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {factoryMethod.getReturnType()}, handler);
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        void assertAllClosed() {
+            assertTrue(openStatements.isEmpty(), "statements left open: " + openStatements.values());
+            assertEquals(0, openConnections.size(), "connections left open");
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package com.jmill29.tvtrackerapi.dao;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jmill29.tvtrackerapi.cache.DataVersions;
+import com.jmill29.tvtrackerapi.datasource.ConsistentHashRing;
+import com.jmill29.tvtrackerapi.datasource.WatchHistoryResharder;
+import com.jmill29.tvtrackerapi.datasource.WatchHistoryShards;
+import com.jmill29.tvtrackerapi.dto.UserWatchHistoryRequest;
+import com.jmill29.tvtrackerapi.dto.UserWatchHistoryResponse;
+import com.jmill29.tvtrackerapi.enums.WatchStatus;
+import com.jmill29.tvtrackerapi.event.ShowChangedEvent;
+import com.jmill29.tvtrackerapi.exception.ShowNotFoundException;
+import com.jmill29.tvtrackerapi.exception.WatchHistoryAlreadyExistsException;
+import com.jmill29.tvtrackerapi.model.WatchHistoryStats;
+
+/**
+ * Runs the watch history DAO over the test database as primary plus two embedded shard databases.
+ * <p>
+ * The application context's own instance never sends a heartbeat here, so once its registration is cleared it
+ * does not count as a running instance that would block resharding.
+ * </p>
+ */
+@SpringBootTest(properties = "app.watch-history.instance-heartbeat-ms=3600000")
+@AutoConfigureTestDatabase(replace = Replace.ANY)
+@ActiveProfiles("test")
+@DisplayName("Sharded UserWatchHistoryDaoImpl Test")
+class ShardedUserWatchHistoryDaoTest {
+
+    private static final int USERS = 30;
+    private static final List<String> ALL_SHARDS = List.of(WatchHistoryShards.PRIMARY, "shard-a", "shard-b");
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final DataSource shardA = shard("watch_shard_a");
+    private final DataSource shardB = shard("watch_shard_b");
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM user_watch_history");
+            stmt.execute("DELETE FROM watch_history_ring");
+            stmt.execute("DELETE FROM watch_history_moved_users");
+            stmt.execute("DELETE FROM watch_history_instances");
+            stmt.execute("DELETE FROM show_genres");
+            stmt.execute("DELETE FROM authorities");
+            stmt.execute("DELETE FROM users");
+            stmt.execute("DELETE FROM tv_shows");
+            for (int userId = 1; userId <= USERS; userId++) {
+                stmt.execute("INSERT INTO users (user_id, name, username, password, email, enabled) VALUES (" + userId
+                        + ", 'User " + userId + "', 'user" + userId + "', 'pass', 'user" + userId + "@example.com', TRUE)");
+            }
+            stmt.execute("INSERT INTO tv_shows (show_id, show_name, description, image_url, num_episodes, release_year) VALUES (1, 'Test Show', 'A test show', 'test.jpg', 10, 2020)");
+            stmt.execute("INSERT INTO tv_shows (show_id, show_name, description, image_url, num_episodes, release_year) VALUES (2, 'Other Show', 'Another show', 'other.jpg', 8, 2021)");
+        }
+        for (DataSource shard : List.of(shardA, shardB)) {
+            try (Connection conn = shard.getConnection(); Statement stmt = conn.createStatement()) {
+                stmt.execute("DELETE FROM user_watch_history");
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        // Other test classes share the primary database, and a ring naming these shards would stop their context
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM user_watch_history");
+            stmt.execute("DELETE FROM watch_history_ring");
+            stmt.execute("DELETE FROM watch_history_moved_users");
+            stmt.execute("DELETE FROM watch_history_instances");
+        }
+    }
+
+    @Test
+    @DisplayName("writes land on the user's shard and reads merge them with the catalogue")
+    void writesAndReads_useUsersShard() throws Exception {
+        WatchHistoryShards shards = shards(ALL_SHARDS);
+        UserWatchHistoryDao dao = dao(shards);
+        int userId = userOn(shards, "shard-a");
+
+        assertTrue(dao.addShowToWatchHistory(request(2, WatchStatus.CURRENTLY_WATCHING), "user" + userId));
+        assertEquals(1, countRows(shardA, userId));
+        assertEquals(0, countRows(dataSource, userId));
+
+        List<UserWatchHistoryResponse> all = dao.getWatchHistoryByUserId(userId, true);
+        assertEquals(2, all.size());
+        assertEquals("Test Show", all.get(0).getShowName());
+        assertEquals("Not Watched", all.get(0).getStatus());
+        assertEquals(0, all.get(0).getEpisodesWatched());
+        assertNull(all.get(0).getRating());
+        assertFalse(all.get(0).isFavorite());
+        assertEquals("Other Show", all.get(1).getShowName());
+        assertEquals("Currently Watching", all.get(1).getStatus());
+
+        List<UserWatchHistoryResponse> tracked = dao.getWatchHistoryByUsername("user" + userId, false);
+        assertEquals(1, tracked.size());
+        assertEquals("Other Show", tracked.get(0).getShowName());
+        assertEquals("other.jpg", tracked.get(0).getImageUrl());
+
+        assertEquals(Map.of(1, false, 2, true), dao.findWatchHistoryState(userId, List.of(1, 2, 99)));
+        assertTrue(dao.isShowInWatchHistory("user" + userId, 2));
+        assertTrue(dao.deleteShowFromWatchHistory(userId, 2).isPresent());
+        assertEquals(0, countRows(shardA, userId));
+    }
+
+    @Test
+    @DisplayName("writes to a shard check the show on the primary and keep the primary key")
+    void shardWrites_enforceShowAndDuplicates() throws Exception {
+        WatchHistoryShards shards = shards(ALL_SHARDS);
+        UserWatchHistoryDao dao = dao(shards);
+        int userId = userOn(shards, "shard-b");
+
+        assertThrows(ShowNotFoundException.class,
+                () -> dao.addShowToWatchHistory(request(99, WatchStatus.WANT_TO_WATCH), userId));
+        assertTrue(dao.addShowToWatchHistory(request(1, WatchStatus.WANT_TO_WATCH), userId));
+        assertThrows(WatchHistoryAlreadyExistsException.class,
+                () -> dao.addShowToWatchHistory(request(1, WatchStatus.WANT_TO_WATCH), userId));
+    }
+
+    @Test
+    @DisplayName("resharding moves users online and their history stays the same")
+    void reshard_movesUsersAndKeepsHistory() throws Exception {
+        WatchHistoryShards shards = shards(List.of(WatchHistoryShards.PRIMARY));
+        UserWatchHistoryDao dao = dao(shards);
+        for (int userId = 1; userId <= USERS; userId++) {
+            dao.addShowToWatchHistory(request(1, WatchStatus.ALREADY_WATCHED), userId);
+        }
+        assertEquals(USERS, countRows(dataSource, null));
+
+        WatchHistoryResharder.Result result = new WatchHistoryResharder(shards).reshard(ALL_SHARDS);
+
+        ConsistentHashRing ring = new ConsistentHashRing(ALL_SHARDS, 128);
+        int expectedMoved = 0;
+        for (int userId = 1; userId <= USERS; userId++) {
+            String owner = ring.nodeFor(userId);
+            if (!owner.equals(WatchHistoryShards.PRIMARY)) {
+                expectedMoved++;
+            }
+            assertEquals(owner, shards.shardOf(userId));
+            List<UserWatchHistoryResponse> history = dao.getWatchHistoryByUserId(userId, false);
+            assertEquals(1, history.size());
+            assertEquals("Already Watched", history.get(0).getStatus());
+        }
+        assertEquals(ALL_SHARDS, result.getRing());
+        assertEquals(ALL_SHARDS, shards.getRingMembers());
+        assertEquals(expectedMoved, result.getUsersMoved());
+        assertEquals(USERS - expectedMoved, countRows(dataSource, null));
+        assertEquals(USERS, countRows(dataSource, null) + countRows(shardA, null) + countRows(shardB, null));
+
+        // Moving everyone back onto the primary restores the original layout
+        new WatchHistoryResharder(shards).reshard(List.of(WatchHistoryShards.PRIMARY));
+        assertEquals(USERS, countRows(dataSource, null));
+        WatchHistoryStats stats = dao.getWatchHistoryStats(1);
+        assertEquals(1, stats.getTotalCount());
+    }
+
+    @Test
+    @DisplayName("moving a user waits for their uncommitted write instead of losing it")
+    void reshard_waitsForUncommittedWrite() throws Exception {
+        WatchHistoryShards shards = shards(List.of(WatchHistoryShards.PRIMARY));
+        UserWatchHistoryDao dao = dao(shards);
+        int userId = userOn(new ConsistentHashRing(ALL_SHARDS, 128), "shard-a");
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        ExecutorService resharding = Executors.newSingleThreadExecutor();
+        try {
+            Future<WatchHistoryResharder.Result> result = transaction.execute(status -> {
+                try {
+                    assertTrue(dao.addShowToWatchHistory(request(1, WatchStatus.ALREADY_WATCHED), userId));
+                } catch (SQLException ex) {
+                    throw new IllegalStateException(ex);
+                }
+                Future<WatchHistoryResharder.Result> started =
+                        resharding.submit(() -> new WatchHistoryResharder(shards).reshard(ALL_SHARDS));
+                assertThrows(TimeoutException.class, () -> started.get(500, TimeUnit.MILLISECONDS));
+                return started;
+            });
+
+            assertEquals(ALL_SHARDS, result.get(30, TimeUnit.SECONDS).getRing());
+            assertEquals(0, countRows(dataSource, userId));
+            assertEquals(1, countRows(shardA, userId));
+        } finally {
+            resharding.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("deleting a show removes its rows from the shards")
+    void showDeleted_rowsRemovedFromShards() throws Exception {
+        WatchHistoryShards shards = shards(ALL_SHARDS);
+        UserWatchHistoryDao dao = dao(shards);
+        int userId = userOn(shards, "shard-a");
+        dao.addShowToWatchHistory(request(1, WatchStatus.ALREADY_WATCHED), userId);
+
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM tv_shows WHERE show_id = 1");
+        }
+        // The orphaned row is hidden from merged views before the cleanup runs
+        assertTrue(dao.getWatchHistoryByUserId(userId, false).isEmpty());
+
+        shards.onShowChanged(new ShowChangedEvent(1));
+        assertEquals(0, countRows(shardA, userId));
+    }
+
+    @Test
+    @DisplayName("the ring is recorded on the primary, so a restart keeps users on the shards they were moved to")
+    void ring_survivesRestart() throws Exception {
+        WatchHistoryShards shards = shards(List.of(WatchHistoryShards.PRIMARY));
+        UserWatchHistoryDao dao = dao(shards);
+        for (int userId = 1; userId <= USERS; userId++) {
+            dao.addShowToWatchHistory(request(1, WatchStatus.ALREADY_WATCHED), userId);
+        }
+        new WatchHistoryResharder(shards).reshard(ALL_SHARDS);
+
+        WatchHistoryShards restarted = shards(List.of());
+        assertEquals(ALL_SHARDS, restarted.getRingMembers());
+        UserWatchHistoryDao restartedDao = dao(restarted);
+        for (int userId = 1; userId <= USERS; userId++) {
+            assertEquals(1, restartedDao.getWatchHistoryByUserId(userId, false).size());
+        }
+        // A configured ring that disagrees with the recorded one is refused rather than silently re-routing users
+        assertThrows(IllegalStateException.class, () -> shards(List.of(WatchHistoryShards.PRIMARY)));
+    }
+
+    @Test
+    @DisplayName("configuring shards without a recorded ring keeps every user on the primary")
+    void newShards_doNotRerouteUsers() throws Exception {
+        assertEquals(List.of(WatchHistoryShards.PRIMARY), shards(List.of()).getRingMembers());
+
+        dao(shards(List.of())).addShowToWatchHistory(request(1, WatchStatus.ALREADY_WATCHED), 1);
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM watch_history_ring");
+        }
+        // Rows already on the primary must be moved, not re-routed, onto a wider ring
+        assertThrows(IllegalStateException.class, () -> shards(ALL_SHARDS));
+    }
+
+    @Test
+    @DisplayName("an interrupted resharding keeps moved users routed to their rows and can be resumed")
+    void interruptedReshard_routesMovedUsersAndResumes() throws Exception {
+        int userId = userOn(new ConsistentHashRing(ALL_SHARDS, 128), "shard-a");
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO watch_history_ring (ring_id, members, target_members) "
+                    + "VALUES (1, 'primary', 'primary,shard-a,shard-b')");
+            stmt.execute("INSERT INTO watch_history_moved_users (user_id) VALUES (" + userId + ")");
+            // Left behind on the old shard by a crash between recording the move and deleting the rows
+            stmt.execute("INSERT INTO user_watch_history (user_id, show_id, status) VALUES (" + userId + ", 2, 'Want to Watch')");
+        }
+        try (Connection conn = shardA.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO user_watch_history (user_id, show_id, status) VALUES (" + userId + ", 1, 'Already Watched')");
+        }
+
+        WatchHistoryShards shards = shards(List.of());
+        assertEquals(ALL_SHARDS, shards.getTargetRingMembers());
+        assertEquals("shard-a", shards.shardOf(userId));
+        List<UserWatchHistoryResponse> history = dao(shards).getWatchHistoryByUserId(userId, false);
+        assertEquals(1, history.size());
+        assertEquals("Test Show", history.get(0).getShowName());
+
+        new WatchHistoryResharder(shards).reshard(ALL_SHARDS);
+        assertEquals(ALL_SHARDS, shards(List.of()).getRingMembers());
+        assertNull(shards(List.of()).getTargetRingMembers());
+        assertEquals(0, countRows(dataSource, userId));
+        assertEquals(1, countRows(shardA, userId));
+    }
+
+    @Test
+    @DisplayName("resharding is refused while another instance is running, and allowed once it stops")
+    void reshard_refusedWhileAnotherInstanceRuns() throws Exception {
+        WatchHistoryShards shards = shards(List.of(WatchHistoryShards.PRIMARY));
+        WatchHistoryShards other = shards(List.of());
+        WatchHistoryResharder resharder = new WatchHistoryResharder(shards);
+
+        assertThrows(IllegalStateException.class, () -> resharder.reshard(ALL_SHARDS));
+        assertNull(shards.getTargetRingMembers());
+        // The target is cleared again, so the other instance could still restart
+        WatchHistoryShards restarted = shards(List.of());
+        assertNull(restarted.getTargetRingMembers());
+
+        restarted.destroy();
+        other.destroy();
+        assertEquals(ALL_SHARDS, resharder.reshard(ALL_SHARDS).getRing());
+    }
+
+    @Test
+    @DisplayName("an instance refuses to start while another running instance is resharding")
+    void startup_refusedWhileAnotherInstanceReshards() throws Exception {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO watch_history_ring (ring_id, members, target_members) "
+                    + "VALUES (1, 'primary', 'primary,shard-a,shard-b')");
+            stmt.execute("INSERT INTO watch_history_instances (instance_id) VALUES ('resharding-instance')");
+        }
+        assertThrows(IllegalStateException.class, () -> shards(List.of()));
+
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            // An instance that stopped sending heartbeats, e.g. one that crashed mid-resharding, no longer counts
+            stmt.execute("UPDATE watch_history_instances SET heartbeat_at = TIMESTAMP '2000-01-01 00:00:00'");
+        }
+        assertEquals(ALL_SHARDS, shards(List.of()).getTargetRingMembers());
+    }
+
+    private WatchHistoryShards shards(List<String> ring) {
+        return new WatchHistoryShards(dataSource, Map.of("shard-a", shardA, "shard-b", shardB), ring, 128);
+    }
+
+    private static UserWatchHistoryDao dao(WatchHistoryShards shards) {
+        return new UserWatchHistoryDaoImpl(shards.getPrimary().getDataSource(), false, 500, new DataVersions(4096), shards);
+    }
+
+    private static int userOn(WatchHistoryShards shards, String shard) {
+        for (int userId = 1; userId <= USERS; userId++) {
+            if (shards.shardOf(userId).equals(shard)) {
+                return userId;
+            }
+        }
+        throw new IllegalStateException("No test user hashes to " + shard);
+    }
+
+    private static int userOn(ConsistentHashRing ring, String shard) {
+        for (int userId = 1; userId <= USERS; userId++) {
+            if (ring.nodeFor(userId).equals(shard)) {
+                return userId;
+            }
+        }
+        throw new IllegalStateException("No test user hashes to " + shard);
+    }
+
+    private static UserWatchHistoryRequest request(int showId, WatchStatus status) {
+        UserWatchHistoryRequest request = new UserWatchHistoryRequest();
+        request.setShowId(showId);
+        request.setStatus(status);
+        return request;
+    }
+
+    private static int countRows(DataSource database, Integer userId) throws SQLException {
+        String query = "SELECT COUNT(*) FROM user_watch_history" + (userId != null ? " WHERE user_id = " + userId : "");
+        try (Connection conn = database.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static DataSource shard(String name) {
+        DataSource shard = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(shard).locations("classpath:db/shard/h2").load().migrate();
+        return shard;
+    }
+}
@@ -10,6 +10,7 @@ import javax.sql.DataSource;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
@@ -33,15 +34,20 @@ class ShowDaoImplIntegrationTest {
     private ShowDao showDao;
     @Autowired
     private DataSource dataSource;
+    @Autowired
+    private com.jmill29.tvtrackerapi.cache.DataVersions dataVersions;
 
     @BeforeEach
     void setUp() throws Exception {
         try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM show_genres");
+            stmt.execute("DELETE FROM genres");
             stmt.execute("DELETE FROM tv_shows");
             stmt.execute("ALTER TABLE tv_shows ALTER COLUMN show_id RESTART WITH 1;");
             stmt.execute("INSERT INTO tv_shows (show_name, description, image_url, num_episodes, release_year) VALUES ('Test Show', 'A test show', 'test.jpg', 10, 2020)");
             stmt.execute("INSERT INTO tv_shows (show_name, description, image_url, num_episodes, release_year) VALUES ('Another Show', 'Another desc', 'img2.jpg', 5, 2021)");
-            // For genre tests, you would need to insert into genres/show_genres if those tables exist in test schema
+            stmt.execute("INSERT INTO genres (genre_id, name) VALUES (1, 'Drama'), (2, 'Comedy'), (3, 'Thriller')");
+            stmt.execute("INSERT INTO show_genres (show_id, genre_id) VALUES (1, 1), (1, 2)");
         }
     }
 
@@ -68,6 +74,30 @@ class ShowDaoImplIntegrationTest {
         assertEquals(2, shows.size());
     }
 
+    @Test
+    @DisplayName("findPage returns shows after the cursor in ID order")
+    void findPage_returnsShowsAfterCursor() throws Exception {
+        List<Show> first = showDao.findPage(0, 1, true);
+        assertEquals(1, first.size());
+        assertEquals(1, first.get(0).getId());
+        assertEquals("A test show", first.get(0).getDescription());
+
+        List<Show> second = showDao.findPage(first.get(0).getId(), 10, true);
+        assertEquals(1, second.size());
+        assertEquals("Another Show", second.get(0).getName());
+
+        assertTrue(showDao.findPage(2, 10, true).isEmpty());
+    }
+
+    @Test
+    @DisplayName("findPage without descriptions leaves description null")
+    void findPage_summaryOmitsDescription() throws Exception {
+        List<Show> shows = showDao.findPage(0, 10, false);
+        assertEquals(2, shows.size());
+        assertNull(shows.get(0).getDescription());
+        assertEquals("Test Show", shows.get(0).getName());
+    }
+
     @Test
     @DisplayName("findByName returns matching shows")
     void findByName_returnsMatchingShows() throws Exception {
@@ -91,6 +121,7 @@ class ShowDaoImplIntegrationTest {
         assertTrue(result);
         List<Show> shows = showDao.findByName("Brand New Show");
         assertFalse(shows.isEmpty());
+        assertEquals(shows.get(0).getId(), newShow.getId());
     }
 
     @Test
@@ -123,16 +154,20 @@ class ShowDaoImplIntegrationTest {
     @Test
     @DisplayName("deleteById deletes show")
     void deleteById_deletesShow() throws Exception {
+        long version = dataVersions.getCatalogueVersion();
         boolean result = showDao.deleteById(2);
         assertTrue(result);
         assertFalse(showDao.findById(2).isPresent());
+        assertEquals(version + 1, dataVersions.getCatalogueVersion());
     }
 
     @Test
     @DisplayName("deleteById returns false for missing show")
     void deleteById_returnsFalseForMissingShow() throws Exception {
+        long version = dataVersions.getCatalogueVersion();
         boolean result = showDao.deleteById(999);
         assertFalse(result);
+        assertEquals(version, dataVersions.getCatalogueVersion());
     }
 
     @Test
@@ -147,4 +182,61 @@ class ShowDaoImplIntegrationTest {
             assertTrue(e instanceof java.sql.SQLException);
         }
     }
+
+    @Test
+    @DisplayName("findById loads the show's genres sorted by name")
+    void findById_loadsGenres() throws Exception {
+        assertEquals(List.of("Comedy", "Drama"), showDao.findById(1).orElseThrow().getGenres());
+        assertEquals(List.of(), showDao.findById(2).orElseThrow().getGenres());
+    }
+
+    @Test
+    @DisplayName("findAll and findPage load genres for every show")
+    void findAll_loadsGenres() throws Exception {
+        List<Show> shows = showDao.findAll();
+        assertEquals(List.of("Comedy", "Drama"), shows.get(0).getGenres());
+        assertTrue(shows.get(1).getGenres().isEmpty());
+
+        List<Show> page = showDao.findPage(0, 10, false);
+        assertEquals(List.of("Comedy", "Drama"), page.get(0).getGenres());
+    }
+
+    @Test
+    @DisplayName("findByGenre returns each match with its full genre list")
+    void findByGenre_loadsAllGenresOfMatches() throws Exception {
+        List<Show> shows = showDao.findByGenre("Drama");
+        assertEquals(1, shows.size());
+        assertEquals(List.of("Comedy", "Drama"), shows.get(0).getGenres());
+    }
+
+    @Test
+    @DisplayName("saveWithGenres inserts the show and its genre links")
+    void saveWithGenres_insertsShowAndGenres() throws Exception {
+        Show show = new Show(0, "Genre Show", "desc", "img.jpg", 3, (short)2024, null);
+        show.setGenres(List.of("thriller", "Drama", "DRAMA"));
+
+        assertTrue(showDao.saveWithGenres(show));
+        assertTrue(show.getId() > 0);
+        assertEquals(List.of("Drama", "Thriller"), show.getGenres());
+        assertEquals(List.of("Drama", "Thriller"), showDao.findById(show.getId()).orElseThrow().getGenres());
+    }
+
+    @Test
+    @DisplayName("saveWithGenres writes nothing when a genre is unknown")
+    void saveWithGenres_rollsBackOnUnknownGenre() throws Exception {
+        Show show = new Show(0, "Genre Show", "desc", "img.jpg", 3, (short)2024, null);
+        show.setGenres(List.of("Drama", "Western"));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> showDao.saveWithGenres(show));
+        assertTrue(ex.getMessage().contains("western"));
+        assertTrue(showDao.findByName("Genre Show").isEmpty());
+    }
+
+    @Test
+    @DisplayName("saveWithGenres throws on duplicate show")
+    void saveWithGenres_throwsOnDuplicateShow() {
+        Show dup = new Show(0, "Test Show", "desc", "img.jpg", 8, (short)2020, null);
+        dup.setGenres(List.of("Drama"));
+        assertThrows(com.jmill29.tvtrackerapi.exception.ShowAlreadyExistsException.class, () -> showDao.saveWithGenres(dup));
+    }
 }
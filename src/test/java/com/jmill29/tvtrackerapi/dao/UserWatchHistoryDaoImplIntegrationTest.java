@@ -3,11 +3,14 @@ package com.jmill29.tvtrackerapi.dao;
 import java.sql.Connection;
 import java.sql.Statement;
 import java.util.List;
+import java.util.Optional;
 
 import javax.sql.DataSource;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -18,8 +21,14 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import com.jmill29.tvtrackerapi.cache.DataVersions;
+import com.jmill29.tvtrackerapi.cache.ShowCache;
+import com.jmill29.tvtrackerapi.datasource.WatchHistoryShards;
+import com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest;
 import com.jmill29.tvtrackerapi.dto.UserWatchHistoryRequest;
 import com.jmill29.tvtrackerapi.dto.UserWatchHistoryResponse;
+import com.jmill29.tvtrackerapi.model.UserWatchHistory;
+import com.jmill29.tvtrackerapi.model.WatchHistoryStats;
 
 @SpringBootTest
 @AutoConfigureTestDatabase(replace = Replace.ANY)
@@ -31,6 +40,10 @@ class UserWatchHistoryDaoImplIntegrationTest {
     private UserWatchHistoryDao userWatchHistoryDao;
     @Autowired
     private DataSource dataSource;
+    @Autowired
+    private DataVersions dataVersions;
+    @Autowired
+    private ShowDao showDao;
 
     @BeforeEach
     void setUp() throws Exception {
@@ -87,18 +100,17 @@ class UserWatchHistoryDaoImplIntegrationTest {
         req.setStatus(com.jmill29.tvtrackerapi.enums.WatchStatus.ALREADY_WATCHED);
         userWatchHistoryDao.addShowToWatchHistory(req, "testuser");
         req.setStatus(com.jmill29.tvtrackerapi.enums.WatchStatus.WANT_TO_WATCH);
-        boolean updated = userWatchHistoryDao.updateWatchStatus(req, "testuser");
-        assertTrue(updated);
+        Optional<UserWatchHistory> previous = userWatchHistoryDao.updateWatchStatus(req, "testuser");
+        assertEquals(Optional.of(new UserWatchHistory(1, 1, com.jmill29.tvtrackerapi.enums.WatchStatus.ALREADY_WATCHED)), previous);
     }
 
     @Test
-    @DisplayName("updateWatchStatus returns false for nonexistent")
+    @DisplayName("updateWatchStatus returns empty for nonexistent")
     void updateWatchStatus_nonexistentReturnsFalse() throws Exception {
         UserWatchHistoryRequest req = new UserWatchHistoryRequest();
         req.setShowId(99);
         req.setStatus(com.jmill29.tvtrackerapi.enums.WatchStatus.ALREADY_WATCHED);
-        boolean updated = userWatchHistoryDao.updateWatchStatus(req, "testuser");
-        assertFalse(updated);
+        assertTrue(userWatchHistoryDao.updateWatchStatus(req, "testuser").isEmpty());
     }
 
     @Test
@@ -108,15 +120,13 @@ class UserWatchHistoryDaoImplIntegrationTest {
         req.setShowId(1);
         req.setStatus(com.jmill29.tvtrackerapi.enums.WatchStatus.ALREADY_WATCHED);
         userWatchHistoryDao.addShowToWatchHistory(req, "testuser");
-        boolean deleted = userWatchHistoryDao.deleteShowFromWatchHistory("testuser", 1);
-        assertTrue(deleted);
+        assertTrue(userWatchHistoryDao.deleteShowFromWatchHistory("testuser", 1).isPresent());
     }
 
     @Test
-    @DisplayName("deleteShowFromWatchHistory returns false for nonexistent")
+    @DisplayName("deleteShowFromWatchHistory returns empty for nonexistent")
     void deleteShowFromWatchHistory_nonexistentReturnsFalse() throws Exception {
-        boolean deleted = userWatchHistoryDao.deleteShowFromWatchHistory("testuser", 99);
-        assertFalse(deleted);
+        assertTrue(userWatchHistoryDao.deleteShowFromWatchHistory("testuser", 99).isEmpty());
     }
 
     @Test
@@ -134,4 +144,274 @@ class UserWatchHistoryDaoImplIntegrationTest {
     void isShowInWatchHistory_returnsFalseIfNotExists() throws Exception {
         assertFalse(userWatchHistoryDao.isShowInWatchHistory("testuser", 99));
     }
+
+    @Test
+    @DisplayName("user ID overloads add, update, check, and delete")
+    void userIdOverloads_roundTrip() throws Exception {
+        UserWatchHistoryRequest req = new UserWatchHistoryRequest();
+        req.setShowId(1);
+        req.setStatus(com.jmill29.tvtrackerapi.enums.WatchStatus.WANT_TO_WATCH);
+        assertTrue(userWatchHistoryDao.addShowToWatchHistory(req, 1));
+        assertTrue(userWatchHistoryDao.isShowInWatchHistory(1, 1));
+
+        req.setStatus(com.jmill29.tvtrackerapi.enums.WatchStatus.ALREADY_WATCHED);
+        assertTrue(userWatchHistoryDao.updateWatchStatus(req, 1).isPresent());
+        assertEquals(com.jmill29.tvtrackerapi.enums.WatchStatus.ALREADY_WATCHED.getDbValue(),
+            userWatchHistoryDao.getWatchHistoryByUserId(1, false).get(0).getStatus());
+
+        assertEquals(Optional.of(new UserWatchHistory(1, 1, com.jmill29.tvtrackerapi.enums.WatchStatus.ALREADY_WATCHED)),
+            userWatchHistoryDao.deleteShowFromWatchHistory(1, 1));
+        assertFalse(userWatchHistoryDao.isShowInWatchHistory(1, 1));
+        assertTrue(userWatchHistoryDao.deleteShowFromWatchHistory(1, 1).isEmpty());
+    }
+
+    @Test
+    @DisplayName("addShowToWatchHistory by user ID maps a duplicate to WatchHistoryAlreadyExistsException")
+    void addShowToWatchHistoryByUserId_duplicateThrows() throws Exception {
+        UserWatchHistoryRequest req = new UserWatchHistoryRequest();
+        req.setShowId(1);
+        req.setStatus(com.jmill29.tvtrackerapi.enums.WatchStatus.WANT_TO_WATCH);
+        userWatchHistoryDao.addShowToWatchHistory(req, 1);
+        assertThrows(com.jmill29.tvtrackerapi.exception.WatchHistoryAlreadyExistsException.class,
+            () -> userWatchHistoryDao.addShowToWatchHistory(req, 1));
+    }
+
+    @Test
+    @DisplayName("addShowToWatchHistory by user ID maps missing show and user from the foreign key violation")
+    void addShowToWatchHistoryByUserId_missingParentThrows() {
+        UserWatchHistoryRequest req = new UserWatchHistoryRequest();
+        req.setShowId(99);
+        req.setStatus(com.jmill29.tvtrackerapi.enums.WatchStatus.WANT_TO_WATCH);
+        assertThrows(com.jmill29.tvtrackerapi.exception.ShowNotFoundException.class,
+            () -> userWatchHistoryDao.addShowToWatchHistory(req, 1));
+
+        req.setShowId(1);
+        assertThrows(com.jmill29.tvtrackerapi.exception.UserNotFoundException.class,
+            () -> userWatchHistoryDao.addShowToWatchHistory(req, 99));
+    }
+
+    @Test
+    @DisplayName("upsertWatchStatus inserts a missing entry and updates an existing one")
+    void upsertWatchStatus_insertsThenUpdates() throws Exception {
+        UserWatchHistoryRequest req = new UserWatchHistoryRequest();
+        req.setShowId(1);
+        req.setStatus(com.jmill29.tvtrackerapi.enums.WatchStatus.WANT_TO_WATCH);
+        assertTrue(userWatchHistoryDao.upsertWatchStatus(req, 1));
+        assertEquals(com.jmill29.tvtrackerapi.enums.WatchStatus.WANT_TO_WATCH.getDbValue(),
+            userWatchHistoryDao.getWatchHistoryByUserId(1, false).get(0).getStatus());
+
+        req.setStatus(com.jmill29.tvtrackerapi.enums.WatchStatus.CURRENTLY_WATCHING);
+        assertTrue(userWatchHistoryDao.upsertWatchStatus(req, 1));
+        List<UserWatchHistoryResponse> history = userWatchHistoryDao.getWatchHistoryByUserId(1, false);
+        assertEquals(1, history.size());
+        assertEquals(com.jmill29.tvtrackerapi.enums.WatchStatus.CURRENTLY_WATCHING.getDbValue(), history.get(0).getStatus());
+
+        req.setShowId(99);
+        assertThrows(com.jmill29.tvtrackerapi.exception.ShowNotFoundException.class,
+            () -> userWatchHistoryDao.upsertWatchStatus(req, 1));
+    }
+
+    @Test
+    @DisplayName("findWatchHistoryState reports existing shows and existing entries in one query")
+    void findWatchHistoryState_reportsState() throws Exception {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO tv_shows (show_id, show_name, description, image_url, num_episodes, release_year) VALUES (2, 'Other Show', 'Another', 'other.jpg', 5, 2021)");
+        }
+        userWatchHistoryDao.addShowToWatchHistory(new UserWatchHistoryRequest(2, com.jmill29.tvtrackerapi.enums.WatchStatus.WANT_TO_WATCH), 1);
+
+        java.util.Map<Integer, Boolean> state = userWatchHistoryDao.findWatchHistoryState(1, List.of(1, 2, 99));
+        assertEquals(2, state.size());
+        assertFalse(state.get(1));
+        assertTrue(state.get(2));
+        assertFalse(state.containsKey(99));
+    }
+
+    @Test
+    @DisplayName("addShowsToWatchHistory inserts all rows or none")
+    void addShowsToWatchHistory_isAtomic() throws Exception {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO tv_shows (show_id, show_name, description, image_url, num_episodes, release_year) VALUES (2, 'Other Show', 'Another', 'other.jpg', 5, 2021)");
+        }
+        List<UserWatchHistoryRequest> batch = List.of(
+            new UserWatchHistoryRequest(1, com.jmill29.tvtrackerapi.enums.WatchStatus.WANT_TO_WATCH),
+            new UserWatchHistoryRequest(2, com.jmill29.tvtrackerapi.enums.WatchStatus.ALREADY_WATCHED));
+        assertEquals(2, userWatchHistoryDao.addShowsToWatchHistory(batch, 1));
+        assertEquals(2, userWatchHistoryDao.getWatchHistoryByUserId(1, false).size());
+
+        userWatchHistoryDao.deleteShowFromWatchHistory(1, 1);
+        assertThrows(com.jmill29.tvtrackerapi.exception.WatchHistoryAlreadyExistsException.class,
+            () -> userWatchHistoryDao.addShowsToWatchHistory(batch, 1));
+        // Show 1 must not have been re-added because the batch was rolled back
+        assertFalse(userWatchHistoryDao.isShowInWatchHistory(1, 1));
+    }
+
+    @Test
+    @DisplayName("forEachShowWithWatchStatus streams every show with the user's status")
+    void forEachShowWithWatchStatus_streamsAllShows() throws Exception {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO tv_shows (show_id, show_name, description, image_url, num_episodes, release_year) VALUES (2, 'Other Show', 'Another', 'other.jpg', 5, 2021)");
+        }
+        userWatchHistoryDao.addShowToWatchHistory(new UserWatchHistoryRequest(2, com.jmill29.tvtrackerapi.enums.WatchStatus.ALREADY_WATCHED), 1);
+
+        List<UserWatchHistoryResponse> rows = new java.util.ArrayList<>();
+        userWatchHistoryDao.forEachShowWithWatchStatus(1, rows::add);
+        assertEquals(2, rows.size());
+        assertEquals(1, rows.get(0).getShowId());
+        assertEquals("Not Watched", rows.get(0).getStatus());
+        assertEquals(2, rows.get(1).getShowId());
+        assertEquals("Already Watched", rows.get(1).getStatus());
+    }
+
+    @Test
+    @DisplayName("getWatchHistoryStats aggregates statuses, episodes, and ratings")
+    void getWatchHistoryStats_aggregates() throws Exception {
+        assertEquals(new WatchHistoryStats(), userWatchHistoryDao.getWatchHistoryStats(1));
+
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO tv_shows (show_id, show_name, description, image_url, num_episodes, release_year) VALUES (2, 'Other Show', 'Another', 'other.jpg', 5, 2021)");
+            stmt.execute("INSERT INTO tv_shows (show_id, show_name, description, image_url, num_episodes, release_year) VALUES (3, 'Third Show', 'Third', 'third.jpg', 5, 2022)");
+            stmt.execute("INSERT INTO user_watch_history (user_id, show_id, status, episodes_watched, rating) VALUES (1, 1, 'Already Watched', 10, 5)");
+            stmt.execute("INSERT INTO user_watch_history (user_id, show_id, status, episodes_watched, rating) VALUES (1, 2, 'Already Watched', 5, 4)");
+            stmt.execute("INSERT INTO user_watch_history (user_id, show_id, status, episodes_watched) VALUES (1, 3, 'Currently Watching', 2)");
+        }
+
+        WatchHistoryStats stats = userWatchHistoryDao.getWatchHistoryStats(1);
+        assertEquals(2, stats.getCount(com.jmill29.tvtrackerapi.enums.WatchStatus.ALREADY_WATCHED));
+        assertEquals(1, stats.getCount(com.jmill29.tvtrackerapi.enums.WatchStatus.CURRENTLY_WATCHING));
+        assertEquals(3, stats.getTotalCount());
+        assertEquals(17, stats.getTotalEpisodesWatched());
+        assertEquals(4.5, stats.getAverageRating());
+    }
+
+    @Test
+    @DisplayName("addShowToWatchHistory stores and returns episodes, rating, and favorite")
+    void addShowToWatchHistory_storesProgressFields() throws Exception {
+        UserWatchHistoryRequest req = new UserWatchHistoryRequest(1, com.jmill29.tvtrackerapi.enums.WatchStatus.CURRENTLY_WATCHING);
+        req.setEpisodesWatched(4);
+        req.setRating(5);
+        req.setFavorite(true);
+        assertTrue(userWatchHistoryDao.addShowToWatchHistory(req, 1));
+
+        UserWatchHistoryResponse row = userWatchHistoryDao.getWatchHistoryByUserId(1, false).get(0);
+        assertEquals(4, row.getEpisodesWatched());
+        assertEquals(5, row.getRating());
+        assertTrue(row.isFavorite());
+    }
+
+    @Test
+    @DisplayName("untracked shows report no episodes, no rating, and not a favorite")
+    void getWatchHistoryByUserId_defaultsProgressFields() throws Exception {
+        UserWatchHistoryResponse row = userWatchHistoryDao.getWatchHistoryByUsername("testuser", true).get(0);
+        assertEquals("Not Watched", row.getStatus());
+        assertEquals(0, row.getEpisodesWatched());
+        assertNull(row.getRating());
+        assertFalse(row.isFavorite());
+    }
+
+    @Test
+    @DisplayName("patchWatchHistory changes only the supplied fields")
+    void patchWatchHistory_changesOnlySuppliedFields() throws Exception {
+        UserWatchHistoryRequest req = new UserWatchHistoryRequest(1, com.jmill29.tvtrackerapi.enums.WatchStatus.CURRENTLY_WATCHING);
+        req.setEpisodesWatched(2);
+        req.setRating(3);
+        userWatchHistoryDao.addShowToWatchHistory(req, 1);
+
+        UserWatchHistoryPatchRequest progress = new UserWatchHistoryPatchRequest();
+        progress.setEpisodesWatched(3);
+        assertTrue(userWatchHistoryDao.patchWatchHistory(1, 1, progress));
+        UserWatchHistoryResponse row = userWatchHistoryDao.getWatchHistoryByUserId(1, false).get(0);
+        assertEquals(3, row.getEpisodesWatched());
+        assertEquals("Currently Watching", row.getStatus());
+        assertEquals(3, row.getRating());
+
+        UserWatchHistoryPatchRequest finished = new UserWatchHistoryPatchRequest();
+        finished.setStatus(com.jmill29.tvtrackerapi.enums.WatchStatus.ALREADY_WATCHED);
+        finished.setRating(null);
+        finished.setFavorite(true);
+        assertTrue(userWatchHistoryDao.patchWatchHistory(1, 1, finished));
+        row = userWatchHistoryDao.getWatchHistoryByUserId(1, false).get(0);
+        assertEquals("Already Watched", row.getStatus());
+        assertEquals(3, row.getEpisodesWatched());
+        assertNull(row.getRating());
+        assertTrue(row.isFavorite());
+    }
+
+    @Test
+    @DisplayName("patchWatchHistory returns false when the entry does not exist and rejects empty patches")
+    void patchWatchHistory_missingEntry() throws Exception {
+        UserWatchHistoryPatchRequest patch = new UserWatchHistoryPatchRequest();
+        patch.setFavorite(true);
+        assertFalse(userWatchHistoryDao.patchWatchHistory(1, 1, patch));
+        assertThrows(IllegalArgumentException.class,
+            () -> userWatchHistoryDao.patchWatchHistory(1, 1, new UserWatchHistoryPatchRequest()));
+    }
+
+    @Test
+    @DisplayName("updateEpisodesWatched writes a batch and skips pairs without an entry")
+    void updateEpisodesWatched_writesBatch() throws Exception {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO tv_shows (show_id, show_name, description, image_url, num_episodes, release_year) VALUES (2, 'Other Show', 'Another', 'other.jpg', 5, 2021)");
+        }
+        userWatchHistoryDao.addShowToWatchHistory(new UserWatchHistoryRequest(1, com.jmill29.tvtrackerapi.enums.WatchStatus.CURRENTLY_WATCHING), 1);
+        userWatchHistoryDao.addShowToWatchHistory(new UserWatchHistoryRequest(2, com.jmill29.tvtrackerapi.enums.WatchStatus.CURRENTLY_WATCHING), 1);
+
+        int updated = userWatchHistoryDao.updateEpisodesWatched(List.of(
+            new com.jmill29.tvtrackerapi.model.EpisodeProgress(1, 1, 6),
+            new com.jmill29.tvtrackerapi.model.EpisodeProgress(1, 2, 3),
+            new com.jmill29.tvtrackerapi.model.EpisodeProgress(1, 99, 1)));
+        assertEquals(2, updated);
+        assertEquals(9, userWatchHistoryDao.getWatchHistoryStats(1).getTotalEpisodesWatched());
+        assertEquals(0, userWatchHistoryDao.updateEpisodesWatched(List.of()));
+    }
+
+    @Test
+    @DisplayName("writes that change a row bump the user's ETag version; writes that match nothing do not")
+    void writes_bumpUserVersion() throws Exception {
+        long before = dataVersions.getUserVersion(1);
+        UserWatchHistoryRequest req = new UserWatchHistoryRequest();
+        req.setShowId(1);
+        req.setStatus(com.jmill29.tvtrackerapi.enums.WatchStatus.WANT_TO_WATCH);
+        userWatchHistoryDao.addShowToWatchHistory(req, 1);
+        assertEquals(before + 1, dataVersions.getUserVersion(1));
+
+        assertTrue(userWatchHistoryDao.deleteShowFromWatchHistory(1, 999).isEmpty());
+        assertEquals(before + 1, dataVersions.getUserVersion(1));
+
+        assertTrue(userWatchHistoryDao.deleteShowFromWatchHistory("testuser", 1).isPresent());
+        assertEquals(before + 2, dataVersions.getUserVersion(1));
+    }
+
+    @Test
+    @DisplayName("full-catalogue lists merged with the cached catalogue match the LEFT JOIN")
+    void getWatchHistory_mergedWithCachedCatalogue_matchesJoin() throws Exception {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO tv_shows (show_id, show_name, description, image_url, num_episodes, release_year) VALUES (2, 'Other Show', 'Another show', 'other.jpg', 8, 2021)");
+        }
+        UserWatchHistoryRequest req = new UserWatchHistoryRequest();
+        req.setShowId(2);
+        req.setStatus(com.jmill29.tvtrackerapi.enums.WatchStatus.CURRENTLY_WATCHING);
+        req.setEpisodesWatched(3);
+        req.setRating(4);
+        req.setFavorite(true);
+        userWatchHistoryDao.addShowToWatchHistory(req, 1);
+
+        ShowCache showCache = new ShowCache(100);
+        showCache.putAll(showDao.findAll(), showCache.generation());
+        UserWatchHistoryDao merging = new UserWatchHistoryDaoImpl(dataSource, false, 500, dataVersions,
+                WatchHistoryShards.unsharded(dataSource), true, showCache);
+
+        List<UserWatchHistoryResponse> merged = merging.getWatchHistoryByUserId(1, true);
+        assertEquals(2, merged.size());
+        assertEquals("Not Watched", merged.get(0).getStatus());
+        assertEquals(0, merged.get(0).getEpisodesWatched());
+        assertNull(merged.get(0).getRating());
+        assertFalse(merged.get(0).isFavorite());
+        assertEquals(userWatchHistoryDao.getWatchHistoryByUserId(1, true).toString(), merged.toString());
+        assertEquals(userWatchHistoryDao.getWatchHistoryByUsername("testuser", true).toString(),
+                merging.getWatchHistoryByUsername("testuser", true).toString());
+
+        // Without a snapshot the lists are joined in SQL as before
+        showCache.evictAll();
+        assertEquals(merged.toString(), merging.getWatchHistoryByUserId(1, true).toString());
+    }
 }
@@ -0,0 +1,114 @@
+package com.jmill29.tvtrackerapi.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.jmill29.tvtrackerapi.dto.UserWatchHistoryRequest;
+import com.jmill29.tvtrackerapi.enums.WatchStatus;
+
+/**
+ * Compares 500 single-row watch history inserts with one 500-row JDBC batch.
+ * <p>
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ * </p>
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = Replace.ANY)
+@ActiveProfiles("test")
+@Tag("benchmark")
+@DisplayName("Watch history batch insert benchmark")
+class WatchHistoryBatchBenchmarkTest {
+
+    private static final int SHOWS = 500;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private UserWatchHistoryDao userWatchHistoryDao;
+    @Autowired
+    private DataSource dataSource;
+
+    private List<UserWatchHistoryRequest> requests;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM user_watch_history");
+            stmt.execute("DELETE FROM users");
+            stmt.execute("DELETE FROM tv_shows");
+            stmt.execute("INSERT INTO users (user_id, name, username, password, email, enabled) VALUES (1, 'Bench User', 'bench', 'pass', 'bench@example.com', TRUE)");
+            try (PreparedStatement pStmt = conn.prepareStatement(
+                    "INSERT INTO tv_shows (show_id, show_name, description, image_url, num_episodes, release_year) VALUES (?, ?, 'desc', 'img.jpg', 10, 2020)")) {
+                for (int id = 1; id <= SHOWS; id++) {
+                    pStmt.setInt(1, id);
+                    pStmt.setString(2, "Show " + id);
+                    pStmt.addBatch();
+                }
+                pStmt.executeBatch();
+            }
+        }
+        requests = new ArrayList<>(SHOWS);
+        for (int id = 1; id <= SHOWS; id++) {
+            requests.add(new UserWatchHistoryRequest(id, WatchStatus.WANT_TO_WATCH));
+        }
+    }
+
+    @Test
+    @DisplayName("500 single inserts vs one batch")
+    void singleInsertsVersusBatch() throws Exception {
+        // Warm up both paths so JIT compilation and pool start-up are not measured
+        runSingles();
+        runBatch();
+
+        long singleNanos = 0;
+        long batchNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            singleNanos += runSingles();
+            batchNanos += runBatch();
+        }
+
+        System.out.printf("[benchmark] %d single inserts: %.2f ms/round, one batch: %.2f ms/round (%.1fx)%n",
+            SHOWS, singleNanos / 1e6 / ROUNDS, batchNanos / 1e6 / ROUNDS, (double) singleNanos / batchNanos);
+    }
+
+    private long runSingles() throws Exception {
+        clearHistory();
+        long start = System.nanoTime();
+        for (UserWatchHistoryRequest request : requests) {
+            userWatchHistoryDao.addShowToWatchHistory(request, 1);
+        }
+        long elapsed = System.nanoTime() - start;
+        assertEquals(SHOWS, userWatchHistoryDao.getWatchHistoryByUserId(1, false).size());
+        return elapsed;
+    }
+
+    private long runBatch() throws Exception {
+        clearHistory();
+        long start = System.nanoTime();
+        userWatchHistoryDao.addShowsToWatchHistory(requests, 1);
+        long elapsed = System.nanoTime() - start;
+        assertEquals(SHOWS, userWatchHistoryDao.getWatchHistoryByUserId(1, false).size());
+        return elapsed;
+    }
+
+    private void clearHistory() throws Exception {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM user_watch_history");
+        }
+    }
+}
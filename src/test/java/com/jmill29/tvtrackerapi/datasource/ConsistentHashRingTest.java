@@ -0,0 +1,80 @@
+package com.jmill29.tvtrackerapi.datasource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ConsistentHashRing Test")
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 100_000;
+
+    @Test
+    @DisplayName("assignment depends on the set of nodes, not their order")
+    void nodeFor_independentOfNodeOrder() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("primary", "shard-a", "shard-b"), 128);
+        ConsistentHashRing reordered = new ConsistentHashRing(List.of("shard-b", "primary", "shard-a"), 128);
+        for (int key = 1; key <= KEYS; key++) {
+            assertEquals(ring.nodeFor(key), reordered.nodeFor(key));
+        }
+    }
+
+    @Test
+    @DisplayName("sequential user IDs are spread roughly evenly")
+    void nodeFor_spreadsKeysEvenly() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("primary", "shard-a", "shard-b", "shard-c"), 128);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int key = 1; key <= KEYS; key++) {
+            counts.merge(ring.nodeFor(key), 1, Integer::sum);
+        }
+        assertEquals(4, counts.size());
+        for (int count : counts.values()) {
+            // Within 25% of a perfect quarter
+            assertTrue(Math.abs(count - KEYS / 4) < KEYS / 16, "Unbalanced ring: " + counts);
+        }
+    }
+
+    @Test
+    @DisplayName("adding a node only moves keys onto the new node")
+    void addingNode_movesKeysOnlyToNewNode() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("primary", "shard-a"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("primary", "shard-a", "shard-b"), 128);
+        int moved = 0;
+        for (int key = 1; key <= KEYS; key++) {
+            String owner = after.nodeFor(key);
+            if (!owner.equals(before.nodeFor(key))) {
+                assertEquals("shard-b", owner);
+                moved++;
+            }
+        }
+        // Roughly a third of the keys, not a reshuffle of all of them
+        assertTrue(moved > KEYS / 4 && moved < KEYS * 5 / 12, "Moved " + moved + " keys");
+    }
+
+    @Test
+    @DisplayName("removing a node only moves the keys it owned")
+    void removingNode_movesOnlyItsKeys() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("primary", "shard-a", "shard-b"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("primary", "shard-b"), 128);
+        for (int key = 1; key <= KEYS; key++) {
+            String owner = before.nodeFor(key);
+            if (!owner.equals("shard-a")) {
+                assertEquals(owner, after.nodeFor(key));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("rejects empty, duplicate, or zero virtual node rings")
+    void constructor_rejectsInvalidRings() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(List.of(), 128));
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(List.of("a", "a"), 128));
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(List.of("a"), 0));
+    }
+}
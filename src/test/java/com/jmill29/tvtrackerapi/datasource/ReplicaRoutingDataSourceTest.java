@@ -0,0 +1,179 @@
+package com.jmill29.tvtrackerapi.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jmill29.tvtrackerapi.event.ShowChangedEvent;
+
+/**
+ * Routes against two separate in-memory H2 databases, each of which answers {@code whoami} with its own name.
+ */
+@DisplayName("ReplicaRoutingDataSource Test")
+class ReplicaRoutingDataSourceTest {
+
+    private static final long WINDOW_MILLIS = 5000;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+
+    private ReadYourWritesTracker tracker;
+    private ReplicaRoutingDataSource router;
+    private DataSource dataSource;
+    private JdbcTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DataSource primary = database("routing_primary", "primary");
+        DataSource replica = database("routing_replica", "replica");
+        tracker = new ReadYourWritesTracker(WINDOW_MILLIS, clock);
+        router = new ReplicaRoutingDataSource(primary, replica, () -> tracker);
+        dataSource = new LazyConnectionDataSourceProxy(router);
+        transactionManager = new JdbcTransactionManager(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("read-only transactions use the replica")
+    void readOnlyTransaction_usesReplica() {
+        assertEquals("replica", whoami(true));
+        assertEquals(1, router.getReplicaReadCount());
+    }
+
+    @Test
+    @DisplayName("read-write transactions and non-transactional calls use the primary")
+    void writesAndNonTransactional_usePrimary() throws SQLException {
+        assertEquals("primary", whoami(false));
+        try (Connection conn = dataSource.getConnection()) {
+            assertEquals("primary", whoami(conn));
+        }
+        assertEquals(0, router.getReplicaReadCount());
+    }
+
+    @Test
+    @DisplayName("a user who just wrote reads from the primary until the window passes")
+    void recentWriter_readsPrimaryForWindow() {
+        signIn("alice");
+        tracker.userWrote("alice");
+        assertEquals("primary", whoami(true));
+
+        clock.advance(WINDOW_MILLIS - 1);
+        assertEquals("primary", whoami(true));
+
+        clock.advance(1);
+        assertEquals("replica", whoami(true));
+        assertEquals(2, router.getPrimaryReadCount());
+    }
+
+    @Test
+    @DisplayName("another user's write does not move a reader to the primary")
+    void otherWriter_doesNotAffectReader() {
+        tracker.userWrote("alice");
+        signIn("bob");
+        assertEquals("replica", whoami(true));
+    }
+
+    @Test
+    @DisplayName("a catalogue change sends every reader to the primary for the window")
+    void catalogueChange_readsPrimaryForEveryone() {
+        tracker.onShowChanged(new ShowChangedEvent(1));
+        assertEquals("primary", whoami(true));
+        signIn("bob");
+        assertEquals("primary", whoami(true));
+
+        clock.advance(WINDOW_MILLIS);
+        assertEquals("replica", whoami(true));
+    }
+
+    private String whoami(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> {
+            Connection conn = DataSourceUtils.getConnection(dataSource);
+            try {
+                return whoami(conn);
+            } catch (SQLException ex) {
+                throw new IllegalStateException(ex);
+            } finally {
+                DataSourceUtils.releaseConnection(conn, dataSource);
+            }
+        });
+    }
+
+    private static String whoami(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name FROM whoami")) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    private static DataSource database(String dbName, String name) throws SQLException {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + dbName + ";DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS whoami (name VARCHAR(16))");
+            stmt.execute("DELETE FROM whoami");
+            stmt.execute("INSERT INTO whoami VALUES ('" + name + "')");
+        }
+        return dataSource;
+    }
+
+    private static void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+            username, null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    /** Clock whose time only moves when the test advances it */
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant start) {
+            this.now = start;
+        }
+
+        void advance(long millis) {
+            now = now.plusMillis(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.jmill29.tvtrackerapi.dto;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.jmill29.tvtrackerapi.model.Show;
+
+@DisplayName("ShowPage DTO Test")
+class ShowPageTest {
+    @Test
+    @DisplayName("All-args constructor, getters, and setters")
+    void testAllArgsAndAccessors() {
+        List<Show> items = List.of(new Show());
+        ShowPage dto = new ShowPage(items, 5);
+        assertEquals(items, dto.getItems());
+        assertEquals(Integer.valueOf(5), dto.getNextCursor());
+
+        dto.setItems(List.of());
+        dto.setNextCursor(null);
+        assertTrue(dto.getItems().isEmpty());
+        assertNull(dto.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("No-args constructor initializes fields to defaults")
+    void testNoArgsConstructor() {
+        ShowPage dto = new ShowPage();
+        assertNull(dto.getItems());
+        assertNull(dto.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("toString includes the next cursor")
+    void testToString() {
+        ShowPage dto = new ShowPage(List.of(new Show()), 42);
+        assertTrue(dto.toString().contains("nextCursor=42"));
+    }
+}
@@ -0,0 +1,38 @@
+package com.jmill29.tvtrackerapi.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("TokenRequest DTO Test")
+class TokenRequestTest {
+    @Test
+    @DisplayName("All-args constructor, getters, and setters")
+    void testAllArgsAndAccessors() {
+        TokenRequest dto = new TokenRequest("username", "password");
+        assertEquals("username", dto.getUsername());
+        assertEquals("password", dto.getPassword());
+
+        dto.setUsername("newuser");
+        dto.setPassword("newpass");
+        assertEquals("newuser", dto.getUsername());
+        assertEquals("newpass", dto.getPassword());
+    }
+
+    @Test
+    @DisplayName("No-args constructor initializes fields to null")
+    void testNoArgsConstructor() {
+        TokenRequest dto = new TokenRequest();
+        assertNull(dto.getUsername());
+        assertNull(dto.getPassword());
+    }
+
+    @Test
+    @DisplayName("toString does not expose the password")
+    void testToString() {
+        TokenRequest dto = new TokenRequest("username", "secretpass");
+        assertFalse(dto.toString().contains("secretpass"));
+    }
+}
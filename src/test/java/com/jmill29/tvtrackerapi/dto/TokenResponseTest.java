@@ -0,0 +1,42 @@
+package com.jmill29.tvtrackerapi.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("TokenResponse DTO Test")
+class TokenResponseTest {
+    @Test
+    @DisplayName("All-args constructor, getters, and setters")
+    void testAllArgsAndAccessors() {
+        TokenResponse dto = new TokenResponse("abc.def.ghi", "Bearer", 3600);
+        assertEquals("abc.def.ghi", dto.getAccessToken());
+        assertEquals("Bearer", dto.getTokenType());
+        assertEquals(3600, dto.getExpiresIn());
+
+        dto.setAccessToken("jkl.mno.pqr");
+        dto.setTokenType("bearer");
+        dto.setExpiresIn(60);
+        assertEquals("jkl.mno.pqr", dto.getAccessToken());
+        assertEquals("bearer", dto.getTokenType());
+        assertEquals(60, dto.getExpiresIn());
+    }
+
+    @Test
+    @DisplayName("No-args constructor initializes fields to defaults")
+    void testNoArgsConstructor() {
+        TokenResponse dto = new TokenResponse();
+        assertNull(dto.getAccessToken());
+        assertNull(dto.getTokenType());
+        assertEquals(0, dto.getExpiresIn());
+    }
+
+    @Test
+    @DisplayName("toString does not expose the token")
+    void testToString() {
+        TokenResponse dto = new TokenResponse("abc.def.ghi", "Bearer", 3600);
+        assertFalse(dto.toString().contains("abc.def.ghi"));
+    }
+}
@@ -48,5 +48,20 @@ class UserWatchHistoryRequestTest {
         UserWatchHistoryRequest dto = new UserWatchHistoryRequest();
         assertEquals(0, dto.getShowId());
         assertNull(dto.getStatus());
+        assertNull(dto.getEpisodesWatched());
+        assertNull(dto.getRating());
+        assertNull(dto.getFavorite());
+    }
+
+    @Test
+    @DisplayName("Progress fields getters and setters")
+    void testProgressFields() {
+        UserWatchHistoryRequest dto = new UserWatchHistoryRequest(3, WatchStatus.CURRENTLY_WATCHING);
+        dto.setEpisodesWatched(4);
+        dto.setRating(5);
+        dto.setFavorite(true);
+        assertEquals(4, dto.getEpisodesWatched());
+        assertEquals(5, dto.getRating());
+        assertTrue(dto.getFavorite());
     }
 }
@@ -1,6 +1,7 @@
 package com.jmill29.tvtrackerapi.dto;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -64,5 +65,24 @@ class UserWatchHistoryResponseTest {
         assertNull(dto.getDescription());
         assertNull(dto.getImageUrl());
         assertNull(dto.getStatus());
+        assertEquals(0, dto.getEpisodesWatched());
+        assertNull(dto.getRating());
+        assertFalse(dto.isFavorite());
+    }
+
+    @Test
+    @DisplayName("Progress constructor, getters, and setters")
+    void testProgressFields() {
+        UserWatchHistoryResponse dto = new UserWatchHistoryResponse(1, "Show", "Desc", "img.png", "Currently Watching", 4, 3, true);
+        assertEquals(4, dto.getEpisodesWatched());
+        assertEquals(3, dto.getRating());
+        assertTrue(dto.isFavorite());
+
+        dto.setEpisodesWatched(5);
+        dto.setRating(null);
+        dto.setFavorite(false);
+        assertEquals(5, dto.getEpisodesWatched());
+        assertNull(dto.getRating());
+        assertFalse(dto.isFavorite());
     }
 }
@@ -0,0 +1,44 @@
+package com.jmill29.tvtrackerapi.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.jmill29.tvtrackerapi.enums.BatchItemOutcome;
+
+@DisplayName("WatchHistoryBatchItemResponse DTO Test")
+class WatchHistoryBatchItemResponseTest {
+    @Test
+    @DisplayName("All-args constructor, getters, and setters")
+    void testAllArgsAndAccessors() {
+        WatchHistoryBatchItemResponse dto = new WatchHistoryBatchItemResponse(1, BatchItemOutcome.ADDED, "added");
+        assertEquals(1, dto.getShowId());
+        assertEquals(BatchItemOutcome.ADDED, dto.getOutcome());
+        assertEquals("added", dto.getMessage());
+
+        dto.setShowId(2);
+        dto.setOutcome(BatchItemOutcome.SHOW_NOT_FOUND);
+        dto.setMessage("missing");
+        assertEquals(2, dto.getShowId());
+        assertEquals(BatchItemOutcome.SHOW_NOT_FOUND, dto.getOutcome());
+        assertEquals("missing", dto.getMessage());
+    }
+
+    @Test
+    @DisplayName("No-args constructor initializes fields to defaults")
+    void testNoArgsConstructor() {
+        WatchHistoryBatchItemResponse dto = new WatchHistoryBatchItemResponse();
+        assertEquals(0, dto.getShowId());
+        assertNull(dto.getOutcome());
+        assertNull(dto.getMessage());
+    }
+
+    @Test
+    @DisplayName("toString includes the outcome")
+    void testToString() {
+        WatchHistoryBatchItemResponse dto = new WatchHistoryBatchItemResponse(1, BatchItemOutcome.INVALID, "bad");
+        assertTrue(dto.toString().contains("INVALID"));
+    }
+}
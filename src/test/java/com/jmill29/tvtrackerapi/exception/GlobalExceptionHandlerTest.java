@@ -0,0 +1,40 @@
+package com.jmill29.tvtrackerapi.exception;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.jmill29.tvtrackerapi.dto.ErrorResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("GlobalExceptionHandler Test")
+class GlobalExceptionHandlerTest {
+
+    private MeterRegistry registry;
+    private GlobalExceptionHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        handler = new GlobalExceptionHandler(registry);
+    }
+
+    @Test
+    @DisplayName("handled exceptions are counted by type and status")
+    void handleException_countsByTypeAndStatus() {
+        ResponseEntity<ErrorResponse> response = handler.handleException(new ShowNotFoundException("missing"));
+        handler.handleException(new ShowNotFoundException("missing again"));
+        handler.handleException(new IllegalArgumentException("bad"));
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(2, registry.get(GlobalExceptionHandler.EXCEPTION_COUNTER)
+            .tags("exception", "ShowNotFoundException", "status", "404").counter().count());
+        assertEquals(1, registry.get(GlobalExceptionHandler.EXCEPTION_COUNTER)
+            .tags("exception", "IllegalArgumentException", "status", "400").counter().count());
+    }
+}
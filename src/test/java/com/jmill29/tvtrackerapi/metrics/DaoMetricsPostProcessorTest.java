@@ -0,0 +1,83 @@
+package com.jmill29.tvtrackerapi.metrics;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import com.jmill29.tvtrackerapi.dao.ShowDao;
+import com.jmill29.tvtrackerapi.model.Show;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("DaoMetricsPostProcessor Test")
+class DaoMetricsPostProcessorTest {
+    @Mock
+    private ShowDao showDao;
+
+    private MeterRegistry registry;
+    private DaoMetricsPostProcessor postProcessor;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        registry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("meterRegistry", registry));
+        postProcessor = new DaoMetricsPostProcessor(beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+
+    @Test
+    @DisplayName("DAO beans are proxied and successful calls are timed")
+    void postProcess_timesSuccessfulCalls() throws SQLException {
+        when(showDao.findAll()).thenReturn(List.of(new Show()));
+
+        Object proxied = postProcessor.postProcessAfterInitialization(showDao, "showDao");
+        assertNotSame(showDao, proxied);
+        ShowDao timedDao = (ShowDao) proxied;
+        assertEquals(1, timedDao.findAll().size());
+        timedDao.findAll();
+
+        Timer timer = registry.find(DaoTimingInterceptor.TIMER_NAME)
+            .tags("dao", "ShowDao", "method", "findAll", "outcome", "success", "exception", "none")
+            .timer();
+        assertNotNull(timer);
+        assertEquals(2, timer.count());
+    }
+
+    @Test
+    @DisplayName("failed calls are timed with the exception type and rethrown")
+    void postProcess_timesFailedCalls() throws SQLException {
+        when(showDao.findByName("x")).thenThrow(new SQLException("boom"));
+
+        ShowDao timedDao = (ShowDao) postProcessor.postProcessAfterInitialization(showDao, "showDao");
+        SQLException ex = assertThrows(SQLException.class, () -> timedDao.findByName("x"));
+        assertEquals("boom", ex.getMessage());
+
+        Timer timer = registry.find(DaoTimingInterceptor.TIMER_NAME)
+            .tags("method", "findByName", "outcome", "error", "exception", "SQLException")
+            .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    @DisplayName("beans that are not DAOs are returned unchanged")
+    void postProcess_ignoresOtherBeans() {
+        Object bean = new Object();
+        assertSame(bean, postProcessor.postProcessAfterInitialization(bean, "other"));
+    }
+}
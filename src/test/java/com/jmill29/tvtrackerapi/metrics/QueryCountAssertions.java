@@ -0,0 +1,58 @@
+package com.jmill29.tvtrackerapi.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.function.Executable;
+
+/**
+ * Test helpers that pin the number of JDBC statements and connection checkouts an action performs.
+ * <p>
+ * Only work done on the calling thread against the application's {@link QueryCountingDataSource} is counted,
+ * so these are meant for {@code @SpringBootTest} tests that call services or DAOs directly.
+ * </p>
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    /**
+     * Runs an action inside a fresh {@link QueryCounter} scope.
+     *
+     * @param action the action to measure; it is expected to complete normally
+     * @return the statements and connections it used
+     */
+    public static QueryCounter.Counts countQueries(Executable action) {
+        QueryCounter.start();
+        try {
+            action.execute();
+        } catch (Throwable ex) {
+            QueryCounter.stop();
+            return fail("Action threw while counting queries", ex);
+        }
+        return QueryCounter.stop();
+    }
+
+    /**
+     * Asserts that an action executes exactly the given number of statements.
+     *
+     * @param expected the expected number of statements
+     * @param action   the action to measure
+     */
+    public static void assertStatementCount(int expected, Executable action) {
+        assertEquals(expected, countQueries(action).getStatements(), "statements executed");
+    }
+
+    /**
+     * Asserts that an action executes the given number of statements on the given number of connections.
+     *
+     * @param expectedStatements  the expected number of statements
+     * @param expectedConnections the expected number of connection checkouts
+     * @param action              the action to measure
+     */
+    public static void assertQueryCount(int expectedStatements, int expectedConnections, Executable action) {
+        QueryCounter.Counts counts = countQueries(action);
+        assertEquals(expectedStatements, counts.getStatements(), "statements executed");
+        assertEquals(expectedConnections, counts.getConnections(), "connections checked out");
+    }
+}
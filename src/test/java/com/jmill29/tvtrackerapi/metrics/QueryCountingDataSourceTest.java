@@ -0,0 +1,81 @@
+package com.jmill29.tvtrackerapi.metrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+
+@DisplayName("QueryCountingDataSource Test")
+class QueryCountingDataSourceTest {
+    @Mock
+    private DataSource target;
+    @Mock
+    private Connection connection;
+    @Mock
+    private PreparedStatement statement;
+
+    private QueryCountingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        dataSource = new QueryCountingDataSource(target);
+    }
+
+    @AfterEach
+    void tearDown() {
+        QueryCounter.stop();
+    }
+
+    @Test
+    @DisplayName("connections and executions inside a scope are counted")
+    void scope_countsConnectionsAndStatements() {
+        QueryCounter.Counts counts = QueryCountAssertions.countQueries(() -> {
+            for (int i = 0; i < 2; i++) {
+                try (Connection conn = dataSource.getConnection()) {
+                    PreparedStatement pStmt = conn.prepareStatement("SELECT 1");
+                    pStmt.executeQuery();
+                    pStmt.executeUpdate();
+                }
+            }
+        });
+
+        assertEquals(2, counts.getConnections());
+        assertEquals(4, counts.getStatements());
+    }
+
+    @Test
+    @DisplayName("calls are delegated to the real connection and statement")
+    void scope_delegatesCalls() throws SQLException {
+        QueryCounter.start();
+        try (Connection conn = dataSource.getConnection()) {
+            conn.prepareStatement("SELECT 1").setInt(1, 7);
+        }
+
+        verify(statement).setInt(1, 7);
+        verify(connection).close();
+    }
+
+    @Test
+    @DisplayName("outside a scope the pooled connection is returned unwrapped")
+    void noScope_returnsTargetConnection() throws SQLException {
+        assertNull(QueryCounter.current());
+        assertSame(connection, dataSource.getConnection());
+    }
+}
@@ -1,6 +1,7 @@
 package com.jmill29.tvtrackerapi.model;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -61,4 +62,15 @@ class ShowTest {
         assertNotNull(show.toString());
         assertTrue(show.toString().contains("Test Show"));
     }
+
+    @Test
+    @DisplayName("Genres default to an empty list and null resets them")
+    void testGenres() {
+        Show show = new Show();
+        assertTrue(show.getGenres().isEmpty());
+        show.setGenres(List.of("Drama", "Comedy"));
+        assertEquals(List.of("Drama", "Comedy"), show.getGenres());
+        show.setGenres(null);
+        assertTrue(show.getGenres().isEmpty());
+    }
 }
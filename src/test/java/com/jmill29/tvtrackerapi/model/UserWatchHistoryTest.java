@@ -27,6 +27,20 @@ class UserWatchHistoryTest {
         assertEquals(WatchStatus.CURRENTLY_WATCHING, hist.getStatus());
     }
 
+    @Test
+    @DisplayName("Progress constructor sets episodes watched and rating")
+    void testProgressConstructor() {
+        UserWatchHistory hist = new UserWatchHistory(1, 2, WatchStatus.CURRENTLY_WATCHING, 5, 8);
+        assertEquals(5, hist.getEpisodesWatched());
+        assertEquals(Integer.valueOf(8), hist.getRating());
+
+        hist.setEpisodesWatched(6);
+        hist.setRating(null);
+        assertEquals(6, hist.getEpisodesWatched());
+        assertNull(hist.getRating());
+        assertEquals(new UserWatchHistory(1, 2, WatchStatus.CURRENTLY_WATCHING, 6, null), hist);
+    }
+
     @Test
     @DisplayName("No-args constructor initializes fields to default/null")
     void testNoArgsConstructor() {
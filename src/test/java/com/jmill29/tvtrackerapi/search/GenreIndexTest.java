@@ -0,0 +1,135 @@
+package com.jmill29.tvtrackerapi.search;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+
+import com.jmill29.tvtrackerapi.dao.ShowDao;
+import com.jmill29.tvtrackerapi.event.ShowChangedEvent;
+import com.jmill29.tvtrackerapi.model.Show;
+
+@DisplayName("GenreIndex Test")
+class GenreIndexTest {
+    @Mock
+    private ShowDao showDao;
+    @InjectMocks
+    private GenreIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        index.rebuild(List.of(
+            show(1, "Drama", "Thriller"),
+            show(2, "Drama"),
+            show(3, "Drama", "Thriller", "Horror"),
+            show(4, "Comedy"),
+            show(5, "Thriller")), index.generation());
+    }
+
+    private static Show show(int id, String... genres) {
+        Show show = new Show(id, "Show " + id, "desc", "img", 1, (short)2020, null);
+        show.setGenres(List.of(genres));
+        return show;
+    }
+
+    private List<Integer> ids(List<String> allOf, List<String> anyOf, List<String> noneOf) {
+        return index.filter(allOf, anyOf, noneOf, 0, 10).stream().map(Show::getId).toList();
+    }
+
+    @Test
+    @DisplayName("allOf intersects genres and noneOf removes them")
+    void intersectsAndExcludes() {
+        assertEquals(List.of(1, 3), ids(List.of("Drama", "Thriller"), List.of(), List.of()));
+        assertEquals(List.of(1), ids(List.of("Drama", "Thriller"), List.of(), List.of("Horror")));
+    }
+
+    @Test
+    @DisplayName("anyOf unions genres")
+    void unionsAnyOf() {
+        assertEquals(List.of(3, 4), ids(List.of(), List.of("Comedy", "Horror"), List.of()));
+        assertEquals(List.of(3), ids(List.of("Drama"), List.of("Horror", "Comedy", "Western"), List.of()));
+        assertTrue(ids(List.of("Drama"), List.of("Horror"), List.of("Thriller")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("genre names are case-insensitive and unknown genres match nothing")
+    void matchesCaseInsensitively() {
+        assertEquals(List.of(4), ids(List.of(" comedy "), List.of(), List.of()));
+        assertTrue(ids(List.of("Western"), List.of(), List.of()).isEmpty());
+        assertEquals(List.of(4), ids(List.of("Comedy"), List.of(), List.of("Western")));
+    }
+
+    @Test
+    @DisplayName("results start after the cursor and are limited, in ID order")
+    void pagesInIdOrder() {
+        assertEquals(List.of(2), index.filter(List.of("Drama"), List.of(), List.of(), 1, 1).stream().map(Show::getId).toList());
+        assertEquals(List.of(3), index.filter(List.of("Drama"), List.of(), List.of(), 2, 10).stream().map(Show::getId).toList());
+    }
+
+    @Test
+    @DisplayName("change events reload updated, inserted, and deleted shows")
+    void changeEventsKeepIndexInSync() throws Exception {
+        when(showDao.findById(4)).thenReturn(Optional.of(show(4, "Drama")));
+        index.onShowChanged(new ShowChangedEvent(4));
+        assertTrue(ids(List.of("Comedy"), List.of(), List.of()).isEmpty());
+        assertEquals(List.of(1, 2, 3, 4), ids(List.of("Drama"), List.of(), List.of()));
+
+        when(showDao.findById(6)).thenReturn(Optional.of(show(6, "Horror")));
+        index.onShowChanged(new ShowChangedEvent(6));
+        assertEquals(List.of(3, 6), ids(List.of("Horror"), List.of(), List.of()));
+
+        when(showDao.findById(3)).thenReturn(Optional.empty());
+        index.onShowChanged(new ShowChangedEvent(3));
+        assertEquals(List.of(6), ids(List.of("Horror"), List.of(), List.of()));
+        assertEquals(3, index.genreCount());
+    }
+
+    @Test
+    @DisplayName("a failed refresh marks the index as not ready")
+    void failedRefreshDisablesIndex() throws Exception {
+        when(showDao.findById(1)).thenThrow(new java.sql.SQLException("DB error"));
+        index.onShowChanged(new ShowChangedEvent(1));
+        assertFalse(index.isReady());
+    }
+
+    @Test
+    @DisplayName("build loads the catalogue from the DAO")
+    void buildLoadsFromDao() throws Exception {
+        when(showDao.findAll()).thenReturn(List.of(show(9, "Crime")));
+        index.build();
+        assertTrue(index.isReady());
+        assertEquals(List.of(9), ids(List.of("crime"), List.of(), List.of()));
+    }
+
+    @Test
+    @DisplayName("a catalogue read before a change event is not installed")
+    void staleRebuildIsDiscarded() {
+        long generation = index.generation();
+        index.onShowChanged(new ShowChangedEvent(2));
+        assertFalse(index.rebuild(List.of(show(9, "Crime")), generation));
+        assertTrue(ids(List.of("crime"), List.of(), List.of()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("load reads the catalogue again when a show changes during the build")
+    void loadRetriesAfterConcurrentChange() throws Exception {
+        when(showDao.findAll())
+            .thenAnswer(invocation -> {
+                index.onShowChanged(new ShowChangedEvent(10));
+                return List.of(show(9, "Crime"));
+            })
+            .thenReturn(List.of(show(10, "Crime")));
+        assertTrue(index.load());
+        assertEquals(List.of(10), ids(List.of("crime"), List.of(), List.of()));
+    }
+}
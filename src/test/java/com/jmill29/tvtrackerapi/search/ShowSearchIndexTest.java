@@ -0,0 +1,149 @@
+package com.jmill29.tvtrackerapi.search;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+
+import com.jmill29.tvtrackerapi.dao.ShowDao;
+import com.jmill29.tvtrackerapi.event.ShowChangedEvent;
+import com.jmill29.tvtrackerapi.model.Show;
+
+@DisplayName("ShowSearchIndex Test")
+class ShowSearchIndexTest {
+    @Mock
+    private ShowDao showDao;
+    @InjectMocks
+    private ShowSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        index.rebuild(List.of(
+            show(1, "Breaking Bad"),
+            show(2, "Better Call Saul"),
+            show(3, "Pokémon"),
+            show(4, "The Office"),
+            show(5, "Bad")), index.generation());
+    }
+
+    private static Show show(int id, String name) {
+        return new Show(id, name, "desc", "img", 1, (short)2020, null);
+    }
+
+    private List<Integer> ids(String query) {
+        return index.search(query, 10).stream().map(Show::getId).toList();
+    }
+
+    @Test
+    @DisplayName("normalize folds case, accents, and punctuation")
+    void normalizeFoldsText() {
+        assertEquals("pokemon", ShowSearchIndex.normalize("  Pokémon! "));
+        assertEquals("the office", ShowSearchIndex.normalize("The-Office"));
+        assertEquals("", ShowSearchIndex.normalize(null));
+    }
+
+    @Test
+    @DisplayName("exact match ranks above prefix and word matches")
+    void exactMatchRanksFirst() {
+        assertEquals(List.of(5, 1), ids("bad"));
+    }
+
+    @Test
+    @DisplayName("every query word may be a prefix of a name word")
+    void matchesWordPrefixes() {
+        assertEquals(List.of(2), ids("call sa"));
+        assertEquals(List.of(4), ids("off"));
+    }
+
+    @Test
+    @DisplayName("matching ignores accents")
+    void matchesWithoutAccents() {
+        assertEquals(List.of(3), ids("pokemon"));
+    }
+
+    @Test
+    @DisplayName("fuzzy matching tolerates typos")
+    void fuzzyMatchesTypos() {
+        assertEquals(1, ids("braeking bad").get(0));
+    }
+
+    @Test
+    @DisplayName("unrelated or blank queries return nothing")
+    void noMatches() {
+        assertTrue(ids("zzzz").isEmpty());
+        assertTrue(ids("   ").isEmpty());
+    }
+
+    @Test
+    @DisplayName("results are limited")
+    void respectsLimit() {
+        assertEquals(1, index.search("b", 1).size());
+    }
+
+    @Test
+    @DisplayName("change events reload updated, inserted, and deleted shows")
+    void changeEventsKeepIndexInSync() throws Exception {
+        when(showDao.findById(4)).thenReturn(Optional.of(show(4, "Parks and Recreation")));
+        index.onShowChanged(new ShowChangedEvent(4));
+        assertTrue(ids("office").isEmpty());
+        assertEquals(List.of(4), ids("parks"));
+
+        when(showDao.findById(6)).thenReturn(Optional.of(show(6, "Severance")));
+        index.onShowChanged(new ShowChangedEvent(6));
+        assertEquals(List.of(6), ids("sever"));
+
+        when(showDao.findById(5)).thenReturn(Optional.empty());
+        index.onShowChanged(new ShowChangedEvent(5));
+        assertEquals(List.of(1), ids("bad"));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    @DisplayName("a failed refresh marks the index as not ready")
+    void failedRefreshDisablesIndex() throws Exception {
+        when(showDao.findById(1)).thenThrow(new java.sql.SQLException("DB error"));
+        index.onShowChanged(new ShowChangedEvent(1));
+        assertFalse(index.isReady());
+    }
+
+    @Test
+    @DisplayName("build loads the catalogue from the DAO")
+    void buildLoadsFromDao() throws Exception {
+        when(showDao.findAll()).thenReturn(List.of(show(9, "Succession")));
+        index.build();
+        assertTrue(index.isReady());
+        assertEquals(List.of(9), ids("succ"));
+    }
+
+    @Test
+    @DisplayName("a catalogue read before a change event is not installed")
+    void staleRebuildIsDiscarded() {
+        long generation = index.generation();
+        index.onShowChanged(new ShowChangedEvent(2));
+        assertFalse(index.rebuild(List.of(show(9, "Succession")), generation));
+        assertTrue(ids("succ").isEmpty());
+    }
+
+    @Test
+    @DisplayName("load reads the catalogue again when a show changes during the build")
+    void loadRetriesAfterConcurrentChange() throws Exception {
+        when(showDao.findAll())
+            .thenAnswer(invocation -> {
+                index.onShowChanged(new ShowChangedEvent(10));
+                return List.of(show(9, "Succession"));
+            })
+            .thenReturn(List.of(show(10, "Succession")));
+        assertTrue(index.load());
+        assertEquals(List.of(10), ids("succ"));
+    }
+}
@@ -0,0 +1,52 @@
+package com.jmill29.tvtrackerapi.security;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = Replace.ANY)
+@ActiveProfiles("test")
+@DisplayName("AuthenticatedUserDetailsManager Integration Test")
+class AuthenticatedUserDetailsManagerIntegrationTest {
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM user_watch_history");
+            stmt.execute("DELETE FROM authorities");
+            stmt.execute("DELETE FROM users");
+            stmt.execute("INSERT INTO users (user_id, name, username, password, email, enabled) VALUES (5, 'Test User', 'testuser', 'pass', 'test@example.com', TRUE)");
+            stmt.execute("INSERT INTO authorities (username, authority) VALUES ('testuser', 'ROLE_USER')");
+        }
+    }
+
+    @Test
+    @DisplayName("loadUserByUsername returns a principal carrying the user ID and roles")
+    void loadUserByUsername_returnsAuthenticatedUser() {
+        UserDetails details = userDetailsService.loadUserByUsername("testuser");
+        AuthenticatedUser user = assertInstanceOf(AuthenticatedUser.class, details);
+        assertEquals(5, user.getUserId());
+        assertEquals("testuser", user.getUsername());
+        assertEquals("ROLE_USER", user.getAuthorities().iterator().next().getAuthority());
+    }
+}
@@ -0,0 +1,107 @@
+package com.jmill29.tvtrackerapi.security;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.jmill29.tvtrackerapi.event.UserChangedEvent;
+
+@DisplayName("AuthenticationCache Test")
+class AuthenticationCacheTest {
+
+    private static final Clock FIXED_CLOCK = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    private static Authentication authenticated(String username) {
+        return UsernamePasswordAuthenticationToken.authenticated(
+            username, null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @Test
+    @DisplayName("get returns cached principal after put")
+    void get_returnsCachedPrincipal() {
+        AuthenticationCache cache = new AuthenticationCache(10, 60, FIXED_CLOCK);
+        String key = cache.keyFor("testuser", "secret");
+        assertNull(cache.get(key));
+        cache.put(key, authenticated("testuser"), cache.generation());
+        Authentication cached = cache.get(key);
+        assertNotNull(cached);
+        assertEquals("testuser", cached.getName());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    @DisplayName("keyFor differs for different passwords and never contains the password")
+    void keyFor_differsPerPassword() {
+        AuthenticationCache cache = new AuthenticationCache(10, 60, FIXED_CLOCK);
+        String key1 = cache.keyFor("testuser", "secret");
+        String key2 = cache.keyFor("testuser", "other");
+        assertNotEquals(key1, key2);
+        assertEquals(key1, cache.keyFor("testuser", "secret"));
+        assertEquals(-1, key1.indexOf("secret"));
+    }
+
+    @Test
+    @DisplayName("expired entries are treated as misses")
+    void get_expiredEntryIsMiss() {
+        AuthenticationCache cache = new AuthenticationCache(10, 0, FIXED_CLOCK);
+        String key = cache.keyFor("testuser", "secret");
+        cache.put(key, authenticated("testuser"), cache.generation());
+        assertNull(cache.get(key));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("least recently used entry is evicted when full")
+    void put_evictsLeastRecentlyUsed() {
+        AuthenticationCache cache = new AuthenticationCache(2, 60, FIXED_CLOCK);
+        String a = cache.keyFor("a", "pw");
+        String b = cache.keyFor("b", "pw");
+        String c = cache.keyFor("c", "pw");
+        cache.put(a, authenticated("a"), cache.generation());
+        cache.put(b, authenticated("b"), cache.generation());
+        cache.get(a);
+        cache.put(c, authenticated("c"), cache.generation());
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(a));
+        assertNull(cache.get(b));
+        assertNotNull(cache.get(c));
+    }
+
+    @Test
+    @DisplayName("user change event evicts only that user's entries")
+    void onUserChanged_evictsUser() {
+        AuthenticationCache cache = new AuthenticationCache(10, 60, FIXED_CLOCK);
+        String a = cache.keyFor("a", "pw");
+        String b = cache.keyFor("b", "pw");
+        cache.put(a, authenticated("a"), cache.generation());
+        cache.put(b, authenticated("b"), cache.generation());
+        cache.onUserChanged(new UserChangedEvent(1, "a"));
+        assertNull(cache.get(a));
+        assertNotNull(cache.get(b));
+        cache.onUserChanged(new UserChangedEvent(2, null));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("put is ignored when an invalidation happened during verification")
+    void put_ignoredAfterConcurrentInvalidation() {
+        AuthenticationCache cache = new AuthenticationCache(10, 60, FIXED_CLOCK);
+        String key = cache.keyFor("testuser", "secret");
+        long generation = cache.generation();
+        cache.evictUser("testuser");
+        cache.put(key, authenticated("testuser"), generation);
+        assertNull(cache.get(key));
+    }
+}
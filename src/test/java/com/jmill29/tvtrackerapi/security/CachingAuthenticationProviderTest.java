@@ -0,0 +1,68 @@
+package com.jmill29.tvtrackerapi.security;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+@DisplayName("CachingAuthenticationProvider Test")
+class CachingAuthenticationProviderTest {
+    @Mock
+    private AuthenticationProvider delegate;
+
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        provider = new CachingAuthenticationProvider(delegate, new AuthenticationCache(100, 60));
+    }
+
+    @Test
+    @DisplayName("repeat authentication with same credentials hits the delegate once")
+    void authenticate_cachesSuccessfulResult() {
+        Authentication verified = UsernamePasswordAuthenticationToken.authenticated(
+            "testuser", null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        when(delegate.authenticate(any())).thenReturn(verified);
+
+        for (int i = 0; i < 5; i++) {
+            Authentication result = provider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("testuser", "secret"));
+            assertTrue(result.isAuthenticated());
+            assertEquals("testuser", result.getName());
+        }
+        verify(delegate, times(1)).authenticate(any());
+    }
+
+    @Test
+    @DisplayName("failed authentication is not cached")
+    void authenticate_doesNotCacheFailures() {
+        when(delegate.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(
+            UsernamePasswordAuthenticationToken.unauthenticated("testuser", "wrong")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(
+            UsernamePasswordAuthenticationToken.unauthenticated("testuser", "wrong")));
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    @DisplayName("supports username/password tokens")
+    void supports_usernamePasswordToken() {
+        assertTrue(provider.supports(UsernamePasswordAuthenticationToken.class));
+    }
+}
@@ -0,0 +1,79 @@
+package com.jmill29.tvtrackerapi.security;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+@DisplayName("TokenService Test")
+class TokenServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final Clock FIXED_CLOCK = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    private static Authentication authenticated(String username) {
+        List<SimpleGrantedAuthority> roles = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        return UsernamePasswordAuthenticationToken.authenticated(
+            new AuthenticatedUser(42, username, "", roles), null, roles);
+    }
+
+    @Test
+    @DisplayName("authenticate accepts a token it issued")
+    void authenticate_roundTrip() {
+        TokenService service = new TokenService(SECRET, 3600, FIXED_CLOCK);
+        String token = service.issueToken(authenticated("testuser"));
+        Authentication result = service.authenticate(token);
+        assertTrue(result.isAuthenticated());
+        assertEquals("testuser", result.getName());
+        assertEquals(42, ((AuthenticatedUser) result.getPrincipal()).getUserId());
+        assertEquals("ROLE_USER", result.getAuthorities().iterator().next().getAuthority());
+        assertEquals("testuser", TokenService.peekSubject(token));
+    }
+
+    @Test
+    @DisplayName("authenticate rejects a tampered token")
+    void authenticate_tamperedToken_throws() {
+        TokenService service = new TokenService(SECRET, 3600, FIXED_CLOCK);
+        String token = service.issueToken(authenticated("testuser"));
+        String forged = new TokenService(SECRET.toUpperCase(), 3600, FIXED_CLOCK).issueToken(authenticated("admin"));
+        String tampered = token.substring(0, token.indexOf('.') + 1)
+            + forged.split("\\.")[1] + token.substring(token.lastIndexOf('.'));
+        assertThrows(BadCredentialsException.class, () -> service.authenticate(tampered));
+        assertThrows(BadCredentialsException.class, () -> service.authenticate(forged));
+        assertThrows(BadCredentialsException.class, () -> service.authenticate("not-a-token"));
+    }
+
+    @Test
+    @DisplayName("authenticate rejects an expired token")
+    void authenticate_expiredToken_throws() {
+        TokenService issuer = new TokenService(SECRET, 60, FIXED_CLOCK);
+        String token = issuer.issueToken(authenticated("testuser"));
+        TokenService later = new TokenService(SECRET, 60, Clock.offset(FIXED_CLOCK, Duration.ofSeconds(61)));
+        assertThrows(BadCredentialsException.class, () -> later.authenticate(token));
+    }
+
+    @Test
+    @DisplayName("constructor rejects secrets shorter than 32 bytes")
+    void constructor_shortSecret_throws() {
+        assertThrows(IllegalStateException.class, () -> new TokenService("too-short", 3600, FIXED_CLOCK));
+    }
+
+    @Test
+    @DisplayName("issueToken rejects principals without a user ID")
+    void issueToken_withoutUserId_throws() {
+        TokenService service = new TokenService(SECRET, 3600, FIXED_CLOCK);
+        assertThrows(IllegalArgumentException.class, () -> service.issueToken(
+            UsernamePasswordAuthenticationToken.authenticated("testuser", null, List.of())));
+    }
+}
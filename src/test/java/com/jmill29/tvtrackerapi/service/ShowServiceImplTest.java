@@ -6,6 +6,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,20 +14,37 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
 
+import com.jmill29.tvtrackerapi.cache.ShowCache;
 import com.jmill29.tvtrackerapi.dao.ShowDao;
+import com.jmill29.tvtrackerapi.dto.ShowPage;
+import com.jmill29.tvtrackerapi.enums.ShowProjection;
 import com.jmill29.tvtrackerapi.exception.DatabaseException;
 import com.jmill29.tvtrackerapi.exception.NoShowsFoundException;
 import com.jmill29.tvtrackerapi.exception.ShowAlreadyExistsException;
 import com.jmill29.tvtrackerapi.exception.ShowNotFoundException;
 import com.jmill29.tvtrackerapi.model.Show;
+import com.jmill29.tvtrackerapi.search.GenreIndex;
+import com.jmill29.tvtrackerapi.search.ShowSearchIndex;
 
 @DisplayName("ShowServiceImpl Test")
 class ShowServiceImplTest {
     @Mock
     private ShowDao showDao;
+    @Mock
+    private ShowCache showCache;
+    @Mock
+    private ShowSearchIndex showSearchIndex;
+    @Mock
+    private GenreIndex genreIndex;
     @InjectMocks
     private ShowServiceImpl showService;
 
@@ -79,6 +97,73 @@ class ShowServiceImplTest {
         assertThrows(DatabaseException.class, () -> showService.findAll());
     }
 
+    @Test
+    @DisplayName("findPage returns a next cursor when more shows follow")
+    void findPage_returnsNextCursor() throws Exception {
+        when(showCache.getPage(anyInt(), anyInt())).thenReturn(null);
+        List<Show> rows = List.of(
+            new Show(1, "A", null, "img", 1, (short)2020, null),
+            new Show(2, "B", null, "img", 1, (short)2020, null),
+            new Show(3, "C", null, "img", 1, (short)2020, null));
+        when(showDao.findPage(0, 3, false)).thenReturn(rows);
+        ShowPage page = showService.findPage(null, 2, ShowProjection.SUMMARY);
+        assertEquals(2, page.getItems().size());
+        assertEquals(Integer.valueOf(2), page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("findPage returns no cursor on the last page")
+    void findPage_lastPageHasNoCursor() throws Exception {
+        when(showCache.getPage(anyInt(), anyInt())).thenReturn(null);
+        when(showDao.findPage(5, ShowServiceImpl.DEFAULT_PAGE_SIZE + 1, true))
+            .thenReturn(List.of(new Show(6, "F", "desc", "img", 1, (short)2020, null)));
+        ShowPage page = showService.findPage(5, null, ShowProjection.FULL);
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("findPage caps the page size")
+    void findPage_capsLimit() throws Exception {
+        when(showCache.getPage(anyInt(), anyInt())).thenReturn(null);
+        when(showDao.findPage(0, ShowServiceImpl.MAX_PAGE_SIZE + 1, true)).thenReturn(List.of(new Show()));
+        showService.findPage(null, 10_000, null);
+        verify(showDao).findPage(0, ShowServiceImpl.MAX_PAGE_SIZE + 1, true);
+    }
+
+    @Test
+    @DisplayName("findPage returns an empty page past the end of the catalogue")
+    void findPage_emptyAfterCursor() throws Exception {
+        when(showCache.getPage(anyInt(), anyInt())).thenReturn(null);
+        when(showDao.findPage(99, ShowServiceImpl.DEFAULT_PAGE_SIZE + 1, true)).thenReturn(Collections.emptyList());
+        ShowPage page = showService.findPage(99, null, ShowProjection.FULL);
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("findPage throws NoShowsFoundException if the catalogue is empty")
+    void findPage_throwsIfEmpty() throws Exception {
+        when(showCache.getPage(anyInt(), anyInt())).thenReturn(null);
+        when(showDao.findPage(0, ShowServiceImpl.DEFAULT_PAGE_SIZE + 1, true)).thenReturn(Collections.emptyList());
+        assertThrows(NoShowsFoundException.class, () -> showService.findPage(null, null, ShowProjection.FULL));
+    }
+
+    @Test
+    @DisplayName("findPage throws IllegalArgumentException for invalid cursor or limit")
+    void findPage_throwsIfInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> showService.findPage(-1, null, ShowProjection.FULL));
+        assertThrows(IllegalArgumentException.class, () -> showService.findPage(null, 0, ShowProjection.FULL));
+    }
+
+    @Test
+    @DisplayName("findPage throws DatabaseException on SQL error")
+    void findPage_throwsDatabaseException() throws Exception {
+        when(showCache.getPage(anyInt(), anyInt())).thenReturn(null);
+        when(showDao.findPage(0, ShowServiceImpl.DEFAULT_PAGE_SIZE + 1, true)).thenThrow(new java.sql.SQLException("DB error"));
+        assertThrows(DatabaseException.class, () -> showService.findPage(null, null, ShowProjection.FULL));
+    }
+
     @Test
     @DisplayName("findByName returns shows for valid name")
     void findByName_returnsShows() throws Exception {
@@ -202,4 +287,189 @@ class ShowServiceImplTest {
         when(showDao.deleteById(1)).thenThrow(new java.sql.SQLException("DB error"));
         assertThrows(DatabaseException.class, () -> showService.deleteById(1));
     }
+
+    @Test
+    @DisplayName("findById is served from the cache without a query")
+    void findById_cacheHit() throws Exception {
+        Show show = new Show(1, "Cached", "desc", "img", 10, (short)2020, null);
+        when(showCache.get(1)).thenReturn(show);
+        assertEquals("Cached", showService.findById(1).get().getName());
+        verifyNoInteractions(showDao);
+    }
+
+    @Test
+    @DisplayName("findById caches a show loaded on a miss")
+    void findById_cacheMissPopulates() throws Exception {
+        Show show = new Show(1, "Loaded", "desc", "img", 10, (short)2020, null);
+        when(showCache.generation()).thenReturn(4L);
+        when(showDao.findById(1)).thenReturn(Optional.of(show));
+        showService.findById(1);
+        verify(showCache).put(show, 4L);
+    }
+
+    @Test
+    @DisplayName("findAll is served from the cached snapshot without a query")
+    void findAll_cacheHit() throws Exception {
+        List<Show> snapshot = List.of(new Show());
+        when(showCache.getAll()).thenReturn(snapshot);
+        assertEquals(snapshot, showService.findAll());
+        verifyNoInteractions(showDao);
+    }
+
+    @Test
+    @DisplayName("findPage is served from the cached snapshot and strips descriptions for summaries")
+    void findPage_cacheHit() throws Exception {
+        Show show = new Show(3, "Cached", "desc", "img", 10, (short)2020, null);
+        when(showCache.getPage(0, 3)).thenReturn(List.of(show));
+        ShowPage page = showService.findPage(null, 2, ShowProjection.SUMMARY);
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getItems().get(0).getDescription());
+        assertEquals("desc", show.getDescription());
+        verify(showDao, never()).findPage(anyInt(), anyInt(), org.mockito.ArgumentMatchers.anyBoolean());
+    }
+
+    @Test
+    @DisplayName("warmCache loads the catalogue into the cache")
+    void warmCache_populatesCache() throws Exception {
+        List<Show> shows = List.of(new Show());
+        when(showCache.generation()).thenReturn(2L);
+        when(showDao.findAll()).thenReturn(shows);
+        showService.warmCache();
+        verify(showCache).putAll(shows, 2L);
+    }
+
+    @Test
+    @DisplayName("warmCache swallows database errors")
+    void warmCache_ignoresSqlException() throws Exception {
+        when(showDao.findAll()).thenThrow(new java.sql.SQLException("DB error"));
+        showService.warmCache();
+        verify(showCache, never()).putAll(org.mockito.ArgumentMatchers.anyList(), anyLong());
+    }
+
+    @Test
+    @DisplayName("search uses the index when it is ready")
+    void search_usesIndex() throws Exception {
+        List<Show> results = List.of(new Show());
+        when(showSearchIndex.isReady()).thenReturn(true);
+        when(showSearchIndex.search("bad", ShowServiceImpl.DEFAULT_SEARCH_LIMIT)).thenReturn(results);
+        assertEquals(results, showService.search("bad", null));
+        verifyNoInteractions(showDao);
+    }
+
+    @Test
+    @DisplayName("search caps the limit")
+    void search_capsLimit() {
+        when(showSearchIndex.isReady()).thenReturn(true);
+        showService.search("bad", 1000);
+        verify(showSearchIndex).search("bad", ShowServiceImpl.MAX_SEARCH_LIMIT);
+    }
+
+    @Test
+    @DisplayName("search falls back to the database while the index is not ready")
+    void search_fallsBackToDao() throws Exception {
+        when(showDao.findByName("bad")).thenReturn(List.of(new Show(), new Show(), new Show()));
+        assertEquals(2, showService.search(" bad ", 2).size());
+    }
+
+    @Test
+    @DisplayName("search throws IllegalArgumentException for blank query or invalid limit")
+    void search_throwsIfInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> showService.search(" ", null));
+        assertThrows(IllegalArgumentException.class, () -> showService.search("bad", 0));
+    }
+
+    @Test
+    @DisplayName("search throws DatabaseException when the fallback fails")
+    void search_throwsDatabaseException() throws Exception {
+        when(showDao.findByName("bad")).thenThrow(new java.sql.SQLException("DB error"));
+        assertThrows(DatabaseException.class, () -> showService.search("bad", null));
+    }
+
+    @Test
+    @DisplayName("addShowandGenres delegates to the DAO")
+    void addShowandGenres_delegatesToDao() throws Exception {
+        Show show = new Show(0, "New", "desc", "img.jpg", 1, (short)2024, null);
+        show.setGenres(List.of("Drama"));
+        when(showDao.saveWithGenres(show)).thenReturn(true);
+        assertTrue(showService.addShowandGenres(show));
+        verify(showDao).saveWithGenres(show);
+    }
+
+    @Test
+    @DisplayName("addShowandGenres throws IllegalArgumentException for null or existing show")
+    void addShowandGenres_throwsIfInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> showService.addShowandGenres(null));
+        Show existing = new Show(5, "Old", "desc", "img.jpg", 1, (short)2020, null);
+        assertThrows(IllegalArgumentException.class, () -> showService.addShowandGenres(existing));
+        verifyNoInteractions(showDao);
+    }
+
+    @Test
+    @DisplayName("addShowandGenres throws DatabaseException on SQL error")
+    void addShowandGenres_throwsDatabaseException() throws Exception {
+        Show show = new Show(0, "New", "desc", "img.jpg", 1, (short)2024, null);
+        when(showDao.saveWithGenres(show)).thenThrow(new java.sql.SQLException("DB error"));
+        assertThrows(DatabaseException.class, () -> showService.addShowandGenres(show));
+    }
+
+    @Test
+    @DisplayName("findPage summaries keep the cached shows' genres")
+    void findPage_summaryKeepsGenres() throws Exception {
+        Show show = new Show(1, "A", "desc", "img.jpg", 1, (short)2020, null);
+        show.setGenres(List.of("Drama"));
+        when(showCache.getPage(0, 3)).thenReturn(List.of(show));
+        ShowPage page = showService.findPage(null, 2, ShowProjection.SUMMARY);
+        assertEquals(List.of("Drama"), page.getItems().get(0).getGenres());
+    }
+
+    @Test
+    @DisplayName("findByGenres pages through the genre index")
+    void findByGenres_usesIndex() throws Exception {
+        List<String> all = List.of("Drama");
+        List<String> none = List.of("Horror");
+        when(genreIndex.isReady()).thenReturn(true);
+        when(genreIndex.filter(all, List.of(), none, 0, 3)).thenReturn(List.of(
+            new Show(1, "A", "d", "i", 1, (short)2020, null),
+            new Show(4, "B", "d", "i", 1, (short)2020, null),
+            new Show(7, "C", "d", "i", 1, (short)2020, null)));
+        ShowPage page = showService.findByGenres(all, null, none, null, 2);
+        assertEquals(2, page.getItems().size());
+        assertEquals(Integer.valueOf(4), page.getNextCursor());
+        verifyNoInteractions(showDao);
+    }
+
+    @Test
+    @DisplayName("findByGenres builds the index on demand when it is not ready")
+    void findByGenres_buildsIndex() throws Exception {
+        when(genreIndex.load()).thenReturn(true);
+        when(genreIndex.filter(List.of(), List.of("Drama"), List.of(), 0, ShowServiceImpl.DEFAULT_PAGE_SIZE + 1)).thenReturn(List.of());
+        ShowPage page = showService.findByGenres(null, List.of("Drama"), null, null, null);
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+        verify(genreIndex).load();
+    }
+
+    @Test
+    @DisplayName("findByGenres throws DatabaseException when shows keep changing while the index is built")
+    void findByGenres_throwsIfIndexNotBuilt() throws Exception {
+        when(genreIndex.load()).thenReturn(false);
+        assertThrows(DatabaseException.class, () -> showService.findByGenres(List.of("Drama"), null, null, null, null));
+        verify(genreIndex, never()).filter(any(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("findByGenres throws IllegalArgumentException without a genre to include or with blank genres")
+    void findByGenres_throwsIfInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> showService.findByGenres(null, null, List.of("Horror"), null, null));
+        assertThrows(IllegalArgumentException.class, () -> showService.findByGenres(List.of(" "), null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> showService.findByGenres(List.of("Drama"), null, null, -1, null));
+        assertThrows(IllegalArgumentException.class, () -> showService.findByGenres(List.of("Drama"), null, null, null, 0));
+    }
+
+    @Test
+    @DisplayName("findByGenres throws DatabaseException when building the index fails")
+    void findByGenres_throwsDatabaseException() throws Exception {
+        when(genreIndex.load()).thenThrow(new java.sql.SQLException("DB error"));
+        assertThrows(DatabaseException.class, () -> showService.findByGenres(List.of("Drama"), null, null, null, null));
+    }
 }
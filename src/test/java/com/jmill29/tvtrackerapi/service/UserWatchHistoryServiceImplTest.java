@@ -2,10 +2,12 @@ package com.jmill29.tvtrackerapi.service;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,17 +15,29 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
 
+import com.jmill29.tvtrackerapi.cache.WatchSummaryCache;
 import com.jmill29.tvtrackerapi.dao.UserWatchHistoryDao;
 import com.jmill29.tvtrackerapi.dto.UserWatchHistoryRequest;
 import com.jmill29.tvtrackerapi.dto.UserWatchHistoryResponse;
+import com.jmill29.tvtrackerapi.dto.WatchHistorySummaryResponse;
+import com.jmill29.tvtrackerapi.enums.WatchStatus;
 import com.jmill29.tvtrackerapi.exception.ShowNotFoundException;
 import com.jmill29.tvtrackerapi.exception.UserNotFoundException;
 import com.jmill29.tvtrackerapi.exception.WatchHistoryAlreadyExistsException;
 import com.jmill29.tvtrackerapi.exception.WatchHistoryNotFoundException;
+import com.jmill29.tvtrackerapi.model.UserWatchHistory;
+import com.jmill29.tvtrackerapi.model.WatchHistoryStats;
 
 @DisplayName("UserWatchHistoryServiceImpl Test")
 class UserWatchHistoryServiceImplTest {
@@ -33,6 +47,10 @@ class UserWatchHistoryServiceImplTest {
     private UserService userService;
     @Mock
     private ShowService showService;
+    @Spy
+    private WatchSummaryCache summaryCache = new WatchSummaryCache(10);
+    @Mock
+    private WatchProgressBuffer progressBuffer;
     @InjectMocks
     private UserWatchHistoryServiceImpl service;
 
@@ -100,7 +118,7 @@ class UserWatchHistoryServiceImplTest {
         when(userService.findByUsername("testuser")).thenReturn(java.util.Optional.of(mock(com.jmill29.tvtrackerapi.dto.UserResponse.class)));
         when(userWatchHistoryDao.isShowInWatchHistory("testuser", 1)).thenReturn(true);
         when(showService.findById(1)).thenReturn(java.util.Optional.of(mock(com.jmill29.tvtrackerapi.model.Show.class)));
-        when(userWatchHistoryDao.updateWatchStatus(req, "testuser")).thenReturn(true);
+        when(userWatchHistoryDao.updateWatchStatus(req, "testuser")).thenReturn(entry(WatchStatus.WANT_TO_WATCH, 0, null));
         assertTrue(service.updateWatchStatus(req, "testuser"));
     }
 
@@ -140,7 +158,7 @@ class UserWatchHistoryServiceImplTest {
         when(userService.findByUsername("testuser")).thenReturn(java.util.Optional.of(mock(com.jmill29.tvtrackerapi.dto.UserResponse.class)));
         when(userWatchHistoryDao.isShowInWatchHistory("testuser", 1)).thenReturn(true);
         when(showService.findById(1)).thenReturn(java.util.Optional.of(mock(com.jmill29.tvtrackerapi.model.Show.class)));
-        when(userWatchHistoryDao.deleteShowFromWatchHistory("testuser", 1)).thenReturn(true);
+        when(userWatchHistoryDao.deleteShowFromWatchHistory("testuser", 1)).thenReturn(entry(WatchStatus.WANT_TO_WATCH, 0, null));
         assertTrue(service.deleteShowFromWatchHistory("testuser", 1));
     }
 
@@ -266,4 +284,383 @@ class UserWatchHistoryServiceImplTest {
         RuntimeException ex13 = assertThrows(RuntimeException.class, () -> service.getWatchHistoryByUsername("testuser", false));
         assertNotNull(ex13);
     }
+
+    @Test
+    @DisplayName("addShowToWatchHistory by user ID is a single DAO call")
+    void addShowToWatchHistoryByUserId_addsWithSingleStatement() throws Exception {
+        UserWatchHistoryRequest req = new UserWatchHistoryRequest();
+        req.setShowId(1);
+        when(userWatchHistoryDao.addShowToWatchHistory(req, 7)).thenReturn(true);
+        assertTrue(service.addShowToWatchHistory(req, 7));
+        verifyNoInteractions(userService, showService);
+        verify(userWatchHistoryDao, never()).isShowInWatchHistory(7, 1);
+    }
+
+    @Test
+    @DisplayName("addShowToWatchHistory by user ID propagates duplicate and missing show from the DAO")
+    void addShowToWatchHistoryByUserId_propagatesMappedViolations() throws Exception {
+        UserWatchHistoryRequest req = new UserWatchHistoryRequest();
+        req.setShowId(1);
+        when(userWatchHistoryDao.addShowToWatchHistory(req, 7)).thenThrow(new WatchHistoryAlreadyExistsException("duplicate"));
+        assertThrows(WatchHistoryAlreadyExistsException.class, () -> service.addShowToWatchHistory(req, 7));
+
+        UserWatchHistoryRequest missing = new UserWatchHistoryRequest();
+        missing.setShowId(999);
+        when(userWatchHistoryDao.addShowToWatchHistory(missing, 7)).thenThrow(new ShowNotFoundException("missing"));
+        assertThrows(ShowNotFoundException.class, () -> service.addShowToWatchHistory(missing, 7));
+    }
+
+    @Test
+    @DisplayName("addShowToWatchHistory by user ID wraps SQL exceptions")
+    void addShowToWatchHistoryByUserId_wrapsSqlException() throws Exception {
+        UserWatchHistoryRequest req = new UserWatchHistoryRequest();
+        req.setShowId(1);
+        when(userWatchHistoryDao.addShowToWatchHistory(req, 7)).thenThrow(new java.sql.SQLException("DB error"));
+        assertThrows(com.jmill29.tvtrackerapi.exception.DatabaseException.class, () -> service.addShowToWatchHistory(req, 7));
+    }
+
+    @Test
+    @DisplayName("addShowToWatchHistory by user ID rejects invalid user ID")
+    void addShowToWatchHistoryByUserId_throwsIfInvalidUserId() {
+        assertThrows(IllegalArgumentException.class, () -> service.addShowToWatchHistory(new UserWatchHistoryRequest(), 0));
+    }
+
+    @Test
+    @DisplayName("updateWatchStatus by user ID runs a single update")
+    void updateWatchStatusByUserId_updatesWithSingleStatement() throws Exception {
+        UserWatchHistoryRequest req = new UserWatchHistoryRequest();
+        req.setShowId(1);
+        when(userWatchHistoryDao.updateWatchStatus(req, 7)).thenReturn(entry(WatchStatus.WANT_TO_WATCH, 0, null));
+        assertTrue(service.updateWatchStatus(req, 7));
+        verifyNoInteractions(userService, showService);
+    }
+
+    @Test
+    @DisplayName("updateWatchStatus by user ID distinguishes missing show from missing entry")
+    void updateWatchStatusByUserId_throwsWhenNothingUpdated() throws Exception {
+        UserWatchHistoryRequest req = new UserWatchHistoryRequest();
+        req.setShowId(1);
+        when(userWatchHistoryDao.updateWatchStatus(req, 7)).thenReturn(Optional.empty());
+        when(showService.findById(1)).thenReturn(java.util.Optional.of(mock(com.jmill29.tvtrackerapi.model.Show.class)));
+        assertThrows(WatchHistoryNotFoundException.class, () -> service.updateWatchStatus(req, 7));
+        when(showService.findById(1)).thenReturn(java.util.Optional.empty());
+        assertThrows(ShowNotFoundException.class, () -> service.updateWatchStatus(req, 7));
+    }
+
+    @Test
+    @DisplayName("deleteShowFromWatchHistory by user ID runs a single delete")
+    void deleteShowFromWatchHistoryByUserId_deletesWithSingleStatement() throws Exception {
+        when(userWatchHistoryDao.deleteShowFromWatchHistory(7, 1)).thenReturn(entry(WatchStatus.WANT_TO_WATCH, 0, null));
+        assertTrue(service.deleteShowFromWatchHistory(7, 1));
+        verify(progressBuffer).discard(7, 1);
+        verifyNoInteractions(userService, showService);
+    }
+
+    @Test
+    @DisplayName("deleteShowFromWatchHistory by user ID distinguishes missing show from missing entry")
+    void deleteShowFromWatchHistoryByUserId_throwsWhenNothingDeleted() throws Exception {
+        when(userWatchHistoryDao.deleteShowFromWatchHistory(7, 1)).thenReturn(Optional.empty());
+        when(showService.findById(1)).thenReturn(java.util.Optional.of(mock(com.jmill29.tvtrackerapi.model.Show.class)));
+        assertThrows(WatchHistoryNotFoundException.class, () -> service.deleteShowFromWatchHistory(7, 1));
+        when(showService.findById(1)).thenReturn(java.util.Optional.empty());
+        assertThrows(ShowNotFoundException.class, () -> service.deleteShowFromWatchHistory(7, 1));
+        assertThrows(IllegalArgumentException.class, () -> service.deleteShowFromWatchHistory(7, 0));
+    }
+
+    @Test
+    @DisplayName("addShowsToWatchHistory classifies items and batches only the new ones")
+    void addShowsToWatchHistory_classifiesAndBatches() throws Exception {
+        UserWatchHistoryRequest added = new UserWatchHistoryRequest(1, com.jmill29.tvtrackerapi.enums.WatchStatus.WANT_TO_WATCH);
+        UserWatchHistoryRequest existing = new UserWatchHistoryRequest(2, com.jmill29.tvtrackerapi.enums.WatchStatus.ALREADY_WATCHED);
+        UserWatchHistoryRequest missing = new UserWatchHistoryRequest(3, com.jmill29.tvtrackerapi.enums.WatchStatus.WANT_TO_WATCH);
+        UserWatchHistoryRequest invalid = new UserWatchHistoryRequest(0, null);
+        UserWatchHistoryRequest repeated = new UserWatchHistoryRequest(1, com.jmill29.tvtrackerapi.enums.WatchStatus.ALREADY_WATCHED);
+        when(userWatchHistoryDao.findWatchHistoryState(org.mockito.ArgumentMatchers.eq(7), org.mockito.ArgumentMatchers.anyCollection()))
+            .thenReturn(java.util.Map.of(1, false, 2, true));
+
+        List<com.jmill29.tvtrackerapi.dto.WatchHistoryBatchItemResponse> results =
+            service.addShowsToWatchHistory(List.of(added, existing, missing, invalid, repeated), 7);
+
+        assertEquals(5, results.size());
+        assertEquals(com.jmill29.tvtrackerapi.enums.BatchItemOutcome.ADDED, results.get(0).getOutcome());
+        assertEquals(com.jmill29.tvtrackerapi.enums.BatchItemOutcome.ALREADY_EXISTS, results.get(1).getOutcome());
+        assertEquals(com.jmill29.tvtrackerapi.enums.BatchItemOutcome.SHOW_NOT_FOUND, results.get(2).getOutcome());
+        assertEquals(com.jmill29.tvtrackerapi.enums.BatchItemOutcome.INVALID, results.get(3).getOutcome());
+        assertEquals(com.jmill29.tvtrackerapi.enums.BatchItemOutcome.ALREADY_EXISTS, results.get(4).getOutcome());
+        verify(userWatchHistoryDao).addShowsToWatchHistory(List.of(added), 7);
+        verifyNoInteractions(userService, showService);
+    }
+
+    @Test
+    @DisplayName("addShowsToWatchHistory rejects empty and oversized imports")
+    void addShowsToWatchHistory_rejectsBadSizes() {
+        assertThrows(IllegalArgumentException.class, () -> service.addShowsToWatchHistory(null, 7));
+        assertThrows(IllegalArgumentException.class, () -> service.addShowsToWatchHistory(List.of(), 7));
+        List<UserWatchHistoryRequest> tooMany = Collections.nCopies(UserWatchHistoryServiceImpl.MAX_BATCH_SIZE + 1,
+            new UserWatchHistoryRequest(1, com.jmill29.tvtrackerapi.enums.WatchStatus.WANT_TO_WATCH));
+        assertThrows(IllegalArgumentException.class, () -> service.addShowsToWatchHistory(tooMany, 7));
+    }
+
+    @Test
+    @DisplayName("addShowsToWatchHistory wraps SQL exceptions")
+    void addShowsToWatchHistory_wrapsSqlException() throws Exception {
+        when(userWatchHistoryDao.findWatchHistoryState(org.mockito.ArgumentMatchers.eq(7), org.mockito.ArgumentMatchers.anyCollection()))
+            .thenThrow(new java.sql.SQLException("DB error"));
+        assertThrows(com.jmill29.tvtrackerapi.exception.DatabaseException.class, () -> service.addShowsToWatchHistory(
+            List.of(new UserWatchHistoryRequest(1, com.jmill29.tvtrackerapi.enums.WatchStatus.WANT_TO_WATCH)), 7));
+    }
+
+    @Test
+    @DisplayName("streamWatchHistoryByUserId passes every row to the consumer")
+    void streamWatchHistoryByUserId_delegatesToDao() throws Exception {
+        List<UserWatchHistoryResponse> received = new java.util.ArrayList<>();
+        org.mockito.Mockito.doAnswer(invocation -> {
+            java.util.function.Consumer<UserWatchHistoryResponse> action = invocation.getArgument(1);
+            action.accept(new UserWatchHistoryResponse(1, "Show", "desc", "img", "Not Watched"));
+            return null;
+        }).when(userWatchHistoryDao).forEachShowWithWatchStatus(org.mockito.ArgumentMatchers.eq(7), org.mockito.ArgumentMatchers.any());
+
+        service.streamWatchHistoryByUserId(7, received::add);
+        assertEquals(1, received.size());
+        assertEquals("Not Watched", received.get(0).getStatus());
+    }
+
+    @Test
+    @DisplayName("streamWatchHistoryByUserId rejects invalid user IDs before querying")
+    void streamWatchHistoryByUserId_rejectsInvalidUserId() {
+        assertThrows(IllegalArgumentException.class, () -> service.streamWatchHistoryByUserId(0, entry -> { }));
+        verifyNoInteractions(userWatchHistoryDao);
+    }
+
+    @Test
+    @DisplayName("streamWatchHistoryByUserId wraps SQL exceptions")
+    void streamWatchHistoryByUserId_wrapsSqlException() throws Exception {
+        org.mockito.Mockito.doThrow(new java.sql.SQLException("DB error"))
+            .when(userWatchHistoryDao).forEachShowWithWatchStatus(org.mockito.ArgumentMatchers.eq(7), org.mockito.ArgumentMatchers.any());
+        assertThrows(com.jmill29.tvtrackerapi.exception.DatabaseException.class,
+            () -> service.streamWatchHistoryByUserId(7, entry -> { }));
+    }
+
+    private static WatchHistoryStats stats() {
+        WatchHistoryStats stats = new WatchHistoryStats();
+        stats.addCount(WatchStatus.WANT_TO_WATCH, 2);
+        stats.addCount(WatchStatus.ALREADY_WATCHED, 1);
+        stats.setTotalEpisodesWatched(12);
+        stats.setRatingSum(9);
+        stats.setRatedCount(2);
+        return stats;
+    }
+
+    @Test
+    @DisplayName("getWatchHistorySummary aggregates once and then serves the cached counters")
+    void getWatchHistorySummary_cachesCounters() throws Exception {
+        when(userWatchHistoryDao.getWatchHistoryStats(7)).thenReturn(stats());
+
+        WatchHistorySummaryResponse summary = service.getWatchHistorySummary(7);
+        assertEquals(3, summary.getTotalShows());
+        assertEquals(2L, summary.getStatusCounts().get("Want to Watch"));
+        assertEquals(0L, summary.getStatusCounts().get("Not Watched"));
+        assertEquals(List.of("Not Watched", "Want to Watch", "Currently Watching", "Already Watched"),
+            List.copyOf(summary.getStatusCounts().keySet()));
+        assertEquals(12, summary.getTotalEpisodesWatched());
+        assertEquals(4.5, summary.getAverageRating());
+
+        service.getWatchHistorySummary(7);
+        verify(userWatchHistoryDao, org.mockito.Mockito.times(1)).getWatchHistoryStats(7);
+    }
+
+    @Test
+    @DisplayName("adding entries adjusts the cached summary without a query")
+    void addShowToWatchHistory_updatesSummary() throws Exception {
+        when(userWatchHistoryDao.getWatchHistoryStats(7)).thenReturn(stats());
+        service.getWatchHistorySummary(7);
+
+        UserWatchHistoryRequest req = new UserWatchHistoryRequest(5, WatchStatus.CURRENTLY_WATCHING);
+        req.setEpisodesWatched(4);
+        req.setRating(3);
+        when(userWatchHistoryDao.addShowToWatchHistory(req, 7)).thenReturn(true);
+        service.addShowToWatchHistory(req, 7);
+
+        UserWatchHistoryRequest batchItem = new UserWatchHistoryRequest(6, WatchStatus.CURRENTLY_WATCHING);
+        when(userWatchHistoryDao.findWatchHistoryState(org.mockito.ArgumentMatchers.eq(7), org.mockito.ArgumentMatchers.any()))
+            .thenReturn(java.util.Map.of(6, false));
+        service.addShowsToWatchHistory(List.of(batchItem), 7);
+
+        WatchHistorySummaryResponse summary = service.getWatchHistorySummary(7);
+        assertEquals(2L, summary.getStatusCounts().get("Currently Watching"));
+        assertEquals(5, summary.getTotalShows());
+        assertEquals(16, summary.getTotalEpisodesWatched());
+        assertEquals(4.0, summary.getAverageRating());
+        verify(userWatchHistoryDao, org.mockito.Mockito.times(1)).getWatchHistoryStats(7);
+    }
+
+    @Test
+    @DisplayName("adds reject negative episode counts and out-of-range ratings")
+    void addShowToWatchHistory_rejectsInvalidProgress() throws Exception {
+        UserWatchHistoryRequest negative = new UserWatchHistoryRequest(5, WatchStatus.CURRENTLY_WATCHING);
+        negative.setEpisodesWatched(-1);
+        UserWatchHistoryRequest unrateable = new UserWatchHistoryRequest(6, WatchStatus.ALREADY_WATCHED);
+        unrateable.setRating(6);
+        assertThrows(IllegalArgumentException.class, () -> service.addShowToWatchHistory(negative, 7));
+        assertThrows(IllegalArgumentException.class, () -> service.addShowToWatchHistory(unrateable, 7));
+
+        when(userWatchHistoryDao.findWatchHistoryState(org.mockito.ArgumentMatchers.eq(7), org.mockito.ArgumentMatchers.anyCollection()))
+            .thenReturn(java.util.Map.of());
+        List<com.jmill29.tvtrackerapi.dto.WatchHistoryBatchItemResponse> results =
+            service.addShowsToWatchHistory(List.of(negative, unrateable), 7);
+        assertEquals(com.jmill29.tvtrackerapi.enums.BatchItemOutcome.INVALID, results.get(0).getOutcome());
+        assertEquals(com.jmill29.tvtrackerapi.enums.BatchItemOutcome.INVALID, results.get(1).getOutcome());
+        verify(userWatchHistoryDao, never()).addShowToWatchHistory(negative, 7);
+    }
+
+    private static Optional<UserWatchHistory> entry(WatchStatus status, int episodesWatched, Integer rating) {
+        return Optional.of(new UserWatchHistory(7, 5, status, episodesWatched, rating));
+    }
+
+    private static com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest episodes(int episodesWatched) {
+        com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest patch = new com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest();
+        patch.setEpisodesWatched(episodesWatched);
+        return patch;
+    }
+
+    @Test
+    @DisplayName("patchWatchHistory writes the patch and evicts the cached summary, since the replaced values are not read")
+    void patchWatchHistory_updatesWithSingleStatement() throws Exception {
+        com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest patch = episodes(7);
+        when(userWatchHistoryDao.patchWatchHistory(7, 5, patch)).thenReturn(true);
+        assertTrue(service.patchWatchHistory(7, 5, patch));
+
+        verify(summaryCache).evict(7);
+        verify(summaryCache, never()).recordChange(eq(7), any());
+        verifyNoInteractions(userService, showService);
+    }
+
+    @Test
+    @DisplayName("progress-only patches for an existing entry go to the write-behind buffer when it accepts them")
+    void patchWatchHistory_buffersProgress() throws Exception {
+        when(progressBuffer.isEnabled()).thenReturn(true);
+        when(userWatchHistoryDao.isShowInWatchHistory(7, 5)).thenReturn(true);
+        when(progressBuffer.offer(7, 5, 7)).thenReturn(true);
+        assertTrue(service.patchWatchHistory(7, 5, episodes(7)));
+        verify(userWatchHistoryDao, never()).patchWatchHistory(anyInt(), anyInt(), any());
+        verify(summaryCache, never()).evict(7);
+    }
+
+    @Test
+    @DisplayName("progress-only patches for a missing entry are not buffered and report the missing entry")
+    void patchWatchHistory_doesNotBufferMissingEntry() throws Exception {
+        com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest patch = episodes(7);
+        when(progressBuffer.isEnabled()).thenReturn(true);
+        when(userWatchHistoryDao.isShowInWatchHistory(7, 5)).thenReturn(false);
+        when(userWatchHistoryDao.patchWatchHistory(7, 5, patch)).thenReturn(false);
+        when(showService.findById(5)).thenReturn(java.util.Optional.of(mock(com.jmill29.tvtrackerapi.model.Show.class)));
+        assertThrows(WatchHistoryNotFoundException.class, () -> service.patchWatchHistory(7, 5, patch));
+        verify(progressBuffer, never()).offer(7, 5, 7);
+    }
+
+    @Test
+    @DisplayName("patches that set episodes with other fields discard buffered progress and write synchronously")
+    void patchWatchHistory_mixedPatchDiscardsBufferedProgress() throws Exception {
+        com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest patch = episodes(10);
+        patch.setStatus(WatchStatus.ALREADY_WATCHED);
+        when(userWatchHistoryDao.patchWatchHistory(7, 5, patch)).thenReturn(true);
+        assertTrue(service.patchWatchHistory(7, 5, patch));
+        verify(progressBuffer, never()).offer(7, 5, 10);
+        org.mockito.InOrder inOrder = org.mockito.Mockito.inOrder(progressBuffer, userWatchHistoryDao);
+        inOrder.verify(progressBuffer).discard(7, 5);
+        inOrder.verify(userWatchHistoryDao).patchWatchHistory(7, 5, patch);
+    }
+
+    @Test
+    @DisplayName("patchWatchHistory keeps the cached summary when only the favorite flag changes")
+    void patchWatchHistory_favoriteKeepsSummary() throws Exception {
+        com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest patch = new com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest();
+        patch.setFavorite(true);
+        when(userWatchHistoryDao.patchWatchHistory(7, 5, patch)).thenReturn(true);
+        assertTrue(service.patchWatchHistory(7, 5, patch));
+        verify(summaryCache, never()).evict(7);
+        verify(summaryCache, never()).recordChange(eq(7), any());
+    }
+
+    @Test
+    @DisplayName("patchWatchHistory validates fields before touching the database")
+    void patchWatchHistory_rejectsInvalidPatches() {
+        com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest badRating = new com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest();
+        badRating.setRating(0);
+        assertThrows(IllegalArgumentException.class, () -> service.patchWatchHistory(7, 5, null));
+        assertThrows(IllegalArgumentException.class, () -> service.patchWatchHistory(7, 5, new com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest()));
+        assertThrows(IllegalArgumentException.class, () -> service.patchWatchHistory(7, 5, episodes(-1)));
+        assertThrows(IllegalArgumentException.class, () -> service.patchWatchHistory(7, 5, badRating));
+        assertThrows(IllegalArgumentException.class, () -> service.patchWatchHistory(7, 0, episodes(1)));
+        assertThrows(IllegalArgumentException.class, () -> service.patchWatchHistory(0, 5, episodes(1)));
+        verifyNoInteractions(userWatchHistoryDao);
+    }
+
+    @Test
+    @DisplayName("patchWatchHistory distinguishes missing show from missing entry and wraps SQL exceptions")
+    void patchWatchHistory_throwsWhenNothingUpdated() throws Exception {
+        com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest patch = episodes(2);
+        when(userWatchHistoryDao.patchWatchHistory(7, 5, patch)).thenReturn(false);
+        when(showService.findById(5)).thenReturn(java.util.Optional.of(mock(com.jmill29.tvtrackerapi.model.Show.class)));
+        assertThrows(WatchHistoryNotFoundException.class, () -> service.patchWatchHistory(7, 5, patch));
+        when(showService.findById(5)).thenReturn(java.util.Optional.empty());
+        assertThrows(ShowNotFoundException.class, () -> service.patchWatchHistory(7, 5, patch));
+
+        when(userWatchHistoryDao.patchWatchHistory(7, 5, patch)).thenThrow(new java.sql.SQLException("DB error"));
+        assertThrows(com.jmill29.tvtrackerapi.exception.DatabaseException.class, () -> service.patchWatchHistory(7, 5, patch));
+    }
+
+    @Test
+    @DisplayName("updates and deletes adjust the cached summary by the entry they replaced")
+    void updateAndDelete_adjustSummary() throws Exception {
+        WatchHistoryStats cached = new WatchHistoryStats();
+        cached.addEntry(WatchStatus.CURRENTLY_WATCHING, 3, 8);
+        cached.addEntry(WatchStatus.WANT_TO_WATCH, 0, null);
+        summaryCache.put(7, cached, summaryCache.generation());
+
+        UserWatchHistoryRequest req = new UserWatchHistoryRequest(5, WatchStatus.ALREADY_WATCHED);
+        when(userWatchHistoryDao.updateWatchStatus(req, 7)).thenReturn(entry(WatchStatus.CURRENTLY_WATCHING, 3, 8));
+        service.updateWatchStatus(req, 7);
+        WatchHistoryStats expected = new WatchHistoryStats();
+        expected.addEntry(WatchStatus.ALREADY_WATCHED, 3, 8);
+        expected.addEntry(WatchStatus.WANT_TO_WATCH, 0, null);
+        assertEquals(expected, summaryCache.get(7));
+
+        when(userWatchHistoryDao.deleteShowFromWatchHistory(7, 5)).thenReturn(entry(WatchStatus.ALREADY_WATCHED, 3, 8));
+        service.deleteShowFromWatchHistory(7, 5);
+        expected = new WatchHistoryStats();
+        expected.addEntry(WatchStatus.WANT_TO_WATCH, 0, null);
+        assertEquals(expected, summaryCache.get(7));
+        verify(summaryCache, never()).evict(7);
+    }
+
+    @Test
+    @DisplayName("an update in upsert mode, which does not read the replaced values, evicts the cached summary")
+    void updateWatchStatus_upsertEvictsSummary() throws Exception {
+        summaryCache.put(7, new WatchHistoryStats(), summaryCache.generation());
+        UserWatchHistoryRequest req = new UserWatchHistoryRequest(5, WatchStatus.WANT_TO_WATCH);
+        when(userWatchHistoryDao.updateWatchStatus(req, 7)).thenReturn(Optional.of(new UserWatchHistory(7, 5, null)));
+        assertTrue(service.updateWatchStatus(req, 7));
+
+        verify(summaryCache).evict(7);
+        assertNull(summaryCache.get(7));
+    }
+
+    @Test
+    @DisplayName("getWatchHistorySummary rejects invalid user IDs and wraps SQL exceptions")
+    void getWatchHistorySummary_errors() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> service.getWatchHistorySummary(0));
+        when(userWatchHistoryDao.getWatchHistoryStats(7)).thenThrow(new java.sql.SQLException("DB error"));
+        assertThrows(com.jmill29.tvtrackerapi.exception.DatabaseException.class, () -> service.getWatchHistorySummary(7));
+    }
+
+    @Test
+    @DisplayName("reconcileSummaries replaces drifted counters with fresh aggregates")
+    void reconcileSummaries_correctsDrift() throws Exception {
+        summaryCache.put(7, new WatchHistoryStats(), summaryCache.generation());
+        when(userWatchHistoryDao.getWatchHistoryStats(7)).thenReturn(stats());
+
+        service.reconcileSummaries();
+        assertEquals(stats(), summaryCache.get(7));
+    }
 }
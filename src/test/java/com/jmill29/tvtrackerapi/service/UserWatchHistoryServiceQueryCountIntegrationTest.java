@@ -0,0 +1,124 @@
+package com.jmill29.tvtrackerapi.service;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.jmill29.tvtrackerapi.cache.WatchSummaryCache;
+import com.jmill29.tvtrackerapi.dao.UserWatchHistoryDao;
+import com.jmill29.tvtrackerapi.dto.UserWatchHistoryPatchRequest;
+import com.jmill29.tvtrackerapi.dto.UserWatchHistoryRequest;
+import com.jmill29.tvtrackerapi.dto.WatchHistorySummaryResponse;
+import com.jmill29.tvtrackerapi.enums.WatchStatus;
+import static com.jmill29.tvtrackerapi.metrics.QueryCountAssertions.assertQueryCount;
+import static com.jmill29.tvtrackerapi.metrics.QueryCountAssertions.countQueries;
+
+/**
+ * Pins the number of statements and connection checkouts behind each watch history operation, so a change
+ * that adds a query to a hot path fails here instead of showing up as an N+1 in production.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = Replace.ANY)
+@ActiveProfiles("test")
+@DisplayName("UserWatchHistoryService Query Count Integration Test")
+class UserWatchHistoryServiceQueryCountIntegrationTest {
+
+    @Autowired
+    private UserWatchHistoryService userWatchHistoryService;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private WatchSummaryCache watchSummaryCache;
+    @Autowired
+    private UserWatchHistoryDao userWatchHistoryDao;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM user_watch_history");
+            stmt.execute("DELETE FROM users");
+            stmt.execute("DELETE FROM tv_shows");
+            stmt.execute("INSERT INTO users (user_id, name, username, password, email, enabled) VALUES (1, 'Test User', 'testuser', 'pass', 'test@example.com', TRUE)");
+            stmt.execute("INSERT INTO tv_shows (show_id, show_name, description, image_url, num_episodes, release_year) VALUES (1, 'Test Show', 'A test show', 'test.jpg', 10, 2020)");
+            stmt.execute("INSERT INTO tv_shows (show_id, show_name, description, image_url, num_episodes, release_year) VALUES (2, 'Other Show', 'Another show', 'other.jpg', 8, 2021)");
+            stmt.execute("INSERT INTO user_watch_history (user_id, show_id, status) VALUES (1, 1, 'Want to Watch')");
+        }
+        // The rows above were written behind the service's back
+        watchSummaryCache.evictAll();
+    }
+
+    @Test
+    @DisplayName("getWatchHistoryByUserId checks the user, then runs one history query on the same connection")
+    void getWatchHistoryByUserId_queryCount() {
+        assertQueryCount(2, 1, () -> userWatchHistoryService.getWatchHistoryByUserId(1, false));
+        assertQueryCount(2, 1, () -> userWatchHistoryService.getWatchHistoryByUserId(1, true));
+    }
+
+    @Test
+    @DisplayName("writes by username run every lookup and the write on one connection")
+    void writesByUsername_shareOneConnection() {
+        assertEquals(1, countQueries(() -> assertTrue(userWatchHistoryService.addShowToWatchHistory(
+            new UserWatchHistoryRequest(2, WatchStatus.CURRENTLY_WATCHING), "testuser"))).getConnections());
+        assertEquals(1, countQueries(() -> assertTrue(userWatchHistoryService.updateWatchStatus(
+            new UserWatchHistoryRequest(1, WatchStatus.ALREADY_WATCHED), "testuser"))).getConnections());
+        assertEquals(1, countQueries(() -> assertTrue(
+            userWatchHistoryService.deleteShowFromWatchHistory("testuser", 2))).getConnections());
+    }
+
+    @Test
+    @DisplayName("add by user ID is a single statement; update and delete lock and read the row, then write it")
+    void writesByUserId_queryCount() {
+        assertQueryCount(1, 1, () -> assertTrue(userWatchHistoryService.addShowToWatchHistory(
+            new UserWatchHistoryRequest(2, WatchStatus.CURRENTLY_WATCHING), 1)));
+        assertQueryCount(2, 1, () -> assertTrue(userWatchHistoryService.updateWatchStatus(
+            new UserWatchHistoryRequest(1, WatchStatus.ALREADY_WATCHED), 1)));
+        assertQueryCount(2, 1, () -> assertTrue(userWatchHistoryService.deleteShowFromWatchHistory(1, 2)));
+    }
+
+    @Test
+    @DisplayName("an episode progress patch is a single UPDATE that does not read the row first")
+    void patchWatchHistory_queryCount() {
+        UserWatchHistoryPatchRequest patch = new UserWatchHistoryPatchRequest();
+        patch.setEpisodesWatched(3);
+        assertQueryCount(1, 1, () -> assertTrue(userWatchHistoryService.patchWatchHistory(1, 1, patch)));
+        assertEquals(3, userWatchHistoryService.getWatchHistorySummary(1).getTotalEpisodesWatched());
+    }
+
+    @Test
+    @DisplayName("getWatchHistorySummary aggregates once, adds, updates and deletes keep it current without a query, and a patch makes it re-aggregate")
+    void getWatchHistorySummary_queryCount() throws Exception {
+        assertQueryCount(1, 1, () -> userWatchHistoryService.getWatchHistorySummary(1));
+        assertQueryCount(0, 0, () -> userWatchHistoryService.getWatchHistorySummary(1));
+
+        userWatchHistoryService.addShowToWatchHistory(new UserWatchHistoryRequest(2, WatchStatus.CURRENTLY_WATCHING), 1);
+        assertQueryCount(0, 0, () -> assertEquals(2, userWatchHistoryService.getWatchHistorySummary(1).getTotalShows()));
+
+        UserWatchHistoryPatchRequest patch = new UserWatchHistoryPatchRequest();
+        patch.setEpisodesWatched(4);
+        patch.setRating(4);
+        userWatchHistoryService.patchWatchHistory(1, 2, patch);
+        assertQueryCount(1, 1, () -> userWatchHistoryService.getWatchHistorySummary(1));
+
+        userWatchHistoryService.updateWatchStatus(new UserWatchHistoryRequest(2, WatchStatus.ALREADY_WATCHED), 1);
+        userWatchHistoryService.deleteShowFromWatchHistory(1, 1);
+        assertQueryCount(0, 0, () -> {
+            WatchHistorySummaryResponse summary = userWatchHistoryService.getWatchHistorySummary(1);
+            assertEquals(1, summary.getTotalShows());
+            assertEquals(4, summary.getTotalEpisodesWatched());
+            assertEquals(4.0, summary.getAverageRating());
+        });
+        assertEquals(userWatchHistoryDao.getWatchHistoryStats(1), watchSummaryCache.get(1));
+    }
+}
@@ -0,0 +1,202 @@
+package com.jmill29.tvtrackerapi.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import org.mockito.MockitoAnnotations;
+
+import com.jmill29.tvtrackerapi.cache.WatchSummaryCache;
+import com.jmill29.tvtrackerapi.dao.UserWatchHistoryDao;
+import com.jmill29.tvtrackerapi.model.EpisodeProgress;
+
+@DisplayName("WatchProgressBuffer Test")
+class WatchProgressBufferTest {
+    @Mock
+    private UserWatchHistoryDao userWatchHistoryDao;
+
+    private WatchSummaryCache summaryCache;
+    private final List<List<EpisodeProgress>> batches = new ArrayList<>();
+    /** Flushes handed to the executor, run by {@link #runRequestedFlushes()} */
+    private final List<Runnable> requestedFlushes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        summaryCache = spy(new WatchSummaryCache(10));
+        doAnswer(invocation -> {
+            List<EpisodeProgress> batch = invocation.getArgument(0);
+            batches.add(List.copyOf(batch));
+            return batch.size();
+        }).when(userWatchHistoryDao).updateEpisodesWatched(anyList());
+    }
+
+    private WatchProgressBuffer buffer(int flushSize, int maxPending) {
+        return new WatchProgressBuffer(userWatchHistoryDao, summaryCache, requestedFlushes::add, true, flushSize, maxPending);
+    }
+
+    private void runRequestedFlushes() {
+        List<Runnable> flushes = List.copyOf(requestedFlushes);
+        requestedFlushes.clear();
+        flushes.forEach(Runnable::run);
+    }
+
+    @Test
+    @DisplayName("updates for the same user and show are coalesced into the latest count")
+    void coalescesPerPair() {
+        WatchProgressBuffer buffer = buffer(10, 100);
+        assertTrue(buffer.offer(1, 5, 1));
+        assertTrue(buffer.offer(1, 5, 2));
+        assertTrue(buffer.offer(1, 5, 3));
+        assertTrue(buffer.offer(2, 5, 7));
+        assertEquals(2, buffer.getPendingCount());
+        assertEquals(2, buffer.getCoalescedCount());
+
+        buffer.flush();
+        assertEquals(1, batches.size());
+        assertTrue(batches.get(0).containsAll(List.of(new EpisodeProgress(1, 5, 3), new EpisodeProgress(2, 5, 7))));
+        assertEquals(0, buffer.getPendingCount());
+        assertEquals(2, buffer.getFlushedCount());
+        verify(summaryCache).evict(1);
+        verify(summaryCache).evict(2);
+    }
+
+    @Test
+    @DisplayName("reaching the flush size hands one flush to the executor instead of the calling thread")
+    void flushesAtThreshold() {
+        WatchProgressBuffer buffer = buffer(2, 100);
+        buffer.offer(1, 1, 1);
+        assertTrue(requestedFlushes.isEmpty());
+        buffer.offer(1, 2, 1);
+        buffer.offer(1, 3, 1);
+        assertTrue(batches.isEmpty());
+        assertEquals(1, requestedFlushes.size());
+
+        runRequestedFlushes();
+        assertEquals(List.of(2, 1), batches.stream().map(List::size).toList());
+        assertEquals(0, buffer.getPendingCount());
+        assertEquals(1, buffer.getFlushCount());
+    }
+
+    @Test
+    @DisplayName("a backlog left by a failed flush is written in batches of the flush size")
+    void flushesBacklogInBatches() throws Exception {
+        WatchProgressBuffer buffer = buffer(2, 100);
+        doAnswer(invocation -> {
+            throw new java.sql.SQLException("DB error");
+        }).when(userWatchHistoryDao).updateEpisodesWatched(anyList());
+        buffer.offer(1, 1, 1);
+        buffer.offer(1, 2, 1);
+        runRequestedFlushes();
+        assertEquals(2, buffer.getPendingCount());
+
+        doAnswer(invocation -> {
+            batches.add(List.copyOf(invocation.<List<EpisodeProgress>>getArgument(0)));
+            return 0;
+        }).when(userWatchHistoryDao).updateEpisodesWatched(anyList());
+        buffer.offer(1, 3, 1);
+        runRequestedFlushes();
+        assertEquals(List.of(2, 1), batches.stream().map(List::size).toList());
+        assertEquals(0, buffer.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("a failed flush puts counts back without overwriting newer ones")
+    void failedFlushIsRetried() throws Exception {
+        WatchProgressBuffer buffer = buffer(10, 100);
+        buffer.offer(1, 5, 3);
+        buffer.offer(1, 6, 4);
+        doAnswer(invocation -> {
+            // A newer report for (1, 5) arrives while the failing batch is in flight
+            buffer.offer(1, 5, 9);
+            throw new java.sql.SQLException("DB error");
+        }).when(userWatchHistoryDao).updateEpisodesWatched(anyList());
+
+        buffer.flush();
+        assertEquals(1, buffer.getFailedFlushCount());
+        assertEquals(2, buffer.getPendingCount());
+        verify(summaryCache, never()).evict(1);
+
+        doAnswer(invocation -> {
+            batches.add(List.copyOf(invocation.<List<EpisodeProgress>>getArgument(0)));
+            return 2;
+        }).when(userWatchHistoryDao).updateEpisodesWatched(anyList());
+        buffer.flush();
+        assertTrue(batches.get(0).containsAll(List.of(new EpisodeProgress(1, 5, 9), new EpisodeProgress(1, 6, 4))));
+    }
+
+    @Test
+    @DisplayName("new pairs are refused once max pending pairs are waiting, but pending pairs still coalesce")
+    void refusesWhenFull() throws Exception {
+        WatchProgressBuffer buffer = buffer(2, 2);
+        doAnswer(invocation -> {
+            throw new java.sql.SQLException("DB error");
+        }).when(userWatchHistoryDao).updateEpisodesWatched(anyList());
+        buffer.offer(1, 1, 1);
+        buffer.offer(1, 2, 1);
+        runRequestedFlushes();
+        assertEquals(2, buffer.getPendingCount());
+
+        assertFalse(buffer.offer(1, 3, 1));
+        assertEquals(1, buffer.getRefusedCount());
+        assertTrue(buffer.offer(1, 1, 5));
+        assertEquals(2, buffer.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("discard drops a pending count and close flushes the rest")
+    void discardAndClose() {
+        WatchProgressBuffer buffer = buffer(10, 100);
+        buffer.offer(1, 5, 3);
+        buffer.offer(1, 6, 4);
+        buffer.discard(1, 5);
+        buffer.close();
+        assertEquals(List.of(List.of(new EpisodeProgress(1, 6, 4))), batches);
+    }
+
+    @Test
+    @DisplayName("a disabled buffer refuses every update and never touches the database")
+    void disabledBufferRefuses() {
+        WatchProgressBuffer buffer = new WatchProgressBuffer(userWatchHistoryDao, summaryCache, requestedFlushes::add, false, 10, 100);
+        assertFalse(buffer.isEnabled());
+        assertFalse(buffer.offer(1, 5, 3));
+        buffer.discard(1, 5);
+        buffer.flush();
+        verifyNoInteractions(userWatchHistoryDao);
+    }
+
+    @Test
+    @DisplayName("a rejected flush request leaves the counts for the periodic flush and allows a later request")
+    void rejectedFlushRequestFallsBackToPeriodicFlush() {
+        WatchProgressBuffer buffer = new WatchProgressBuffer(userWatchHistoryDao, summaryCache, task -> {
+            throw new RejectedExecutionException("shutting down");
+        }, true, 1, 100);
+        assertTrue(buffer.offer(1, 5, 3));
+        assertTrue(batches.isEmpty());
+        assertEquals(1, buffer.getPendingCount());
+
+        buffer.flush();
+        assertEquals(List.of(List.of(new EpisodeProgress(1, 5, 3))), batches);
+    }
+
+    @Test
+    @DisplayName("constructor rejects invalid sizes")
+    void rejectsInvalidSizes() {
+        assertThrows(IllegalArgumentException.class, () -> buffer(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> buffer(10, 5));
+    }
+}
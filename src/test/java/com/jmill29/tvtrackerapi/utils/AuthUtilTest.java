@@ -42,4 +42,15 @@ class AuthUtilTest {
         String header = "Basic " + base64;
         assertEquals("usernameonly", AuthUtil.extractUsernameFromAuthHeader(header));
     }
+
+    @Test
+    @DisplayName("extractUsernameFromAuthHeader returns subject of a Bearer token")
+    void extractUsernameFromAuthHeader_bearerToken_returnsSubject() {
+        com.jmill29.tvtrackerapi.security.TokenService tokenService =
+            new com.jmill29.tvtrackerapi.security.TokenService("0123456789abcdef0123456789abcdef", 3600);
+        String token = tokenService.issueToken(
+            org.springframework.security.authentication.UsernamePasswordAuthenticationToken.authenticated(
+                new com.jmill29.tvtrackerapi.security.AuthenticatedUser(1, "testuser", "", java.util.List.of()), null, java.util.List.of()));
+        assertEquals("testuser", AuthUtil.extractUsernameFromAuthHeader("Bearer " + token));
+    }
 }
@@ -1,14 +1,4 @@
--- Copied from capstone_schema_seed.sql for H2 test initialization
-
-
--- Drop tables if they already exist (for reset convenience)
-DROP TABLE IF EXISTS user_watch_history;
-DROP TABLE IF EXISTS show_genres;
-DROP TABLE IF EXISTS authorities;
-DROP TABLE IF EXISTS genres;
-DROP TABLE IF EXISTS tv_shows;
-DROP TABLE IF EXISTS users;
-
+-- H2 copy of db/migration/mysql/V1__initial_schema.sql for the embedded test database
 
 -- Users Table
 CREATE TABLE users (
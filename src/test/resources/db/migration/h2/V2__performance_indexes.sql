@@ -0,0 +1,11 @@
+-- H2 copy of db/migration/mysql/V2__performance_indexes.sql for the embedded test database
+
+CREATE INDEX idx_show_genres_genre ON show_genres (genre_id, show_id);
+
+CREATE INDEX idx_user_watch_history_show ON user_watch_history (show_id);
+
+ALTER TABLE tv_shows ADD COLUMN show_name_lower VARCHAR(255) GENERATED ALWAYS AS (LOWER(show_name));
+CREATE INDEX idx_tv_shows_name_lower_year ON tv_shows (show_name_lower, release_year);
+
+ALTER TABLE genres ADD COLUMN name_lower VARCHAR(100) GENERATED ALWAYS AS (LOWER(name));
+CREATE INDEX idx_genres_name_lower ON genres (name_lower);
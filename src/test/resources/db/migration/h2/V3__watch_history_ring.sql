@@ -0,0 +1,12 @@
+-- H2 copy of db/migration/mysql/V3__watch_history_ring.sql for the embedded test database
+
+CREATE TABLE watch_history_ring (
+    ring_id TINYINT PRIMARY KEY,
+    members VARCHAR(1000) NOT NULL,
+    target_members VARCHAR(1000) DEFAULT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE watch_history_moved_users (
+    user_id INT PRIMARY KEY
+);
@@ -0,0 +1,6 @@
+-- H2 copy of db/migration/mysql/V4__watch_history_instances.sql for the embedded test database
+
+CREATE TABLE watch_history_instances (
+    instance_id VARCHAR(64) PRIMARY KEY,
+    heartbeat_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
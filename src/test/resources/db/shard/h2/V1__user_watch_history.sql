@@ -0,0 +1,14 @@
+-- H2 copy of db/shard/mysql/V1__user_watch_history.sql for embedded shard databases in tests
+
+CREATE TABLE user_watch_history (
+    user_id INT NOT NULL,
+    show_id INT NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    episodes_watched INT DEFAULT 0,
+    rating INT DEFAULT NULL CHECK (rating IS NULL OR rating BETWEEN 1 AND 5),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    favorite BOOLEAN NOT NULL DEFAULT FALSE,
+    PRIMARY KEY (user_id, show_id)
+);
+
+CREATE INDEX idx_user_watch_history_show ON user_watch_history (show_id);